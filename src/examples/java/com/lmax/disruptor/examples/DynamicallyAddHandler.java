@@ -1,16 +1,13 @@
 package com.lmax.disruptor.examples;
 
-import com.lmax.disruptor.BatchEventProcessor;
-import com.lmax.disruptor.BatchEventProcessorBuilder;
 import com.lmax.disruptor.EventHandler;
-import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.examples.support.StubEvent;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class DynamicallyAddHandler
 {
@@ -41,38 +38,26 @@ public class DynamicallyAddHandler
         }
     }
 
-    public static void main(final String[] args) throws InterruptedException
+    public static void main(final String[] args) throws InterruptedException, TimeoutException
     {
-        ExecutorService executor = Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE);
-
         // Build a disruptor and start it.
         Disruptor<StubEvent> disruptor = new Disruptor<>(
                 StubEvent.EVENT_FACTORY, 1024, DaemonThreadFactory.INSTANCE);
-        RingBuffer<StubEvent> ringBuffer = disruptor.start();
+        disruptor.start();
 
-        // Construct 2 batch event processors.
+        // Add 2 handlers to the running disruptor, the second processing events after the first.
+        // Each is started straight away and gates the ring buffer until another handler follows it.
         DynamicHandler handler1 = new DynamicHandler();
-        BatchEventProcessor<StubEvent> processor1 =
-                new BatchEventProcessorBuilder().build(ringBuffer, ringBuffer.newBarrier(), handler1);
+        disruptor.addEventHandler(handler1);
 
         DynamicHandler handler2 = new DynamicHandler();
-        BatchEventProcessor<StubEvent> processor2 =
-                new BatchEventProcessorBuilder().build(ringBuffer, ringBuffer.newBarrier(processor1.getSequence()), handler2);
-
-        // Dynamically add both sequences to the ring buffer
-        ringBuffer.addGatingSequences(processor1.getSequence(), processor2.getSequence());
-
-        // Start the new batch processors.
-        executor.execute(processor1);
-        executor.execute(processor2);
+        disruptor.addEventHandler(handler2, handler1);
 
-        // Remove a processor.
+        // Remove a handler.
 
-        // Stop the processor
-        processor2.halt();
-        // Wait for shutdown the complete
+        // Halts the processor, waits for its thread to exit and removes its gating sequence,
+        // leaving handler1 at the end of the chain
+        disruptor.removeEventHandler(handler2, 1, TimeUnit.SECONDS);
         handler2.awaitShutdown();
-        // Remove the gating sequence from the ring buffer
-        ringBuffer.removeGatingSequence(processor2.getSequence());
     }
 }
@@ -200,6 +200,46 @@ public class MultiProducerSequencerBenchmark
         s.value2.publish(2L);
     }
 
+    /*
+     * Batch publish and discovery of 256 slots: per slot flags (as of disruptor v3.4.2) compared with run markers
+     */
+    private static final int BATCH_SIZE = 256;
+
+    @State(Scope.Thread)
+    public static class StateBatchPublish
+    {
+        Sequencer perSlot = new MultiProducerSequencerVarHandle(1024, new BlockingWaitStrategy());
+        Sequencer runMarker = new MultiProducerSequencer(1024, new BlockingWaitStrategy());
+        long lo = 0;
+
+        long nextLo()
+        {
+            final long current = lo;
+            lo += BATCH_SIZE;
+            return current;
+        }
+    }
+
+    @Benchmark
+    @Group("BatchPublishPerSlot")
+    public long batchPublishPerSlot(final StateBatchPublish s, final ThreadPinningState t)
+    {
+        final long lo = s.nextLo();
+        final long hi = lo + BATCH_SIZE - 1;
+        s.perSlot.publish(lo, hi);
+        return s.perSlot.getHighestPublishedSequence(lo, hi);
+    }
+
+    @Benchmark
+    @Group("BatchPublishRunMarker")
+    public long batchPublishRunMarker(final StateBatchPublish s, final ThreadPinningState t)
+    {
+        final long lo = s.nextLo();
+        final long hi = lo + BATCH_SIZE - 1;
+        s.runMarker.publish(lo, hi);
+        return s.runMarker.getHighestPublishedSequence(lo, hi);
+    }
+
     public static void main(final String[] args) throws RunnerException
     {
         Options opt = new OptionsBuilder()
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Batching, lifecycle and exception handling shared by the event processors of the ring buffers that hold primitive
+ * values directly, such as {@link LongBatchEventProcessor} and {@link IntBatchEventProcessor}.  Only reading a
+ * value and passing it to the handler is specific to the type of value.
+ *
+ * @param <T> the boxed type of the values, as passed to the {@link ExceptionHandler}.
+ */
+abstract class AbstractPrimitiveBatchEventProcessor<T>
+        implements EventProcessor
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private ExceptionHandler<? super T> exceptionHandler;
+    private final SequenceBarrier sequenceBarrier;
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    AbstractPrimitiveBatchEventProcessor(final SequenceBarrier sequenceBarrier)
+    {
+        this.sequenceBarrier = sequenceBarrier;
+    }
+
+    /**
+     * Pass the value published with a sequence to the handler.
+     *
+     * @param sequence   of the value.
+     * @param endOfBatch flag to indicate if this is the last value in a batch.
+     * @throws Exception if the handler throws.
+     */
+    abstract void onEvent(long sequence, boolean endOfBatch) throws Exception;
+
+    /**
+     * The boxed value published with a sequence, read only to report an exception from the handler.
+     *
+     * @param sequence of the value.
+     * @return the value.
+     */
+    abstract T valueAt(long sequence);
+
+    /**
+     * Notify the handler that this processor is starting up.
+     */
+    abstract void onStart();
+
+    /**
+     * Notify the handler that this processor is shutting down.
+     */
+    abstract void onShutdown();
+
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the event processor.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE) // Successful CAS
+        {
+            sequenceBarrier.clearAlert();
+
+            notifyStart();
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    processEvents();
+                }
+            }
+            finally
+            {
+                notifyShutdown();
+                running.set(IDLE);
+                sequenceBarrier.signalProducers();
+            }
+        }
+        else
+        {
+            if (witnessValue == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                notifyStart();
+                notifyShutdown();
+            }
+        }
+    }
+
+    private void processEvents()
+    {
+        long nextSequence = sequence.get() + 1L;
+
+        while (true)
+        {
+            try
+            {
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                if (availableSequence < nextSequence)
+                {
+                    continue;
+                }
+
+                while (nextSequence <= availableSequence)
+                {
+                    try
+                    {
+                        onEvent(nextSequence, nextSequence == availableSequence);
+                    }
+                    catch (final Throwable ex)
+                    {
+                        getExceptionHandler().handleEventException(ex, nextSequence, valueAt(nextSequence));
+                    }
+                    nextSequence++;
+                }
+
+                sequence.set(availableSequence);
+                sequenceBarrier.signalProducers();
+            }
+            catch (final TimeoutException e)
+            {
+                // Nothing to report, wait again
+            }
+            catch (final AlertException ex)
+            {
+                if (running.get() != RUNNING)
+                {
+                    break;
+                }
+            }
+            catch (final InterruptedException ex)
+            {
+                getExceptionHandler().handleEventException(ex, sequence.get(), null);
+            }
+        }
+    }
+
+    /**
+     * Notifies the handler when this processor is starting up.
+     */
+    private void notifyStart()
+    {
+        try
+        {
+            onStart();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnStartException(ex);
+        }
+    }
+
+    /**
+     * Notifies the handler immediately prior to this processor shutting down.
+     */
+    private void notifyShutdown()
+    {
+        try
+        {
+            onShutdown();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private ExceptionHandler<? super T> getExceptionHandler()
+    {
+        ExceptionHandler<? super T> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+abstract class PrimitiveRingBufferPad
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+}
+
+/**
+ * Sequencing shared by the ring buffers that hold primitive values directly in a padded array, such as
+ * {@link LongRingBuffer} and {@link IntRingBuffer}.  Only the access to the array is specific to the type of value.
+ */
+abstract class AbstractPrimitiveRingBuffer extends PrimitiveRingBufferPad implements Cursored
+{
+    private final long indexMask;
+    protected final int bufferSize;
+    protected final Sequencer sequencer;
+
+    AbstractPrimitiveRingBuffer(final Sequencer sequencer)
+    {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+
+        this.indexMask = bufferSize - 1;
+    }
+
+    protected final int indexOf(final long sequence)
+    {
+        return (int) (sequence & indexMask);
+    }
+
+    /**
+     * Claim and publish a run of values in batches of at most the buffer size, copying each batch into the entries
+     * with {@link System#arraycopy(Object, int, Object, int, int)}.
+     *
+     * @param entries    the padded array of the ring buffer.
+     * @param bufferPad  the number of elements of padding before the first entry.
+     * @param values     an array of the same type as the entries.
+     * @param offset     of the first value to publish.
+     * @param length     the number of values to publish.
+     * @return the sequence of the last value, or the cursor if there are no values.
+     */
+    protected final long publishAll(final Object entries, final int bufferPad, final Object values, final int offset, final int length)
+    {
+        long hi = sequencer.getCursor();
+        int published = 0;
+        while (published < length)
+        {
+            final int batchSize = Math.min(length - published, bufferSize);
+            hi = sequencer.next(batchSize);
+            final long lo = hi - (batchSize - 1);
+
+            final int index = indexOf(lo);
+            final int untilWrap = Math.min(batchSize, bufferSize - index);
+            System.arraycopy(values, offset + published, entries, bufferPad + index, untilWrap);
+            System.arraycopy(values, offset + published + untilWrap, entries, bufferPad, batchSize - untilWrap);
+
+            sequencer.publish(lo, hi);
+            published += batchSize;
+        }
+
+        return hi;
+    }
+
+    /**
+     * Determines if the value for a given sequence is currently available.
+     *
+     * @param sequence The sequence to identify the entry.
+     * @return If the value published with the given sequence number is currently available.
+     * @see RingBuffer#isAvailable(long)
+     */
+    public boolean isAvailable(final long sequence)
+    {
+        return sequencer.isAvailable(sequence);
+    }
+
+    /**
+     * Add the specified gating sequences to this instance of the Disruptor.  They will
+     * safely and atomically added to the list of gating sequences.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Get the minimum sequence value from all of the gating sequences
+     * added to this ringBuffer.
+     *
+     * @return The minimum gating sequence or the cursor sequence if
+     * no sequences have been added.
+     */
+    public long getMinimumGatingSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    /**
+     * Remove the specified sequence from this ringBuffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which values
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Get the current cursor value for the ring buffer.  The actual value received
+     * will depend on the type of {@link Sequencer} that is being used.
+     *
+     * @see MultiProducerSequencer
+     * @see SingleProducerSequencer
+     */
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * The number of values the buffer can hold.
+     *
+     * @return size of buffer
+     */
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    /**
+     * Get the remaining capacity for this ring buffer.
+     *
+     * @return The number of slots remaining.
+     */
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+}
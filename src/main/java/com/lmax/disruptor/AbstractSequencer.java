@@ -17,31 +17,54 @@ package com.lmax.disruptor;
 
 import com.lmax.disruptor.util.Util;
 
+import java.lang.invoke.VarHandle;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
 /**
  * Base class for the various sequencer types (single/multi).  Provides
- * common functionality like the management of gating sequences (add/remove) and
- * ownership of the current cursor.
+ * common functionality like the management of gating sequences (add/remove),
+ * ownership of the current cursor and waiting for capacity when the ring is full.
  */
 public abstract class AbstractSequencer implements Sequencer
 {
     private static final AtomicReferenceFieldUpdater<AbstractSequencer, Sequence[]> SEQUENCE_UPDATER =
         AtomicReferenceFieldUpdater.newUpdater(AbstractSequencer.class, Sequence[].class, "gatingSequences");
+    static final ProducerWaitStrategy DEFAULT_PRODUCER_WAIT_STRATEGY = new SleepingWaitStrategy(0, 1L);
 
     protected final int bufferSize;
     protected final WaitStrategy waitStrategy;
+    protected final ProducerWaitStrategy producerWaitStrategy;
     protected final Sequence cursor = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
     protected volatile Sequence[] gatingSequences = new Sequence[0];
+    private final Cursored minimumGatingSequence = this::getMinimumSequence;
+    private final Queue<Thread> progressWaiters = new ConcurrentLinkedQueue<>();
 
     /**
-     * Create with the specified buffer size and wait strategy.
+     * Create with the specified buffer size and wait strategy.  Producers waiting for capacity
+     * will park for the shortest possible time between checks of the gating sequences.
      *
      * @param bufferSize   The total number of entries, must be a positive power of 2.
      * @param waitStrategy The wait strategy used by this sequencer
      */
     public AbstractSequencer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        this(bufferSize, waitStrategy, DEFAULT_PRODUCER_WAIT_STRATEGY);
+    }
+
+    /**
+     * Create with the specified buffer size, wait strategy and producer wait strategy.
+     *
+     * @param bufferSize           The total number of entries, must be a positive power of 2.
+     * @param waitStrategy         The wait strategy used by consumers of this sequencer
+     * @param producerWaitStrategy The wait strategy used by producers waiting for the gating sequences
+     *                             to free enough capacity for a claim.
+     */
+    public AbstractSequencer(final int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy)
     {
         if (bufferSize < 1)
         {
@@ -54,6 +77,7 @@ public abstract class AbstractSequencer implements Sequencer
 
         this.bufferSize = bufferSize;
         this.waitStrategy = waitStrategy;
+        this.producerWaitStrategy = producerWaitStrategy;
     }
 
     /**
@@ -65,6 +89,15 @@ public abstract class AbstractSequencer implements Sequencer
         return cursor.get();
     }
 
+    /**
+     * @see Sequencer#getWaitStrategy()
+     */
+    @Override
+    public final WaitStrategy getWaitStrategy()
+    {
+        return waitStrategy;
+    }
+
     /**
      * @see Sequencer#getBufferSize()
      */
@@ -89,7 +122,14 @@ public abstract class AbstractSequencer implements Sequencer
     @Override
     public boolean removeGatingSequence(final Sequence sequence)
     {
-        return SequenceGroups.removeSequence(this, SEQUENCE_UPDATER, sequence);
+        final boolean removed = SequenceGroups.removeSequence(this, SEQUENCE_UPDATER, sequence);
+        if (removed)
+        {
+            // The removed sequence may have been the one holding back the minimum, so blocked producers re-check
+            signalProducers();
+        }
+
+        return removed;
     }
 
     /**
@@ -110,6 +150,77 @@ public abstract class AbstractSequencer implements Sequencer
         return new ProcessingSequenceBarrier(this, waitStrategy, cursor, sequencesToTrack);
     }
 
+    /**
+     * @see Sequencer#signalProducers()
+     */
+    @Override
+    public void signalProducers()
+    {
+        producerWaitStrategy.signalProducers();
+
+        // Orders the consumer's release store of its sequence before the read of the waiters, pairing with the
+        // add to the queue in awaitConsumerProgress, so that either the waiter sees the new sequence or is unparked
+        VarHandle.fullFence();
+        if (!progressWaiters.isEmpty())
+        {
+            progressWaiters.forEach(LockSupport::unpark);
+        }
+    }
+
+    /**
+     * @see Sequencer#awaitConsumerProgress(BooleanSupplier, long)
+     */
+    @Override
+    public void awaitConsumerProgress(final BooleanSupplier isWaiting, final long timeoutNanos)
+    {
+        final Thread thread = Thread.currentThread();
+        progressWaiters.add(thread);
+        try
+        {
+            if (isWaiting.getAsBoolean())
+            {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        }
+        finally
+        {
+            progressWaiters.remove(thread);
+        }
+    }
+
+    /**
+     * Wait, using the producer wait strategy, until the minimum gating sequence has reached the supplied
+     * wrap point.  Interrupts received while waiting are deferred until the wait has completed.
+     *
+     * @param wrapPoint the sequence the gating sequences must reach before the claim can proceed.
+     * @return the minimum gating sequence, which will be at least <code>wrapPoint</code>.
+     */
+    protected final long waitForCapacity(final long wrapPoint)
+    {
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return producerWaitStrategy.waitForCapacity(wrapPoint, minimumGatingSequence);
+                }
+                catch (final InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Creates an event poller for this sequence that will use the supplied data provider and
      * gating sequences.
@@ -129,8 +240,9 @@ public abstract class AbstractSequencer implements Sequencer
     {
         return "AbstractSequencer{" +
             "waitStrategy=" + waitStrategy +
+            ", producerWaitStrategy=" + producerWaitStrategy +
             ", cursor=" + cursor +
             ", gatingSequences=" + Arrays.toString(gatingSequences) +
             '}';
     }
-}
\ No newline at end of file
+}
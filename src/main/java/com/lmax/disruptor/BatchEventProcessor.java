@@ -18,6 +18,7 @@ package com.lmax.disruptor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.lmax.disruptor.RewindAction.REWIND;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 
@@ -39,7 +40,13 @@ public final class BatchEventProcessor<T>
     private final DataProvider<T> dataProvider;
     private final SequenceBarrier sequenceBarrier;
     private final EventHandlerBase<? super T> eventHandler;
-    private final int batchLimitOffset;
+    private final int maxBatchSize;
+    private final BatchSizeStrategy batchSizeStrategy;
+    private int batchLimitOffset;
+    private final EventProcessorMetrics metrics;
+    private final PublishTimestamps publishTimestamps;
+    private final boolean timed;
+    private long pendingWaitNanos;
     private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
     private final RewindHandler rewindHandler;
     private int retriesAttempted = 0;
@@ -49,6 +56,9 @@ public final class BatchEventProcessor<T>
             final SequenceBarrier sequenceBarrier,
             final EventHandlerBase<? super T> eventHandler,
             final int maxBatchSize,
+            final BatchSizeStrategy batchSizeStrategy,
+            final EventProcessorMetrics metrics,
+            final PublishTimestamps publishTimestamps,
             final BatchRewindStrategy batchRewindStrategy
     )
     {
@@ -60,7 +70,12 @@ public final class BatchEventProcessor<T>
         {
             throw new IllegalArgumentException("maxBatchSize must be greater than 0");
         }
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeStrategy = batchSizeStrategy;
         this.batchLimitOffset = maxBatchSize - 1;
+        this.metrics = metrics;
+        this.publishTimestamps = null == metrics ? null : publishTimestamps;
+        this.timed = null != batchSizeStrategy || null != metrics;
 
         this.rewindHandler = eventHandler instanceof RewindableEventHandler
                 ? new TryRewindHandler(batchRewindStrategy)
@@ -126,6 +141,8 @@ public final class BatchEventProcessor<T>
             {
                 notifyShutdown();
                 running.set(IDLE);
+                // Lets anything waiting on consumer progress, such as Disruptor.shutdown, see that it stopped
+                sequenceBarrier.signalProducers();
             }
         }
         else
@@ -153,7 +170,10 @@ public final class BatchEventProcessor<T>
             {
                 try
                 {
+                    final long waitStartNanos = timed ? System.nanoTime() : 0L;
                     final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                    final long batchStartNanos = timed ? System.nanoTime() : 0L;
+                    pendingWaitNanos += batchStartNanos - waitStartNanos;
                     final long endOfBatchSequence = min(nextSequence + batchLimitOffset, availableSequence);
 
                     if (nextSequence <= endOfBatchSequence)
@@ -170,7 +190,21 @@ public final class BatchEventProcessor<T>
 
                     retriesAttempted = 0;
 
+                    if (null != publishTimestamps)
+                    {
+                        recordPublishLatency(startOfBatchSequence, endOfBatchSequence);
+                    }
+
                     sequence.set(endOfBatchSequence);
+                    sequenceBarrier.signalProducers();
+
+                    if (timed && startOfBatchSequence <= endOfBatchSequence)
+                    {
+                        onBatchEnd(
+                            endOfBatchSequence - startOfBatchSequence + 1,
+                            availableSequence - startOfBatchSequence + 1,
+                            System.nanoTime() - batchStartNanos);
+                    }
                 }
                 catch (final RewindableException e)
                 {
@@ -191,12 +225,53 @@ public final class BatchEventProcessor<T>
             catch (final Throwable ex)
             {
                 handleEventException(ex, nextSequence, event);
+                if (null != metrics)
+                {
+                    metrics.onEventException();
+                }
                 sequence.set(nextSequence);
+                sequenceBarrier.signalProducers();
                 nextSequence++;
             }
         }
     }
 
+    private void recordPublishLatency(final long startOfBatchSequence, final long endOfBatchSequence)
+    {
+        final int sampleInterval = publishTimestamps.getSampleInterval();
+        long sampledSequence = publishTimestamps.nextSampledSequence(startOfBatchSequence);
+        if (sampledSequence <= endOfBatchSequence)
+        {
+            final long now = System.nanoTime();
+            do
+            {
+                metrics.onPublishLatency(now - publishTimestamps.getTimestamp(sampledSequence));
+                sampledSequence += sampleInterval;
+            }
+            while (sampledSequence <= endOfBatchSequence);
+        }
+    }
+
+    private void onBatchEnd(final long batchSize, final long queueDepth, final long serviceTimeNanos)
+    {
+        if (null != metrics)
+        {
+            metrics.onBatch(batchSize, queueDepth, pendingWaitNanos, serviceTimeNanos);
+        }
+        pendingWaitNanos = 0L;
+
+        if (null != batchSizeStrategy)
+        {
+            adaptBatchLimit(batchSize, queueDepth, serviceTimeNanos);
+        }
+    }
+
+    private void adaptBatchLimit(final long batchSize, final long queueDepth, final long serviceTimeNanos)
+    {
+        final int batchLimit = batchSizeStrategy.nextBatchLimit(batchLimitOffset + 1, batchSize, queueDepth, serviceTimeNanos);
+        batchLimitOffset = max(1, min(maxBatchSize, batchLimit)) - 1;
+    }
+
     private void earlyExit()
     {
         notifyStart();
@@ -292,6 +367,10 @@ public final class BatchEventProcessor<T>
         {
             if (batchRewindStrategy.handleRewindException(e, ++retriesAttempted) == REWIND)
             {
+                if (null != metrics)
+                {
+                    metrics.onRewind();
+                }
                 return startOfBatchSequence;
             }
             else
@@ -19,6 +19,9 @@ package com.lmax.disruptor;
 public final class BatchEventProcessorBuilder
 {
     private int maxBatchSize = Integer.MAX_VALUE;
+    private BatchSizeStrategy batchSizeStrategy = null;
+    private EventProcessorMetrics metrics = null;
+    private PublishTimestamps publishTimestamps = null;
 
     /**
      * Set the maximum number of events that will be processed in a batch before updating the sequence.
@@ -32,6 +35,49 @@ public final class BatchEventProcessorBuilder
         return this;
     }
 
+    /**
+     * Set a strategy to adapt the number of events processed in a batch at runtime, e.g.
+     * {@link LatencyTargetBatchSizeStrategy} or {@link ThroughputBatchSizeStrategy}. The limit it chooses never
+     * exceeds the maximum batch size. Only applies to {@link BatchEventProcessor}s and, as the strategy may keep
+     * state, a new instance should be set before building each processor.
+     *
+     * @param batchSizeStrategy to choose the batch limit after each batch, or null for a fixed limit.
+     * @return The builder
+     */
+    public BatchEventProcessorBuilder setBatchSizeStrategy(final BatchSizeStrategy batchSizeStrategy)
+    {
+        this.batchSizeStrategy = batchSizeStrategy;
+        return this;
+    }
+
+    /**
+     * Set a callback to be told about each batch, rewind and event exception, e.g. an {@link EventProcessorStats}.
+     * Only applies to {@link BatchEventProcessor}s and, as the metrics are specific to one processor, a new
+     * instance should be set before building each processor.
+     *
+     * @param metrics to record the work of the processor, or null to not record anything.
+     * @return The builder
+     */
+    public BatchEventProcessorBuilder setMetrics(final EventProcessorMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Set the publish timestamps of the ring buffer, from {@link RingBuffer#getPublishTimestamps()}, to report
+     * the latency from publication of each sampled sequence to {@link EventProcessorMetrics#onPublishLatency(long)}.
+     * Only applies to {@link BatchEventProcessor}s that have metrics set.
+     *
+     * @param publishTimestamps of the ring buffer the processor consumes, or null to not report latency.
+     * @return The builder
+     */
+    public BatchEventProcessorBuilder setPublishTimestamps(final PublishTimestamps publishTimestamps)
+    {
+        this.publishTimestamps = publishTimestamps;
+        return this;
+    }
+
     /**
      * Construct a {@link EventProcessor} that will automatically track the progress by updating its sequence when
      * the {@link EventHandler#onEvent(Object, long, boolean)} method returns.
@@ -51,7 +97,7 @@ public final class BatchEventProcessorBuilder
             final EventHandler<? super T> eventHandler)
     {
         final BatchEventProcessor<T> processor = new BatchEventProcessor<>(
-                dataProvider, sequenceBarrier, eventHandler, maxBatchSize, null
+                dataProvider, sequenceBarrier, eventHandler, maxBatchSize, batchSizeStrategy, metrics, publishTimestamps, null
         );
         eventHandler.setSequenceCallback(processor.getSequence());
 
@@ -81,7 +127,53 @@ public final class BatchEventProcessorBuilder
         }
 
         return new BatchEventProcessor<>(
-                dataProvider, sequenceBarrier, rewindableEventHandler, maxBatchSize, batchRewindStrategy
+                dataProvider, sequenceBarrier, rewindableEventHandler, maxBatchSize, batchSizeStrategy, metrics, publishTimestamps, batchRewindStrategy
         );
     }
+
+    /**
+     * Construct a {@link EventProcessor} that consumes the events of several ring buffers on one thread, see
+     * {@link MultiBufferBatchEventProcessor}. The maximum batch size applies to the events taken from each ring
+     * buffer in a pass. Each ring buffer must be gated on its sequence from
+     * {@link MultiBufferBatchEventProcessor#getSequences()}.
+     *
+     * <p>The created {@link MultiBufferBatchEventProcessor} will not support batch rewind,
+     * nor {@link EventHandler#setSequenceCallback(Sequence)}.
+     *
+     * @param ringBuffers  to which events are published, all sharing the same {@link WaitStrategy} instance.
+     * @param eventHandler is the delegate to which events are dispatched.
+     * @param <T>          event implementation storing the data for sharing during exchange or parallel coordination of an event.
+     * @return the MultiBufferBatchEventProcessor
+     * @throws IllegalArgumentException if no ring buffers are given, any is multi producer or they do not share a wait strategy
+     */
+    public <T> MultiBufferBatchEventProcessor<T> build(
+            final RingBuffer<T>[] ringBuffers,
+            final EventHandler<? super T> eventHandler)
+    {
+        return new MultiBufferBatchEventProcessor<>(ringBuffers, eventHandler, maxBatchSize, null);
+    }
+
+    /**
+     * Construct a {@link EventProcessor} that consumes the events of several ring buffers on one thread with
+     * support for batch rewind, see {@link MultiBufferBatchEventProcessor}.
+     *
+     * @param ringBuffers            to which events are published, all sharing the same {@link WaitStrategy} instance.
+     * @param rewindableEventHandler is the delegate to which events are dispatched.
+     * @param batchRewindStrategy    a {@link BatchRewindStrategy} for customizing how to handle a {@link RewindableException}.
+     * @param <T>                    event implementation storing the data for sharing during exchange or parallel coordination of an event.
+     * @return the MultiBufferBatchEventProcessor
+     * @throws IllegalArgumentException if no ring buffers are given, any is multi producer or they do not share a wait strategy
+     */
+    public <T> MultiBufferBatchEventProcessor<T> build(
+            final RingBuffer<T>[] ringBuffers,
+            final RewindableEventHandler<? super T> rewindableEventHandler,
+            final BatchRewindStrategy batchRewindStrategy)
+    {
+        if (null == batchRewindStrategy)
+        {
+            throw new NullPointerException("batchRewindStrategy cannot be null when building a MultiBufferBatchEventProcessor");
+        }
+
+        return new MultiBufferBatchEventProcessor<>(ringBuffers, rewindableEventHandler, maxBatchSize, batchRewindStrategy);
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Strategy for adapting the maximum number of events a {@link BatchEventProcessor} takes in one batch
+ * to the load it observes.
+ *
+ * <p>Implementations may keep state between calls, so an instance must only be used by one processor.
+ *
+ * @see BatchEventProcessorBuilder#setBatchSizeStrategy(BatchSizeStrategy)
+ */
+public interface BatchSizeStrategy
+{
+    /**
+     * Called after each batch to choose the limit for the next one. The result is clamped to between 1 and the
+     * maximum batch size configured on the {@link BatchEventProcessorBuilder}.
+     *
+     * @param batchLimit       the limit that applied to the batch just processed.
+     * @param batchSize        the number of events in the batch just processed.
+     * @param queueDepth       the number of events that were available when the batch started.
+     * @param serviceTimeNanos the time taken to process the batch, in nanoseconds.
+     * @return the limit for the next batch.
+     */
+    int nextBatchLimit(int batchLimit, long batchSize, long queueDepth, long serviceTimeNanos);
+}
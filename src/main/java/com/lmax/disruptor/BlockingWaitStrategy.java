@@ -15,15 +15,18 @@
  */
 package com.lmax.disruptor;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Blocking strategy that uses a lock and condition variable for {@link EventProcessor}s waiting on a barrier.
 
  *
  * <p>This strategy can be used when throughput and low-latency are not as important as CPU resource.
  */
-public final class BlockingWaitStrategy implements WaitStrategy
+public final class BlockingWaitStrategy implements WaitStrategy, ProducerWaitStrategy
 {
     private final Object mutex = new Object();
+    private final AtomicBoolean producerSignalNeeded = new AtomicBoolean(false);
 
     @Override
     public long waitFor(final long sequence, final Sequence cursorSequence, final Sequence dependentSequence, final SequenceBarrier barrier)
@@ -60,11 +63,50 @@ public final class BlockingWaitStrategy implements WaitStrategy
         }
     }
 
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence) throws InterruptedException
+    {
+        long minimumSequence;
+        if ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+        {
+            synchronized (mutex)
+            {
+                do
+                {
+                    producerSignalNeeded.getAndSet(true);
+
+                    if ((minimumSequence = gatingSequence.getCursor()) >= wrapPoint)
+                    {
+                        break;
+                    }
+
+                    mutex.wait();
+                }
+                while ((minimumSequence = gatingSequence.getCursor()) < wrapPoint);
+            }
+        }
+
+        return minimumSequence;
+    }
+
+    @Override
+    public void signalProducers()
+    {
+        if (producerSignalNeeded.getAndSet(false))
+        {
+            synchronized (mutex)
+            {
+                mutex.notifyAll();
+            }
+        }
+    }
+
     @Override
     public String toString()
     {
         return "BlockingWaitStrategy{" +
             "mutex=" + mutex +
+            ", producerSignalNeeded=" + producerSignalNeeded +
             '}';
     }
 }
@@ -21,7 +21,7 @@ package com.lmax.disruptor;
  * <p>This strategy will use CPU resource to avoid syscalls which can introduce latency jitter.  It is best
  * used when threads can be bound to specific CPU cores.
  */
-public final class BusySpinWaitStrategy implements WaitStrategy
+public final class BusySpinWaitStrategy implements WaitStrategy, ProducerWaitStrategy
 {
     @Override
     public long waitFor(
@@ -43,4 +43,22 @@ public final class BusySpinWaitStrategy implements WaitStrategy
     public void signalAllWhenBlocking()
     {
     }
+
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence)
+    {
+        long minimumSequence;
+
+        while ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+        {
+            Thread.onSpinWait();
+        }
+
+        return minimumSequence;
+    }
+
+    @Override
+    public void signalProducers()
+    {
+    }
 }
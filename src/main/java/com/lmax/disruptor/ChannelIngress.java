@@ -0,0 +1,237 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * <p>Reads length prefixed messages from a channel, such as a {@link java.nio.channels.SocketChannel}, straight into
+ * the slots of an {@link OffHeapRingBuffer}, without first reading them into a scratch buffer and copying them
+ * into an event.</p>
+ *
+ * <p>On the wire each message is a 4 byte big endian length followed by that many bytes of payload.  Once the
+ * length of a message has been read a slot is claimed, the length is written at the start of the slot in
+ * {@link ByteOrder#nativeOrder()} and the payload is read into the slot after it.  With a
+ * {@link ScatteringByteChannel} the length of the following message is read by the same call as the rest of a
+ * payload.  The messages completed by a call to {@link #poll()} are published together with
+ * {@link OffHeapRingBuffer#publish(long, long)}.</p>
+ *
+ * <p>Payloads must fit in a slot after the length, a larger message fails the ingress.  If the channel ends part way
+ * through a payload, or a read fails, the slot already claimed for it is published with a length of {@link #TRUNCATED}.</p>
+ *
+ * <p>A slot stays claimed but unpublished from the arrival of the length of a message until the rest of its payload
+ * arrives, which may take several calls to {@link #poll()} if the peer is slow.  Consumers cannot move past that slot
+ * in the meantime, so an ingress needs a single producer ring buffer of its own, where a stalled peer holds up only
+ * its own messages.  It is driven by a single thread.</p>
+ */
+public final class ChannelIngress
+{
+    /**
+     * Number of bytes in the length that precedes each message, both on the wire and in the slot.
+     */
+    public static final int HEADER_LENGTH = Integer.BYTES;
+
+    /**
+     * Length written to a slot whose message was cut short by the end of the channel.
+     */
+    public static final int TRUNCATED = -1;
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final OffHeapRingBuffer ringBuffer;
+    private final ReadableByteChannel channel;
+    private final ScatteringByteChannel scatteringChannel;
+    private final int maxPayloadLength;
+    private final ByteBuffer header = ByteBuffer.allocateDirect(HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+    private final ByteBuffer[] scatter = new ByteBuffer[2];
+    private final ByteBuffer payload;
+    private int slotOffset;
+    private long sequence = NONE;
+    private long publishLo = NONE;
+    private long publishHi = NONE;
+
+    /**
+     * Create an ingress reading from a channel into a ring buffer.
+     *
+     * @param ringBuffer to publish messages to.
+     * @param channel    to read messages from, in blocking or non-blocking mode.
+     * @throws IllegalArgumentException if the slots of the ring buffer cannot hold a length, or the ring buffer does
+     *                                  not have a single producer sequencer.
+     */
+    public ChannelIngress(final OffHeapRingBuffer ringBuffer, final ReadableByteChannel channel)
+    {
+        if (!(ringBuffer.sequencer instanceof SingleProducerSequencer))
+        {
+            throw new IllegalArgumentException("ChannelIngress needs a single producer ring buffer of its own");
+        }
+        if (ringBuffer.getSlotSize() < HEADER_LENGTH)
+        {
+            throw new IllegalArgumentException("slotSize must be at least " + HEADER_LENGTH);
+        }
+
+        this.ringBuffer = ringBuffer;
+        this.channel = channel;
+        this.scatteringChannel = channel instanceof ScatteringByteChannel ? (ScatteringByteChannel) channel : null;
+        this.maxPayloadLength = ringBuffer.getSlotSize() - HEADER_LENGTH;
+        this.payload = ringBuffer.get(0).duplicate().order(ByteOrder.nativeOrder());
+        this.scatter[0] = payload;
+        this.scatter[1] = header;
+    }
+
+    /**
+     * <p>Read what the channel has available into the ring buffer and publish the messages completed.</p>
+     *
+     * <p>Reading stops once a read does not fill the space offered to it, so on a blocking channel this waits for
+     * the first bytes to arrive but not for a message to be completed.  A message left part way through is
+     * continued by the next call.  The ring buffer is claimed from one slot at a time.  If it is full the messages
+     * completed so far are published before waiting for capacity, so a poll may publish more than one range.</p>
+     *
+     * @return the number of messages published, or -1 if the channel has reached the end of the stream.
+     * @throws IOException if the channel fails or a message is too long for a slot, messages completed before
+     *                     the failure are published.
+     */
+    public int poll() throws IOException
+    {
+        int published = 0;
+        long bytesRead;
+        try
+        {
+            do
+            {
+                final long requested;
+                if (sequence == NONE)
+                {
+                    requested = header.remaining();
+                    bytesRead = channel.read(header);
+                }
+                else if (scatteringChannel != null)
+                {
+                    requested = payload.remaining() + header.remaining();
+                    bytesRead = scatteringChannel.read(scatter);
+                }
+                else
+                {
+                    requested = payload.remaining();
+                    bytesRead = channel.read(payload);
+                }
+
+                if (bytesRead < 0)
+                {
+                    truncate();
+                    break;
+                }
+
+                if (sequence != NONE && !payload.hasRemaining())
+                {
+                    published += complete();
+                }
+                if (sequence == NONE && !header.hasRemaining())
+                {
+                    published += claim();
+                }
+
+                if (bytesRead < requested)
+                {
+                    break;
+                }
+            }
+            while (true);
+        }
+        catch (final IOException e)
+        {
+            truncate();
+            throw e;
+        }
+        finally
+        {
+            publishRange();
+        }
+
+        return bytesRead < 0 ? -1 : published;
+    }
+
+    private int claim() throws IOException
+    {
+        final int length = header.getInt(0);
+        if (length < 0 || length > maxPayloadLength)
+        {
+            throw new IOException("message of " + length + " bytes does not fit in a slot of " + maxPayloadLength + " bytes");
+        }
+        header.clear();
+
+        sequence = nextSlot();
+        slotOffset = ringBuffer.getOffset(sequence);
+        payload.clear();
+        payload.putInt(slotOffset, length);
+        payload.limit(slotOffset + HEADER_LENGTH + length).position(slotOffset + HEADER_LENGTH);
+
+        return length == 0 ? complete() : 0;
+    }
+
+    private long nextSlot()
+    {
+        try
+        {
+            return ringBuffer.tryNext();
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            // Consumers may be waiting on the messages already read, release them before waiting for capacity
+            publishRange();
+            return ringBuffer.next();
+        }
+    }
+
+    private int complete()
+    {
+        if (publishHi != NONE && sequence != publishHi + 1)
+        {
+            publishRange();
+        }
+        if (publishLo == NONE)
+        {
+            publishLo = sequence;
+        }
+        publishHi = sequence;
+        sequence = NONE;
+
+        return 1;
+    }
+
+    private void truncate()
+    {
+        if (sequence != NONE)
+        {
+            payload.clear();
+            payload.putInt(slotOffset, TRUNCATED);
+            complete();
+        }
+    }
+
+    private void publishRange()
+    {
+        if (publishLo != NONE)
+        {
+            ringBuffer.publish(publishLo, publishHi);
+            publishLo = NONE;
+            publishHi = NONE;
+        }
+    }
+}
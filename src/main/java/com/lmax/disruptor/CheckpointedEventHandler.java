@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * An {@link EventHandler} that skips the events up to a checkpoint, e.g. those a handler has already processed
+ * before a restart, when they are replayed by a {@link JournalReplayer}.
+ *
+ * <p>The batch size and queue depth given to {@link EventHandler#onBatchStart(long, long)} do not count the events
+ * skipped, and a batch made only of them is not passed on at all.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class CheckpointedEventHandler<T> implements EventHandler<T>
+{
+    private final EventHandler<? super T> eventHandler;
+    private final long checkpointSequence;
+    private long batchSize;
+    private long queueDepth;
+    private boolean batchStarting;
+
+    /**
+     * Construct a handler skipping the events up to a checkpoint.
+     *
+     * @param eventHandler       to pass the events after the checkpoint on to.
+     * @param checkpointSequence the sequence of the last event to skip.
+     */
+    public CheckpointedEventHandler(final EventHandler<? super T> eventHandler, final long checkpointSequence)
+    {
+        this.eventHandler = eventHandler;
+        this.checkpointSequence = checkpointSequence;
+    }
+
+    @Override
+    public void onBatchStart(final long batchSize, final long queueDepth)
+    {
+        // The first sequence of the batch is only known once its first event is given
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+        this.batchStarting = true;
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        if (batchStarting)
+        {
+            batchStarting = false;
+            startBatch(sequence);
+        }
+
+        if (sequence > checkpointSequence)
+        {
+            eventHandler.onEvent(event, sequence, endOfBatch);
+        }
+    }
+
+    private void startBatch(final long firstSequence)
+    {
+        final long skipped = Math.max(0, Math.min(batchSize, checkpointSequence - firstSequence + 1));
+        if (skipped < batchSize)
+        {
+            eventHandler.onBatchStart(batchSize - skipped, queueDepth - skipped);
+        }
+    }
+
+    @Override
+    public void onStart()
+    {
+        eventHandler.onStart();
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        eventHandler.onShutdown();
+    }
+
+    @Override
+    public void onTimeout(final long sequence) throws Exception
+    {
+        eventHandler.onTimeout(sequence);
+    }
+
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        eventHandler.setSequenceCallback(sequenceCallback);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CheckpointedEventHandler{" +
+            "eventHandler=" + eventHandler +
+            ", checkpointSequence=" + checkpointSequence +
+            '}';
+    }
+}
@@ -0,0 +1,498 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+abstract class ColumnarRingBufferPad
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+}
+
+abstract class ColumnarRingBufferFields extends ColumnarRingBufferPad
+{
+    static final int BUFFER_PAD = 32;
+
+    protected final int bufferSize;
+    protected final Sequencer sequencer;
+
+    ColumnarRingBufferFields(final Sequencer sequencer)
+    {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+    }
+}
+
+/**
+ * <p>Ring based store laid out by column rather than by event.  Instead of an array of pre-allocated event objects
+ * each field of the event is declared as a typed column, e.g. with {@link #longColumn()}, which holds the values
+ * of that field for every slot in its own padded primitive array indexed by <code>sequence &amp; indexMask</code>.</p>
+ *
+ * <p>A stage that only touches a few fields of a wide event then streams through those dense arrays rather than
+ * pulling whole objects through the cache.  The ring buffer acts as the flyweight event for the existing
+ * {@link EventTranslator} and {@link EventHandler} interfaces, and the columns are the accessors for its fields:</p>
+ *
+ * <pre><code>
+ * ColumnarRingBuffer ringBuffer = ColumnarRingBuffer.createSingleProducer(1024, new BlockingWaitStrategy());
+ * ColumnarRingBuffer.DoubleColumn price = ringBuffer.doubleColumn();
+ * ColumnarRingBuffer.LongColumn quantity = ringBuffer.longColumn();
+ *
+ * ringBuffer.publishEvent((event, sequence) -&gt;
+ * {
+ *     price.set(sequence, 10.5);
+ *     quantity.set(sequence, 100);
+ * });
+ *
+ * EventHandler&lt;ColumnarRingBuffer&gt; handler = (event, sequence, endOfBatch) -&gt;
+ *     notional += price.get(sequence) * quantity.get(sequence);
+ * BatchEventProcessor&lt;ColumnarRingBuffer&gt; processor =
+ *     new BatchEventProcessorBuilder().build(ringBuffer, ringBuffer.newBarrier(), handler);
+ * </code></pre>
+ *
+ * <p>Columns must be declared before any events are published or processors started.</p>
+ */
+public final class ColumnarRingBuffer extends ColumnarRingBufferFields implements Cursored, Sequenced, DataProvider<ColumnarRingBuffer>
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+
+    /**
+     * Construct a ColumnarRingBuffer.
+     *
+     * @param sequencer sequencer to handle the ordering of events moving through the ColumnarRingBuffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    ColumnarRingBuffer(final Sequencer sequencer)
+    {
+        super(sequencer);
+    }
+
+    /**
+     * Create a new multiple producer ColumnarRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of events in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static ColumnarRingBuffer createMultiProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.MULTI, bufferSize, waitStrategy);
+    }
+
+    /**
+     * Create a new single producer ColumnarRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of events in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static ColumnarRingBuffer createSingleProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.SINGLE, bufferSize, waitStrategy);
+    }
+
+    /**
+     * Create a new ColumnarRingBuffer.
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of events in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static ColumnarRingBuffer create(final ProducerType producerType, final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return new ColumnarRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy));
+            case MULTI:
+                return new ColumnarRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy));
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Declare a column of <code>long</code> values.
+     *
+     * @return the accessor for the column.
+     */
+    public LongColumn longColumn()
+    {
+        return new LongColumn(bufferSize);
+    }
+
+    /**
+     * Declare a column of <code>int</code> values.
+     *
+     * @return the accessor for the column.
+     */
+    public IntColumn intColumn()
+    {
+        return new IntColumn(bufferSize);
+    }
+
+    /**
+     * Declare a column of <code>double</code> values.
+     *
+     * @return the accessor for the column.
+     */
+    public DoubleColumn doubleColumn()
+    {
+        return new DoubleColumn(bufferSize);
+    }
+
+    /**
+     * The ring buffer is its own flyweight event, the fields of an event are read and written through the
+     * columns with the sequence of the event.
+     *
+     * @param sequence of the event
+     * @return this ring buffer
+     */
+    @Override
+    public ColumnarRingBuffer get(final long sequence)
+    {
+        return this;
+    }
+
+    /**
+     * Publish an event, waiting for capacity if the ring buffer is full.  The translator is given the sequence
+     * to write the fields of the event with.
+     *
+     * @param translator the user specified translation for the event
+     */
+    public void publishEvent(final EventTranslator<ColumnarRingBuffer> translator)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence);
+    }
+
+    /**
+     * Publish an event if there is capacity for it.
+     *
+     * @param translator the user specified translation for the event
+     * @return true if the event was published, false if the ring buffer was full.
+     */
+    public boolean tryPublishEvent(final EventTranslator<ColumnarRingBuffer> translator)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish an event with a user supplied argument, waiting for capacity if the ring buffer is full.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param translator the user specified translation for the event
+     * @param arg0       A user supplied argument.
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<ColumnarRingBuffer, A> translator, final A arg0)
+    {
+        final long sequence = sequencer.next();
+        try
+        {
+            translator.translateTo(this, sequence, arg0);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublish(final EventTranslator<ColumnarRingBuffer> translator, final long sequence)
+    {
+        try
+        {
+            translator.translateTo(this, sequence);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next()
+    {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    /**
+     * Determines if the event for a given sequence is currently available.
+     *
+     * @param sequence The sequence to identify the entry.
+     * @return If the event published with the given sequence number is currently available.
+     * @see RingBuffer#isAvailable(long)
+     */
+    public boolean isAvailable(final long sequence)
+    {
+        return sequencer.isAvailable(sequence);
+    }
+
+    /**
+     * Add the specified gating sequences to this instance of the Disruptor.  They will
+     * safely and atomically added to the list of gating sequences.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Get the minimum sequence value from all of the gating sequences
+     * added to this ringBuffer.
+     *
+     * @return The minimum gating sequence or the cursor sequence if
+     * no sequences have been added.
+     */
+    public long getMinimumGatingSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    /**
+     * Remove the specified sequence from this ringBuffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which events
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Get the current cursor value for the ring buffer.  The actual value received
+     * will depend on the type of {@link Sequencer} that is being used.
+     *
+     * @see MultiProducerSequencer
+     * @see SingleProducerSequencer
+     */
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * Accessor for a column of <code>long</code> values.
+     */
+    public static final class LongColumn
+    {
+        private final int indexMask;
+        private final long[] values;
+
+        LongColumn(final int bufferSize)
+        {
+            this.indexMask = bufferSize - 1;
+            this.values = new long[bufferSize + 2 * BUFFER_PAD];
+        }
+
+        /**
+         * Get the value of this field for the event with a given sequence.
+         *
+         * @param sequence of the event
+         * @return the value of the field
+         */
+        public long get(final long sequence)
+        {
+            return values[BUFFER_PAD + ((int) sequence & indexMask)];
+        }
+
+        /**
+         * Set the value of this field for the event with a given sequence.
+         *
+         * @param sequence of the event
+         * @param value    of the field
+         */
+        public void set(final long sequence, final long value)
+        {
+            values[BUFFER_PAD + ((int) sequence & indexMask)] = value;
+        }
+    }
+
+    /**
+     * Accessor for a column of <code>int</code> values.
+     */
+    public static final class IntColumn
+    {
+        private final int indexMask;
+        private final int[] values;
+
+        IntColumn(final int bufferSize)
+        {
+            this.indexMask = bufferSize - 1;
+            this.values = new int[bufferSize + 2 * BUFFER_PAD];
+        }
+
+        /**
+         * Get the value of this field for the event with a given sequence.
+         *
+         * @param sequence of the event
+         * @return the value of the field
+         */
+        public int get(final long sequence)
+        {
+            return values[BUFFER_PAD + ((int) sequence & indexMask)];
+        }
+
+        /**
+         * Set the value of this field for the event with a given sequence.
+         *
+         * @param sequence of the event
+         * @param value    of the field
+         */
+        public void set(final long sequence, final int value)
+        {
+            values[BUFFER_PAD + ((int) sequence & indexMask)] = value;
+        }
+    }
+
+    /**
+     * Accessor for a column of <code>double</code> values.
+     */
+    public static final class DoubleColumn
+    {
+        private final int indexMask;
+        private final double[] values;
+
+        DoubleColumn(final int bufferSize)
+        {
+            this.indexMask = bufferSize - 1;
+            this.values = new double[bufferSize + 2 * BUFFER_PAD];
+        }
+
+        /**
+         * Get the value of this field for the event with a given sequence.
+         *
+         * @param sequence of the event
+         * @return the value of the field
+         */
+        public double get(final long sequence)
+        {
+            return values[BUFFER_PAD + ((int) sequence & indexMask)];
+        }
+
+        /**
+         * Set the value of this field for the event with a given sequence.
+         *
+         * @param sequence of the event
+         * @param value    of the field
+         */
+        public void set(final long sequence, final double value)
+        {
+            values[BUFFER_PAD + ((int) sequence & indexMask)] = value;
+        }
+    }
+}
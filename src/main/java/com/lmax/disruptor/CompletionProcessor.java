@@ -0,0 +1,476 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * An {@link EventProcessor} that follows the event processors at the end of a chain and lets other threads wait
+ * until those processors have processed a sequence, e.g. to block the caller of a request until its reply is ready.
+ *
+ * <p>Only this processor waits on its {@link SequenceBarrier}, using the configured {@link WaitStrategy}, however
+ * many callers are waiting. Each time the sequences it follows move on it unparks, or calls back, every caller
+ * waiting for a sequence that has now been processed, so callers are completed in batches and never spin.
+ * A thread that waits with {@link #awaitProcessed(long)} reuses the same registration each time, so waiting
+ * does not allocate once the previous registration has been released.
+ *
+ * <p>The processor does not read the events, and it does not need to gate the ring buffer. When it is halted,
+ * callers still waiting for a sequence that has not been processed are failed with an {@link AlertException}, as
+ * are callers that start waiting while it is stopped.
+ */
+public final class CompletionProcessor
+        implements EventProcessor, EventHandlerIdentity
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private ExceptionHandler<Object> exceptionHandler;
+    private final SequenceBarrier sequenceBarrier;
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private final AtomicReference<Waiter> waiters = new AtomicReference<>();
+    private final ThreadLocal<Waiter> threadWaiter = new ThreadLocal<>();
+    private volatile boolean stopped;
+
+    /**
+     * Construct a {@link CompletionProcessor}.
+     *
+     * @param sequenceBarrier over the sequences of the event processors to wait for.
+     */
+    public CompletionProcessor(final SequenceBarrier sequenceBarrier)
+    {
+        this.sequenceBarrier = sequenceBarrier;
+    }
+
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for exceptions thrown by the callbacks given to
+     * {@link #whenProcessed(long, Runnable)}.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<Object> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Whether the event processors followed have processed a sequence.
+     *
+     * @param sequence that has been published.
+     * @return true if it has been processed.
+     */
+    public boolean isProcessed(final long sequence)
+    {
+        return this.sequence.get() >= sequence;
+    }
+
+    /**
+     * Wait until the event processors followed have processed a sequence.
+     *
+     * @param sequence that has been published.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     * @throws AlertException       if this processor was halted before the sequence was processed.
+     */
+    public void awaitProcessed(final long sequence) throws InterruptedException, AlertException
+    {
+        if (isProcessed(sequence))
+        {
+            return;
+        }
+
+        final Waiter waiter = register(threadWaiter(), sequence, Thread.currentThread(), null, null);
+        boolean interrupted = false;
+        while (!waiter.isDone())
+        {
+            LockSupport.park(this);
+            if (Thread.interrupted())
+            {
+                if (waiter.tryComplete(Waiter.CANCELLED))
+                {
+                    throw new InterruptedException();
+                }
+                // Completed before the interrupt was seen, which is kept for the caller
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        waiter.checkNotHalted();
+    }
+
+    /**
+     * Wait until the event processors followed have processed a sequence, or the timeout passes.
+     *
+     * @param sequence that has been published.
+     * @param timeout  the longest time to wait.
+     * @param unit     the unit of the timeout.
+     * @return true if the sequence has been processed, false if the timeout passed first.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     * @throws AlertException       if this processor was halted before the sequence was processed.
+     */
+    public boolean awaitProcessed(final long sequence, final long timeout, final TimeUnit unit)
+        throws InterruptedException, AlertException
+    {
+        if (isProcessed(sequence))
+        {
+            return true;
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final Waiter waiter = register(threadWaiter(), sequence, Thread.currentThread(), null, null);
+        boolean interrupted = false;
+        while (!waiter.isDone())
+        {
+            // Whoever completes the waiter first decides the outcome
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+            {
+                waiter.tryComplete(Waiter.CANCELLED);
+            }
+            else if (Thread.interrupted())
+            {
+                if (waiter.tryComplete(Waiter.CANCELLED))
+                {
+                    throw new InterruptedException();
+                }
+                interrupted = true;
+            }
+            else
+            {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        waiter.checkNotHalted();
+
+        return waiter.isProcessed();
+    }
+
+    /**
+     * Call back once the event processors followed have processed a sequence. The callback is called straight away
+     * on the calling thread if the sequence has already been processed, otherwise on the thread of this processor,
+     * so it should be quick and must not wait for another sequence.
+     *
+     * <p>The callback is not called if this processor is halted first, see
+     * {@link #whenProcessed(long, Runnable, Runnable)} to be told.</p>
+     *
+     * @param sequence that has been published.
+     * @param callback to call once the sequence has been processed.
+     */
+    public void whenProcessed(final long sequence, final Runnable callback)
+    {
+        whenProcessed(sequence, callback, null);
+    }
+
+    /**
+     * Call back once the event processors followed have processed a sequence, or once this processor has been
+     * halted before they did, as {@link #whenProcessed(long, Runnable)}.
+     *
+     * @param sequence  that has been published.
+     * @param callback  to call once the sequence has been processed.
+     * @param onHalted  to call instead if this processor is halted before the sequence is processed, or null.
+     */
+    public void whenProcessed(final long sequence, final Runnable callback, final Runnable onHalted)
+    {
+        if (isProcessed(sequence))
+        {
+            callback.run();
+            return;
+        }
+
+        register(new Waiter(), sequence, null, callback, onHalted);
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE) // Successful CAS
+        {
+            sequenceBarrier.clearAlert();
+            stopped = false;
+
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    processSequences();
+                }
+            }
+            finally
+            {
+                // Set before the waiters are taken, so a caller registering now either is taken or sees it
+                stopped = true;
+                completeWaiters(sequence.get());
+                running.set(IDLE);
+                sequenceBarrier.signalProducers();
+            }
+        }
+        else if (witnessValue == RUNNING)
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+    }
+
+    private void processSequences()
+    {
+        long nextSequence = sequence.get() + 1L;
+
+        while (true)
+        {
+            try
+            {
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                if (availableSequence >= nextSequence)
+                {
+                    // A volatile write, so a caller either sees it or has registered before the waiters are taken
+                    sequence.setVolatile(availableSequence);
+                    sequenceBarrier.signalProducers();
+                    completeWaiters(availableSequence);
+                    nextSequence = availableSequence + 1L;
+                }
+            }
+            catch (final TimeoutException e)
+            {
+                // Nothing to report, wait again
+            }
+            catch (final AlertException ex)
+            {
+                if (running.get() != RUNNING)
+                {
+                    break;
+                }
+            }
+            catch (final InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void completeWaiters(final long processedSequence)
+    {
+        Waiter waiter = waiters.getAndSet(null);
+        Waiter remaining = null;
+        Waiter remainingTail = null;
+
+        while (null != waiter)
+        {
+            final Waiter next = waiter.next;
+            if (waiter.sequence <= processedSequence || waiter.isDone() || stopped)
+            {
+                waiter.next = null;
+                if (waiter.tryComplete(waiter.sequence <= processedSequence ? Waiter.PROCESSED : Waiter.HALTED))
+                {
+                    notify(waiter);
+                }
+                waiter.linked = false;
+            }
+            else
+            {
+                waiter.next = remaining;
+                remaining = waiter;
+                if (null == remainingTail)
+                {
+                    remainingTail = waiter;
+                }
+            }
+            waiter = next;
+        }
+
+        if (null != remaining)
+        {
+            Waiter head;
+            do
+            {
+                head = waiters.get();
+                remainingTail.next = head;
+            }
+            while (!waiters.compareAndSet(head, remaining));
+        }
+    }
+
+    private Waiter threadWaiter()
+    {
+        Waiter waiter = threadWaiter.get();
+        if (null == waiter || waiter.linked)
+        {
+            // Still linked when the last wait timed out or was completed by the caller, so it cannot be reused yet
+            waiter = new Waiter();
+            threadWaiter.set(waiter);
+        }
+
+        return waiter;
+    }
+
+    private Waiter register(
+        final Waiter waiter, final long sequence, final Thread thread, final Runnable callback, final Runnable onHalted)
+    {
+        waiter.reset(sequence, thread, callback, onHalted);
+
+        Waiter head;
+        do
+        {
+            head = waiters.get();
+            waiter.next = head;
+        }
+        while (!waiters.compareAndSet(head, waiter));
+
+        // Processed or stopped while registering, after this processor took the waiters
+        if (isProcessed(sequence) && waiter.tryComplete(Waiter.PROCESSED))
+        {
+            notify(waiter);
+        }
+        else if (stopped && waiter.tryComplete(Waiter.HALTED))
+        {
+            notify(waiter);
+        }
+
+        return waiter;
+    }
+
+    private void notify(final Waiter waiter)
+    {
+        final Runnable callback = waiter.isProcessed() ? waiter.callback : waiter.onHalted;
+        if (null != waiter.thread)
+        {
+            LockSupport.unpark(waiter.thread);
+        }
+        else if (null != callback)
+        {
+            try
+            {
+                callback.run();
+            }
+            catch (final Throwable ex)
+            {
+                getExceptionHandler().handleEventException(ex, waiter.sequence, null);
+            }
+        }
+    }
+
+    private ExceptionHandler<Object> getExceptionHandler()
+    {
+        ExceptionHandler<Object> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+
+    private static final class Waiter
+    {
+        static final int WAITING = 0;
+        static final int PROCESSED = WAITING + 1;
+        static final int CANCELLED = PROCESSED + 1;
+        static final int HALTED = CANCELLED + 1;
+        private static final VarHandle STATE;
+
+        static
+        {
+            try
+            {
+                STATE = MethodHandles.lookup().findVarHandle(Waiter.class, "state", int.class);
+            }
+            catch (final ReflectiveOperationException e)
+            {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private long sequence;
+        private Thread thread;
+        private Runnable callback;
+        private Runnable onHalted;
+        private Waiter next;
+        private volatile int state;
+        private volatile boolean linked;
+
+        void reset(final long sequence, final Thread thread, final Runnable callback, final Runnable onHalted)
+        {
+            this.sequence = sequence;
+            this.thread = thread;
+            this.callback = callback;
+            this.onHalted = onHalted;
+            this.state = WAITING;
+            this.linked = true;
+        }
+
+        boolean isDone()
+        {
+            return WAITING != state;
+        }
+
+        boolean isProcessed()
+        {
+            return PROCESSED == state;
+        }
+
+        void checkNotHalted() throws AlertException
+        {
+            if (HALTED == state)
+            {
+                throw AlertException.INSTANCE;
+            }
+        }
+
+        boolean tryComplete(final int outcome)
+        {
+            return STATE.compareAndSet(this, WAITING, outcome);
+        }
+    }
+}
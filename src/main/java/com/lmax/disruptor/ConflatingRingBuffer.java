@@ -0,0 +1,458 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Publishes keyed events to a {@link RingBuffer} so that the ring holds at most one pending event per key, e.g. the
+ * latest price of each instrument for consumers that only need the latest value.
+ *
+ * <p>An index maps each key to the sequence of its pending event. When an event is published for a key that already
+ * has one, the pending event is overwritten in place rather than a new sequence being claimed, so a burst of updates
+ * to a few keys takes a few slots of the ring and a few calls to the consumers, however many updates there are.
+ *
+ * <p>A consumer releases the event from the index before it reads it, after which it is never overwritten, and the
+ * next update of its key is published to a new sequence. For that reason every event handler reading the events must
+ * be wrapped with {@link #conflating(EventHandler)}, otherwise an event could be overwritten while it is read, or
+ * after the ring has wrapped. Events published straight to the ring buffer are not conflated.
+ *
+ * <p>The index is split into stripes by the hash of the key, each guarded by a lock shared by the producers and the
+ * releasing consumers of its keys, so that updates to unrelated keys rarely contend. A new sequence is only claimed
+ * while holding the lock of the stripe, so a key never has two pending events however many threads publish to it.
+ * Translators run while the lock is held and should be kept short, as they hold up the other producers and the
+ * consumers of the keys in the same stripe. A producer that finds the ring full waits for the consumers without
+ * holding the lock. Publishing from more than one thread needs a ring buffer with a multi producer sequencer, as
+ * producers of keys in different stripes claim sequences at the same time.
+ *
+ * <pre><code>ConflatingRingBuffer&lt;Price&gt; prices = new ConflatingRingBuffer&lt;&gt;(disruptor.getRingBuffer());
+ * disruptor.handleEventsWith(prices.conflating(pricer));
+ * disruptor.start();
+ * prices.publishEvent(instrumentId, Price::set, bid, ask);</code></pre>
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class ConflatingRingBuffer<E>
+{
+    private static final long NONE = Sequencer.INITIAL_CURSOR_VALUE;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int MAX_STRIPES = 16;
+    private static final long MAX_CAPACITY_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RingBuffer<E> ringBuffer;
+    private final PendingSequences[] stripes;
+    private final int stripeShift;
+    private final long[] keys;
+    private final int indexMask;
+    private final BooleanSupplier isFull;
+
+    /**
+     * Construct a conflating publisher for a ring buffer.
+     *
+     * @param ringBuffer to publish the events to.
+     */
+    public ConflatingRingBuffer(final RingBuffer<E> ringBuffer)
+    {
+        this.ringBuffer = ringBuffer;
+        final int stripeCount = Math.min(MAX_STRIPES, ringBuffer.getBufferSize());
+        this.stripes = new PendingSequences[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+        {
+            stripes[i] = new PendingSequences(ringBuffer.getBufferSize(), stripeCount);
+        }
+        this.stripeShift = Integer.SIZE - Util.log2(stripeCount);
+        this.keys = new long[ringBuffer.getBufferSize()];
+        this.indexMask = ringBuffer.getBufferSize() - 1;
+        this.isFull = () -> !ringBuffer.hasAvailableCapacity(1);
+    }
+
+    /**
+     * Publish an event for a key, overwriting the pending event of the key if it has one.
+     *
+     * @param key        of the event.
+     * @param translator the user specified translation for the event
+     * @return the sequence of the event, which is the sequence of the pending event if it was overwritten.
+     */
+    public long publishEvent(final long key, final EventTranslator<E> translator)
+    {
+        final PendingSequences pendingSequences = stripeOf(key);
+        while (true)
+        {
+            synchronized (pendingSequences)
+            {
+                final long pendingSequence = pendingSequences.get(key);
+                if (NONE != pendingSequence)
+                {
+                    translator.translateTo(ringBuffer.get(pendingSequence), pendingSequence);
+                    return pendingSequence;
+                }
+
+                final long sequence = tryNext();
+                if (NONE != sequence)
+                {
+                    try
+                    {
+                        translator.translateTo(ringBuffer.get(sequence), sequence);
+                    }
+                    finally
+                    {
+                        publish(pendingSequences, key, sequence);
+                    }
+                    return sequence;
+                }
+            }
+
+            awaitCapacity();
+        }
+    }
+
+    /**
+     * Publish an event for a key, overwriting the pending event of the key if it has one.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param key        of the event.
+     * @param translator the user specified translation for the event
+     * @param arg0       A user supplied argument.
+     * @return the sequence of the event, which is the sequence of the pending event if it was overwritten.
+     */
+    public <A> long publishEvent(final long key, final EventTranslatorOneArg<E, A> translator, final A arg0)
+    {
+        final PendingSequences pendingSequences = stripeOf(key);
+        while (true)
+        {
+            synchronized (pendingSequences)
+            {
+                final long pendingSequence = pendingSequences.get(key);
+                if (NONE != pendingSequence)
+                {
+                    translator.translateTo(ringBuffer.get(pendingSequence), pendingSequence, arg0);
+                    return pendingSequence;
+                }
+
+                final long sequence = tryNext();
+                if (NONE != sequence)
+                {
+                    try
+                    {
+                        translator.translateTo(ringBuffer.get(sequence), sequence, arg0);
+                    }
+                    finally
+                    {
+                        publish(pendingSequences, key, sequence);
+                    }
+                    return sequence;
+                }
+            }
+
+            awaitCapacity();
+        }
+    }
+
+    /**
+     * Publish an event for a key, overwriting the pending event of the key if it has one.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param <B>        Class of the user supplied argument
+     * @param key        of the event.
+     * @param translator the user specified translation for the event
+     * @param arg0       A user supplied argument.
+     * @param arg1       A user supplied argument.
+     * @return the sequence of the event, which is the sequence of the pending event if it was overwritten.
+     */
+    public <A, B> long publishEvent(final long key, final EventTranslatorTwoArg<E, A, B> translator, final A arg0, final B arg1)
+    {
+        final PendingSequences pendingSequences = stripeOf(key);
+        while (true)
+        {
+            synchronized (pendingSequences)
+            {
+                final long pendingSequence = pendingSequences.get(key);
+                if (NONE != pendingSequence)
+                {
+                    translator.translateTo(ringBuffer.get(pendingSequence), pendingSequence, arg0, arg1);
+                    return pendingSequence;
+                }
+
+                final long sequence = tryNext();
+                if (NONE != sequence)
+                {
+                    try
+                    {
+                        translator.translateTo(ringBuffer.get(sequence), sequence, arg0, arg1);
+                    }
+                    finally
+                    {
+                        publish(pendingSequences, key, sequence);
+                    }
+                    return sequence;
+                }
+            }
+
+            awaitCapacity();
+        }
+    }
+
+    /**
+     * The number of keys with a pending event, that no consumer has started to read.
+     *
+     * @return the number of pending keys.
+     */
+    public int getPendingCount()
+    {
+        int pendingCount = 0;
+        for (final PendingSequences pendingSequences : stripes)
+        {
+            synchronized (pendingSequences)
+            {
+                pendingCount += pendingSequences.size();
+            }
+        }
+
+        return pendingCount;
+    }
+
+    /**
+     * Wrap an event handler so that it releases each event from the index of pending events before reading it.
+     *
+     * @param eventHandler to pass the events on to.
+     * @param <T>          the type of event handled, which is the type of the events of this ring buffer.
+     * @return the wrapping event handler, to be set up in place of the event handler.
+     */
+    public <T extends E> EventHandler<T> conflating(final EventHandler<? super T> eventHandler)
+    {
+        return new ConflatingEventHandler<>(this, eventHandler);
+    }
+
+    void release(final long sequence)
+    {
+        // Serialised with an overwrite of the same key, so once it returns the event is never overwritten again
+        final long key = keys[(int) sequence & indexMask];
+        final PendingSequences pendingSequences = stripeOf(key);
+        synchronized (pendingSequences)
+        {
+            pendingSequences.remove(key, sequence);
+        }
+    }
+
+    private PendingSequences stripeOf(final long key)
+    {
+        // The upper bits of the low half of the hash, as the slots within a stripe are found from the high half
+        return stripes[(int) (((key * HASH_MULTIPLIER) & 0xFFFFFFFFL) >>> stripeShift)];
+    }
+
+    private long tryNext()
+    {
+        try
+        {
+            return ringBuffer.tryNext();
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return NONE;
+        }
+    }
+
+    private void publish(final PendingSequences pendingSequences, final long key, final long sequence)
+    {
+        keys[(int) sequence & indexMask] = key;
+        pendingSequences.put(key, sequence);
+        ringBuffer.publish(sequence);
+    }
+
+    private void awaitCapacity()
+    {
+        // An interrupt is kept for the caller, as with RingBuffer.next(), but cleared while parked so it cannot spin.
+        // The park is bounded, as consumers that do not signal producers never wake it.
+        final boolean interrupted = Thread.interrupted();
+        ringBuffer.awaitConsumerProgress(isFull, MAX_CAPACITY_PARK_NANOS);
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Open addressing map from key to pending sequence with linear probing, for one stripe of the keys. It starts
+     * with room for twice its share of the ring and doubles once more than half full, up to room for twice as many
+     * keys as the ring has slots. A key can only be pending in one slot, so it is never more than half full then.
+     */
+    private static final class PendingSequences
+    {
+        private final int maxCapacity;
+        private long[] keys;
+        private long[] sequences;
+        private int mask;
+        private int size;
+
+        PendingSequences(final int bufferSize, final int stripeCount)
+        {
+            this.maxCapacity = bufferSize * 2;
+            allocate(maxCapacity / stripeCount);
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        long get(final long key)
+        {
+            int slot = slotOf(key);
+            while (NONE != sequences[slot] && key != keys[slot])
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            return sequences[slot];
+        }
+
+        void put(final long key, final long sequence)
+        {
+            int slot = slotOf(key);
+            while (NONE != sequences[slot] && key != keys[slot])
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            if (NONE == sequences[slot])
+            {
+                sequences[slot] = sequence;
+                if (++size * 2 > sequences.length && sequences.length < maxCapacity)
+                {
+                    grow();
+                }
+            }
+            else
+            {
+                sequences[slot] = sequence;
+            }
+        }
+
+        void remove(final long key, final long sequence)
+        {
+            int hole = slotOf(key);
+            while (NONE != sequences[hole] && key != keys[hole])
+            {
+                hole = (hole + 1) & mask;
+            }
+
+            if (sequence != sequences[hole])
+            {
+                return;
+            }
+
+            // Shift back the keys that probed past the hole, so that lookups do not stop short at it
+            for (int slot = (hole + 1) & mask; NONE != sequences[slot]; slot = (slot + 1) & mask)
+            {
+                if (((slot - slotOf(keys[slot])) & mask) >= ((slot - hole) & mask))
+                {
+                    keys[hole] = keys[slot];
+                    sequences[hole] = sequences[slot];
+                    hole = slot;
+                }
+            }
+            sequences[hole] = NONE;
+            size--;
+        }
+
+        private int slotOf(final long key)
+        {
+            return (int) ((key * HASH_MULTIPLIER) >>> Integer.SIZE) & mask;
+        }
+
+        private void grow()
+        {
+            final long[] oldKeys = keys;
+            final long[] oldSequences = sequences;
+            allocate(oldSequences.length * 2);
+            for (int i = 0; i < oldSequences.length; i++)
+            {
+                if (NONE != oldSequences[i])
+                {
+                    int slot = slotOf(oldKeys[i]);
+                    while (NONE != sequences[slot])
+                    {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    sequences[slot] = oldSequences[i];
+                }
+            }
+        }
+
+        private void allocate(final int capacity)
+        {
+            keys = new long[capacity];
+            sequences = new long[capacity];
+            mask = capacity - 1;
+            Arrays.fill(sequences, NONE);
+        }
+    }
+
+    private static final class ConflatingEventHandler<T> implements EventHandler<T>
+    {
+        private final ConflatingRingBuffer<?> conflatingRingBuffer;
+        private final EventHandler<? super T> eventHandler;
+
+        ConflatingEventHandler(final ConflatingRingBuffer<?> conflatingRingBuffer, final EventHandler<? super T> eventHandler)
+        {
+            this.conflatingRingBuffer = conflatingRingBuffer;
+            this.eventHandler = eventHandler;
+        }
+
+        @Override
+        public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            conflatingRingBuffer.release(sequence);
+            eventHandler.onEvent(event, sequence, endOfBatch);
+        }
+
+        @Override
+        public void onBatchStart(final long batchSize, final long queueDepth)
+        {
+            eventHandler.onBatchStart(batchSize, queueDepth);
+        }
+
+        @Override
+        public void onStart()
+        {
+            eventHandler.onStart();
+        }
+
+        @Override
+        public void onShutdown()
+        {
+            eventHandler.onShutdown();
+        }
+
+        @Override
+        public void onTimeout(final long sequence) throws Exception
+        {
+            eventHandler.onTimeout(sequence);
+        }
+
+        @Override
+        public void setSequenceCallback(final Sequence sequenceCallback)
+        {
+            eventHandler.setSequenceCallback(sequenceCallback);
+        }
+    }
+}
@@ -114,6 +114,7 @@ public class EventPoller<T>
             finally
             {
                 sequence.set(processedSequence);
+                sequencer.signalProducers();
             }
 
             return PollState.PROCESSING;
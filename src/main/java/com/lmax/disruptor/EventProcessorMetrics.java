@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Callbacks from a {@link BatchEventProcessor} describing the work it does, for monitoring.
+ *
+ * <p>Methods are called on the processor thread, mostly after each batch has been processed and its sequence updated,
+ * so implementations should be cheap and must not allocate if the processor is to stay garbage free.
+ *
+ * @see BatchEventProcessorBuilder#setMetrics(EventProcessorMetrics)
+ * @see EventProcessorStats
+ */
+public interface EventProcessorMetrics
+{
+    /**
+     * Called after each batch.
+     *
+     * @param batchSize    the number of events in the batch.
+     * @param queueDepth   the number of events that were available when the batch started.
+     * @param waitNanos    the time spent waiting on the {@link SequenceBarrier} for the batch, in nanoseconds.
+     * @param handlerNanos the time spent in the event handler processing the batch, in nanoseconds.
+     */
+    void onBatch(long batchSize, long queueDepth, long waitNanos, long handlerNanos);
+
+    /**
+     * Called for each sampled sequence in a batch when the processor was built with
+     * {@link BatchEventProcessorBuilder#setPublishTimestamps(PublishTimestamps)}. Called before the sequence of the
+     * processor is updated, so keep it short.
+     *
+     * @param latencyNanos the time from the publication of a sampled sequence until the end of the batch that
+     *                     processed it, in nanoseconds.
+     */
+    default void onPublishLatency(final long latencyNanos)
+    {
+    }
+
+    /**
+     * Called when a batch is rewound after a {@link RewindableException}.
+     */
+    void onRewind();
+
+    /**
+     * Called when an exception from the event handler is passed to the {@link ExceptionHandler}.
+     */
+    void onEventException();
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import static java.lang.Math.max;
+
+/**
+ * Garbage free {@link EventProcessorMetrics} that accumulates counters for a single event processor, which
+ * may be read from any thread or exported over JMX, e.g.
+ *
+ * <pre><code>ManagementFactory.getPlatformMBeanServer().registerMBean(
+ *     stats, new ObjectName("com.lmax.disruptor:type=EventProcessorStats,name=journaller"));</code></pre>
+ *
+ * <p>Counters are only ever written by the processor thread, using opaque stores so a reader sees each value
+ * without the writer paying for a full fence. Values read together are not a consistent snapshot.
+ */
+public final class EventProcessorStats implements EventProcessorMetrics, EventProcessorStatsMXBean
+{
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int BATCH_COUNT = 0;
+    private static final int EVENT_COUNT = BATCH_COUNT + 1;
+    private static final int LAST_QUEUE_DEPTH = EVENT_COUNT + 1;
+    private static final int MAX_QUEUE_DEPTH = LAST_QUEUE_DEPTH + 1;
+    private static final int TOTAL_QUEUE_DEPTH = MAX_QUEUE_DEPTH + 1;
+    private static final int WAIT_NANOS = TOTAL_QUEUE_DEPTH + 1;
+    private static final int HANDLER_NANOS = WAIT_NANOS + 1;
+    private static final int REWIND_COUNT = HANDLER_NANOS + 1;
+    private static final int EXCEPTION_COUNT = REWIND_COUNT + 1;
+    private static final int MAX_PUBLISH_LATENCY = EXCEPTION_COUNT + 1;
+    private static final int COUNTER_COUNT = MAX_PUBLISH_LATENCY + 1;
+
+    private final long[] counters = new long[COUNTER_COUNT];
+    private final long[] batchSizeHistogram = new long[Long.SIZE];
+    private final long[] publishLatencyHistogram = new long[Long.SIZE];
+
+    @Override
+    public void onBatch(final long batchSize, final long queueDepth, final long waitNanos, final long handlerNanos)
+    {
+        increment(counters, BATCH_COUNT, 1);
+        increment(counters, EVENT_COUNT, batchSize);
+        COUNTERS.setOpaque(counters, LAST_QUEUE_DEPTH, queueDepth);
+        if (queueDepth > counters[MAX_QUEUE_DEPTH])
+        {
+            COUNTERS.setOpaque(counters, MAX_QUEUE_DEPTH, queueDepth);
+        }
+        increment(counters, TOTAL_QUEUE_DEPTH, queueDepth);
+        increment(counters, WAIT_NANOS, waitNanos);
+        increment(counters, HANDLER_NANOS, handlerNanos);
+        increment(batchSizeHistogram, bucket(batchSize), 1);
+    }
+
+    @Override
+    public void onPublishLatency(final long latencyNanos)
+    {
+        if (latencyNanos > counters[MAX_PUBLISH_LATENCY])
+        {
+            COUNTERS.setOpaque(counters, MAX_PUBLISH_LATENCY, latencyNanos);
+        }
+        increment(publishLatencyHistogram, bucket(latencyNanos), 1);
+    }
+
+    @Override
+    public void onRewind()
+    {
+        increment(counters, REWIND_COUNT, 1);
+    }
+
+    @Override
+    public void onEventException()
+    {
+        increment(counters, EXCEPTION_COUNT, 1);
+    }
+
+    private static int bucket(final long value)
+    {
+        return max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value));
+    }
+
+    private static void increment(final long[] array, final int index, final long delta)
+    {
+        COUNTERS.setOpaque(array, index, array[index] + delta);
+    }
+
+    private long get(final int index)
+    {
+        return (long) COUNTERS.getOpaque(counters, index);
+    }
+
+    @Override
+    public long getBatchCount()
+    {
+        return get(BATCH_COUNT);
+    }
+
+    @Override
+    public long getEventCount()
+    {
+        return get(EVENT_COUNT);
+    }
+
+    @Override
+    public long getLastQueueDepth()
+    {
+        return get(LAST_QUEUE_DEPTH);
+    }
+
+    @Override
+    public long getMaxQueueDepth()
+    {
+        return get(MAX_QUEUE_DEPTH);
+    }
+
+    @Override
+    public double getMeanQueueDepth()
+    {
+        final long batchCount = getBatchCount();
+        return batchCount == 0 ? 0.0 : (double) get(TOTAL_QUEUE_DEPTH) / batchCount;
+    }
+
+    @Override
+    public long getWaitNanos()
+    {
+        return get(WAIT_NANOS);
+    }
+
+    @Override
+    public long getHandlerNanos()
+    {
+        return get(HANDLER_NANOS);
+    }
+
+    @Override
+    public long getRewindCount()
+    {
+        return get(REWIND_COUNT);
+    }
+
+    @Override
+    public long getExceptionCount()
+    {
+        return get(EXCEPTION_COUNT);
+    }
+
+    @Override
+    public long[] getBatchSizeHistogram()
+    {
+        return copyOf(batchSizeHistogram);
+    }
+
+    @Override
+    public long getMaxPublishLatencyNanos()
+    {
+        return get(MAX_PUBLISH_LATENCY);
+    }
+
+    @Override
+    public long[] getPublishLatencyHistogram()
+    {
+        return copyOf(publishLatencyHistogram);
+    }
+
+    private static long[] copyOf(final long[] buckets)
+    {
+        final long[] histogram = new long[buckets.length];
+        int length = 0;
+        for (int i = 0; i < histogram.length; i++)
+        {
+            histogram[i] = (long) COUNTERS.getOpaque(buckets, i);
+            if (histogram[i] != 0)
+            {
+                length = i + 1;
+            }
+        }
+
+        return Arrays.copyOf(histogram, length);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EventProcessorStats{" +
+            "batchCount=" + getBatchCount() +
+            ", eventCount=" + getEventCount() +
+            ", maxQueueDepth=" + getMaxQueueDepth() +
+            ", waitNanos=" + getWaitNanos() +
+            ", handlerNanos=" + getHandlerNanos() +
+            ", rewindCount=" + getRewindCount() +
+            ", exceptionCount=" + getExceptionCount() +
+            '}';
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Management interface of {@link EventProcessorStats}, so that they can be registered with an MBean server.
+ */
+public interface EventProcessorStatsMXBean
+{
+    /**
+     * @return the number of batches processed.
+     */
+    long getBatchCount();
+
+    /**
+     * @return the number of events processed.
+     */
+    long getEventCount();
+
+    /**
+     * @return the number of events available at the start of the most recent batch.
+     */
+    long getLastQueueDepth();
+
+    /**
+     * @return the largest number of events available at the start of a batch.
+     */
+    long getMaxQueueDepth();
+
+    /**
+     * @return the mean number of events available at the start of a batch.
+     */
+    double getMeanQueueDepth();
+
+    /**
+     * @return the total time spent waiting for events, in nanoseconds.
+     */
+    long getWaitNanos();
+
+    /**
+     * @return the total time spent in the event handler, in nanoseconds.
+     */
+    long getHandlerNanos();
+
+    /**
+     * @return the number of batches rewound.
+     */
+    long getRewindCount();
+
+    /**
+     * @return the number of exceptions from the event handler.
+     */
+    long getExceptionCount();
+
+    /**
+     * Counts of batches by size, where element {@code i} counts batches of {@code 2^i} up to {@code 2^(i+1) - 1}
+     * events. Trailing empty buckets are omitted.
+     *
+     * @return a copy of the batch size histogram.
+     */
+    long[] getBatchSizeHistogram();
+
+    /**
+     * The longest time from publication to the end of processing of a sampled event.
+     *
+     * @return the maximum publish latency in nanoseconds, 0 if the ring buffer is not sampling publish timestamps.
+     */
+    long getMaxPublishLatencyNanos();
+
+    /**
+     * Counts of sampled events by publish latency, where element {@code i} counts latencies of {@code 2^i} up to
+     * {@code 2^(i+1) - 1} nanoseconds. Trailing empty buckets are omitted.
+     *
+     * @return a copy of the publish latency histogram.
+     */
+    long[] getPublishLatencyHistogram();
+}
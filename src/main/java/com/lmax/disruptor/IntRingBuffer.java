@@ -0,0 +1,189 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.util.Objects;
+
+abstract class IntRingBufferFields extends AbstractPrimitiveRingBuffer
+{
+    protected static final int BUFFER_PAD = 32;
+
+    protected final int[] entries;
+
+    IntRingBufferFields(final Sequencer sequencer)
+    {
+        super(sequencer);
+        this.entries = new int[bufferSize + 2 * BUFFER_PAD];
+    }
+
+    protected final int elementAt(final long sequence)
+    {
+        return entries[BUFFER_PAD + indexOf(sequence)];
+    }
+
+    protected final void setElementAt(final long sequence, final int value)
+    {
+        entries[BUFFER_PAD + indexOf(sequence)] = value;
+    }
+}
+
+/**
+ * <p>Ring based store of <code>int</code> values, held directly in a padded <code>int[]</code> rather than in
+ * pre-allocated event objects, for streams where each event is a single small value such as an index or a code.</p>
+ *
+ * <p>It is the same as a {@link LongRingBuffer} but takes half the memory, so twice as many values fit in each
+ * cache line.  Values are consumed by an {@link IntBatchEventProcessor}.  A <code>float</code> fits in an
+ * <code>int</code> too, with {@link Float#floatToRawIntBits(float)}.</p>
+ */
+public final class IntRingBuffer extends IntRingBufferFields
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+
+    /**
+     * Construct an IntRingBuffer.
+     *
+     * @param sequencer sequencer to handle the ordering of values moving through the IntRingBuffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    IntRingBuffer(final Sequencer sequencer)
+    {
+        super(sequencer);
+    }
+
+    /**
+     * Create a new multiple producer IntRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of values in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new values to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static IntRingBuffer createMultiProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.MULTI, bufferSize, waitStrategy);
+    }
+
+    /**
+     * Create a new single producer IntRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of values in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new values to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static IntRingBuffer createSingleProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.SINGLE, bufferSize, waitStrategy);
+    }
+
+    /**
+     * Create a new IntRingBuffer.
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of values in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new values to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static IntRingBuffer create(final ProducerType producerType, final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return new IntRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy));
+            case MULTI:
+                return new IntRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy));
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Get the value published with a given sequence.
+     *
+     * @param sequence of the value
+     * @return the value for the given sequence
+     */
+    public int get(final long sequence)
+    {
+        return elementAt(sequence);
+    }
+
+    /**
+     * Publish a value, waiting for capacity if the ring buffer is full.
+     *
+     * @param value to publish.
+     * @return the sequence of the value.
+     */
+    public long publish(final int value)
+    {
+        final long sequence = sequencer.next();
+        setElementAt(sequence, value);
+        sequencer.publish(sequence);
+
+        return sequence;
+    }
+
+    /**
+     * Publish a value if there is capacity for it.
+     *
+     * @param value to publish.
+     * @return true if the value was published, false if the ring buffer was full.
+     */
+    public boolean tryPublish(final int value)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            setElementAt(sequence, value);
+            sequencer.publish(sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish a run of values, waiting for capacity if the ring buffer is full.  The values are claimed and copied
+     * into the ring buffer with {@link System#arraycopy(Object, int, Object, int, int)} as one batch, or in batches
+     * of the buffer size if there are more values than that.
+     *
+     * @param values to publish.
+     * @param offset of the first value to publish.
+     * @param length the number of values to publish.
+     * @return the sequence of the last value, or the cursor if there are no values.
+     * @throws IndexOutOfBoundsException if the offset and length are out of the bounds of the values.
+     */
+    public long publishAll(final int[] values, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, values.length);
+
+        return publishAll(entries, BUFFER_PAD, values, offset, length);
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Util;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Ring buffer of fixed size slots shared between processes through a memory mapped file.  The slots, the
+ * claim cursor, the availability flag of each slot and a sequence for each consumer all live in the file, so
+ * a producer in one JVM and {@link EventProcessor}s in other JVMs on the same host hand events over through
+ * shared memory without a system call.</p>
+ *
+ * <p>One process calls {@link #create(Path, int, int, int)} to lay out a new file and the others
+ * {@link #open(Path)} it afterwards.  Producers in any of the processes claim and publish slots in the same
+ * way as with a multiple producer {@link RingBuffer}, and are gated on every consumer sequence in the file,
+ * including those of consumers that have not yet attached.  A consumer takes one of the consumer indexes and
+ * runs a {@link BatchEventProcessor} from {@link #newProcessor(int, WaitStrategy, EventHandler)}, which copies the
+ * processor's progress into its sequence in the file each time the processor signals producers.</p>
+ *
+ * <pre><code>
+ * // consumer process
+ * IpcRingBuffer ringBuffer = IpcRingBuffer.open(path);
+ * BatchEventProcessor&lt;ByteBuffer&gt; processor = ringBuffer.newProcessor(0, new YieldingWaitStrategy(), handler);
+ * </code></pre>
+ *
+ * <p>A process is not woken by a publish or a consume made by another process, so only the wait strategies that
+ * poll the cursor, {@link BusySpinWaitStrategy}, {@link YieldingWaitStrategy} and {@link SleepingWaitStrategy},
+ * may be used.  Multi-byte values in the slots are read and written in
+ * {@link ByteOrder#nativeOrder()}, the file is only meant to be shared between processes on one host.</p>
+ */
+public final class IpcRingBuffer implements Cursored, EventSequencer<ByteBuffer>
+{
+    static final int MAGIC = 0x4C4D4158;
+    static final int MAGIC_OFFSET = 0;
+    static final int BUFFER_SIZE_OFFSET = 4;
+    static final int SLOT_SIZE_OFFSET = 8;
+    static final int CONSUMER_COUNT_OFFSET = 12;
+    static final int ALIGNMENT = 128;
+    static final int CURSOR_OFFSET = ALIGNMENT;
+    static final int CONSUMERS_OFFSET = 2 * ALIGNMENT;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final int SPIN_TRIES = 100;
+
+    private final MappedByteBuffer region;
+    private final int bufferSize;
+    private final int slotSize;
+    private final int indexMask;
+    private final int indexShift;
+    private final int availableOffset;
+    private final int dataOffset;
+    private final Sequence cursor;
+    private final Sequence[] consumerSequences;
+    private final Sequence gatingSequenceCache = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private IpcRingBuffer(final MappedByteBuffer region)
+    {
+        this.region = region;
+        region.order(ByteOrder.nativeOrder());
+        if ((int) INT_VIEW.getAcquire(region, MAGIC_OFFSET) != MAGIC)
+        {
+            throw new IllegalArgumentException("file does not hold an initialised IpcRingBuffer");
+        }
+
+        this.bufferSize = region.getInt(BUFFER_SIZE_OFFSET);
+        this.slotSize = region.getInt(SLOT_SIZE_OFFSET);
+        final int consumerCount = region.getInt(CONSUMER_COUNT_OFFSET);
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Util.log2(bufferSize);
+        this.availableOffset = (int) availableOffset(consumerCount);
+        this.dataOffset = (int) dataOffset(bufferSize, consumerCount);
+        this.cursor = new MappedSequence(region, CURSOR_OFFSET);
+        this.consumerSequences = new Sequence[consumerCount];
+        for (int i = 0; i < consumerCount; i++)
+        {
+            consumerSequences[i] = new MappedSequence(region, CONSUMERS_OFFSET + i * ALIGNMENT);
+        }
+    }
+
+    /**
+     * Create the file for a new IpcRingBuffer and map it.  An existing file is never replaced, as processes
+     * may still have it mapped.
+     *
+     * @param path          of the file.
+     * @param bufferSize    number of slots in the ring buffer.
+     * @param slotSize      number of bytes in each slot.
+     * @param consumerCount number of consumers that producers are gated on.
+     * @return a constructed ring buffer.
+     * @throws IOException              if the file cannot be created or mapped, including
+     *                                  {@link java.nio.file.FileAlreadyExistsException} if it already exists.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, slotSize or consumerCount
+     *                                  are less than 1, or the file would exceed {@link Integer#MAX_VALUE} bytes.
+     */
+    public static IpcRingBuffer create(final Path path, final int bufferSize, final int slotSize, final int consumerCount) throws IOException
+    {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+        if (slotSize < 1 || consumerCount < 1)
+        {
+            throw new IllegalArgumentException("slotSize and consumerCount must not be less than 1");
+        }
+        final long fileSize = dataOffset(bufferSize, consumerCount) + (long) bufferSize * slotSize;
+        if (fileSize > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("file of " + fileSize + " bytes is too large to map");
+        }
+
+        final MappedByteBuffer region;
+        try (FileChannel channel = FileChannel.open(
+            path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        }
+        region.order(ByteOrder.nativeOrder());
+
+        region.putInt(BUFFER_SIZE_OFFSET, bufferSize);
+        region.putInt(SLOT_SIZE_OFFSET, slotSize);
+        region.putInt(CONSUMER_COUNT_OFFSET, consumerCount);
+        region.putLong(CURSOR_OFFSET, Sequencer.INITIAL_CURSOR_VALUE);
+        for (int i = 0; i < consumerCount; i++)
+        {
+            region.putLong(CONSUMERS_OFFSET + i * ALIGNMENT, Sequencer.INITIAL_CURSOR_VALUE);
+        }
+        final int availableOffset = (int) availableOffset(consumerCount);
+        for (int i = 0; i < bufferSize; i++)
+        {
+            region.putInt(availableOffset + i * Integer.BYTES, -1);
+        }
+        INT_VIEW.setRelease(region, MAGIC_OFFSET, MAGIC);
+
+        return new IpcRingBuffer(region);
+    }
+
+    /**
+     * Map the file of an IpcRingBuffer created by {@link #create(Path, int, int, int)}, typically in another process.
+     *
+     * @param path of the file.
+     * @return a ring buffer sharing the slots and sequences held in the file.
+     * @throws IOException              if the file cannot be opened or mapped.
+     * @throws IllegalArgumentException if the file does not hold an initialised ring buffer.
+     */
+    public static IpcRingBuffer open(final Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            return new IpcRingBuffer(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+    }
+
+    /**
+     * <p>Get the buffer holding the slot at a given sequence.</p>
+     *
+     * <p>The returned buffer maps the whole file and is shared by all threads, so only its absolute accessors may
+     * be used, from {@link #getOffset(long)} up to {@link #getSlotSize()} bytes beyond it.</p>
+     *
+     * @param sequence for the slot
+     * @return the buffer over the file holding the slot for the given sequence
+     */
+    @Override
+    public ByteBuffer get(final long sequence)
+    {
+        return region;
+    }
+
+    /**
+     * Get the offset of the slot for a given sequence within the mapped file.
+     *
+     * @param sequence for the slot
+     * @return the index of the first byte of the slot within the file
+     */
+    public int getOffset(final long sequence)
+    {
+        return dataOffset + (int) (sequence & indexMask) * slotSize;
+    }
+
+    /**
+     * The number of bytes in each slot.
+     *
+     * @return size of a slot
+     */
+    public int getSlotSize()
+    {
+        return slotSize;
+    }
+
+    /**
+     * The number of consumers producers are gated on.
+     *
+     * @return number of consumer sequences in the file
+     */
+    public int getConsumerCount()
+    {
+        return consumerSequences.length;
+    }
+
+    /**
+     * Get the sequence in the file recording the progress of a consumer.
+     *
+     * @param consumerIndex of the consumer
+     * @return the sequence of the consumer
+     */
+    public Sequence getConsumerSequence(final int consumerIndex)
+    {
+        return consumerSequences[consumerIndex];
+    }
+
+    /**
+     * Create a new SequenceBarrier for an {@link EventProcessor} acting as one of the consumers of this ring
+     * buffer.  Each time the processor waits for a sequence the barrier records that everything before it has
+     * been processed in the consumer's sequence in the file, releasing those slots to producers.  To resume a
+     * consumer, set the processor's sequence from {@link #getConsumerSequence(int)} before starting it.
+     * {@link #newProcessor(int, WaitStrategy, EventHandler)} also releases the slots whenever the processor
+     * signals producers, and resumes the consumer.
+     *
+     * @param consumerIndex    of the consumer, from 0 to the consumer count - 1.
+     * @param waitStrategy     used to poll for new events, one of {@link BusySpinWaitStrategy},
+     *                         {@link YieldingWaitStrategy} or {@link SleepingWaitStrategy}.
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @throws IllegalArgumentException if the wait strategy relies on being signalled by producers.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(final int consumerIndex, final WaitStrategy waitStrategy, final Sequence... sequencesToTrack)
+    {
+        return new IpcSequenceBarrier(this, consumerSequences[consumerIndex], waitStrategy, cursor, sequencesToTrack);
+    }
+
+    /**
+     * Create a {@link BatchEventProcessor} acting as one of the consumers of this ring buffer, resuming from the
+     * consumer's sequence in the file.  The processor's progress is copied into that sequence each time it
+     * signals producers, releasing the processed slots to producers in every process.
+     *
+     * @param consumerIndex of the consumer, from 0 to the consumer count - 1.
+     * @param waitStrategy  used to poll for new events, one of {@link BusySpinWaitStrategy},
+     *                      {@link YieldingWaitStrategy} or {@link SleepingWaitStrategy}.
+     * @param eventHandler  is the delegate to which events are dispatched.
+     * @return the BatchEventProcessor, not yet started.
+     * @throws IllegalArgumentException if the wait strategy relies on being signalled by producers.
+     */
+    public BatchEventProcessor<ByteBuffer> newProcessor(
+        final int consumerIndex, final WaitStrategy waitStrategy, final EventHandler<? super ByteBuffer> eventHandler)
+    {
+        final IpcSequenceBarrier sequenceBarrier = new IpcSequenceBarrier(this, consumerSequences[consumerIndex], waitStrategy, cursor, new Sequence[0]);
+        final BatchEventProcessor<ByteBuffer> processor = new BatchEventProcessorBuilder().build(this, sequenceBarrier, eventHandler);
+        processor.getSequence().set(consumerSequences[consumerIndex].get());
+        sequenceBarrier.follow(processor.getSequence());
+
+        return processor;
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return hasAvailableCapacity(requiredCapacity, cursor.get());
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        final long produced = cursor.get();
+        final long consumed = Util.getMinimumSequence(consumerSequences, produced);
+        return bufferSize - (produced - consumed);
+    }
+
+    @Override
+    public long next()
+    {
+        return next(1);
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        if (n < 1 || n > bufferSize)
+        {
+            throw new IllegalArgumentException("n must be > 0 and < bufferSize");
+        }
+
+        final long current = cursor.getAndAdd(n);
+        final long nextSequence = current + n;
+        final long wrapPoint = nextSequence - bufferSize;
+        final long cachedGatingSequence = gatingSequenceCache.get();
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current)
+        {
+            long gatingSequence;
+            int counter = SPIN_TRIES;
+            while (wrapPoint > (gatingSequence = Util.getMinimumSequence(consumerSequences, current)))
+            {
+                if (counter > 0)
+                {
+                    --counter;
+                    Thread.onSpinWait();
+                }
+                else
+                {
+                    Thread.yield();
+                }
+            }
+
+            gatingSequenceCache.set(gatingSequence);
+        }
+
+        return nextSequence;
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return tryNext(1);
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        if (n < 1)
+        {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        long current;
+        long next;
+
+        do
+        {
+            current = cursor.get();
+            next = current + n;
+
+            if (!hasAvailableCapacity(n, current))
+            {
+                throw InsufficientCapacityException.INSTANCE;
+            }
+        }
+        while (!cursor.compareAndSet(current, next));
+
+        return next;
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        INT_VIEW.setRelease(region, availableIndex(sequence), availabilityFlag(sequence));
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        for (long sequence = lo; sequence <= hi; sequence++)
+        {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Determines if the event for a given sequence is currently available.
+     *
+     * @param sequence The sequence to identify the entry.
+     * @return If the event published with the given sequence number is currently available.
+     * @see RingBuffer#isAvailable(long)
+     */
+    public boolean isAvailable(final long sequence)
+    {
+        return (int) INT_VIEW.getAcquire(region, availableIndex(sequence)) == availabilityFlag(sequence);
+    }
+
+    /**
+     * Get the current cursor value for the ring buffer, the highest sequence claimed by any producer.  Use
+     * {@link #isAvailable(long)} to determine whether a claimed sequence has been published.
+     */
+    @Override
+    public long getCursor()
+    {
+        return cursor.get();
+    }
+
+    long getHighestPublishedSequence(final long lowerBound, final long availableSequence)
+    {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++)
+        {
+            if (!isAvailable(sequence))
+            {
+                return sequence - 1;
+            }
+        }
+
+        return availableSequence;
+    }
+
+    private boolean hasAvailableCapacity(final int requiredCapacity, final long cursorValue)
+    {
+        final long wrapPoint = (cursorValue + requiredCapacity) - bufferSize;
+        final long cachedGatingSequence = gatingSequenceCache.get();
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > cursorValue)
+        {
+            final long minSequence = Util.getMinimumSequence(consumerSequences, cursorValue);
+            gatingSequenceCache.set(minSequence);
+
+            return wrapPoint <= minSequence;
+        }
+
+        return true;
+    }
+
+    private int availableIndex(final long sequence)
+    {
+        return availableOffset + (int) (sequence & indexMask) * Integer.BYTES;
+    }
+
+    private int availabilityFlag(final long sequence)
+    {
+        return (int) (sequence >>> indexShift);
+    }
+
+    private static long availableOffset(final int consumerCount)
+    {
+        return CONSUMERS_OFFSET + (long) consumerCount * ALIGNMENT;
+    }
+
+    private static long dataOffset(final int bufferSize, final int consumerCount)
+    {
+        final long availableEnd = availableOffset(consumerCount) + (long) bufferSize * Integer.BYTES;
+        return (availableEnd + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
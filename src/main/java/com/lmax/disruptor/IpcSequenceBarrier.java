@@ -0,0 +1,145 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+
+/**
+ * {@link SequenceBarrier} handed out for gating an {@link EventProcessor} on the cursor of an {@link IpcRingBuffer}
+ * and optional dependent {@link EventProcessor}(s), using the given WaitStrategy.  The processor's progress is copied
+ * into a consumer sequence held in the shared file so that producers in other processes can reuse its slots.
+ */
+final class IpcSequenceBarrier implements SequenceBarrier
+{
+    private final WaitStrategy waitStrategy;
+    private final Sequence dependentSequence;
+    private volatile boolean alerted = false;
+    private final Sequence cursorSequence;
+    private final Sequence consumerSequence;
+    private final IpcRingBuffer ringBuffer;
+    private Sequence progress;
+
+    IpcSequenceBarrier(
+        final IpcRingBuffer ringBuffer,
+        final Sequence consumerSequence,
+        final WaitStrategy waitStrategy,
+        final Sequence cursorSequence,
+        final Sequence[] dependentSequences)
+    {
+        if (!(waitStrategy instanceof BusySpinWaitStrategy ||
+            waitStrategy instanceof YieldingWaitStrategy ||
+            waitStrategy instanceof SleepingWaitStrategy))
+        {
+            throw new IllegalArgumentException(
+                "waitStrategy must poll the cursor, as one process is not woken by another: " + waitStrategy);
+        }
+
+        this.ringBuffer = ringBuffer;
+        this.consumerSequence = consumerSequence;
+        this.waitStrategy = waitStrategy;
+        this.cursorSequence = cursorSequence;
+        if (0 == dependentSequences.length)
+        {
+            dependentSequence = cursorSequence;
+        }
+        else
+        {
+            dependentSequence = new FixedSequenceGroup(dependentSequences);
+        }
+    }
+
+    @Override
+    public long waitFor(final long sequence)
+        throws AlertException, InterruptedException, TimeoutException
+    {
+        // An event processor only waits for a sequence once it has processed everything before it
+        release(sequence - 1);
+
+        checkAlert();
+
+        long availableSequence = waitStrategy.waitFor(sequence, cursorSequence, dependentSequence, this);
+
+        if (availableSequence < sequence)
+        {
+            return availableSequence;
+        }
+
+        return ringBuffer.getHighestPublishedSequence(sequence, availableSequence);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return dependentSequence.get();
+    }
+
+    @Override
+    public boolean isAlerted()
+    {
+        return alerted;
+    }
+
+    @Override
+    public void alert()
+    {
+        alerted = true;
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public void clearAlert()
+    {
+        alerted = false;
+    }
+
+    @Override
+    public void checkAlert() throws AlertException
+    {
+        if (alerted)
+        {
+            throw AlertException.INSTANCE;
+        }
+    }
+
+    @Override
+    public void signalProducers()
+    {
+        // Producers in other processes poll the file, so copying the progress there is all the signal they need
+        final Sequence progress = this.progress;
+        if (null != progress)
+        {
+            release(progress.get());
+        }
+    }
+
+    /**
+     * Copy the progress of the event processor using this barrier into the consumer sequence each time it signals
+     * producers.  Must be called before the processor is started.
+     *
+     * @param progress the sequence of the event processor.
+     */
+    void follow(final Sequence progress)
+    {
+        this.progress = progress;
+    }
+
+    private void release(final long processed)
+    {
+        if (processed > consumerSequence.get())
+        {
+            consumerSequence.set(processed);
+        }
+    }
+}
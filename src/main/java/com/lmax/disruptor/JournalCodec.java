@@ -0,0 +1,47 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implementations serialise events to, and deserialise them from, a journal written by a
+ * {@link JournallingEventHandler}.
+ *
+ * <p>The buffers are views of the memory-mapped journal, so an event is copied straight to or from the file
+ * without going through an intermediate array.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public interface JournalCodec<T>
+{
+    /**
+     * Write an event to the journal, starting at the position of the buffer and leaving the position just after
+     * the last byte written. The limit of the buffer is the maximum record length of the journal.
+     *
+     * @param event  to write.
+     * @param buffer to write the event to.
+     */
+    void encode(T event, ByteBuffer buffer);
+
+    /**
+     * Read an event written by {@link #encode(Object, ByteBuffer)} from the journal into an event.
+     *
+     * @param buffer holding exactly the bytes written for the event, from its position to its limit.
+     * @param event  into which the data should be read.
+     */
+    void decode(ByteBuffer buffer, T event);
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Republishes the events of a journal written by a {@link JournallingEventHandler} to a {@link RingBuffer}, to
+ * rebuild the state of the handlers after a restart.
+ *
+ * <p>The segments are read through memory mapping and the events decoded by the {@link JournalCodec} straight from
+ * the mapped file into the ring buffer. Events are claimed and published in batches of up to the claim size, as
+ * with {@link RingBuffer#publishEvents(EventTranslator[])}, rather than one at a time. The journal is replayed up
+ * to its first torn record, one whose checksum does not match, as left by a crash while it was being written.
+ *
+ * <p>The events are republished in journal order, so when replaying to a new ring buffer before anything else is
+ * published, each event gets back the sequence it was journalled with and the {@link JournallingEventHandler} checks
+ * it against the journal rather than journalling it again. Handlers that have already checkpointed their state up to a sequence can be wrapped in a
+ * {@link CheckpointedEventHandler} so that they skip the events they have already processed.
+ *
+ * <pre><code>RingBuffer&lt;Order&gt; ringBuffer = disruptor.start();
+ * new JournalReplayer&lt;&gt;(journalDirectory, codec).replay(ringBuffer);</code></pre>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class JournalReplayer<T>
+{
+    /**
+     * The default maximum number of events claimed and published together.
+     */
+    public static final int DEFAULT_CLAIM_SIZE = 1024;
+
+    private final Path directory;
+    private final JournalCodec<? super T> codec;
+    private final int claimSize;
+
+    /**
+     * Construct a replayer claiming up to {@link #DEFAULT_CLAIM_SIZE} events at a time.
+     *
+     * @param directory of the journal.
+     * @param codec     to deserialise the events.
+     */
+    public JournalReplayer(final Path directory, final JournalCodec<? super T> codec)
+    {
+        this(directory, codec, DEFAULT_CLAIM_SIZE);
+    }
+
+    /**
+     * Construct a replayer.
+     *
+     * @param directory of the journal.
+     * @param codec     to deserialise the events.
+     * @param claimSize the maximum number of events claimed and published together, capped at the buffer size.
+     * @throws IllegalArgumentException if the claim size is less than 1.
+     */
+    public JournalReplayer(final Path directory, final JournalCodec<? super T> codec, final int claimSize)
+    {
+        if (claimSize < 1)
+        {
+            throw new IllegalArgumentException("claimSize must not be less than 1");
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.claimSize = claimSize;
+    }
+
+    /**
+     * Republish every event of the journal to a ring buffer, waiting for space as
+     * {@link RingBuffer#next(int)} does.
+     *
+     * @param ringBuffer to publish the events to.
+     * @return the journalled sequence of the last event republished, or -1 if the journal is empty.
+     * @throws IOException if a segment cannot be read.
+     */
+    public long replay(final RingBuffer<T> ringBuffer) throws IOException
+    {
+        final int maxClaim = Math.min(claimSize, ringBuffer.getBufferSize());
+        // One reader counts the records of the next batch ahead of the one decoding them
+        final JournalSegments.Reader ahead = new JournalSegments.Reader(directory);
+        final JournalSegments.Reader reader = new JournalSegments.Reader(directory);
+        long lastSequence = Sequencer.INITIAL_CURSOR_VALUE;
+
+        for (int count = countRecords(ahead, maxClaim); count > 0; count = countRecords(ahead, maxClaim))
+        {
+            final long hi = ringBuffer.next(count);
+            final long lo = hi - (count - 1);
+            try
+            {
+                for (long sequence = lo; sequence <= hi; sequence++)
+                {
+                    reader.next();
+                    codec.decode(reader.payload(), ringBuffer.get(sequence));
+                    lastSequence = reader.sequence();
+                }
+            }
+            finally
+            {
+                ringBuffer.publish(lo, hi);
+            }
+        }
+
+        return lastSequence;
+    }
+
+    private static int countRecords(final JournalSegments.Reader reader, final int maxCount) throws IOException
+    {
+        int count = 0;
+        while (count < maxCount && reader.next())
+        {
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * The layout of the journal written by a {@link JournallingEventHandler}.
+ *
+ * <p>The journal is a directory of segment files, each named after the sequence of its first event so that the
+ * names sort in sequence order. A segment holds records one after the other, each made of the record length as an
+ * int, a CRC32C checksum of the rest of the record as an int, the sequence of the event as a long and the bytes
+ * written by the {@link JournalCodec}. The rest of the segment is left zeroed, so a record length of 0 marks its end.
+ *
+ * <p>Pages of a mapped segment can reach the disk in any order, so a crash can leave the length of a record in
+ * place without all of its other bytes. Such a torn record fails its checksum, and the journal is read up to the
+ * first one only.
+ */
+final class JournalSegments
+{
+    static final String SUFFIX = ".journal";
+    static final int CHECKSUM_OFFSET = Integer.BYTES;
+    static final int SEQUENCE_OFFSET = CHECKSUM_OFFSET + Integer.BYTES;
+    static final int HEADER_LENGTH = SEQUENCE_OFFSET + Long.BYTES;
+
+    private static final String NAME_FORMAT = "%019d" + SUFFIX;
+
+    private JournalSegments()
+    {
+    }
+
+    static Path segmentPath(final Path directory, final long firstSequence)
+    {
+        return directory.resolve(String.format(NAME_FORMAT, firstSequence));
+    }
+
+    static long firstSequence(final Path segment)
+    {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    static List<Path> list(final Path directory) throws IOException
+    {
+        try (Stream<Path> paths = Files.list(directory))
+        {
+            return paths
+                .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    static MappedByteBuffer create(final Path segment, final int size) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(
+            segment, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    static MappedByteBuffer open(final Path segment) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ))
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * The checksum of a record, from its sequence to its end.
+     *
+     * @param crc     reused between records.
+     * @param segment a view of the segment, whose position and limit are changed.
+     * @param offset  of the record.
+     * @param length  of the record.
+     * @return the checksum to store in the header of the record.
+     */
+    static int checksum(final CRC32C crc, final ByteBuffer segment, final int offset, final int length)
+    {
+        crc.reset();
+        crc.update(segment.clear().position(offset + SEQUENCE_OFFSET).limit(offset + length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The length of the record at an offset of a segment, or 0 past the last record or at a torn record.
+     *
+     * @param crc     reused between records.
+     * @param segment a view of the segment, whose position and limit are changed.
+     * @param offset  of the record.
+     * @return the length of the record, 0 if there is no complete record at the offset.
+     */
+    static int recordLength(final CRC32C crc, final ByteBuffer segment, final int offset)
+    {
+        final int available = segment.capacity() - offset;
+        final int length = available < HEADER_LENGTH ? 0 : segment.clear().getInt(offset);
+        final boolean complete = length >= HEADER_LENGTH && length <= available &&
+            segment.getInt(offset + CHECKSUM_OFFSET) == checksum(crc, segment, offset, length);
+
+        return complete ? length : 0;
+    }
+
+    /**
+     * Whether a segment ends cleanly at an offset, rather than at a torn record.
+     */
+    static boolean isEnd(final ByteBuffer segment, final int offset)
+    {
+        return segment.capacity() - offset < HEADER_LENGTH || 0 == segment.clear().getInt(offset);
+    }
+
+    /**
+     * Cut a journal off at its first torn record, if any, so that the records written after recovering can be read.
+     *
+     * @param directory of the journal.
+     * @return the sequence of the last complete record, or -1 if there is none.
+     * @throws IOException if a segment cannot be read or written.
+     */
+    static long recover(final Path directory) throws IOException
+    {
+        final Reader reader = new Reader(directory);
+        long lastSequence = Sequencer.INITIAL_CURSOR_VALUE;
+        while (reader.next())
+        {
+            lastSequence = reader.sequence();
+        }
+        reader.truncate();
+
+        return lastSequence;
+    }
+
+    /**
+     * Reads the records of a journal in order, up to the first torn record.
+     */
+    static final class Reader
+    {
+        private final List<Path> segments;
+        private final CRC32C crc = new CRC32C();
+        private int nextSegment;
+        private ByteBuffer segment;
+        private int offset;
+        private int length;
+
+        Reader(final Path directory) throws IOException
+        {
+            this.segments = list(directory);
+        }
+
+        /**
+         * Move on to the next record.
+         *
+         * @return false at the end of the journal or at a torn record.
+         * @throws IOException if a segment cannot be read.
+         */
+        boolean next() throws IOException
+        {
+            offset += length;
+            length = null == segment ? 0 : recordLength(crc, segment, offset);
+            while (0 == length && (null == segment || isEnd(segment, offset)) && nextSegment < segments.size())
+            {
+                segment = open(segments.get(nextSegment++));
+                offset = 0;
+                length = recordLength(crc, segment, offset);
+            }
+
+            return length > 0;
+        }
+
+        /**
+         * Delete the segments after the current one and zero the current one from the current record on, once
+         * {@link #next()} has stopped at a torn record.
+         */
+        void truncate() throws IOException
+        {
+            if (null == segment || isEnd(segment, offset))
+            {
+                return;
+            }
+
+            for (int i = segments.size() - 1; i >= nextSegment; i--)
+            {
+                Files.delete(segments.get(i));
+            }
+
+            try (FileChannel channel = FileChannel.open(segments.get(nextSegment - 1), StandardOpenOption.WRITE))
+            {
+                final ByteBuffer zeroes = ByteBuffer.allocate(segment.capacity() - offset);
+                while (zeroes.hasRemaining())
+                {
+                    channel.write(zeroes, offset + zeroes.position());
+                }
+                channel.force(true);
+            }
+        }
+
+        long sequence()
+        {
+            return segment.getLong(offset + SEQUENCE_OFFSET);
+        }
+
+        /**
+         * The bytes written by the codec for the current record, from the position to the limit of the view.
+         */
+        ByteBuffer payload()
+        {
+            return segment.clear().position(offset + HEADER_LENGTH).limit(offset + length);
+        }
+    }
+}
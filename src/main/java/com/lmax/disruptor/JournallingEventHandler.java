@@ -0,0 +1,263 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * An {@link EventHandler} that appends each event to a journal of memory-mapped segment files, so the events can be
+ * replayed after a restart. It is meant to be the first handler of the chain, with the handlers that act on an event
+ * after it, so they only see events that are already durable.
+ *
+ * <p>Events are serialised by a {@link JournalCodec} straight into the mapped segment. The journal is forced to disk
+ * at the end of each batch, so the batching of the {@link BatchEventProcessor} gives a group commit: one force for
+ * all the events that arrived while the previous one was in progress. The journal can also be forced within a
+ * large batch, once enough bytes have been written or enough time has passed since the last force. The sequence of
+ * the processor, given to {@link #setSequenceCallback(Sequence)}, is moved on after each force, so the handlers
+ * that follow never get ahead of the durable journal.
+ *
+ * <p>A new segment is started when the current one does not have room for a record of the maximum length. Segments
+ * are named after the sequence of their first event. Each record carries a checksum, so that a record torn by a
+ * crash is found when the handler starts, and the journal cut off before it.
+ *
+ * <p>After a restart, the journal must be replayed with a {@link JournalReplayer} before anything else is published.
+ * Events with sequences already in the journal are not written again, but checked against the record journalled
+ * with their sequence: one that does not match fails with an {@link IllegalStateException}, rather than being
+ * dropped. The codec must encode a decoded event back to the same bytes.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class JournallingEventHandler<T> implements EventHandler<T>
+{
+    /**
+     * The default size of a segment file, 64 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The default maximum number of bytes written by the codec for an event.
+     */
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 4096;
+
+    private final Path directory;
+    private final JournalCodec<? super T> codec;
+    private final int segmentSize;
+    private final int maxRecordLength;
+    private final long commitBytes;
+    private final long commitIntervalNanos;
+
+    private final CRC32C crc = new CRC32C();
+
+    private Sequence sequenceCallback;
+    private MappedByteBuffer segment;
+    private ByteBuffer checksumView;
+    private JournalSegments.Reader journalled;
+    private ByteBuffer encoded;
+    private long lastJournalledSequence = Sequencer.INITIAL_CURSOR_VALUE;
+    private long lastWrittenSequence = Sequencer.INITIAL_CURSOR_VALUE;
+    private long uncommittedBytes;
+    private long lastCommitNanos;
+
+    /**
+     * Construct a handler that writes segments of the default size and forces them at the end of each batch.
+     *
+     * @param directory of the journal, created if it does not exist.
+     * @param codec     to serialise the events.
+     */
+    public JournallingEventHandler(final Path directory, final JournalCodec<? super T> codec)
+    {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_RECORD_LENGTH, Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Construct a handler that also forces the journal within a batch once enough bytes have been written, or
+     * enough time has passed, since the last force.
+     *
+     * @param directory       of the journal, created if it does not exist.
+     * @param codec           to serialise the events.
+     * @param segmentSize     the size of each segment file in bytes.
+     * @param maxRecordLength the maximum number of bytes written by the codec for an event.
+     * @param commitBytes     the number of bytes written after which the journal is forced, within a batch.
+     * @param commitInterval  the time after which the journal is forced, within a batch.
+     * @param unit            the unit of the commit interval.
+     * @throws IllegalArgumentException if a segment cannot hold a record of the maximum length.
+     */
+    public JournallingEventHandler(
+        final Path directory,
+        final JournalCodec<? super T> codec,
+        final int segmentSize,
+        final int maxRecordLength,
+        final long commitBytes,
+        final long commitInterval,
+        final TimeUnit unit)
+    {
+        if (maxRecordLength < 1 || segmentSize < JournalSegments.HEADER_LENGTH + maxRecordLength)
+        {
+            throw new IllegalArgumentException("segmentSize must be large enough for a record of maxRecordLength");
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.maxRecordLength = maxRecordLength;
+        this.commitBytes = commitBytes;
+        this.commitIntervalNanos = unit.toNanos(commitInterval);
+    }
+
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        this.sequenceCallback = sequenceCallback;
+    }
+
+    @Override
+    public void onStart()
+    {
+        try
+        {
+            Files.createDirectories(directory);
+            lastJournalledSequence = JournalSegments.recover(directory);
+            if (lastJournalledSequence != Sequencer.INITIAL_CURSOR_VALUE)
+            {
+                journalled = new JournalSegments.Reader(directory);
+                encoded = ByteBuffer.allocate(maxRecordLength);
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        lastCommitNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        if (sequence > lastJournalledSequence)
+        {
+            append(event, sequence);
+        }
+        else
+        {
+            checkJournalled(event, sequence);
+        }
+
+        if (endOfBatch || uncommittedBytes >= commitBytes || isCommitIntervalElapsed())
+        {
+            commit();
+        }
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        commit();
+        segment = null;
+    }
+
+    /**
+     * The sequence of the last event journalled, durable or not.
+     *
+     * @return the last sequence written to the journal.
+     */
+    public long getLastWrittenSequence()
+    {
+        return lastWrittenSequence;
+    }
+
+    private void append(final T event, final long sequence) throws IOException
+    {
+        if (null == segment || segment.remaining() < JournalSegments.HEADER_LENGTH + maxRecordLength)
+        {
+            roll(sequence);
+        }
+
+        final int offset = segment.position();
+        final ByteBuffer record = segment
+            .position(offset + JournalSegments.HEADER_LENGTH)
+            .slice()
+            .limit(maxRecordLength);
+        codec.encode(event, record);
+
+        final int length = JournalSegments.HEADER_LENGTH + record.position();
+        segment.putLong(offset + JournalSegments.SEQUENCE_OFFSET, sequence);
+        segment.putInt(offset + JournalSegments.CHECKSUM_OFFSET, JournalSegments.checksum(crc, checksumView, offset, length));
+        segment.putInt(offset, length);
+        segment.position(offset + length);
+
+        uncommittedBytes += length;
+        lastWrittenSequence = sequence;
+    }
+
+    private void checkJournalled(final T event, final long sequence) throws IOException
+    {
+        if (!journalled.next() || journalled.sequence() != sequence)
+        {
+            throw new IllegalStateException("Event " + sequence + " is already in the journal, which must be replayed first");
+        }
+
+        codec.encode(event, encoded.clear());
+        if (!encoded.flip().equals(journalled.payload()))
+        {
+            throw new IllegalStateException("Event " + sequence + " does not match the journal, which must be replayed first");
+        }
+
+        if (sequence == lastJournalledSequence)
+        {
+            journalled = null;
+            encoded = null;
+        }
+    }
+
+    private void roll(final long firstSequence) throws IOException
+    {
+        commit();
+        segment = JournalSegments.create(JournalSegments.segmentPath(directory, firstSequence), segmentSize);
+        checksumView = segment.duplicate();
+    }
+
+    private boolean isCommitIntervalElapsed()
+    {
+        return commitIntervalNanos != Long.MAX_VALUE && System.nanoTime() - lastCommitNanos >= commitIntervalNanos;
+    }
+
+    private void commit()
+    {
+        if (uncommittedBytes > 0)
+        {
+            segment.force();
+            uncommittedBytes = 0;
+        }
+
+        if (commitIntervalNanos != Long.MAX_VALUE)
+        {
+            lastCommitNanos = System.nanoTime();
+        }
+
+        if (null != sequenceCallback && lastWrittenSequence != Sequencer.INITIAL_CURSOR_VALUE)
+        {
+            sequenceCallback.set(lastWrittenSequence);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch size strategy that limits each batch to the number of events that can be processed within a target
+ * latency, so the sequence of the processor and the gating sequences behind it are released at least that often.
+ *
+ * <p>The time taken per event is tracked as a moving average of the observed batches.
+ */
+public final class LatencyTargetBatchSizeStrategy implements BatchSizeStrategy
+{
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final long targetNanos;
+    private long averageNanosPerEvent = 0;
+
+    /**
+     * @param targetBatchLatency the longest a batch should take to process.
+     * @param units              the units of the target latency.
+     */
+    public LatencyTargetBatchSizeStrategy(final long targetBatchLatency, final TimeUnit units)
+    {
+        this.targetNanos = units.toNanos(targetBatchLatency);
+        if (targetNanos < 1)
+        {
+            throw new IllegalArgumentException("targetBatchLatency must be greater than 0");
+        }
+    }
+
+    @Override
+    public int nextBatchLimit(final int batchLimit, final long batchSize, final long queueDepth, final long serviceTimeNanos)
+    {
+        final long nanosPerEvent = serviceTimeNanos / batchSize;
+        averageNanosPerEvent = averageNanosPerEvent == 0
+            ? nanosPerEvent
+            : averageNanosPerEvent + ((nanosPerEvent - averageNanosPerEvent) >> AVERAGE_SHIFT);
+
+        return (int) Math.min(Integer.MAX_VALUE, targetNanos / Math.max(1, averageNanosPerEvent));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LatencyTargetBatchSizeStrategy{" +
+            "targetNanos=" + targetNanos +
+            ", averageNanosPerEvent=" + averageNanosPerEvent +
+            '}';
+    }
+}
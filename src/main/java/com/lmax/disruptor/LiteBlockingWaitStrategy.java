@@ -23,7 +23,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * wait strategy should be considered experimental as I have not full proved the correctness of
  * the lock elision code.
  */
-public final class LiteBlockingWaitStrategy implements WaitStrategy
+public final class LiteBlockingWaitStrategy implements WaitStrategy, ProducerWaitStrategy
 {
     private final Object mutex = new Object();
     private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
@@ -74,6 +74,38 @@ public final class LiteBlockingWaitStrategy implements WaitStrategy
         }
     }
 
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence) throws InterruptedException
+    {
+        long minimumSequence;
+        if ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+        {
+            synchronized (mutex)
+            {
+                do
+                {
+                    signalNeeded.getAndSet(true);
+
+                    if ((minimumSequence = gatingSequence.getCursor()) >= wrapPoint)
+                    {
+                        break;
+                    }
+
+                    mutex.wait();
+                }
+                while ((minimumSequence = gatingSequence.getCursor()) < wrapPoint);
+            }
+        }
+
+        return minimumSequence;
+    }
+
+    @Override
+    public void signalProducers()
+    {
+        signalAllWhenBlocking();
+    }
+
     @Override
     public String toString()
     {
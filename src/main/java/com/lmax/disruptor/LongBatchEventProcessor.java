@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Convenience class for handling the batching semantics of consuming values from a {@link LongRingBuffer}
+ * and delegating the available values to a {@link LongEventHandler}, in the same way as a
+ * {@link BatchEventProcessor} does for a {@link RingBuffer}.  Exceptions from the handler are reported to the
+ * {@link ExceptionHandler} set with {@link #setExceptionHandler(ExceptionHandler)}.
+ */
+public final class LongBatchEventProcessor
+        extends AbstractPrimitiveBatchEventProcessor<Long>
+{
+    private final LongRingBuffer ringBuffer;
+    private final LongEventHandler eventHandler;
+
+    /**
+     * Construct a {@link LongBatchEventProcessor}.
+     *
+     * @param ringBuffer      to which values are published.
+     * @param sequenceBarrier on which it is waiting.
+     * @param eventHandler    is the delegate to which values are dispatched.
+     */
+    public LongBatchEventProcessor(
+            final LongRingBuffer ringBuffer,
+            final SequenceBarrier sequenceBarrier,
+            final LongEventHandler eventHandler)
+    {
+        super(sequenceBarrier);
+        this.ringBuffer = ringBuffer;
+        this.eventHandler = eventHandler;
+    }
+
+    @Override
+    void onEvent(final long sequence, final boolean endOfBatch) throws Exception
+    {
+        eventHandler.onEvent(ringBuffer.get(sequence), sequence, endOfBatch);
+    }
+
+    @Override
+    Long valueAt(final long sequence)
+    {
+        return ringBuffer.get(sequence);
+    }
+
+    @Override
+    void onStart()
+    {
+        eventHandler.onStart();
+    }
+
+    @Override
+    void onShutdown()
+    {
+        eventHandler.onShutdown();
+    }
+}
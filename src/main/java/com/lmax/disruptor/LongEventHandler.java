@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Callback interface to be implemented for processing the values of a {@link LongRingBuffer} as they become
+ * available.
+ *
+ * @see LongBatchEventProcessor#setExceptionHandler(ExceptionHandler) if you want to handle exceptions propagated out of the handler.
+ */
+public interface LongEventHandler
+{
+    /**
+     * Called when a publisher has published a value to the {@link LongRingBuffer}.
+     *
+     * @param value      published to the {@link LongRingBuffer}
+     * @param sequence   of the value being processed
+     * @param endOfBatch flag to indicate if this is the last value in a batch from the {@link LongRingBuffer}
+     * @throws Exception if the LongEventHandler would like the exception handled further up the chain.
+     * @see EventHandler#onEvent(Object, long, boolean)
+     */
+    void onEvent(long value, long sequence, boolean endOfBatch) throws Exception;
+
+    /**
+     * Called once on thread start before first value is available.
+     */
+    default void onStart()
+    {
+    }
+
+    /**
+     * Called once just before the processing thread is shutdown.
+     *
+     * <p>Event processing will already have stopped before this method is called. No values will
+     * be processed after this message.
+     */
+    default void onShutdown()
+    {
+    }
+}
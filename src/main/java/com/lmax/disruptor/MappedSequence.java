@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>A {@link Sequence} whose value lives at a fixed offset of a direct or memory mapped buffer rather than in
+ * a field, so that it can be shared with other processes mapping the same file.</p>
+ *
+ * <p>Reads and writes have the same ordering as {@link Sequence} and are made through a {@link VarHandle} view
+ * of the buffer, so the offset must be 8 byte aligned.</p>
+ */
+public final class MappedSequence extends Sequence
+{
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    /**
+     * Create a sequence over 8 bytes of a buffer, without changing the value held there.
+     *
+     * @param buffer direct or memory mapped buffer holding the value.
+     * @param offset of the value within the buffer.
+     * @throws IllegalArgumentException if the offset is not 8 byte aligned or out of bounds.
+     */
+    MappedSequence(final ByteBuffer buffer, final int offset)
+    {
+        if (buffer.alignmentOffset(offset, Long.BYTES) != 0 || offset < 0 || offset + Long.BYTES > buffer.capacity())
+        {
+            throw new IllegalArgumentException("offset " + offset + " is not an aligned long within the buffer");
+        }
+
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    @Override
+    public long get()
+    {
+        return (long) LONG_VIEW.getAcquire(buffer, offset);
+    }
+
+    @Override
+    public void set(final long value)
+    {
+        LONG_VIEW.setRelease(buffer, offset, value);
+    }
+
+    @Override
+    public void setVolatile(final long value)
+    {
+        LONG_VIEW.setVolatile(buffer, offset, value);
+    }
+
+    @Override
+    public boolean compareAndSet(final long expectedValue, final long newValue)
+    {
+        return LONG_VIEW.compareAndSet(buffer, offset, expectedValue, newValue);
+    }
+
+    @Override
+    public long addAndGet(final long increment)
+    {
+        return (long) LONG_VIEW.getAndAdd(buffer, offset, increment) + increment;
+    }
+
+    @Override
+    public long getAndAdd(final long increment)
+    {
+        return (long) LONG_VIEW.getAndAdd(buffer, offset, increment);
+    }
+}
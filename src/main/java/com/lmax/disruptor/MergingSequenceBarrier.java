@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+
+/**
+ * {@link SequenceBarrier} over several single producer sequencers that share one {@link WaitStrategy}.
+ *
+ * <p>Sequences passed to and returned from {@link #waitFor(long)} are merged positions, the total number of
+ * events published across every sequencer less one (see {@link SummedSequenceGroup}). A consumer waiting for
+ * the merged position after the one it has reached is woken as soon as any of the sequencers publishes.
+ */
+final class MergingSequenceBarrier implements SequenceBarrier
+{
+    private final WaitStrategy waitStrategy;
+    private final Sequencer[] sequencers;
+    private final Sequence mergedCursor;
+    private volatile boolean alerted = false;
+
+    MergingSequenceBarrier(final WaitStrategy waitStrategy, final Sequencer[] sequencers)
+    {
+        // The cursor of a multi producer sequencer runs ahead of the events published, so it cannot be summed
+        for (final Sequencer sequencer : sequencers)
+        {
+            if (!(sequencer instanceof SingleProducerSequencer))
+            {
+                throw new IllegalArgumentException("Only single producer sequencers can be merged, got " + sequencer);
+            }
+        }
+
+        this.waitStrategy = waitStrategy;
+        this.sequencers = sequencers;
+        this.mergedCursor = new SummedSequenceGroup(sequencers);
+    }
+
+    @Override
+    public long waitFor(final long sequence)
+        throws AlertException, InterruptedException, TimeoutException
+    {
+        checkAlert();
+
+        return waitStrategy.waitFor(sequence, mergedCursor, mergedCursor, this);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return mergedCursor.get();
+    }
+
+    @Override
+    public boolean isAlerted()
+    {
+        return alerted;
+    }
+
+    @Override
+    public void alert()
+    {
+        alerted = true;
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public void clearAlert()
+    {
+        alerted = false;
+    }
+
+    @Override
+    public void checkAlert() throws AlertException
+    {
+        if (alerted)
+        {
+            throw AlertException.INSTANCE;
+        }
+    }
+
+    @Override
+    public void signalProducers()
+    {
+        for (Sequencer sequencer : sequencers)
+        {
+            sequencer.signalProducers();
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.lmax.disruptor.RewindAction.REWIND;
+import static java.lang.Math.min;
+
+
+/**
+ * Consumes events from several {@link RingBuffer}s on a single thread, delegating the available events
+ * to an {@link EventHandler}.
+ *
+ * <p>All of the ring buffers must be single producer and share one {@link WaitStrategy} instance, so that the processor can block until
+ * any of them has been published to. Each pass takes up to the maximum batch size of events from every ring
+ * that has any available, starting from a different ring each time, so that a busy ring cannot starve the others.
+ * The {@code sequence} passed to {@link EventHandler#onEvent(Object, long, boolean)} is the sequence within the ring
+ * the event came from, and {@code endOfBatch} is set on the last event of the pass.
+ * {@link EventHandler#onBatchStart(long, long)} is called once per pass with the number of events in the pass and
+ * the total available over all rings.
+ *
+ * <p>Each ring must be gated on its own sequence from {@link #getSequences()}. {@link #getSequence()} is the merged
+ * position over all rings, i.e. the total number of events processed less one, and may be waited on but not gated on.
+ *
+ * <p>A {@link RewindableException} rewinds only the events taken from the ring being processed when it is thrown,
+ * the events of rings earlier in the pass have already been committed.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class MultiBufferBatchEventProcessor<T>
+        implements EventProcessor
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+    private static final int NO_RING = -1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private ExceptionHandler<? super T> exceptionHandler;
+    private final DataProvider<T>[] dataProviders;
+    private final Sequencer[] sequencers;
+    private final SequenceBarrier sequenceBarrier;
+    private final EventHandlerBase<? super T> eventHandler;
+    private final int batchLimitOffset;
+    private final Sequence[] sequences;
+    private final long[] endOfBatchSequences;
+    private final Sequence sequence;
+    private final RewindHandler rewindHandler;
+    private int retriesAttempted = 0;
+    private int firstRing = 0;
+    private int ringInProgress = NO_RING;
+    private long sequenceInProgress;
+
+    MultiBufferBatchEventProcessor(
+            final RingBuffer<T>[] ringBuffers,
+            final EventHandlerBase<? super T> eventHandler,
+            final int maxBatchSize,
+            final BatchRewindStrategy batchRewindStrategy)
+    {
+        if (ringBuffers.length < 1)
+        {
+            throw new IllegalArgumentException("At least one ring buffer is required");
+        }
+
+        if (maxBatchSize < 1)
+        {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+
+        final WaitStrategy waitStrategy = ringBuffers[0].sequencer.getWaitStrategy();
+        this.dataProviders = Arrays.copyOf(ringBuffers, ringBuffers.length);
+        this.sequencers = new Sequencer[ringBuffers.length];
+        for (int i = 0; i < ringBuffers.length; i++)
+        {
+            if (ringBuffers[i].sequencer.getWaitStrategy() != waitStrategy)
+            {
+                throw new IllegalArgumentException("All ring buffers must share the same WaitStrategy instance");
+            }
+
+            sequencers[i] = ringBuffers[i].sequencer;
+        }
+
+        this.sequenceBarrier = new MergingSequenceBarrier(waitStrategy, sequencers);
+        this.eventHandler = eventHandler;
+        this.batchLimitOffset = maxBatchSize - 1;
+
+        this.sequences = new Sequence[ringBuffers.length];
+        for (int i = 0; i < sequences.length; i++)
+        {
+            sequences[i] = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        }
+        this.endOfBatchSequences = new long[ringBuffers.length];
+        this.sequence = new SummedSequenceGroup(sequences);
+
+        this.rewindHandler = eventHandler instanceof RewindableEventHandler
+                ? new TryRewindHandler(batchRewindStrategy)
+                : new NoRewindHandler();
+    }
+
+    /**
+     * Get the merged sequence over all rings, the total number of events processed less one.
+     *
+     * @return a read only view of the merged sequence.
+     */
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the sequences up to which this processor has consumed each ring, in the order the rings were given.
+     *
+     * @return the sequences to gate each ring on.
+     */
+    public Sequence[] getSequences()
+    {
+        return Arrays.copyOf(sequences, sequences.length);
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the {@link MultiBufferBatchEventProcessor}.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE) // Successful CAS
+        {
+            sequenceBarrier.clearAlert();
+
+            notifyStart();
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    processEvents();
+                }
+            }
+            finally
+            {
+                notifyShutdown();
+                running.set(IDLE);
+                sequenceBarrier.signalProducers();
+            }
+        }
+        else
+        {
+            if (witnessValue == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                earlyExit();
+            }
+        }
+    }
+
+    private void processEvents()
+    {
+        long nextSequence = sequence.get() + 1L;
+
+        while (true)
+        {
+            try
+            {
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+
+                if (nextSequence <= availableSequence)
+                {
+                    processRings(availableSequence - nextSequence + 1);
+                    sequenceBarrier.signalProducers();
+                }
+
+                nextSequence = sequence.get() + 1L;
+            }
+            catch (final TimeoutException e)
+            {
+                notifyTimeout(sequence.get());
+            }
+            catch (final AlertException ex)
+            {
+                if (running.get() != RUNNING)
+                {
+                    break;
+                }
+            }
+            catch (final Throwable ex)
+            {
+                if (ringInProgress == NO_RING)
+                {
+                    handleEventException(ex, nextSequence, null);
+                }
+                else
+                {
+                    handleEventException(ex, sequenceInProgress, dataProviders[ringInProgress].get(sequenceInProgress));
+                    sequences[ringInProgress].set(sequenceInProgress);
+                    ringInProgress = NO_RING;
+                    sequenceBarrier.signalProducers();
+                }
+                nextSequence = sequence.get() + 1L;
+            }
+        }
+    }
+
+    private void processRings(final long queueDepth) throws Throwable
+    {
+        final int ringCount = dataProviders.length;
+
+        long batchSize = 0;
+        int lastRing = NO_RING;
+        for (int i = 0, ring = firstRing; i < ringCount; i++, ring = nextRing(ring))
+        {
+            final long processedSequence = sequences[ring].get();
+            final Sequencer sequencer = sequencers[ring];
+            final long availableSequence = sequencer.getHighestPublishedSequence(processedSequence + 1, sequencer.getCursor());
+            final long endOfBatchSequence = min(processedSequence + 1 + batchLimitOffset, availableSequence);
+            endOfBatchSequences[ring] = endOfBatchSequence;
+
+            if (endOfBatchSequence > processedSequence)
+            {
+                if (lastRing == NO_RING)
+                {
+                    ringInProgress = ring;
+                    sequenceInProgress = processedSequence + 1;
+                }
+                batchSize += endOfBatchSequence - processedSequence;
+                lastRing = ring;
+            }
+        }
+
+        if (lastRing == NO_RING)
+        {
+            return;
+        }
+
+        eventHandler.onBatchStart(batchSize, queueDepth);
+
+        for (int i = 0, ring = firstRing; i < ringCount; i++, ring = nextRing(ring))
+        {
+            final long endOfBatchSequence = endOfBatchSequences[ring];
+            if (sequences[ring].get() < endOfBatchSequence)
+            {
+                processRing(ring, endOfBatchSequence, ring == lastRing);
+            }
+        }
+
+        ringInProgress = NO_RING;
+        firstRing = nextRing(firstRing);
+    }
+
+    private void processRing(final int ring, final long endOfBatchSequence, final boolean lastRing) throws Throwable
+    {
+        final DataProvider<T> dataProvider = dataProviders[ring];
+        final long startOfBatchSequence = sequences[ring].get() + 1;
+        long nextSequence = startOfBatchSequence;
+        ringInProgress = ring;
+
+        while (nextSequence <= endOfBatchSequence)
+        {
+            try
+            {
+                sequenceInProgress = nextSequence;
+                eventHandler.onEvent(dataProvider.get(nextSequence), nextSequence, lastRing && nextSequence == endOfBatchSequence);
+                nextSequence++;
+            }
+            catch (final RewindableException e)
+            {
+                nextSequence = rewindHandler.attemptRewindGetNextSequence(e, startOfBatchSequence);
+            }
+        }
+
+        retriesAttempted = 0;
+        sequences[ring].set(endOfBatchSequence);
+    }
+
+    private int nextRing(final int ring)
+    {
+        final int next = ring + 1;
+        return next == dataProviders.length ? 0 : next;
+    }
+
+    private void earlyExit()
+    {
+        notifyStart();
+        notifyShutdown();
+    }
+
+    private void notifyTimeout(final long availableSequence)
+    {
+        try
+        {
+            eventHandler.onTimeout(availableSequence);
+        }
+        catch (Throwable e)
+        {
+            handleEventException(e, availableSequence, null);
+        }
+    }
+
+    /**
+     * Notifies the EventHandler when this processor is starting up.
+     */
+    private void notifyStart()
+    {
+        try
+        {
+            eventHandler.onStart();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnStartException(ex);
+        }
+    }
+
+    /**
+     * Notifies the EventHandler immediately prior to this processor shutting down.
+     */
+    private void notifyShutdown()
+    {
+        try
+        {
+            eventHandler.onShutdown();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private void handleEventException(final Throwable ex, final long sequence, final T event)
+    {
+        getExceptionHandler().handleEventException(ex, sequence, event);
+    }
+
+    private ExceptionHandler<? super T> getExceptionHandler()
+    {
+        ExceptionHandler<? super T> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+
+    private class TryRewindHandler implements RewindHandler
+    {
+        private final BatchRewindStrategy batchRewindStrategy;
+
+        TryRewindHandler(final BatchRewindStrategy batchRewindStrategy)
+        {
+            this.batchRewindStrategy = batchRewindStrategy;
+        }
+
+        @Override
+        public long attemptRewindGetNextSequence(final RewindableException e, final long startOfBatchSequence) throws RewindableException
+        {
+            if (batchRewindStrategy.handleRewindException(e, ++retriesAttempted) == REWIND)
+            {
+                return startOfBatchSequence;
+            }
+            else
+            {
+                retriesAttempted = 0;
+                throw e;
+            }
+        }
+    }
+
+    private static class NoRewindHandler implements RewindHandler
+    {
+        @Override
+        public long attemptRewindGetNextSequence(final RewindableException e, final long startOfBatchSequence)
+        {
+            throw new UnsupportedOperationException("Rewindable Exception thrown from a non-rewindable event handler", e);
+        }
+    }
+}
@@ -20,7 +20,6 @@ import com.lmax.disruptor.util.Util;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.util.Arrays;
-import java.util.concurrent.locks.LockSupport;
 
 
 /**
@@ -34,14 +33,49 @@ import java.util.concurrent.locks.LockSupport;
 public final class MultiProducerSequencer extends AbstractSequencer
 {
     private static final VarHandle AVAILABLE_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int FLAGS_PER_CACHE_LINE = 64 / Integer.BYTES;
+    private static final int FLAGS_PER_CACHE_LINE_SHIFT = Util.log2(FLAGS_PER_CACHE_LINE);
+
+    /**
+     * How the availability flag for each slot is laid out in memory.
+     */
+    public enum AvailabilityLayout
+    {
+        /**
+         * Flags are stored in sequence order, so consecutive sequences share a cache line. This is the most
+         * compact for consumers reading in order and allows batch publishes to fill a run of flags at once.
+         */
+        PACKED,
+
+        /**
+         * Flags for consecutive sequences are spread across different cache lines, so producers publishing
+         * neighbouring slots at the same time do not contend on the same line. Only buffers of at least two
+         * cache lines of flags ({@value #MIN_STRIPED_BUFFER_SIZE} slots) are striped, smaller ones are packed.
+         */
+        STRIPED;
+
+        /**
+         * The smallest buffer size that will be striped.
+         */
+        public static final int MIN_STRIPED_BUFFER_SIZE = 2 * FLAGS_PER_CACHE_LINE;
+    }
 
     private final Sequence gatingSequenceCache = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
 
     // availableBuffer tracks the state of each ringbuffer slot
     // see below for more details on the approach
     private final int[] availableBuffer;
+    // publishedRunEnd records, at the index of the first slot of a batch publish,
+    // the last sequence of that batch so readers can skip the whole run at once
+    private final long[] publishedRunEnd;
     private final int indexMask;
     private final int indexShift;
+    // the slot index i is mapped to the flag at ((i & stripeMask) << stripeShift) | (i >>> lineShift)
+    // packed: i & indexMask, i.e. unchanged; striped: slot i lives in line (i % lines) at offset (i / lines)
+    private final int stripeMask;
+    private final int stripeShift;
+    private final int lineShift;
+    private final boolean packed;
 
     /**
      * Construct a Sequencer with the selected wait strategy and buffer size.
@@ -51,12 +85,58 @@ public final class MultiProducerSequencer extends AbstractSequencer
      */
     public MultiProducerSequencer(final int bufferSize, final WaitStrategy waitStrategy)
     {
-        super(bufferSize, waitStrategy);
+        this(bufferSize, waitStrategy, DEFAULT_PRODUCER_WAIT_STRATEGY);
+    }
+
+    /**
+     * Construct a Sequencer with the selected wait strategies and buffer size.
+     *
+     * @param bufferSize           the size of the buffer that this will sequence over.
+     * @param waitStrategy         for those waiting on sequences.
+     * @param producerWaitStrategy for producers when waiting for capacity in the buffer.
+     */
+    public MultiProducerSequencer(final int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy)
+    {
+        this(bufferSize, waitStrategy, producerWaitStrategy, AvailabilityLayout.PACKED);
+    }
+
+    /**
+     * Construct a Sequencer with the selected wait strategies, buffer size and layout of the availability flags.
+     *
+     * @param bufferSize           the size of the buffer that this will sequence over.
+     * @param waitStrategy         for those waiting on sequences.
+     * @param producerWaitStrategy for producers when waiting for capacity in the buffer.
+     * @param availabilityLayout   how the availability flag for each slot is laid out in memory.
+     */
+    public MultiProducerSequencer(
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final ProducerWaitStrategy producerWaitStrategy,
+        final AvailabilityLayout availabilityLayout)
+    {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
         availableBuffer = new int[bufferSize];
         Arrays.fill(availableBuffer, -1);
+        publishedRunEnd = new long[bufferSize];
+        Arrays.fill(publishedRunEnd, Sequencer.INITIAL_CURSOR_VALUE);
 
         indexMask = bufferSize - 1;
         indexShift = Util.log2(bufferSize);
+
+        packed = availabilityLayout == AvailabilityLayout.PACKED || bufferSize < AvailabilityLayout.MIN_STRIPED_BUFFER_SIZE;
+        if (packed)
+        {
+            stripeMask = indexMask;
+            stripeShift = 0;
+            lineShift = Integer.SIZE - 1;
+        }
+        else
+        {
+            final int lines = bufferSize >>> FLAGS_PER_CACHE_LINE_SHIFT;
+            stripeMask = lines - 1;
+            stripeShift = FLAGS_PER_CACHE_LINE_SHIFT;
+            lineShift = Util.log2(lines);
+        }
     }
 
     /**
@@ -124,10 +204,10 @@ public final class MultiProducerSequencer extends AbstractSequencer
 
         if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current)
         {
-            long gatingSequence;
-            while (wrapPoint > (gatingSequence = Util.getMinimumSequence(gatingSequences, current)))
+            long gatingSequence = Util.getMinimumSequence(gatingSequences, current);
+            if (wrapPoint > gatingSequence)
             {
-                LockSupport.parkNanos(1L); // TODO, should we spin based on the wait strategy?
+                gatingSequence = waitForCapacity(wrapPoint);
             }
 
             gatingSequenceCache.set(gatingSequence);
@@ -201,9 +281,13 @@ public final class MultiProducerSequencer extends AbstractSequencer
     @Override
     public void publish(final long lo, final long hi)
     {
-        for (long l = lo; l <= hi; l++)
+        if (lo == hi)
         {
-            setAvailable(l);
+            setAvailable(lo);
+        }
+        else
+        {
+            setAvailableRun(lo, hi);
         }
         waitStrategy.signalAllWhenBlocking();
     }
@@ -229,7 +313,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
      */
     private void setAvailable(final long sequence)
     {
-        setAvailableBufferValue(calculateIndex(sequence), calculateAvailabilityFlag(sequence));
+        setAvailableBufferValue(calculateAvailableIndex(calculateIndex(sequence)), calculateAvailabilityFlag(sequence));
     }
 
     private void setAvailableBufferValue(final int index, final int flag)
@@ -237,13 +321,50 @@ public final class MultiProducerSequencer extends AbstractSequencer
         AVAILABLE_ARRAY.setRelease(availableBuffer, index, flag);
     }
 
+    /**
+     * Publishes a run of sequences with a single release rather than one per slot.
+     *
+     * <p>A release fence orders the event data ahead of the plain stores that fill the
+     * flags for {@code lo + 1} to {@code hi} (split where the run crosses the end of the
+     * buffer, or one at a time when striped) and record {@code hi} as the end of the run. The flag for {@code lo} is then
+     * set with release semantics, so a reader that observes it may trust the run end and
+     * skip straight past it in {@link #getHighestPublishedSequence(long, long)}.
+     */
+    private void setAvailableRun(final long lo, final long hi)
+    {
+        VarHandle.releaseFence();
+
+        if (packed)
+        {
+            long sequence = lo + 1;
+            while (sequence <= hi)
+            {
+                int index = calculateIndex(sequence);
+                long segmentEnd = Math.min(hi, sequence + (indexMask - index));
+                Arrays.fill(availableBuffer, index, index + (int) (segmentEnd - sequence) + 1, calculateAvailabilityFlag(sequence));
+                sequence = segmentEnd + 1;
+            }
+        }
+        else
+        {
+            for (long sequence = lo + 1; sequence <= hi; sequence++)
+            {
+                availableBuffer[calculateAvailableIndex(calculateIndex(sequence))] = calculateAvailabilityFlag(sequence);
+            }
+        }
+
+        final int index = calculateIndex(lo);
+        publishedRunEnd[index] = hi;
+        setAvailableBufferValue(calculateAvailableIndex(index), calculateAvailabilityFlag(lo));
+    }
+
     /**
      * @see Sequencer#isAvailable(long)
      */
     @Override
     public boolean isAvailable(final long sequence)
     {
-        int index = calculateIndex(sequence);
+        int index = calculateAvailableIndex(calculateIndex(sequence));
         int flag = calculateAvailabilityFlag(sequence);
         return (int) AVAILABLE_ARRAY.getAcquire(availableBuffer, index) == flag;
     }
@@ -251,12 +372,18 @@ public final class MultiProducerSequencer extends AbstractSequencer
     @Override
     public long getHighestPublishedSequence(final long lowerBound, final long availableSequence)
     {
-        for (long sequence = lowerBound; sequence <= availableSequence; sequence++)
+        long sequence = lowerBound;
+        while (sequence <= availableSequence)
         {
             if (!isAvailable(sequence))
             {
                 return sequence - 1;
             }
+
+            // Only trusted once the flag has been acquired. A marker left by an earlier
+            // lap is always below the sequence, so falls back to checking the next slot.
+            long runEnd = publishedRunEnd[calculateIndex(sequence)];
+            sequence = runEnd > sequence ? runEnd + 1 : sequence + 1;
         }
 
         return availableSequence;
@@ -272,12 +399,18 @@ public final class MultiProducerSequencer extends AbstractSequencer
         return ((int) sequence) & indexMask;
     }
 
+    private int calculateAvailableIndex(final int index)
+    {
+        return ((index & stripeMask) << stripeShift) | (index >>> lineShift);
+    }
+
     @Override
     public String toString()
     {
         return "MultiProducerSequencer{" +
                 "bufferSize=" + bufferSize +
                 ", waitStrategy=" + waitStrategy +
+                ", packed=" + packed +
                 ", cursor=" + cursor +
                 ", gatingSequences=" + Arrays.toString(gatingSequences) +
                 '}';
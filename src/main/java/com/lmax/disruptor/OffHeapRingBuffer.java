@@ -0,0 +1,1074 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+abstract class OffHeapRingBufferPad
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+}
+
+abstract class OffHeapRingBufferFields extends OffHeapRingBufferPad
+{
+    private final long indexMask;
+    private final ByteBuffer region;
+    protected final int bufferSize;
+    protected final int slotSize;
+    protected final Sequencer sequencer;
+
+    OffHeapRingBufferFields(
+        final Sequencer sequencer,
+        final ByteBuffer region,
+        final int slotSize)
+    {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+        this.slotSize = slotSize;
+
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+        if (slotSize < 1)
+        {
+            throw new IllegalArgumentException("slotSize must not be less than 1");
+        }
+        if (!region.isDirect())
+        {
+            throw new IllegalArgumentException("region must be a direct or memory mapped buffer");
+        }
+        if ((long) bufferSize * slotSize > region.capacity())
+        {
+            throw new IllegalArgumentException(
+                "region of " + region.capacity() + " bytes cannot hold " + bufferSize + " slots of " + slotSize + " bytes");
+        }
+
+        this.indexMask = bufferSize - 1;
+        this.region = region.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    protected final ByteBuffer region()
+    {
+        return region;
+    }
+
+    protected final int offsetOf(final long sequence)
+    {
+        return (int) (sequence & indexMask) * slotSize;
+    }
+}
+
+/**
+ * <p>Ring based store of fixed size slots held in a contiguous native memory region rather than as an array
+ * of pre-allocated objects.  Each slot is {@code slotSize} bytes wide and is exposed to producers and
+ * {@link EventProcessor}s through the one {@link ByteBuffer} over the whole region, addressed with absolute
+ * accessors from the offset of the slot for the requested sequence.</p>
+ *
+ * <p>The buffer returned from {@link #get(long)} is shared by every thread and its position and limit are never
+ * moved, so relative accessors must not be used on it.  Multi-byte values are read and written in
+ * {@link ByteOrder#nativeOrder()}.</p>
+ *
+ * <p>Because the entries are not Java objects the buffer adds nothing to the heap that the garbage collector
+ * has to mark or scan, no matter how many slots it holds.  The same {@link Sequencer}s, {@link SequenceBarrier}s and
+ * {@link BatchEventProcessor}s used with {@link RingBuffer} can be used with this buffer.</p>
+ */
+public final class OffHeapRingBuffer extends OffHeapRingBufferFields
+    implements Cursored, EventSequencer<ByteBuffer>, EventSink<ByteBuffer>
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+
+    /**
+     * Construct an OffHeapRingBuffer over the supplied region.
+     *
+     * @param sequencer sequencer to handle the ordering of events moving through the OffHeapRingBuffer.
+     * @param region    direct or memory mapped buffer holding at least {@code bufferSize * slotSize} bytes.
+     * @param slotSize  the number of bytes in each slot.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, or if the region is
+     *                                  not direct or is too small.
+     */
+    OffHeapRingBuffer(
+        final Sequencer sequencer,
+        final ByteBuffer region,
+        final int slotSize)
+    {
+        super(sequencer, region, slotSize);
+    }
+
+    /**
+     * Create a new multiple producer OffHeapRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param slotSize     number of bytes in each slot.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static OffHeapRingBuffer createMultiProducer(
+        final int bufferSize,
+        final int slotSize,
+        final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.MULTI, bufferSize, slotSize, waitStrategy);
+    }
+
+    /**
+     * Create a new single producer OffHeapRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param slotSize     number of bytes in each slot.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static OffHeapRingBuffer createSingleProducer(
+        final int bufferSize,
+        final int slotSize,
+        final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.SINGLE, bufferSize, slotSize, waitStrategy);
+    }
+
+    /**
+     * Create a new OffHeapRingBuffer backed by a newly allocated direct buffer.
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param slotSize     number of bytes in each slot.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, or if the region
+     *                                  would exceed {@link Integer#MAX_VALUE} bytes.
+     */
+    public static OffHeapRingBuffer create(
+        final ProducerType producerType,
+        final int bufferSize,
+        final int slotSize,
+        final WaitStrategy waitStrategy)
+    {
+        final long regionSize = (long) bufferSize * slotSize;
+        if (regionSize > Integer.MAX_VALUE || regionSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize * slotSize must be between 1 and " + Integer.MAX_VALUE);
+        }
+
+        return create(producerType, ByteBuffer.allocateDirect((int) regionSize), bufferSize, slotSize, waitStrategy);
+    }
+
+    /**
+     * Create a new OffHeapRingBuffer over an existing region, e.g. a {@link java.nio.MappedByteBuffer}.  Slots are
+     * laid out from index 0 of the region, the region's position and limit are ignored.
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param region       direct or memory mapped buffer holding at least {@code bufferSize * slotSize} bytes.
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param slotSize     number of bytes in each slot.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, or if the region is
+     *                                  not direct or is too small.
+     */
+    public static OffHeapRingBuffer create(
+        final ProducerType producerType,
+        final ByteBuffer region,
+        final int bufferSize,
+        final int slotSize,
+        final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return new OffHeapRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy), region, slotSize);
+            case MULTI:
+                return new OffHeapRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy), region, slotSize);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * <p>Get the buffer holding the slot at a given sequence.</p>
+     *
+     * <p>The returned buffer covers the whole region and is shared by all threads, so only its absolute
+     * accessors may be used, from {@link #getOffset(long)} up to {@link #getSlotSize()} bytes beyond it.</p>
+     *
+     * @param sequence for the slot
+     * @return the buffer over the region holding the slot for the given sequence
+     */
+    @Override
+    public ByteBuffer get(final long sequence)
+    {
+        return region();
+    }
+
+    /**
+     * Get the offset of the slot for a given sequence within the region backing this ring buffer.
+     *
+     * @param sequence for the slot
+     * @return the index of the first byte of the slot within the region
+     */
+    public int getOffset(final long sequence)
+    {
+        return offsetOf(sequence);
+    }
+
+    /**
+     * The number of bytes in each slot.
+     *
+     * @return size of each slot in bytes
+     */
+    public int getSlotSize()
+    {
+        return slotSize;
+    }
+
+    /**
+     * @see RingBuffer#next()
+     */
+    @Override
+    public long next()
+    {
+        return sequencer.next();
+    }
+
+    /**
+     * @see RingBuffer#next(int)
+     */
+    @Override
+    public long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    /**
+     * @see RingBuffer#tryNext()
+     */
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    /**
+     * @see RingBuffer#tryNext(int)
+     */
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    /**
+     * Determines if the event for a given sequence is currently available.
+     *
+     * @param sequence The sequence to identify the entry.
+     * @return If the event published with the given sequence number is currently available.
+     * @see RingBuffer#isAvailable(long)
+     */
+    public boolean isAvailable(final long sequence)
+    {
+        return sequencer.isAvailable(sequence);
+    }
+
+    /**
+     * Add the specified gating sequences to this instance of the Disruptor.  They will
+     * safely and atomically added to the list of gating sequences.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Get the minimum sequence value from all of the gating sequences
+     * added to this ringBuffer.
+     *
+     * @return The minimum gating sequence or the cursor sequence if
+     * no sequences have been added.
+     */
+    public long getMinimumGatingSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    /**
+     * Remove the specified sequence from this ringBuffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which messages
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Creates an event poller for this ring buffer gated on the supplied sequences.
+     *
+     * @param gatingSequences to be gated on.
+     * @return A poller that will gate on this ring buffer and the supplied sequences.
+     */
+    public EventPoller<ByteBuffer> newPoller(final Sequence... gatingSequences)
+    {
+        return sequencer.newPoller(this, gatingSequences);
+    }
+
+    /**
+     * Get the current cursor value for the ring buffer.  The actual value received
+     * will depend on the type of {@link Sequencer} that is being used.
+     *
+     * @see MultiProducerSequencer
+     * @see SingleProducerSequencer
+     */
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * The number of slots in the buffer.
+     *
+     * @return size of buffer
+     */
+    @Override
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    /**
+     * @see RingBuffer#hasAvailableCapacity(int)
+     */
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslator)
+     */
+    @Override
+    public void publishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslator)
+     */
+    @Override
+    public boolean tryPublishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorOneArg, Object)
+     * com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorOneArg, A)
+     */
+    @Override
+    public <A> void publishEvent(final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorOneArg, Object)
+     * com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorOneArg, A)
+     */
+    @Override
+    public <A> boolean tryPublishEvent(final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorTwoArg, Object, Object)
+     * com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorTwoArg, A, B)
+     */
+    @Override
+    public <A, B> void publishEvent(final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final A arg0, final B arg1)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0, arg1);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorTwoArg, Object, Object)
+     * com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorTwoArg, A, B)
+     */
+    @Override
+    public <A, B> boolean tryPublishEvent(final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final A arg0, final B arg1)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0, arg1);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorThreeArg, Object, Object, Object)
+     * com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorThreeArg, A, B, C)
+     */
+    @Override
+    public <A, B, C> void publishEvent(final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final A arg0, final B arg1, final C arg2)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0, arg1, arg2);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorThreeArg, Object, Object, Object)
+     * com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorThreeArg, A, B, C)
+     */
+    @Override
+    public <A, B, C> boolean tryPublishEvent(final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final A arg0, final B arg1, final C arg2)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0, arg1, arg2);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvent(com.lmax.disruptor.EventTranslatorVararg, java.lang.Object...)
+     */
+    @Override
+    public void publishEvent(final EventTranslatorVararg<ByteBuffer> translator, final Object... args)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, args);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvent(com.lmax.disruptor.EventTranslatorVararg, java.lang.Object...)
+     */
+    @Override
+    public boolean tryPublishEvent(final EventTranslatorVararg<ByteBuffer> translator, final Object... args)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, args);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslator[])
+     */
+    @Override
+    public void publishEvents(final EventTranslator<ByteBuffer>[] translators)
+    {
+        publishEvents(translators, 0, translators.length);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslator[], int, int)
+     */
+    @Override
+    public void publishEvents(final EventTranslator<ByteBuffer>[] translators, final int batchStartsAt, final int batchSize)
+    {
+        checkBounds(translators, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslator[])
+     */
+    @Override
+    public boolean tryPublishEvents(final EventTranslator<ByteBuffer>[] translators)
+    {
+        return tryPublishEvents(translators, 0, translators.length);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslator[], int, int)
+     */
+    @Override
+    public boolean tryPublishEvents(final EventTranslator<ByteBuffer>[] translators, final int batchStartsAt, final int batchSize)
+    {
+        checkBounds(translators, batchStartsAt, batchSize);
+        try
+        {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorOneArg, Object[])
+     * com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorOneArg, A[])
+     */
+    @Override
+    public <A> void publishEvents(final EventTranslatorOneArg<ByteBuffer, A> translator, final A[] arg0)
+    {
+        publishEvents(translator, 0, arg0.length, arg0);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorOneArg, int, int, Object[])
+     * com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorOneArg, int, int, A[])
+     */
+    @Override
+    public <A> void publishEvents(final EventTranslatorOneArg<ByteBuffer, A> translator, final int batchStartsAt, final int batchSize, final A[] arg0)
+    {
+        checkBounds(arg0, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorOneArg, Object[])
+     * com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorOneArg, A[])
+     */
+    @Override
+    public <A> boolean tryPublishEvents(final EventTranslatorOneArg<ByteBuffer, A> translator, final A[] arg0)
+    {
+        return tryPublishEvents(translator, 0, arg0.length, arg0);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorOneArg, int, int, Object[])
+     * com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorOneArg, int, int, A[])
+     */
+    @Override
+    public <A> boolean tryPublishEvents(
+            final EventTranslatorOneArg<ByteBuffer, A> translator, final int batchStartsAt, final int batchSize, final A[] arg0)
+    {
+        checkBounds(arg0, batchStartsAt, batchSize);
+        try
+        {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorTwoArg, Object[], Object[])
+     * com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorTwoArg, A[], B[])
+     */
+    @Override
+    public <A, B> void publishEvents(final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final A[] arg0, final B[] arg1)
+    {
+        publishEvents(translator, 0, arg0.length, arg0, arg1);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorTwoArg, int, int, Object[], Object[])
+     * com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorTwoArg, int, int, A[], B[])
+     */
+    @Override
+    public <A, B> void publishEvents(
+        final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final int batchStartsAt, final int batchSize, final A[] arg0, final B[] arg1)
+    {
+        checkBounds(arg0, arg1, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorTwoArg, Object[], Object[])
+     * com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorTwoArg, A[], B[])
+     */
+    @Override
+    public <A, B> boolean tryPublishEvents(final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final A[] arg0, final B[] arg1)
+    {
+        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorTwoArg, int, int, Object[], Object[])
+     * com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorTwoArg, int, int, A[], B[])
+     */
+    @Override
+    public <A, B> boolean tryPublishEvents(
+        final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final int batchStartsAt, final int batchSize, final A[] arg0, final B[] arg1)
+    {
+        checkBounds(arg0, arg1, batchStartsAt, batchSize);
+        try
+        {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorThreeArg, Object[], Object[], Object[])
+     * com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorThreeArg, A[], B[], C[])
+     */
+    @Override
+    public <A, B, C> void publishEvents(final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final A[] arg0, final B[] arg1, final C[] arg2)
+    {
+        publishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorThreeArg, int, int, Object[], Object[], Object[])
+     * com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorThreeArg, int, int, A[], B[], C[])
+     */
+    @Override
+    public <A, B, C> void publishEvents(
+        final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final int batchStartsAt, final int batchSize, final A[] arg0, final B[] arg1, final C[] arg2)
+    {
+        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorThreeArg, Object[], Object[], Object[])
+     * com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorThreeArg, A[], B[], C[])
+     */
+    @Override
+    public <A, B, C> boolean tryPublishEvents(
+        final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final A[] arg0, final B[] arg1, final C[] arg2)
+    {
+        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorThreeArg, int, int, Object[], Object[], Object[])
+     * com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorThreeArg, int, int, A[], B[], C[])
+     */
+    @Override
+    public <A, B, C> boolean tryPublishEvents(
+        final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final int batchStartsAt, final int batchSize, final A[] arg0, final B[] arg1, final C[] arg2)
+    {
+        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
+        try
+        {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorVararg, java.lang.Object[][])
+     */
+    @Override
+    public void publishEvents(final EventTranslatorVararg<ByteBuffer> translator, final Object[]... args)
+    {
+        publishEvents(translator, 0, args.length, args);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#publishEvents(com.lmax.disruptor.EventTranslatorVararg, int, int, java.lang.Object[][])
+     */
+    @Override
+    public void publishEvents(final EventTranslatorVararg<ByteBuffer> translator, final int batchStartsAt, final int batchSize, final Object[]... args)
+    {
+        checkBounds(batchStartsAt, batchSize, args);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorVararg, java.lang.Object[][])
+     */
+    @Override
+    public boolean tryPublishEvents(final EventTranslatorVararg<ByteBuffer> translator, final Object[]... args)
+    {
+        return tryPublishEvents(translator, 0, args.length, args);
+    }
+
+    /**
+     * @see com.lmax.disruptor.EventSink#tryPublishEvents(com.lmax.disruptor.EventTranslatorVararg, int, int, java.lang.Object[][])
+     */
+    @Override
+    public boolean tryPublishEvents(
+        final EventTranslatorVararg<ByteBuffer> translator, final int batchStartsAt, final int batchSize, final Object[]... args)
+    {
+        checkBounds(args, batchStartsAt, batchSize);
+        try
+        {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
+            return true;
+        }
+        catch (InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish the specified sequence.  This action marks this particular
+     * message as being available to be read.
+     *
+     * @param sequence the sequence to publish.
+     */
+    @Override
+    public void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    /**
+     * Publish the specified sequences.  This action marks these particular
+     * messages as being available to be read.
+     *
+     * @param lo the lowest sequence number to be published
+     * @param hi the highest sequence number to be published
+     * @see Sequencer#next(int)
+     */
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    /**
+     * Get the remaining capacity for this ringBuffer.
+     *
+     * @return The number of slots remaining.
+     */
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    private void checkBounds(final EventTranslator<ByteBuffer>[] translators, final int batchStartsAt, final int batchSize)
+    {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(translators, batchStartsAt, batchSize);
+    }
+
+    private void checkBatchSizing(final int batchStartsAt, final int batchSize)
+    {
+        if (batchStartsAt < 0 || batchSize < 0)
+        {
+            throw new IllegalArgumentException("Both batchStartsAt and batchSize must be positive but got: batchStartsAt " + batchStartsAt + " and batchSize " + batchSize);
+        }
+        else if (batchSize > bufferSize)
+        {
+            throw new IllegalArgumentException("The ring buffer cannot accommodate " + batchSize + " it only has space for " + bufferSize + " entities.");
+        }
+    }
+
+    private <A> void checkBounds(final A[] arg0, final int batchStartsAt, final int batchSize)
+    {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(arg0, batchStartsAt, batchSize);
+    }
+
+    private <A, B> void checkBounds(final A[] arg0, final B[] arg1, final int batchStartsAt, final int batchSize)
+    {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(arg0, batchStartsAt, batchSize);
+        batchOverRuns(arg1, batchStartsAt, batchSize);
+    }
+
+    private <A, B, C> void checkBounds(
+        final A[] arg0, final B[] arg1, final C[] arg2, final int batchStartsAt, final int batchSize)
+    {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(arg0, batchStartsAt, batchSize);
+        batchOverRuns(arg1, batchStartsAt, batchSize);
+        batchOverRuns(arg2, batchStartsAt, batchSize);
+    }
+
+    private void checkBounds(final int batchStartsAt, final int batchSize, final Object[][] args)
+    {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(args, batchStartsAt, batchSize);
+    }
+
+    private <A> void batchOverRuns(final A[] arg0, final int batchStartsAt, final int batchSize)
+    {
+        if (batchStartsAt + batchSize > arg0.length)
+        {
+            throw new IllegalArgumentException(
+                "A batchSize of: " + batchSize +
+                    " with batchStatsAt of: " + batchStartsAt +
+                    " will overrun the available number of arguments: " + (arg0.length - batchStartsAt));
+        }
+    }
+
+    private void translateAndPublish(final EventTranslator<ByteBuffer> translator, final long sequence)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A> void translateAndPublish(final EventTranslatorOneArg<ByteBuffer, A> translator, final long sequence, final A arg0)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A, B> void translateAndPublish(final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final long sequence, final A arg0, final B arg1)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0, arg1);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A, B, C> void translateAndPublish(
+        final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator, final long sequence,
+        final A arg0, final B arg1, final C arg2)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0, arg1, arg2);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublish(final EventTranslatorVararg<ByteBuffer> translator, final long sequence, final Object... args)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence, args);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublishBatch(
+        final EventTranslator<ByteBuffer>[] translators, final int batchStartsAt,
+        final int batchSize, final long finalSequence)
+    {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try
+        {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++)
+            {
+                final EventTranslator<ByteBuffer> translator = translators[i];
+                translator.translateTo(get(sequence), sequence++);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A> void translateAndPublishBatch(
+        final EventTranslatorOneArg<ByteBuffer, A> translator, final A[] arg0,
+        final int batchStartsAt, final int batchSize, final long finalSequence)
+    {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try
+        {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++)
+            {
+                translator.translateTo(get(sequence), sequence++, arg0[i]);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A, B> void translateAndPublishBatch(
+        final EventTranslatorTwoArg<ByteBuffer, A, B> translator, final A[] arg0,
+        final B[] arg1, final int batchStartsAt, final int batchSize,
+        final long finalSequence)
+    {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try
+        {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++)
+            {
+                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i]);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A, B, C> void translateAndPublishBatch(
+        final EventTranslatorThreeArg<ByteBuffer, A, B, C> translator,
+        final A[] arg0, final B[] arg1, final C[] arg2, final int batchStartsAt,
+        final int batchSize, final long finalSequence)
+    {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try
+        {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++)
+            {
+                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i], arg2[i]);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private void translateAndPublishBatch(
+        final EventTranslatorVararg<ByteBuffer> translator, final int batchStartsAt,
+        final int batchSize, final long finalSequence, final Object[][] args)
+    {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try
+        {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++)
+            {
+                translator.translateTo(get(sequence), sequence++, args[i]);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OffHeapRingBuffer{" +
+            "bufferSize=" + bufferSize +
+            ", slotSize=" + slotSize +
+            ", sequencer=" + sequencer +
+            "}";
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking strategy that parks {@link EventProcessor}s waiting on a barrier with {@link LockSupport}, and unparks
+ * them when the cursor is advanced.
+ *
+ * <p>Unlike the strategies that wait on a monitor, a virtual thread parked by this strategy releases its carrier
+ * thread, so many low-rate consumers can be run on virtual threads without an OS thread each. A thread waiting for
+ * the cursor parks until it is signalled, so an idle consumer does not wake at all. Processors that follow other
+ * processors spin briefly on their dependencies and then park for increasing periods of up to
+ * {@value #MAX_DEPENDENCY_PARK_MICROS} microseconds, as the processors they follow do not signal this strategy.
+ *
+ * <p>A parked thread registers itself and then fences before reading the cursor, and a signal fences after the
+ * cursor has moved before reading the count of registered threads, so either the thread sees the new cursor or it
+ * is unparked. A signal takes the lock only while some thread is registered. Each thread reuses the same node to
+ * register as parked, so parking does not allocate.
+ *
+ * <p>This strategy can be used when throughput and low-latency are not as important as CPU resource.
+ */
+public final class ParkingWaitStrategy implements WaitStrategy, ProducerWaitStrategy
+{
+    private static final int SPIN_TRIES = 100;
+    private static final long MIN_DEPENDENCY_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_DEPENDENCY_PARK_MICROS = 1000;
+    private static final long MAX_DEPENDENCY_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(MAX_DEPENDENCY_PARK_MICROS);
+
+    private final Lock lock = new ReentrantLock();
+    private final Waiter waiters = new Waiter(null);
+    private final ThreadLocal<Waiter> waiterOfThread = ThreadLocal.withInitial(() -> new Waiter(Thread.currentThread()));
+    private volatile int waiterCount;
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursorSequence, final Sequence dependentSequence, final SequenceBarrier barrier)
+        throws AlertException, InterruptedException
+    {
+        long availableSequence;
+        if (cursorSequence.get() < sequence)
+        {
+            final Waiter waiter = register();
+            try
+            {
+                while (cursorSequence.get() < sequence)
+                {
+                    barrier.checkAlert();
+                    park();
+                }
+            }
+            finally
+            {
+                deregister(waiter);
+            }
+        }
+
+        int counter = SPIN_TRIES;
+        long parkNanos = MIN_DEPENDENCY_PARK_NANOS;
+        while ((availableSequence = dependentSequence.get()) < sequence)
+        {
+            barrier.checkAlert();
+            if (counter > 0)
+            {
+                --counter;
+                Thread.onSpinWait();
+            }
+            else
+            {
+                LockSupport.parkNanos(this, parkNanos);
+                if (Thread.interrupted())
+                {
+                    throw new InterruptedException();
+                }
+                parkNanos = Math.min(parkNanos * 2, MAX_DEPENDENCY_PARK_NANOS);
+            }
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+        // Orders the store that moved the cursor, or a gating sequence, before the read of the count, pairing with
+        // the fence in register, so that a thread that has not seen the move is seen to be parked
+        VarHandle.fullFence();
+        if (0 != waiterCount)
+        {
+            lock.lock();
+            try
+            {
+                for (Waiter waiter = waiters.next; waiter != waiters; waiter = waiter.next)
+                {
+                    LockSupport.unpark(waiter.thread);
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence) throws InterruptedException
+    {
+        long minimumSequence;
+        if ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+        {
+            final Waiter waiter = register();
+            try
+            {
+                while ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+                {
+                    park();
+                }
+            }
+            finally
+            {
+                deregister(waiter);
+            }
+        }
+
+        return minimumSequence;
+    }
+
+    @Override
+    public void signalProducers()
+    {
+        signalAllWhenBlocking();
+    }
+
+    private Waiter register()
+    {
+        final Waiter waiter = waiterOfThread.get();
+        lock.lock();
+        try
+        {
+            waiter.prev = waiters.prev;
+            waiter.next = waiters;
+            waiters.prev.next = waiter;
+            waiters.prev = waiter;
+            waiterCount++;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        // Registered before reading the cursor, so a producer that reads the count after this sees this thread
+        VarHandle.fullFence();
+        return waiter;
+    }
+
+    private void deregister(final Waiter waiter)
+    {
+        lock.lock();
+        try
+        {
+            waiter.prev.next = waiter.next;
+            waiter.next.prev = waiter.prev;
+            waiter.prev = null;
+            waiter.next = null;
+            waiterCount--;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void park() throws InterruptedException
+    {
+        LockSupport.park(this);
+        if (Thread.interrupted())
+        {
+            throw new InterruptedException();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ParkingWaitStrategy{" +
+            "waiterCount=" + waiterCount +
+            '}';
+    }
+
+    /**
+     * A node of the list of parked threads, reused by its thread each time it parks.
+     */
+    private static final class Waiter
+    {
+        private final Thread thread;
+        private Waiter prev = this;
+        private Waiter next = this;
+
+        Waiter(final Thread thread)
+        {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * An {@link EventHandler} that only passes on the events of one partition of the keys published with
+ * {@link RingBufferBuilder#publishKeys(java.util.function.ToLongFunction)}, so that a group of
+ * {@link BatchEventProcessor}s, one per partition, process the events in order for each key and in parallel
+ * across keys.
+ *
+ * <p>The partition of each event is read from the {@link PublishedKeys}, so the events of other partitions are
+ * skipped without reading them. The batch size given to {@link EventHandler#onBatchStart(long, long)}, and the
+ * end of batch flag, only count the events of the partition, and a batch without any of them is not passed on at
+ * all. The queue depth adds the events of every partition queued after the batch, as counting only those of the
+ * partition would scan them again for each batch.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class PartitionedEventHandler<T> implements EventHandler<T>
+{
+    private final EventHandler<? super T> eventHandler;
+    private final PublishedKeys<? super T> publishedKeys;
+    private final int partition;
+    private final int partitionCount;
+    private long batchSize;
+    private long queueDepth;
+    private boolean batchStarting;
+    private long remainingInBatch;
+
+    /**
+     * Construct a handler for one partition.
+     *
+     * @param eventHandler   to pass the events of the partition on to.
+     * @param publishedKeys  of the ring buffer the events are taken from.
+     * @param partition      of the keys to pass on, from 0 to partitionCount - 1.
+     * @param partitionCount the number of partitions.
+     * @throws IllegalArgumentException if partition is not from 0 to partitionCount - 1
+     */
+    public PartitionedEventHandler(
+        final EventHandler<? super T> eventHandler,
+        final PublishedKeys<? super T> publishedKeys,
+        final int partition,
+        final int partitionCount)
+    {
+        if (partition < 0 || partition >= partitionCount)
+        {
+            throw new IllegalArgumentException("partition must be from 0 to partitionCount - 1");
+        }
+
+        this.eventHandler = eventHandler;
+        this.publishedKeys = publishedKeys;
+        this.partition = partition;
+        this.partitionCount = partitionCount;
+    }
+
+    @Override
+    public void onBatchStart(final long batchSize, final long queueDepth)
+    {
+        // The first sequence of the batch is only known once its first event is given
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+        this.batchStarting = true;
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        if (batchStarting)
+        {
+            batchStarting = false;
+            startBatch(sequence);
+        }
+
+        if (publishedKeys.getPartition(sequence, partitionCount) == partition)
+        {
+            eventHandler.onEvent(event, sequence, --remainingInBatch <= 0);
+        }
+    }
+
+    private void startBatch(final long firstSequence)
+    {
+        remainingInBatch = countEventsOfPartition(firstSequence, firstSequence + batchSize - 1);
+        if (remainingInBatch > 0)
+        {
+            eventHandler.onBatchStart(remainingInBatch, remainingInBatch + queueDepth - batchSize);
+        }
+    }
+
+    private long countEventsOfPartition(final long lo, final long hi)
+    {
+        long count = 0;
+        for (long sequence = lo; sequence <= hi; sequence++)
+        {
+            if (publishedKeys.getPartition(sequence, partitionCount) == partition)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void onStart()
+    {
+        eventHandler.onStart();
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        eventHandler.onShutdown();
+    }
+
+    @Override
+    public void onTimeout(final long sequence) throws Exception
+    {
+        eventHandler.onTimeout(sequence);
+    }
+
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        eventHandler.setSequenceCallback(sequenceCallback);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PartitionedEventHandler{" +
+            "eventHandler=" + eventHandler +
+            ", partition=" + partition +
+            ", partitionCount=" + partitionCount +
+            '}';
+    }
+}
@@ -96,4 +96,10 @@ final class ProcessingSequenceBarrier implements SequenceBarrier
             throw AlertException.INSTANCE;
         }
     }
+
+    @Override
+    public void signalProducers()
+    {
+        sequencer.signalProducers();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+
+/**
+ * Strategy employed for making producers wait for the gating sequences of a {@link Sequencer} to free enough
+ * capacity for a claim.
+ */
+public interface ProducerWaitStrategy
+{
+    /**
+     * Wait for the minimum gating sequence to reach the given wrap point.
+     *
+     * @param wrapPoint      the sequence the gating sequences must reach before the claim can proceed.
+     * @param gatingSequence the minimum of the gating sequences, bounded by the cursor of the sequencer.
+     * @return the minimum gating sequence, which will be at least <code>wrapPoint</code>.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    long waitForCapacity(long wrapPoint, Cursored gatingSequence) throws InterruptedException;
+
+    /**
+     * Implementations should signal the waiting producers that the minimum gating sequence has advanced.
+     */
+    void signalProducers();
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * The {@link System#nanoTime()} at which a sample of the sequences of a {@link RingBuffer} were published, kept in
+ * a side array indexed the same way as the events, see {@link RingBufferBuilder#samplePublishTimestamps(int)}.
+ *
+ * <p>Only every sample interval-th sequence is stamped, so a {@link BatchEventProcessor} at any stage of a
+ * pipeline can report the time since publication of those sequences to its {@link EventProcessorMetrics}. A
+ * timestamp can only be read before the sequence is released by the last gating sequence, after which the slot
+ * may be stamped again for the next lap of the ring.
+ */
+public final class PublishTimestamps
+{
+    private final long[] timestamps;
+    private final int indexMask;
+    private final int sampleInterval;
+    private final long sampleMask;
+
+    PublishTimestamps(final int bufferSize, final int sampleInterval)
+    {
+        checkSampleInterval(sampleInterval);
+
+        this.timestamps = new long[bufferSize];
+        this.indexMask = bufferSize - 1;
+        this.sampleInterval = sampleInterval;
+        this.sampleMask = sampleInterval - 1;
+    }
+
+    static void checkSampleInterval(final int sampleInterval)
+    {
+        if (sampleInterval < 1)
+        {
+            throw new IllegalArgumentException("sampleInterval must not be less than 1");
+        }
+        if (Integer.bitCount(sampleInterval) != 1)
+        {
+            throw new IllegalArgumentException("sampleInterval must be a power of 2");
+        }
+    }
+
+    /**
+     * The distance between two sampled sequences.
+     *
+     * @return the sample interval, a power of 2.
+     */
+    public int getSampleInterval()
+    {
+        return sampleInterval;
+    }
+
+    /**
+     * Get the lowest sampled sequence that is greater than or equal to the given sequence.
+     *
+     * @param sequence to start from.
+     * @return the next sampled sequence.
+     */
+    public long nextSampledSequence(final long sequence)
+    {
+        return (sequence + sampleMask) & ~sampleMask;
+    }
+
+    /**
+     * Get the time a sampled sequence was published.
+     *
+     * @param sequence a sampled sequence that has been published but not yet released by all gating sequences.
+     * @return the {@link System#nanoTime()} at which the sequence was published.
+     */
+    public long getTimestamp(final long sequence)
+    {
+        return timestamps[(int) sequence & indexMask];
+    }
+
+    void stamp(final long sequence)
+    {
+        if ((sequence & sampleMask) == 0)
+        {
+            timestamps[(int) sequence & indexMask] = System.nanoTime();
+        }
+    }
+
+    void stamp(final long lo, final long hi)
+    {
+        long sequence = nextSampledSequence(lo);
+        if (sequence <= hi)
+        {
+            final long now = System.nanoTime();
+            do
+            {
+                timestamps[(int) sequence & indexMask] = now;
+                sequence += sampleInterval;
+            }
+            while (sequence <= hi);
+        }
+    }
+}
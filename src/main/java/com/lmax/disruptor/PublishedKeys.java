@@ -0,0 +1,80 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * The key of each event of a {@link RingBuffer}, taken from the event when it is published and kept in a side
+ * array indexed the same way as the events, see {@link RingBufferBuilder#publishKeys(ToLongFunction)}.
+ *
+ * <p>Consumers that only process some of the keys, such as a {@link PartitionedEventHandler}, can skip the events
+ * of other keys without reading the events themselves. A key can only be read before the sequence is released by
+ * the last gating sequence, after which the slot may be written again for the next lap of the ring.
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class PublishedKeys<E>
+{
+    private final long[] keys;
+    private final int indexMask;
+    private final ToLongFunction<? super E> keyExtractor;
+
+    PublishedKeys(final int bufferSize, final ToLongFunction<? super E> keyExtractor)
+    {
+        this.keys = new long[bufferSize];
+        this.indexMask = bufferSize - 1;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * The function taking the key from each published event.
+     *
+     * @return the key extractor.
+     */
+    public ToLongFunction<? super E> getKeyExtractor()
+    {
+        return keyExtractor;
+    }
+
+    /**
+     * Get the key of a published event.
+     *
+     * @param sequence that has been published but not yet released by all gating sequences.
+     * @return the key of the event.
+     */
+    public long getKey(final long sequence)
+    {
+        return keys[(int) sequence & indexMask];
+    }
+
+    /**
+     * Get the partition of a published event, the non-negative remainder of its key divided by the partition count.
+     *
+     * @param sequence       that has been published but not yet released by all gating sequences.
+     * @param partitionCount the number of partitions.
+     * @return the partition of the event, from 0 to partitionCount - 1.
+     */
+    public int getPartition(final long sequence, final int partitionCount)
+    {
+        return Math.floorMod(keys[(int) sequence & indexMask], partitionCount);
+    }
+
+    void record(final long sequence, final E event)
+    {
+        keys[(int) sequence & indexMask] = keyExtractor.applyAsLong(event);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Convenience class for handling the batching semantics of consuming records from a {@link VariableLengthRingBuffer}
+ * and delegating the available records to a {@link RecordHandler}, in the same way as a
+ * {@link BatchEventProcessor} does for a {@link RingBuffer}.  Padding records are skipped.
+ */
+public final class RecordBatchProcessor
+        implements EventProcessor
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private ExceptionHandler<? super ByteBuffer> exceptionHandler;
+    private final VariableLengthRingBuffer ringBuffer;
+    private final SequenceBarrier sequenceBarrier;
+    private final RecordHandler eventHandler;
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    /**
+     * Construct a {@link RecordBatchProcessor}.
+     *
+     * @param ringBuffer      to which records are published.
+     * @param sequenceBarrier on which it is waiting.
+     * @param eventHandler    is the delegate to which records are dispatched.
+     */
+    public RecordBatchProcessor(
+            final VariableLengthRingBuffer ringBuffer,
+            final SequenceBarrier sequenceBarrier,
+            final RecordHandler eventHandler)
+    {
+        this.ringBuffer = ringBuffer;
+        this.sequenceBarrier = sequenceBarrier;
+        this.eventHandler = eventHandler;
+    }
+
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the {@link RecordBatchProcessor}.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super ByteBuffer> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE) // Successful CAS
+        {
+            sequenceBarrier.clearAlert();
+
+            notifyStart();
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    processEvents();
+                }
+            }
+            finally
+            {
+                notifyShutdown();
+                running.set(IDLE);
+                sequenceBarrier.signalProducers();
+            }
+        }
+        else
+        {
+            if (witnessValue == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                notifyStart();
+                notifyShutdown();
+            }
+        }
+    }
+
+    private void processEvents()
+    {
+        final ByteBuffer buffer = ringBuffer.getBuffer();
+        long nextSequence = sequence.get() + 1L;
+
+        while (true)
+        {
+            try
+            {
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                if (availableSequence < nextSequence)
+                {
+                    continue;
+                }
+
+                while (nextSequence <= availableSequence)
+                {
+                    final long recordSequence = nextSequence;
+                    nextSequence = ringBuffer.nextRecord(recordSequence);
+                    final int type = ringBuffer.getType(recordSequence);
+                    if (type == VariableLengthRingBuffer.PADDING_TYPE)
+                    {
+                        continue;
+                    }
+
+                    try
+                    {
+                        eventHandler.onRecord(
+                            type, buffer, ringBuffer.getPayloadOffset(recordSequence), ringBuffer.getLength(recordSequence),
+                            recordSequence, nextSequence > availableSequence);
+                    }
+                    catch (final Throwable ex)
+                    {
+                        getExceptionHandler().handleEventException(ex, recordSequence, buffer);
+                    }
+                }
+
+                sequence.set(availableSequence);
+                sequenceBarrier.signalProducers();
+            }
+            catch (final TimeoutException e)
+            {
+                // Nothing to report, wait again
+            }
+            catch (final AlertException ex)
+            {
+                if (running.get() != RUNNING)
+                {
+                    break;
+                }
+            }
+            catch (final InterruptedException ex)
+            {
+                getExceptionHandler().handleEventException(ex, sequence.get(), null);
+            }
+        }
+    }
+
+    /**
+     * Notifies the RecordHandler when this processor is starting up.
+     */
+    private void notifyStart()
+    {
+        try
+        {
+            eventHandler.onStart();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnStartException(ex);
+        }
+    }
+
+    /**
+     * Notifies the RecordHandler immediately prior to this processor shutting down.
+     */
+    private void notifyShutdown()
+    {
+        try
+        {
+            eventHandler.onShutdown();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private ExceptionHandler<? super ByteBuffer> getExceptionHandler()
+    {
+        ExceptionHandler<? super ByteBuffer> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Callback interface to be implemented for processing the records of a {@link VariableLengthRingBuffer} as they become
+ * available.
+ *
+ * @see RecordBatchProcessor#setExceptionHandler(ExceptionHandler) if you want to handle exceptions propagated out of the handler.
+ */
+public interface RecordHandler
+{
+    /**
+     * Called when a publisher has published a record to the {@link VariableLengthRingBuffer}.  The buffer is
+     * shared by all threads, so the payload must be read with its absolute accessors.
+     *
+     * @param type       of the record
+     * @param buffer     holding the payload of the record
+     * @param offset     of the first byte of the payload within the buffer
+     * @param length     of the payload in bytes
+     * @param sequence   of the record being processed
+     * @param endOfBatch flag to indicate if this is the last record in a batch from the {@link VariableLengthRingBuffer}
+     * @throws Exception if the RecordHandler would like the exception handled further up the chain.
+     * @see EventHandler#onEvent(Object, long, boolean)
+     */
+    void onRecord(int type, ByteBuffer buffer, int offset, int length, long sequence, boolean endOfBatch) throws Exception;
+
+    /**
+     * Called once on thread start before first record is available.
+     */
+    default void onStart()
+    {
+    }
+
+    /**
+     * Called once just before the processing thread is shutdown.
+     *
+     * <p>Event processing will already have stopped before this method is called. No records will
+     * be processed after this message.
+     */
+    default void onShutdown()
+    {
+    }
+}
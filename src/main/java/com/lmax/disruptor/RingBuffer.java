@@ -18,6 +18,9 @@ package com.lmax.disruptor;
 
 import com.lmax.disruptor.dsl.ProducerType;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
+
 abstract class RingBufferPad
 {
     protected byte
@@ -38,14 +41,27 @@ abstract class RingBufferFields<E> extends RingBufferPad
     private final E[] entries;
     protected final int bufferSize;
     protected final Sequencer sequencer;
+    protected final PublishTimestamps publishTimestamps;
+    protected final PublishedKeys<E> publishedKeys;
 
-    @SuppressWarnings("unchecked")
     RingBufferFields(
         final EventFactory<E> eventFactory,
         final Sequencer sequencer)
+    {
+        this(eventFactory, sequencer, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    RingBufferFields(
+        final EventFactory<E> eventFactory,
+        final Sequencer sequencer,
+        final PublishTimestamps publishTimestamps,
+        final PublishedKeys<E> publishedKeys)
     {
         this.sequencer = sequencer;
         this.bufferSize = sequencer.getBufferSize();
+        this.publishTimestamps = publishTimestamps;
+        this.publishedKeys = publishedKeys;
 
         if (bufferSize < 1)
         {
@@ -107,7 +123,25 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         final EventFactory<E> eventFactory,
         final Sequencer sequencer)
     {
-        super(eventFactory, sequencer);
+        this(eventFactory, sequencer, null, null);
+    }
+
+    /**
+     * Construct a RingBuffer that records publish timestamps and keys, see {@link RingBufferBuilder}.
+     *
+     * @param eventFactory      to newInstance entries for filling the RingBuffer
+     * @param sequencer         sequencer to handle the ordering of events moving through the RingBuffer.
+     * @param publishTimestamps to stamp as sequences are published, or null to not sample them.
+     * @param publishedKeys     to record the key of each event in as it is published, or null to not record them.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    RingBuffer(
+        final EventFactory<E> eventFactory,
+        final Sequencer sequencer,
+        final PublishTimestamps publishTimestamps,
+        final PublishedKeys<E> publishedKeys)
+    {
+        super(eventFactory, sequencer, publishTimestamps, publishedKeys);
     }
 
     /**
@@ -131,6 +165,55 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return new RingBuffer<>(factory, sequencer);
     }
 
+    /**
+     * Create a new multiple producer RingBuffer with the specified wait strategies.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param factory              used to create the events within the ring buffer.
+     * @param bufferSize           number of elements to create within the ring buffer.
+     * @param waitStrategy         used to determine how to wait for new elements to become available.
+     * @param producerWaitStrategy used to determine how producers wait for capacity when the ring buffer is full.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static <E> RingBuffer<E> createMultiProducer(
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final ProducerWaitStrategy producerWaitStrategy)
+    {
+        MultiProducerSequencer sequencer = new MultiProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+
+        return new RingBuffer<>(factory, sequencer);
+    }
+
+    /**
+     * Create a new multiple producer RingBuffer with the specified wait strategy and layout of the availability flags.
+     * {@link MultiProducerSequencer.AvailabilityLayout#STRIPED} reduces contention between many producers
+     * publishing neighbouring slots.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param factory            used to create the events within the ring buffer.
+     * @param bufferSize         number of elements to create within the ring buffer.
+     * @param waitStrategy       used to determine how to wait for new elements to become available.
+     * @param availabilityLayout how the availability flag for each slot is laid out in memory.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static <E> RingBuffer<E> createMultiProducer(
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final MultiProducerSequencer.AvailabilityLayout availabilityLayout)
+    {
+        MultiProducerSequencer sequencer = new MultiProducerSequencer(
+            bufferSize, waitStrategy, AbstractSequencer.DEFAULT_PRODUCER_WAIT_STRATEGY, availabilityLayout);
+
+        return new RingBuffer<>(factory, sequencer);
+    }
+
     /**
      * Create a new multiple producer RingBuffer using the default wait strategy  {@link BlockingWaitStrategy}.
      *
@@ -167,6 +250,29 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return new RingBuffer<>(factory, sequencer);
     }
 
+    /**
+     * Create a new single producer RingBuffer with the specified wait strategies.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param factory              used to create the events within the ring buffer.
+     * @param bufferSize           number of elements to create within the ring buffer.
+     * @param waitStrategy         used to determine how to wait for new elements to become available.
+     * @param producerWaitStrategy used to determine how the producer waits for capacity when the ring buffer is full.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static <E> RingBuffer<E> createSingleProducer(
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final ProducerWaitStrategy producerWaitStrategy)
+    {
+        SingleProducerSequencer sequencer = new SingleProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+
+        return new RingBuffer<>(factory, sequencer);
+    }
+
     /**
      * Create a new single producer RingBuffer using the default wait strategy  {@link BlockingWaitStrategy}.
      *
@@ -210,6 +316,40 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
     }
 
+    /**
+     * <p>Create a new Ring Buffer with the specified producer type (SINGLE or MULTI) and a wait strategy
+     * for producers to use when the ring buffer is full.</p>
+     *
+     * <p>If the producer wait strategy blocks, e.g. {@link LiteBlockingWaitStrategy}, producers are woken
+     * by consumers as they advance their sequences.</p>
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param producerType         producer type to use {@link ProducerType}.
+     * @param factory              used to create events within the ring buffer.
+     * @param bufferSize           number of elements to create within the ring buffer.
+     * @param waitStrategy         used to determine how to wait for new elements to become available.
+     * @param producerWaitStrategy used to determine how producers wait for capacity when the ring buffer is full.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static <E> RingBuffer<E> create(
+        final ProducerType producerType,
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final ProducerWaitStrategy producerWaitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return createSingleProducer(factory, bufferSize, waitStrategy, producerWaitStrategy);
+            case MULTI:
+                return createMultiProducer(factory, bufferSize, waitStrategy, producerWaitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
     /**
      * <p>Get the event for a given sequence in the RingBuffer.</p>
      *
@@ -360,6 +500,27 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         sequencer.addGatingSequences(gatingSequences);
     }
 
+    /**
+     * Park the calling thread, if it is still waiting, until a consumer signals that its sequence may have advanced,
+     * or until the timeout passes, see {@link Sequencer#awaitConsumerProgress(BooleanSupplier, long)}.
+     *
+     * @param isWaiting    whether the thread is still waiting for the consumers.
+     * @param timeoutNanos the longest time to park for.
+     */
+    public void awaitConsumerProgress(final BooleanSupplier isWaiting, final long timeoutNanos)
+    {
+        sequencer.awaitConsumerProgress(isWaiting, timeoutNanos);
+    }
+
+    /**
+     * Signal any producers waiting for capacity that a gating sequence may have advanced, or been removed from a
+     * group of gating sequences, see {@link Sequencer#signalProducers()}.
+     */
+    public void signalProducers()
+    {
+        sequencer.signalProducers();
+    }
+
     /**
      * Get the minimum sequence value from all of the gating sequences
      * added to this ringBuffer.
@@ -863,7 +1024,22 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
     @Override
     public void publish(final long sequence)
     {
-        sequencer.publish(sequence);
+        // The sequence is claimed, so it must be published even if the key extractor throws
+        try
+        {
+            if (null != publishTimestamps)
+            {
+                publishTimestamps.stamp(sequence);
+            }
+            if (null != publishedKeys)
+            {
+                publishedKeys.record(sequence, elementAt(sequence));
+            }
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
     }
 
     /**
@@ -877,7 +1053,45 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
     @Override
     public void publish(final long lo, final long hi)
     {
-        sequencer.publish(lo, hi);
+        // The sequences are claimed, so they must be published even if the key extractor throws
+        try
+        {
+            if (null != publishTimestamps)
+            {
+                publishTimestamps.stamp(lo, hi);
+            }
+            if (null != publishedKeys)
+            {
+                for (long sequence = lo; sequence <= hi; sequence++)
+                {
+                    publishedKeys.record(sequence, elementAt(sequence));
+                }
+            }
+        }
+        finally
+        {
+            sequencer.publish(lo, hi);
+        }
+    }
+
+    /**
+     * Get the publish timestamps of this ring buffer.
+     *
+     * @return the timestamps, or null if it was not built with {@link RingBufferBuilder#samplePublishTimestamps(int)}.
+     */
+    public PublishTimestamps getPublishTimestamps()
+    {
+        return publishTimestamps;
+    }
+
+    /**
+     * Get the published keys of this ring buffer.
+     *
+     * @return the keys, or null if it was not built with {@link RingBufferBuilder#publishKeys(ToLongFunction)}.
+     */
+    public PublishedKeys<E> getPublishedKeys()
+    {
+        return publishedKeys;
     }
 
     /**
@@ -956,7 +1170,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -968,7 +1182,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -980,7 +1194,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -994,7 +1208,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1006,7 +1220,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(sequence);
+            publish(sequence);
         }
     }
 
@@ -1027,7 +1241,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1047,7 +1261,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1068,7 +1282,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1089,7 +1303,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
@@ -1109,7 +1323,7 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
         finally
         {
-            sequencer.publish(initialSequence, finalSequence);
+            publish(initialSequence, finalSequence);
         }
     }
 
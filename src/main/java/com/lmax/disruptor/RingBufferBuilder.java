@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds a {@link RingBuffer} with the options that have to be fixed before any event is published, such as
+ * the sampling of publish timestamps and the recording of published keys.
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class RingBufferBuilder<E>
+{
+    private ProducerType producerType = ProducerType.MULTI;
+    private WaitStrategy waitStrategy = new BlockingWaitStrategy();
+    private ProducerWaitStrategy producerWaitStrategy = AbstractSequencer.DEFAULT_PRODUCER_WAIT_STRATEGY;
+    private int publishTimestampSampleInterval = 0;
+    private ToLongFunction<? super E> keyExtractor = null;
+
+    /**
+     * Set whether one or several threads will publish to the ring buffer, multiple by default.
+     *
+     * @param producerType of the sequencer to create.
+     * @return The builder
+     */
+    public RingBufferBuilder<E> setProducerType(final ProducerType producerType)
+    {
+        this.producerType = producerType;
+        return this;
+    }
+
+    /**
+     * Set the wait strategy used by consumers waiting for events, a {@link BlockingWaitStrategy} by default.
+     *
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @return The builder
+     */
+    public RingBufferBuilder<E> setWaitStrategy(final WaitStrategy waitStrategy)
+    {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Set the wait strategy used by producers when the ring buffer is full.
+     *
+     * @param producerWaitStrategy used to determine how producers wait for capacity when the ring buffer is full.
+     * @return The builder
+     */
+    public RingBufferBuilder<E> setProducerWaitStrategy(final ProducerWaitStrategy producerWaitStrategy)
+    {
+        this.producerWaitStrategy = producerWaitStrategy;
+        return this;
+    }
+
+    /**
+     * Record the time at which every sample interval-th sequence is published, so that {@link BatchEventProcessor}s
+     * built with {@link BatchEventProcessorBuilder#setPublishTimestamps(PublishTimestamps)} can report the latency
+     * from publication to their {@link EventProcessorMetrics}, see {@link RingBuffer#getPublishTimestamps()}.
+     *
+     * @param sampleInterval the distance between two sampled sequences, a power of 2.
+     * @return The builder
+     * @throws IllegalArgumentException if sampleInterval is less than 1 or not a power of 2
+     */
+    public RingBufferBuilder<E> samplePublishTimestamps(final int sampleInterval)
+    {
+        PublishTimestamps.checkSampleInterval(sampleInterval);
+        this.publishTimestampSampleInterval = sampleInterval;
+        return this;
+    }
+
+    /**
+     * Record the key of every event as it is published, so that consumers such as a {@link PartitionedEventHandler}
+     * can tell which events to process without reading them, see {@link RingBuffer#getPublishedKeys()}.
+     *
+     * @param keyExtractor taking the key from an event, e.g. an instrument id or a hash code.
+     * @return The builder
+     */
+    public RingBufferBuilder<E> publishKeys(final ToLongFunction<? super E> keyExtractor)
+    {
+        this.keyExtractor = keyExtractor;
+        return this;
+    }
+
+    /**
+     * Construct a {@link RingBuffer} with the options set on this builder.
+     *
+     * @param eventFactory used to create the events within the ring buffer.
+     * @param bufferSize   number of elements to create within the ring buffer.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public RingBuffer<E> build(final EventFactory<E> eventFactory, final int bufferSize)
+    {
+        final Sequencer sequencer = ProducerType.SINGLE == producerType ?
+            new SingleProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy) :
+            new MultiProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+        final PublishTimestamps publishTimestamps = 0 == publishTimestampSampleInterval ?
+            null : new PublishTimestamps(bufferSize, publishTimestampSampleInterval);
+        final PublishedKeys<E> publishedKeys = null == keyExtractor ? null : new PublishedKeys<>(bufferSize, keyExtractor);
+
+        return new RingBuffer<>(eventFactory, sequencer, publishTimestamps, publishedKeys);
+    }
+}
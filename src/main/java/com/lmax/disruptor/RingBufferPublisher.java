@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Exposes a {@link RingBuffer} as a {@link Flow.Publisher}, passing the events published after each subscriber
+ * subscribes on to it from a {@link SubscriberEventProcessor} on a thread of its own.
+ *
+ * <p>Each subscriber gates the ring buffer while it is subscribed, so a subscriber that does not request events
+ * holds back the publishers. The gating sequence is removed when the subscription is cancelled or the publisher
+ * is closed. The events are passed on as they are in the ring buffer, so a subscriber must copy anything it needs
+ * after {@link Flow.Subscriber#onNext(Object)} returns.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class RingBufferPublisher<T> implements Flow.Publisher<T>
+{
+    private final RingBuffer<T> ringBuffer;
+    private final ThreadFactory threadFactory;
+    private final Collection<SubscriberEventProcessor<T>> processors = new CopyOnWriteArrayList<>();
+
+    /**
+     * Construct a publisher of the events of a ring buffer.
+     *
+     * @param ringBuffer    to take the events from.
+     * @param threadFactory to create the thread passing on the events of each subscriber.
+     */
+    public RingBufferPublisher(final RingBuffer<T> ringBuffer, final ThreadFactory threadFactory)
+    {
+        this.ringBuffer = ringBuffer;
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber)
+    {
+        final SubscriberEventProcessor<T> processor =
+            new SubscriberEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), subscriber, true);
+        final Sequence sequence = processor.getSequence();
+
+        ringBuffer.addGatingSequences(sequence);
+        processors.add(processor);
+
+        final Thread thread = threadFactory.newThread(() ->
+        {
+            try
+            {
+                processor.run();
+            }
+            finally
+            {
+                ringBuffer.removeGatingSequence(sequence);
+                processors.remove(processor);
+            }
+        });
+        if (null == thread)
+        {
+            ringBuffer.removeGatingSequence(sequence);
+            processors.remove(processor);
+            throw new RuntimeException("Failed to create thread to run: " + processor);
+        }
+
+        thread.start();
+    }
+
+    /**
+     * Complete every subscription, calling {@link Flow.Subscriber#onComplete()} once the events being passed on
+     * have been, without waiting for the rest of the events that have been published.
+     */
+    public void close()
+    {
+        processors.forEach(SubscriberEventProcessor::halt);
+    }
+}
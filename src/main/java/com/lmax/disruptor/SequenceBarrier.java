@@ -63,4 +63,13 @@ public interface SequenceBarrier
      * @throws AlertException if alert has been raised.
      */
     void checkAlert() throws AlertException;
+
+    /**
+     * Signal any producers waiting for capacity that the consumer using this barrier has advanced its sequence.
+     *
+     * @see Sequencer#signalProducers()
+     */
+    default void signalProducers()
+    {
+    }
 }
@@ -31,13 +31,26 @@ public final class SequenceGroup extends Sequence
     private static final AtomicReferenceFieldUpdater<SequenceGroup, Sequence[]> SEQUENCE_UPDATER =
         AtomicReferenceFieldUpdater.newUpdater(SequenceGroup.class, Sequence[].class, "sequences");
     private volatile Sequence[] sequences = new Sequence[0];
+    private final Cursored cursored;
 
     /**
      * Default Constructor
      */
     public SequenceGroup()
+    {
+        this(null);
+    }
+
+    /**
+     * Create a group that reports the cursor of the given {@link Cursored} while it has no {@link Sequence}s,
+     * so a barrier waiting on it follows the publishers once all of its dependencies are removed.
+     *
+     * @param cursored to report while the group is empty, or {@code null} to report {@link Long#MAX_VALUE}.
+     */
+    public SequenceGroup(final Cursored cursored)
     {
         super(-1);
+        this.cursored = cursored;
     }
 
     /**
@@ -48,6 +61,12 @@ public final class SequenceGroup extends Sequence
     @Override
     public long get()
     {
+        final Sequence[] sequences = this.sequences;
+        if (0 == sequences.length && null != cursored)
+        {
+            return cursored.getCursor();
+        }
+
         return Util.getMinimumSequence(sequences);
     }
 
@@ -15,6 +15,9 @@
  */
 package com.lmax.disruptor;
 
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
 /**
  * Coordinates claiming sequences for access to a data structure while tracking dependent {@link Sequence}s
  */
@@ -50,7 +53,8 @@ public interface Sequencer extends Cursored, Sequenced
     void addGatingSequences(Sequence... gatingSequences);
 
     /**
-     * Remove the specified sequence from this sequencer.
+     * Remove the specified sequence from this sequencer, signalling any producers waiting for capacity that the
+     * minimum gating sequence may have advanced.
      *
      * @param sequence to be removed.
      * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
@@ -67,6 +71,18 @@ public interface Sequencer extends Cursored, Sequenced
      */
     SequenceBarrier newBarrier(Sequence... sequencesToTrack);
 
+    /**
+     * Get the wait strategy used by the consumers of this sequencer.  The sequencers of this library all expose
+     * theirs, which a {@link MultiBufferBatchEventProcessor} needs to wait on several ring buffers at once.
+     *
+     * @return the {@link WaitStrategy} that barriers created by this sequencer wait with.
+     * @throws UnsupportedOperationException if the sequencer does not expose its wait strategy.
+     */
+    default WaitStrategy getWaitStrategy()
+    {
+        throw new UnsupportedOperationException("getWaitStrategy is not supported by " + getClass().getName());
+    }
+
     /**
      * Get the minimum sequence value from all of the gating sequences
      * added to this ringBuffer.
@@ -99,4 +115,31 @@ public interface Sequencer extends Cursored, Sequenced
      * @return the event poller
      */
     <T> EventPoller<T> newPoller(DataProvider<T> provider, Sequence... gatingSequences);
+
+    /**
+     * Signal any producers waiting for capacity that a gating sequence may have advanced.  Consumers call
+     * this after moving their sequence forward, it has no effect unless producers are using a blocking
+     * wait strategy to wait for capacity.
+     */
+    default void signalProducers()
+    {
+    }
+
+    /**
+     * Park the calling thread, if it is still waiting, until a consumer signals with {@link #signalProducers()} that
+     * its sequence may have advanced, or until the timeout passes.  The condition is checked once the thread can be
+     * signalled, so a consumer moving on just before the thread parks is not missed.  Like
+     * {@link LockSupport#parkNanos(long)} it can also return early for no reason, so the caller should check the
+     * condition again.
+     *
+     * @param isWaiting    whether the thread is still waiting for the consumers.
+     * @param timeoutNanos the longest time to park for.
+     */
+    default void awaitConsumerProgress(BooleanSupplier isWaiting, long timeoutNanos)
+    {
+        if (isWaiting.getAsBoolean())
+        {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+
+/**
+ * A group of single producer {@link RingBuffer}s, or shards, that are consumed together.
+ *
+ * <p>Each producer thread (or group of producers that coordinate among themselves) owns one shard, so claiming a
+ * slot never contends with the other producers the way the shared cursor of a {@link MultiProducerSequencer}
+ * does. All shards share one {@link WaitStrategy}, which lets a {@link MultiBufferBatchEventProcessor} block until any
+ * of them has been published to. Ordering is only kept between events of the same shard.
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class ShardedRingBuffer<E> implements Cursored
+{
+    private final RingBuffer<E>[] shards;
+    private final Sequencer[] sequencers;
+    private final Sequence mergedCursor;
+    private final WaitStrategy waitStrategy;
+    private final int shardBufferSize;
+
+    private ShardedRingBuffer(
+        final EventFactory<E> eventFactory,
+        final int shardCount,
+        final int shardBufferSize,
+        final WaitStrategy waitStrategy)
+    {
+        if (shardCount < 1)
+        {
+            throw new IllegalArgumentException("shardCount must not be less than 1");
+        }
+
+        this.shards = newShards(shardCount);
+        this.sequencers = new Sequencer[shardCount];
+        this.waitStrategy = waitStrategy;
+        this.shardBufferSize = shardBufferSize;
+
+        for (int i = 0; i < shardCount; i++)
+        {
+            final SingleProducerSequencer sequencer = new SingleProducerSequencer(shardBufferSize, waitStrategy);
+            sequencers[i] = sequencer;
+            shards[i] = new RingBuffer<>(eventFactory, sequencer);
+        }
+        this.mergedCursor = new SummedSequenceGroup(sequencers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> RingBuffer<E>[] newShards(final int shardCount)
+    {
+        return (RingBuffer<E>[]) new RingBuffer<?>[shardCount];
+    }
+
+    /**
+     * Create a new sharded ring buffer with the given number of single producer shards.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param factory         used to create the events within each shard.
+     * @param shardCount      number of shards, usually one per producer thread.
+     * @param shardBufferSize number of elements to create within each shard.
+     * @param waitStrategy    shared by every shard, used to determine how to wait for new elements to become available.
+     * @return a constructed sharded ring buffer.
+     * @throws IllegalArgumentException if shardCount is less than 1, or shardBufferSize is less than 1 or not a power of 2
+     */
+    public static <E> ShardedRingBuffer<E> create(
+        final EventFactory<E> factory,
+        final int shardCount,
+        final int shardBufferSize,
+        final WaitStrategy waitStrategy)
+    {
+        return new ShardedRingBuffer<>(factory, shardCount, shardBufferSize, waitStrategy);
+    }
+
+    /**
+     * Get the shard with the given index. A shard must only be published to by one thread at a time.
+     *
+     * @param shard index of the shard, from 0 to {@link #getShardCount()} - 1.
+     * @return the single producer ring buffer for the shard.
+     */
+    public RingBuffer<E> getShard(final int shard)
+    {
+        return shards[shard];
+    }
+
+    /**
+     * The number of shards.
+     *
+     * @return number of shards.
+     */
+    public int getShardCount()
+    {
+        return shards.length;
+    }
+
+    /**
+     * The size of each shard.
+     *
+     * @return number of slots in each shard.
+     */
+    public int getShardBufferSize()
+    {
+        return shardBufferSize;
+    }
+
+    /**
+     * Get the merged cursor over all shards, the total number of events published less one.
+     *
+     * @return the merged cursor.
+     */
+    @Override
+    public long getCursor()
+    {
+        return mergedCursor.get();
+    }
+
+    /**
+     * Create a new SequenceBarrier that waits on the merged cursor of all shards, i.e. it will return as soon
+     * as any shard has been published past the merged sequence being waited for.
+     *
+     * @return a barrier over every shard.
+     */
+    public SequenceBarrier newBarrier()
+    {
+        return new MergingSequenceBarrier(waitStrategy, sequencers);
+    }
+
+    /**
+     * Create a new {@link MultiBufferBatchEventProcessor} for all shards and gate each shard on it, taking as many
+     * events from each shard in a pass as are available.
+     *
+     * @param eventHandler to be called for the events of every shard.
+     * @return a processor to run on a thread of its own.
+     */
+    public MultiBufferBatchEventProcessor<E> newEventProcessor(final EventHandler<? super E> eventHandler)
+    {
+        return newEventProcessor(new BatchEventProcessorBuilder(), eventHandler);
+    }
+
+    /**
+     * Create a new {@link MultiBufferBatchEventProcessor} for all shards and gate each shard on it.
+     *
+     * @param builder      configuring the processor, where the maximum batch size is the most events taken from
+     *                     one shard before moving on to the next.
+     * @param eventHandler to be called for the events of every shard.
+     * @return a processor to run on a thread of its own.
+     */
+    public MultiBufferBatchEventProcessor<E> newEventProcessor(
+        final BatchEventProcessorBuilder builder,
+        final EventHandler<? super E> eventHandler)
+    {
+        return addGatingSequences(builder.build(shards, eventHandler));
+    }
+
+    /**
+     * Create a new {@link MultiBufferBatchEventProcessor} for all shards with support for batch rewind and
+     * gate each shard on it.
+     *
+     * @param builder                configuring the processor, where the maximum batch size is the most events
+     *                               taken from one shard before moving on to the next.
+     * @param rewindableEventHandler to be called for the events of every shard.
+     * @param batchRewindStrategy    a {@link BatchRewindStrategy} for customizing how to handle a {@link RewindableException}.
+     * @return a processor to run on a thread of its own.
+     */
+    public MultiBufferBatchEventProcessor<E> newEventProcessor(
+        final BatchEventProcessorBuilder builder,
+        final RewindableEventHandler<? super E> rewindableEventHandler,
+        final BatchRewindStrategy batchRewindStrategy)
+    {
+        return addGatingSequences(builder.build(shards, rewindableEventHandler, batchRewindStrategy));
+    }
+
+    private MultiBufferBatchEventProcessor<E> addGatingSequences(final MultiBufferBatchEventProcessor<E> processor)
+    {
+        final Sequence[] sequences = processor.getSequences();
+        for (int i = 0; i < shards.length; i++)
+        {
+            shards[i].addGatingSequences(sequences[i]);
+        }
+
+        return processor;
+    }
+
+    /**
+     * Remove the gating sequences of a processor from every shard, e.g. once it has been halted for good.
+     *
+     * @param processor created by this sharded ring buffer.
+     */
+    public void removeEventProcessor(final MultiBufferBatchEventProcessor<E> processor)
+    {
+        final Sequence[] sequences = processor.getSequences();
+        for (int i = 0; i < shards.length; i++)
+        {
+            shards[i].removeGatingSequence(sequences[i]);
+        }
+    }
+}
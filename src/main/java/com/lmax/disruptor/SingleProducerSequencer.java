@@ -20,7 +20,6 @@ import com.lmax.disruptor.util.Util;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.LockSupport;
 
 abstract class SingleProducerSequencerPad extends AbstractSequencer
 {
@@ -33,17 +32,17 @@ abstract class SingleProducerSequencerPad extends AbstractSequencer
         p60, p61, p62, p63, p64, p65, p66, p67,
         p70, p71, p72, p73, p74, p75, p76, p77;
 
-    SingleProducerSequencerPad(final int bufferSize, final WaitStrategy waitStrategy)
+    SingleProducerSequencerPad(final int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy)
     {
-        super(bufferSize, waitStrategy);
+        super(bufferSize, waitStrategy, producerWaitStrategy);
     }
 }
 
 abstract class SingleProducerSequencerFields extends SingleProducerSequencerPad
 {
-    SingleProducerSequencerFields(final int bufferSize, final WaitStrategy waitStrategy)
+    SingleProducerSequencerFields(final int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy)
     {
-        super(bufferSize, waitStrategy);
+        super(bufferSize, waitStrategy, producerWaitStrategy);
     }
 
     /**
@@ -80,7 +79,19 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
      */
     public SingleProducerSequencer(final int bufferSize, final WaitStrategy waitStrategy)
     {
-        super(bufferSize, waitStrategy);
+        this(bufferSize, waitStrategy, DEFAULT_PRODUCER_WAIT_STRATEGY);
+    }
+
+    /**
+     * Construct a Sequencer with the selected wait strategies and buffer size.
+     *
+     * @param bufferSize           the size of the buffer that this will sequence over.
+     * @param waitStrategy         for those waiting on sequences.
+     * @param producerWaitStrategy for the producer when waiting for capacity in the buffer.
+     */
+    public SingleProducerSequencer(final int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy)
+    {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
     }
 
     /**
@@ -150,10 +161,10 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
         {
             cursor.setVolatile(nextValue);  // StoreLoad fence
 
-            long minSequence;
-            while (wrapPoint > (minSequence = Util.getMinimumSequence(gatingSequences, nextValue)))
+            long minSequence = Util.getMinimumSequence(gatingSequences, nextValue);
+            if (wrapPoint > minSequence)
             {
-                LockSupport.parkNanos(1L); // TODO: Use waitStrategy to spin?
+                minSequence = waitForCapacity(wrapPoint);
             }
 
             this.cachedValue = minSequence;
@@ -28,7 +28,7 @@ import java.util.concurrent.locks.LockSupport;
  * on the producing thread as it will not need signal any conditional variables
  * to wake up the event handling thread.
  */
-public final class SleepingWaitStrategy implements WaitStrategy
+public final class SleepingWaitStrategy implements WaitStrategy, ProducerWaitStrategy
 {
     private static final int SPIN_THRESHOLD = 100;
     private static final int DEFAULT_RETRIES = 200;
@@ -73,7 +73,8 @@ public final class SleepingWaitStrategy implements WaitStrategy
 
         while ((availableSequence = dependentSequence.get()) < sequence)
         {
-            counter = applyWaitMethod(barrier, counter);
+            barrier.checkAlert();
+            counter = applyWaitMethod(counter);
         }
 
         return availableSequence;
@@ -84,11 +85,27 @@ public final class SleepingWaitStrategy implements WaitStrategy
     {
     }
 
-    private int applyWaitMethod(final SequenceBarrier barrier, final int counter)
-        throws AlertException
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence)
     {
-        barrier.checkAlert();
+        long minimumSequence;
+        int counter = retries;
 
+        while ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+        {
+            counter = applyWaitMethod(counter);
+        }
+
+        return minimumSequence;
+    }
+
+    @Override
+    public void signalProducers()
+    {
+    }
+
+    private int applyWaitMethod(final int counter)
+    {
         if (counter > SPIN_THRESHOLD)
         {
             return counter - 1;
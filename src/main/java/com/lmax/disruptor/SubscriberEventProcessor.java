@@ -0,0 +1,326 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.Math.min;
+
+
+/**
+ * An {@link EventProcessor} that passes the events of a {@link RingBuffer} on to a {@link Flow.Subscriber}, and is
+ * the {@link Flow.Subscription} of that subscriber.
+ *
+ * <p>Events are only taken from the ring buffer as the subscriber requests them, and the sequence of the processor
+ * is advanced as each batch is passed on, so a slow subscriber holds back the publishers through the gating
+ * sequences rather than events being copied into a buffer. The events are passed on as they are in the ring
+ * buffer, so a subscriber must copy anything it needs after {@link Flow.Subscriber#onNext(Object)} returns.
+ *
+ * <p>{@link Flow.Subscriber#onSubscribe(Flow.Subscription)} is called when the processor starts, and
+ * {@link Flow.Subscriber#onComplete()} when it is halted. Once the subscription is cancelled, or
+ * {@link Flow.Subscriber#onNext(Object)} throws, no more events are passed on but the processor keeps moving its
+ * sequence on until it is halted, so that it does not hold back the publishers.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class SubscriberEventProcessor<T>
+        implements EventProcessor, EventHandlerIdentity, Flow.Subscription
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private final AtomicLong demand = new AtomicLong();
+    private ExceptionHandler<? super T> exceptionHandler;
+    private final DataProvider<T> dataProvider;
+    private final SequenceBarrier sequenceBarrier;
+    private final Flow.Subscriber<? super T> subscriber;
+    private final boolean haltOnCancel;
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private volatile Thread thread;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private boolean subscribed;
+
+    /**
+     * Construct a {@link SubscriberEventProcessor}.
+     *
+     * @param dataProvider    to which events are published.
+     * @param sequenceBarrier on which it is waiting, not shared with other processors.
+     * @param subscriber      to pass the events on to.
+     */
+    public SubscriberEventProcessor(
+            final DataProvider<T> dataProvider,
+            final SequenceBarrier sequenceBarrier,
+            final Flow.Subscriber<? super T> subscriber)
+    {
+        this(dataProvider, sequenceBarrier, subscriber, false);
+    }
+
+    SubscriberEventProcessor(
+            final DataProvider<T> dataProvider,
+            final SequenceBarrier sequenceBarrier,
+            final Flow.Subscriber<? super T> subscriber,
+            final boolean haltOnCancel)
+    {
+        if (null == subscriber)
+        {
+            throw new NullPointerException("subscriber cannot be null");
+        }
+
+        this.dataProvider = dataProvider;
+        this.sequenceBarrier = sequenceBarrier;
+        this.subscriber = subscriber;
+        this.haltOnCancel = haltOnCancel;
+    }
+
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        wake();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for exceptions thrown by the subscriber, which is told about them after
+     * the subscription has been cancelled.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    @Override
+    public void request(final long n)
+    {
+        if (n <= 0)
+        {
+            // Signalled from the processor thread, as the subscriber may be in onNext
+            error = new IllegalArgumentException("non-positive subscription request: " + n);
+            cancel();
+            return;
+        }
+
+        long current;
+        long next;
+        do
+        {
+            current = demand.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        }
+        while (!demand.compareAndSet(current, next));
+
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void cancel()
+    {
+        cancelled = true;
+        if (haltOnCancel)
+        {
+            running.set(HALTED);
+        }
+        wake();
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE) // Successful CAS
+        {
+            sequenceBarrier.clearAlert();
+            thread = Thread.currentThread();
+
+            try
+            {
+                if (!subscribed)
+                {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+
+                processEvents();
+            }
+            finally
+            {
+                notifyShutdown();
+                thread = null;
+                running.set(IDLE);
+                sequenceBarrier.signalProducers();
+            }
+        }
+        else if (witnessValue == RUNNING)
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+    }
+
+    private void processEvents()
+    {
+        while (running.get() == RUNNING)
+        {
+            try
+            {
+                if (cancelled)
+                {
+                    signalError();
+                    sequence.set(sequenceBarrier.waitFor(sequence.get() + 1L));
+                    sequenceBarrier.signalProducers();
+                }
+                else if (demand.get() == 0)
+                {
+                    LockSupport.park(this);
+                }
+                else
+                {
+                    passOnEvents();
+                }
+            }
+            catch (final AlertException e)
+            {
+                // Woken to check whether halted or cancelled, only halting stops the processor
+                if (running.get() == RUNNING)
+                {
+                    sequenceBarrier.clearAlert();
+                }
+            }
+            catch (final TimeoutException e)
+            {
+                // Nothing to report, wait again
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void passOnEvents() throws AlertException, InterruptedException, TimeoutException
+    {
+        final long nextSequence = sequence.get() + 1L;
+        final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+        final long requested = demand.get();
+        final long endOfBatchSequence = nextSequence + min(availableSequence - nextSequence, requested - 1);
+
+        long passedOnSequence = nextSequence;
+        try
+        {
+            while (passedOnSequence <= endOfBatchSequence && !cancelled)
+            {
+                subscriber.onNext(dataProvider.get(passedOnSequence));
+                passedOnSequence++;
+            }
+        }
+        catch (final Throwable ex)
+        {
+            cancel();
+            getExceptionHandler().handleEventException(ex, passedOnSequence, dataProvider.get(passedOnSequence));
+            passedOnSequence++;
+        }
+
+        if (passedOnSequence > nextSequence)
+        {
+            if (requested != Long.MAX_VALUE)
+            {
+                demand.addAndGet(nextSequence - passedOnSequence);
+            }
+            sequence.set(passedOnSequence - 1L);
+            sequenceBarrier.signalProducers();
+        }
+    }
+
+    private void signalError()
+    {
+        final Throwable error = this.error;
+        if (null != error)
+        {
+            this.error = null;
+            try
+            {
+                subscriber.onError(error);
+            }
+            catch (final Throwable ex)
+            {
+                getExceptionHandler().handleOnShutdownException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown()
+    {
+        if (cancelled)
+        {
+            signalError();
+            return;
+        }
+
+        try
+        {
+            subscriber.onComplete();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private void wake()
+    {
+        sequenceBarrier.alert();
+        final Thread thread = this.thread;
+        if (null != thread)
+        {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private ExceptionHandler<? super T> getExceptionHandler()
+    {
+        ExceptionHandler<? super T> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+
+/**
+ * Hides a group of independent Sequences, or cursors, behind a single read only Sequence that counts the total
+ * number of sequences they have passed, i.e. the merged position across all of them. Starts at
+ * {@link Sequencer#INITIAL_CURSOR_VALUE} when every sequence in the group does. Every method that would change
+ * the sequence throws {@link UnsupportedOperationException}.
+ */
+final class SummedSequenceGroup extends Sequence
+{
+    private final Cursored[] sequences;
+
+    SummedSequenceGroup(final Sequence[] sequences)
+    {
+        this.sequences = new Cursored[sequences.length];
+        for (int i = 0; i < sequences.length; i++)
+        {
+            this.sequences[i] = sequences[i]::get;
+        }
+    }
+
+    SummedSequenceGroup(final Cursored[] cursors)
+    {
+        this.sequences = Arrays.copyOf(cursors, cursors.length);
+    }
+
+    /**
+     * Get the merged sequence value for the group.
+     *
+     * @return the sum of the number of sequences passed by each sequence in the group, less one.
+     */
+    @Override
+    public long get()
+    {
+        long sum = Sequencer.INITIAL_CURSOR_VALUE;
+        for (Cursored sequence : sequences)
+        {
+            sum += sequence.getCursor() + 1;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Not supported.
+     */
+    @Override
+    public void set(final long value)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported.
+     */
+    @Override
+    public void setVolatile(final long value)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported.
+     */
+    @Override
+    public boolean compareAndSet(final long expectedValue, final long newValue)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported.
+     */
+    @Override
+    public long incrementAndGet()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported.
+     */
+    @Override
+    public long addAndGet(final long increment)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported.
+     */
+    @Override
+    public long getAndAdd(final long increment)
+    {
+        throw new UnsupportedOperationException();
+    }
+}
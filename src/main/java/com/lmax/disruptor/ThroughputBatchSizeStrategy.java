@@ -0,0 +1,44 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Batch size strategy that grows the batch limit while events are backing up and shrinks it once the queue drains.
+ *
+ * <p>When a batch was cut short by the limit the limit is doubled, amortising the cost of updating sequences over
+ * more events during a burst. When the queue was no more than a quarter of the limit it is halved, so that after
+ * a burst the processor goes back to releasing its sequence after fewer events.
+ */
+public final class ThroughputBatchSizeStrategy implements BatchSizeStrategy
+{
+    private static final int SHRINK_THRESHOLD_SHIFT = 2;
+
+    @Override
+    public int nextBatchLimit(final int batchLimit, final long batchSize, final long queueDepth, final long serviceTimeNanos)
+    {
+        if (queueDepth > batchSize)
+        {
+            return batchLimit > Integer.MAX_VALUE >> 1 ? Integer.MAX_VALUE : batchLimit << 1;
+        }
+
+        if (queueDepth <= batchLimit >> SHRINK_THRESHOLD_SHIFT)
+        {
+            return batchLimit >> 1;
+        }
+
+        return batchLimit;
+    }
+}
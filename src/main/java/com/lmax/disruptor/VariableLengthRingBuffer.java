@@ -0,0 +1,506 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+abstract class VariableLengthRingBufferPad
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+}
+
+abstract class VariableLengthRingBufferFields extends VariableLengthRingBufferPad
+{
+    static final int ALIGNMENT = 32;
+    static final int HEADER_LENGTH = 8;
+    static final int TYPE_OFFSET = 4;
+    static final int PADDING_TYPE = -1;
+
+    private static final VarHandle LONG_IN_BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG_IN_ARRAY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final long indexMask;
+    private final ByteBuffer region;
+    protected final int bufferSize;
+    protected final Sequencer sequencer;
+
+    VariableLengthRingBufferFields(final Sequencer sequencer)
+    {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+
+        this.indexMask = bufferSize - 1;
+        this.region = ByteBuffer.allocateDirect(bufferSize * ALIGNMENT).order(ByteOrder.nativeOrder());
+    }
+
+    protected final ByteBuffer region()
+    {
+        return region;
+    }
+
+    protected final int offsetOf(final long sequence)
+    {
+        return (int) (sequence & indexMask) * ALIGNMENT;
+    }
+
+    protected final int unitsUntilWrap(final long sequence)
+    {
+        return bufferSize - (int) (sequence & indexMask);
+    }
+
+    protected final void writeHeader(final long sequence, final int type, final int length)
+    {
+        final int offset = offsetOf(sequence);
+        region.putInt(offset, length);
+        region.putInt(offset + TYPE_OFFSET, type);
+    }
+
+    protected final int lengthAt(final long sequence)
+    {
+        return region.getInt(offsetOf(sequence));
+    }
+
+    protected final int typeAt(final long sequence)
+    {
+        return region.getInt(offsetOf(sequence) + TYPE_OFFSET);
+    }
+
+    protected final int payloadOffsetOf(final long sequence)
+    {
+        return offsetOf(sequence) + HEADER_LENGTH;
+    }
+
+    // Copied a long at a time with absolute accessors, the region is shared so its position is never moved
+    protected final void putPayload(final long sequence, final byte[] source, final int offset, final int length)
+    {
+        final int start = payloadOffsetOf(sequence);
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES)
+        {
+            LONG_IN_BUFFER.set(region, start + i, (long) LONG_IN_ARRAY.get(source, offset + i));
+        }
+        for (; i < length; i++)
+        {
+            region.put(start + i, source[offset + i]);
+        }
+    }
+
+    protected final void putPayload(final long sequence, final ByteBuffer source)
+    {
+        final int start = payloadOffsetOf(sequence);
+        final int offset = source.position();
+        final int length = source.remaining();
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES)
+        {
+            LONG_IN_BUFFER.set(region, start + i, (long) LONG_IN_BUFFER.get(source, offset + i));
+        }
+        for (; i < length; i++)
+        {
+            region.put(start + i, source.get(offset + i));
+        }
+    }
+
+    static int unitsFor(final int length)
+    {
+        return (HEADER_LENGTH + length + ALIGNMENT - 1) / ALIGNMENT;
+    }
+}
+
+/**
+ * <p>Ring based store of variable length binary records held in a contiguous native memory region, for payloads
+ * whose sizes vary too widely for the fixed slots of an {@link OffHeapRingBuffer}.  The ring is sized in bytes
+ * and each record takes only as much of it as its payload needs.</p>
+ *
+ * <p>The region is divided into {@value #ALIGNMENT} byte units and the {@link Sequencer} claims units rather
+ * than events, so the usual {@link Sequence}s, {@link SequenceBarrier}s and {@link WaitStrategy}s gate the
+ * producers and consumers.  A record is an 8 byte header holding the payload length and a non-negative type,
+ * followed by the payload, rounded up to whole units.  Records never wrap: when a record does not fit before
+ * the end of the region the space up to the end is filled with a padding record that consumers skip.  A single
+ * producer claims exactly that padding before the record, multiple producers claim the record and, if the claim
+ * wraps, turn all of it into padding and claim again, so their records are limited to half the capacity.</p>
+ *
+ * <p>Payloads are read and written through the one buffer over the whole region returned by {@link #getBuffer()},
+ * which is shared by every thread, so only its absolute accessors may be used, from the offset of the payload
+ * given by {@link #getPayloadOffset(long)}.</p>
+ *
+ * <p>Records are consumed by a {@link RecordBatchProcessor}.  Sequences delivered to a {@link RecordHandler} are
+ * the sequence of the first unit of the record, so they increase but are not contiguous.</p>
+ */
+public final class VariableLengthRingBuffer extends VariableLengthRingBufferFields implements Cursored
+{
+    protected byte
+        p10, p11, p12, p13, p14, p15, p16, p17,
+        p20, p21, p22, p23, p24, p25, p26, p27,
+        p30, p31, p32, p33, p34, p35, p36, p37,
+        p40, p41, p42, p43, p44, p45, p46, p47,
+        p50, p51, p52, p53, p54, p55, p56, p57,
+        p60, p61, p62, p63, p64, p65, p66, p67,
+        p70, p71, p72, p73, p74, p75, p76, p77;
+
+    private final boolean singleProducer;
+
+    /**
+     * Construct a VariableLengthRingBuffer.
+     *
+     * @param sequencer      sequencer to handle the ordering of units moving through the VariableLengthRingBuffer.
+     * @param singleProducer true if the sequencer only supports a single producer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    VariableLengthRingBuffer(final Sequencer sequencer, final boolean singleProducer)
+    {
+        super(sequencer);
+        this.singleProducer = singleProducer;
+    }
+
+    /**
+     * Create a new multiple producer VariableLengthRingBuffer with the specified wait strategy.
+     *
+     * @param capacity     number of bytes in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new records to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if capacity is not a power of 2 of at least {@value #ALIGNMENT} bytes
+     * @see MultiProducerSequencer
+     */
+    public static VariableLengthRingBuffer createMultiProducer(final int capacity, final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.MULTI, capacity, waitStrategy);
+    }
+
+    /**
+     * Create a new single producer VariableLengthRingBuffer with the specified wait strategy.
+     *
+     * @param capacity     number of bytes in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new records to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if capacity is not a power of 2 of at least {@value #ALIGNMENT} bytes
+     * @see SingleProducerSequencer
+     */
+    public static VariableLengthRingBuffer createSingleProducer(final int capacity, final WaitStrategy waitStrategy)
+    {
+        return create(ProducerType.SINGLE, capacity, waitStrategy);
+    }
+
+    /**
+     * Create a new VariableLengthRingBuffer backed by a newly allocated direct buffer.
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param capacity     number of bytes in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new records to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if capacity is not a power of 2 of at least {@value #ALIGNMENT} bytes
+     */
+    public static VariableLengthRingBuffer create(final ProducerType producerType, final int capacity, final WaitStrategy waitStrategy)
+    {
+        if (capacity < ALIGNMENT || Integer.bitCount(capacity) != 1)
+        {
+            throw new IllegalArgumentException("capacity must be a power of 2 of at least " + ALIGNMENT + " bytes");
+        }
+
+        final int bufferSize = capacity / ALIGNMENT;
+        switch (producerType)
+        {
+            case SINGLE:
+                return new VariableLengthRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy), true);
+            case MULTI:
+                return new VariableLengthRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy), false);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Publish a record, waiting for capacity if the ring buffer is full.  The translator is given the shared
+     * buffer of the ring and writes the payload with absolute accessors, from {@link #getPayloadOffset(long)} of
+     * the sequence it is given for <code>length</code> bytes.  The payload is published with whatever the
+     * translator wrote there.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param type       of the record, must not be negative.
+     * @param length     of the payload in bytes.
+     * @param translator writes the payload.
+     * @param arg0       A user supplied argument.
+     * @return the sequence of the record.
+     * @throws IllegalArgumentException if the type is negative or the record would not fit in the ring buffer.
+     */
+    public <A> long publish(final int type, final int length, final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        final int units = checkRecord(type, length);
+        final long sequence = claim(units);
+        try
+        {
+            writeHeader(sequence, type, length);
+            translator.translateTo(region(), sequence, arg0);
+        }
+        finally
+        {
+            sequencer.publish(sequence, sequence + units - 1);
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Publish a record, copying its payload from a run of bytes.
+     *
+     * @param type   of the record, must not be negative.
+     * @param source holding the payload.
+     * @param offset of the first byte of the payload.
+     * @param length of the payload in bytes.
+     * @return the sequence of the record.
+     * @throws IllegalArgumentException  if the type is negative or the record would not fit in the ring buffer.
+     * @throws IndexOutOfBoundsException if the offset and length are out of the bounds of the source.
+     */
+    public long publish(final int type, final byte[] source, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        final int units = checkRecord(type, length);
+        final long sequence = claim(units);
+        writeHeader(sequence, type, length);
+        putPayload(sequence, source, offset, length);
+        sequencer.publish(sequence, sequence + units - 1);
+
+        return sequence;
+    }
+
+    /**
+     * Publish a record, copying its payload from the remaining bytes of a buffer.  The position of the
+     * source is not changed.
+     *
+     * @param type   of the record, must not be negative.
+     * @param source holding the payload between its position and limit.
+     * @return the sequence of the record.
+     * @throws IllegalArgumentException if the type is negative or the record would not fit in the ring buffer.
+     */
+    public long publish(final int type, final ByteBuffer source)
+    {
+        final int length = source.remaining();
+        final int units = checkRecord(type, length);
+        final long sequence = claim(units);
+        writeHeader(sequence, type, length);
+        putPayload(sequence, source);
+        sequencer.publish(sequence, sequence + units - 1);
+
+        return sequence;
+    }
+
+    /**
+     * Get the type of the record published with a given sequence.
+     *
+     * @param sequence of the record
+     * @return the type of the record, or -1 for padding
+     */
+    public int getType(final long sequence)
+    {
+        return typeAt(sequence);
+    }
+
+    /**
+     * Get the length of the payload of the record published with a given sequence.
+     *
+     * @param sequence of the record
+     * @return the number of bytes in the payload of the record
+     */
+    public int getLength(final long sequence)
+    {
+        return lengthAt(sequence);
+    }
+
+    /**
+     * Get the offset of the payload of the record published with a given sequence within {@link #getBuffer()}.
+     *
+     * @param sequence of the record
+     * @return the index of the first byte of the payload
+     */
+    public int getPayloadOffset(final long sequence)
+    {
+        return payloadOffsetOf(sequence);
+    }
+
+    /**
+     * Get the buffer over the whole region holding the records.  It is shared by all threads, so only its
+     * absolute accessors may be used.
+     *
+     * @return the buffer holding the payloads
+     */
+    public ByteBuffer getBuffer()
+    {
+        return region();
+    }
+
+    /**
+     * Get the sequence of the record following the record published with a given sequence.
+     *
+     * @param sequence of the record
+     * @return the sequence of the next record
+     */
+    public long nextRecord(final long sequence)
+    {
+        return sequence + unitsFor(lengthAt(sequence));
+    }
+
+    /**
+     * The largest payload that can be published to this ring buffer.  A single producer may publish a record
+     * filling the whole ring buffer, with multiple producers a record may fill at most half of it so that a
+     * claim that wraps is always followed by one that fits.
+     *
+     * @return maximum length of a payload in bytes
+     */
+    public int getMaxPayloadLength()
+    {
+        final int maxUnits = singleProducer ? bufferSize : Math.max(1, bufferSize >> 1);
+        return maxUnits * ALIGNMENT - HEADER_LENGTH;
+    }
+
+    /**
+     * Add the specified gating sequences to this instance of the Disruptor.  They will
+     * safely and atomically added to the list of gating sequences.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Remove the specified sequence from this ringBuffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which records
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Get the current cursor value for the ring buffer, the sequence of the last published unit.
+     *
+     * @see MultiProducerSequencer
+     * @see SingleProducerSequencer
+     */
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * The number of bytes the buffer can hold.
+     *
+     * @return size of buffer in bytes
+     */
+    public int getCapacity()
+    {
+        return bufferSize * ALIGNMENT;
+    }
+
+    /**
+     * Get the remaining capacity for this ring buffer.
+     *
+     * @return The number of bytes remaining.
+     */
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity() * ALIGNMENT;
+    }
+
+    private int checkRecord(final int type, final int length)
+    {
+        if (type < 0)
+        {
+            throw new IllegalArgumentException("type must not be negative");
+        }
+        if (length < 0 || length > getMaxPayloadLength())
+        {
+            throw new IllegalArgumentException("length must be between 0 and " + getMaxPayloadLength());
+        }
+
+        return unitsFor(length);
+    }
+
+    private long claim(final int units)
+    {
+        return singleProducer ? claimSingle(units) : claimMulti(units);
+    }
+
+    private long claimSingle(final int units)
+    {
+        final long next = sequencer.getCursor() + 1;
+        final int untilWrap = unitsUntilWrap(next);
+        if (units > untilWrap)
+        {
+            final long paddingHi = sequencer.next(untilWrap);
+            final long paddingLo = paddingHi - (untilWrap - 1);
+            writeHeader(paddingLo, PADDING_TYPE, untilWrap * ALIGNMENT - HEADER_LENGTH);
+            sequencer.publish(paddingLo, paddingHi);
+        }
+
+        return sequencer.next(units) - (units - 1);
+    }
+
+    private long claimMulti(final int units)
+    {
+        while (true)
+        {
+            final long hi = sequencer.next(units);
+            final long lo = hi - (units - 1);
+            if (units <= unitsUntilWrap(lo))
+            {
+                return lo;
+            }
+
+            writeHeader(lo, PADDING_TYPE, units * ALIGNMENT - HEADER_LENGTH);
+            sequencer.publish(lo, hi);
+        }
+    }
+}
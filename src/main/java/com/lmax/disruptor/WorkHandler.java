@@ -0,0 +1,56 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Callback interface to be implemented for processing events by one of a pool of {@link WorkProcessor}s, where each
+ * event is processed by only one handler of the pool.
+ *
+ * <p>Events are handed out in ranges of consecutive sequences, so there is no ordering between the events
+ * processed by different handlers of the pool.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ * @see WorkProcessor#setExceptionHandler(ExceptionHandler) if you want to handle exceptions propagated out of the handler.
+ */
+public interface WorkHandler<T> extends EventHandlerIdentity
+{
+    /**
+     * Called when a publisher has published an event to the {@link RingBuffer} and the {@link WorkProcessor} of this
+     * handler has claimed it.
+     *
+     * @param event    published to the {@link RingBuffer}
+     * @param sequence of the event being processed
+     * @throws Exception if the WorkHandler would like the exception handled further up the chain.
+     */
+    void onEvent(T event, long sequence) throws Exception;
+
+    /**
+     * Called once on thread start before first event is available.
+     */
+    default void onStart()
+    {
+    }
+
+    /**
+     * Called once just before the work processing thread is shutdown.
+     *
+     * <p>Event processing will already have stopped before this method is called. No events will
+     * be processed after this message.
+     */
+    default void onShutdown()
+    {
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Math.min;
+
+
+/**
+ * One of a pool of {@link EventProcessor}s that share the events of a {@link RingBuffer} between them, so that each
+ * event is processed by only one {@link WorkHandler} of the pool.
+ *
+ * <p>The processors of a pool share a work sequence, the highest sequence claimed by any of them. Each processor
+ * claims a range of up to <code>claimSize</code> consecutive sequences that have already been published by moving
+ * the work sequence on with a single CAS, and then processes them without reading the other slots of the ring
+ * buffer. Larger claims amortise the CAS over more events, smaller claims spread uneven work more evenly.
+ *
+ * <p>The sequence of each processor is kept one below the start of its claimed range, so the minimum of the
+ * sequences of the pool, e.g. a {@link FixedSequenceGroup} over them, is the sequence up to which every event has
+ * been processed. The ring buffer, or the barrier of a following stage, must be gated on every sequence of the pool.
+ * Each processor must have a {@link SequenceBarrier} of its own, as halting one processor alerts its barrier.
+ *
+ * <p>Once a processor has been halted and has stopped, its sequence follows the work sequence, so it no longer
+ * holds back the ring buffer or the following stage while the rest of the pool carries on. Every sequence claimed
+ * by the pool has then either been processed or is held back by the sequence of a processor that is running.
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class WorkProcessor<T>
+        implements EventProcessor
+{
+    /**
+     * The number of sequences claimed at a time when no claim size is given.
+     */
+    public static final int DEFAULT_CLAIM_SIZE = 16;
+
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private ExceptionHandler<? super T> exceptionHandler;
+    private final DataProvider<T> dataProvider;
+    private final SequenceBarrier sequenceBarrier;
+    private final WorkHandler<? super T> workHandler;
+    private final Sequence workSequence;
+    private final int claimSize;
+    private final WorkerSequence sequence;
+
+    /**
+     * Construct a {@link WorkProcessor}.
+     *
+     * @param dataProvider    to which events are published.
+     * @param sequenceBarrier on which it is waiting, not shared with the other processors of the pool.
+     * @param workHandler     is the delegate to which events are dispatched.
+     * @param workSequence    shared by the processors of the pool, starting at {@link Sequencer#INITIAL_CURSOR_VALUE}.
+     * @param claimSize       the maximum number of sequences to claim at a time.
+     * @throws IllegalArgumentException if claimSize is less than 1
+     */
+    public WorkProcessor(
+            final DataProvider<T> dataProvider,
+            final SequenceBarrier sequenceBarrier,
+            final WorkHandler<? super T> workHandler,
+            final Sequence workSequence,
+            final int claimSize)
+    {
+        if (claimSize < 1)
+        {
+            throw new IllegalArgumentException("claimSize must be greater than 0");
+        }
+
+        this.dataProvider = dataProvider;
+        this.sequenceBarrier = sequenceBarrier;
+        this.workHandler = workHandler;
+        this.workSequence = workSequence;
+        this.claimSize = claimSize;
+        this.sequence = new WorkerSequence(workSequence);
+    }
+
+    @Override
+    public Sequence getSequence()
+    {
+        return sequence;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the {@link WorkProcessor}.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE) // Successful CAS
+        {
+            sequenceBarrier.clearAlert();
+            sequence.stopped = false;
+
+            notifyStart();
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    processEvents();
+                }
+            }
+            finally
+            {
+                notifyShutdown();
+                sequence.stopped = true;
+                running.set(IDLE);
+                sequenceBarrier.signalProducers();
+            }
+        }
+        else
+        {
+            if (witnessValue == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                earlyExit();
+            }
+        }
+    }
+
+    private void processEvents()
+    {
+        long cachedAvailableSequence = Long.MIN_VALUE;
+
+        while (true)
+        {
+            try
+            {
+                // Everything this processor claimed has been processed, so it only holds back sequences
+                // that have not been claimed yet, until the claim below succeeds
+                final long claimedSequence = workSequence.get();
+                sequence.set(claimedSequence);
+                sequenceBarrier.signalProducers();
+
+                final long nextSequence = claimedSequence + 1L;
+                if (cachedAvailableSequence < nextSequence)
+                {
+                    cachedAvailableSequence = sequenceBarrier.waitFor(nextSequence);
+                }
+
+                if (cachedAvailableSequence >= nextSequence)
+                {
+                    final long endOfClaimSequence = min(claimedSequence + claimSize, cachedAvailableSequence);
+                    if (workSequence.compareAndSet(claimedSequence, endOfClaimSequence))
+                    {
+                        processClaim(nextSequence, endOfClaimSequence);
+                    }
+                }
+            }
+            catch (final TimeoutException e)
+            {
+                // Nothing to report, try to claim again
+            }
+            catch (final AlertException ex)
+            {
+                if (running.get() != RUNNING)
+                {
+                    // Nothing is claimed, so catch up with the pool in case the work sequence was read before it moved on
+                    sequence.set(workSequence.get());
+                    break;
+                }
+            }
+            catch (final InterruptedException ex)
+            {
+                getExceptionHandler().handleEventException(ex, sequence.get(), null);
+            }
+        }
+    }
+
+    private void processClaim(final long startOfClaimSequence, final long endOfClaimSequence)
+    {
+        for (long nextSequence = startOfClaimSequence; nextSequence <= endOfClaimSequence; nextSequence++)
+        {
+            final T event = dataProvider.get(nextSequence);
+            try
+            {
+                workHandler.onEvent(event, nextSequence);
+            }
+            catch (final Throwable ex)
+            {
+                getExceptionHandler().handleEventException(ex, nextSequence, event);
+            }
+        }
+    }
+
+    private void earlyExit()
+    {
+        sequence.stopped = true;
+        notifyStart();
+        notifyShutdown();
+    }
+
+    /**
+     * Notifies the WorkHandler when this processor is starting up.
+     */
+    private void notifyStart()
+    {
+        try
+        {
+            workHandler.onStart();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnStartException(ex);
+        }
+    }
+
+    /**
+     * Notifies the WorkHandler immediately prior to this processor shutting down.
+     */
+    private void notifyShutdown()
+    {
+        try
+        {
+            workHandler.onShutdown();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private ExceptionHandler<? super T> getExceptionHandler()
+    {
+        ExceptionHandler<? super T> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+
+    /**
+     * The sequence of a processor, which reads as the work sequence of the pool while the processor is stopped.
+     */
+    private static final class WorkerSequence extends Sequence
+    {
+        private final Sequence workSequence;
+        private volatile boolean stopped;
+
+        WorkerSequence(final Sequence workSequence)
+        {
+            super(Sequencer.INITIAL_CURSOR_VALUE);
+            this.workSequence = workSequence;
+        }
+
+        @Override
+        public long get()
+        {
+            return stopped ? workSequence.get() : super.get();
+        }
+    }
+}
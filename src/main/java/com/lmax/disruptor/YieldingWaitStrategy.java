@@ -23,7 +23,7 @@ package com.lmax.disruptor;
  * <p>This strategy will use 100% CPU, but will more readily give up the CPU than a busy spin strategy if other threads
  * require CPU resource.
  */
-public final class YieldingWaitStrategy implements WaitStrategy
+public final class YieldingWaitStrategy implements WaitStrategy, ProducerWaitStrategy
 {
     private static final int SPIN_TRIES = 100;
 
@@ -37,7 +37,8 @@ public final class YieldingWaitStrategy implements WaitStrategy
 
         while ((availableSequence = dependentSequence.get()) < sequence)
         {
-            counter = applyWaitMethod(barrier, counter);
+            barrier.checkAlert();
+            counter = applyWaitMethod(counter);
         }
 
         return availableSequence;
@@ -48,11 +49,27 @@ public final class YieldingWaitStrategy implements WaitStrategy
     {
     }
 
-    private int applyWaitMethod(final SequenceBarrier barrier, final int counter)
-        throws AlertException
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence)
+    {
+        long minimumSequence;
+        int counter = SPIN_TRIES;
+
+        while ((minimumSequence = gatingSequence.getCursor()) < wrapPoint)
+        {
+            counter = applyWaitMethod(counter);
+        }
+
+        return minimumSequence;
+    }
+
+    @Override
+    public void signalProducers()
     {
-        barrier.checkAlert();
+    }
 
+    private int applyWaitMethod(final int counter)
+    {
         if (0 == counter)
         {
             Thread.yield();
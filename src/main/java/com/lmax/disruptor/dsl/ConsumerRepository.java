@@ -20,15 +20,19 @@ import com.lmax.disruptor.EventHandlerIdentity;
 import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.SequenceGroup;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadFactory;
 
 /**
- * Provides a repository mechanism to associate {@link EventHandler}s with {@link EventProcessor}s
+ * Provides a repository mechanism to associate {@link EventHandler}s with {@link EventProcessor}s.
+ *
+ * <p>Methods are synchronized as event handlers may be added and removed while the Disruptor is running.
  */
 class ConsumerRepository
 {
@@ -43,30 +47,56 @@ class ConsumerRepository
         final EventHandlerIdentity handlerIdentity,
         final SequenceBarrier barrier)
     {
-        final EventProcessorInfo consumerInfo = new EventProcessorInfo(eventprocessor, barrier);
+        add(handlerIdentity, new EventProcessorInfo(eventprocessor, barrier));
+    }
+
+    public EventProcessorInfo add(
+        final EventProcessor eventprocessor,
+        final EventHandlerIdentity handlerIdentity,
+        final SequenceBarrier barrier,
+        final SequenceGroup barrierSequences,
+        final Sequence[] dependencies)
+    {
+        return add(handlerIdentity, new EventProcessorInfo(eventprocessor, barrier, barrierSequences, dependencies));
+    }
+
+    private synchronized EventProcessorInfo add(final EventHandlerIdentity handlerIdentity, final EventProcessorInfo consumerInfo)
+    {
         eventProcessorInfoByEventHandler.put(handlerIdentity, consumerInfo);
-        eventProcessorInfoBySequence.put(eventprocessor.getSequence(), consumerInfo);
+        eventProcessorInfoBySequence.put(consumerInfo.getEventProcessor().getSequence(), consumerInfo);
         consumerInfos.add(consumerInfo);
+
+        return consumerInfo;
     }
 
-    public void add(final EventProcessor processor)
+    public synchronized void remove(final EventHandlerIdentity handlerIdentity)
+    {
+        final EventProcessorInfo consumerInfo = eventProcessorInfoByEventHandler.remove(handlerIdentity);
+        if (consumerInfo != null)
+        {
+            eventProcessorInfoBySequence.remove(consumerInfo.getEventProcessor().getSequence());
+            consumerInfos.remove(consumerInfo);
+        }
+    }
+
+    public synchronized void add(final EventProcessor processor)
     {
         final EventProcessorInfo consumerInfo = new EventProcessorInfo(processor, null);
         eventProcessorInfoBySequence.put(processor.getSequence(), consumerInfo);
         consumerInfos.add(consumerInfo);
     }
 
-    public void startAll(final ThreadFactory threadFactory)
+    public synchronized void startAll(final ThreadFactory threadFactory)
     {
         consumerInfos.forEach(c -> c.start(threadFactory));
     }
 
-    public void haltAll()
+    public synchronized void haltAll()
     {
         consumerInfos.forEach(ConsumerInfo::halt);
     }
 
-    public boolean hasBacklog(final long cursor, final boolean includeStopped)
+    public synchronized boolean hasBacklog(final long cursor, final boolean includeStopped)
     {
         for (ConsumerInfo consumerInfo : consumerInfos)
         {
@@ -86,7 +116,7 @@ class ConsumerRepository
         return false;
     }
 
-    public EventProcessor getEventProcessorFor(final EventHandlerIdentity handlerIdentity)
+    public synchronized EventProcessor getEventProcessorFor(final EventHandlerIdentity handlerIdentity)
     {
         final EventProcessorInfo eventprocessorInfo = getEventProcessorInfo(handlerIdentity);
         if (eventprocessorInfo == null)
@@ -102,7 +132,7 @@ class ConsumerRepository
         return getEventProcessorFor(handlerIdentity).getSequence();
     }
 
-    public void unMarkEventProcessorsAsEndOfChain(final Sequence... barrierEventProcessors)
+    public synchronized void unMarkEventProcessorsAsEndOfChain(final Sequence... barrierEventProcessors)
     {
         for (Sequence barrierEventProcessor : barrierEventProcessors)
         {
@@ -110,12 +140,46 @@ class ConsumerRepository
         }
     }
 
-    public SequenceBarrier getBarrierFor(final EventHandlerIdentity handlerIdentity)
+    public synchronized SequenceBarrier getBarrierFor(final EventHandlerIdentity handlerIdentity)
     {
         final ConsumerInfo consumerInfo = getEventProcessorInfo(handlerIdentity);
         return consumerInfo != null ? consumerInfo.getBarrier() : null;
     }
 
+    public synchronized EventProcessorInfo getEventProcessorInfoFor(final EventHandlerIdentity handlerIdentity)
+    {
+        final EventProcessorInfo eventProcessorInfo = getEventProcessorInfo(handlerIdentity);
+        if (eventProcessorInfo == null)
+        {
+            throw new IllegalArgumentException("The event handler " + handlerIdentity + " is not processing events.");
+        }
+
+        return eventProcessorInfo;
+    }
+
+    public synchronized List<EventProcessorInfo> getDependentsOf(final Sequence sequence)
+    {
+        final List<EventProcessorInfo> dependents = new ArrayList<>();
+        for (final ConsumerInfo consumerInfo : consumerInfos)
+        {
+            if (consumerInfo instanceof EventProcessorInfo && ((EventProcessorInfo) consumerInfo).dependsOn(sequence))
+            {
+                dependents.add((EventProcessorInfo) consumerInfo);
+            }
+        }
+
+        return dependents;
+    }
+
+    public synchronized void markAsEndOfChain(final Sequence sequence)
+    {
+        final ConsumerInfo consumerInfo = getEventProcessorInfo(sequence);
+        if (consumerInfo instanceof EventProcessorInfo)
+        {
+            ((EventProcessorInfo) consumerInfo).markAsEndOfChain();
+        }
+    }
+
     private EventProcessorInfo getEventProcessorInfo(final EventHandlerIdentity handlerIdentity)
     {
         return eventProcessorInfoByEventHandler.get(handlerIdentity);
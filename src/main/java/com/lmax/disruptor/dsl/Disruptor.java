@@ -18,27 +18,47 @@ package com.lmax.disruptor.dsl;
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.BatchEventProcessorBuilder;
 import com.lmax.disruptor.BatchRewindStrategy;
+import com.lmax.disruptor.CompletionProcessor;
+import com.lmax.disruptor.Cursored;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventHandlerIdentity;
 import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.EventProcessorMetrics;
 import com.lmax.disruptor.EventTranslator;
 import com.lmax.disruptor.EventTranslatorOneArg;
 import com.lmax.disruptor.EventTranslatorThreeArg;
 import com.lmax.disruptor.EventTranslatorTwoArg;
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.PartitionedEventHandler;
+import com.lmax.disruptor.ProducerWaitStrategy;
+import com.lmax.disruptor.PublishedKeys;
 import com.lmax.disruptor.RewindableEventHandler;
 import com.lmax.disruptor.RewindableException;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.SequenceGroup;
+import com.lmax.disruptor.SubscriberEventProcessor;
+import com.lmax.disruptor.Sequencer;
 import com.lmax.disruptor.TimeoutException;
 import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.WorkProcessor;
+import com.lmax.disruptor.util.AffinityThreadFactory;
+import com.lmax.disruptor.util.CpuAffinity;
+import com.lmax.disruptor.util.DaemonThreadFactory;
 import com.lmax.disruptor.util.Util;
+import com.lmax.disruptor.util.VirtualThreads;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * A DSL-style API for setting up the disruptor pattern around a ring buffer
@@ -61,11 +81,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class Disruptor<T>
 {
+    private static final long MAX_SHUTDOWN_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     private final RingBuffer<T> ringBuffer;
     private final ThreadFactory threadFactory;
     private final ConsumerRepository consumerRepository = new ConsumerRepository();
     private final AtomicBoolean started = new AtomicBoolean(false);
     private ExceptionHandler<? super T> exceptionHandler = new ExceptionHandlerWrapper<>();
+    private EventProcessorMetricsFactory metricsFactory;
+    private SequenceGroup runtimeGatingSequences;
 
     /**
      * Create a new Disruptor. Will default to {@link com.lmax.disruptor.BlockingWaitStrategy} and
@@ -102,9 +126,36 @@ public class Disruptor<T>
     }
 
     /**
-     * Private constructor helper
+     * Create a new Disruptor with a separate wait strategy for producers waiting for capacity in the ring buffer.
+     *
+     * @param eventFactory         the factory to create events in the ring buffer.
+     * @param ringBufferSize       the size of the ring buffer, must be power of 2.
+     * @param threadFactory        a {@link ThreadFactory} to create threads for processors.
+     * @param producerType         the claim strategy to use for the ring buffer.
+     * @param waitStrategy         the wait strategy to use for the ring buffer.
+     * @param producerWaitStrategy the wait strategy producers use when the ring buffer is full.
      */
-    private Disruptor(final RingBuffer<T> ringBuffer, final ThreadFactory threadFactory)
+    public Disruptor(
+            final EventFactory<T> eventFactory,
+            final int ringBufferSize,
+            final ThreadFactory threadFactory,
+            final ProducerType producerType,
+            final WaitStrategy waitStrategy,
+            final ProducerWaitStrategy producerWaitStrategy)
+    {
+        this(
+            RingBuffer.create(producerType, eventFactory, ringBufferSize, waitStrategy, producerWaitStrategy),
+            threadFactory);
+    }
+
+    /**
+     * Create a new Disruptor around a ring buffer that has already been built, e.g. by a
+     * {@link com.lmax.disruptor.RingBufferBuilder} to record the keys of the events as they are published.
+     *
+     * @param ringBuffer    to set up the event processors on, which must not have any gating sequences yet.
+     * @param threadFactory a {@link ThreadFactory} to create threads for processors.
+     */
+    public Disruptor(final RingBuffer<T> ringBuffer, final ThreadFactory threadFactory)
     {
         this.ringBuffer = ringBuffer;
         this.threadFactory = threadFactory;
@@ -152,6 +203,82 @@ public class Disruptor<T>
         return createEventProcessors(new Sequence[0], batchRewindStrategy, handlers);
     }
 
+    /**
+     * <p>Set up a {@link Flow.Subscriber} to be passed the events of the ring buffer as it requests them. The
+     * Disruptor will subscribe it when {@link #start()} is called and complete it when halted.</p>
+     *
+     * <p>This method can be used as the start of a chain. A subscriber that does not request events holds back the
+     * publishers and the handlers that follow it, and {@link #shutdown()} waits for it to have been passed every
+     * event.</p>
+     *
+     * @param subscriber the subscriber to pass the events on to.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     * @see SubscriberEventProcessor
+     */
+    public EventHandlerGroup<T> subscribe(final Flow.Subscriber<? super T> subscriber)
+    {
+        return createSubscriberEventProcessor(new Sequence[0], subscriber);
+    }
+
+    /**
+     * <p>Set up a group of event handlers, one per partition of the keys of the events, to handle events from the
+     * ring buffer. Each handler only processes the events whose key falls in its partition, so events are processed
+     * in order for each key and in parallel across keys. The key of each event is recorded when it is published,
+     * so the ring buffer must have been built with {@link com.lmax.disruptor.RingBufferBuilder#publishKeys(ToLongFunction)},
+     * and the handlers skip the events of other partitions without reading them.</p>
+     *
+     * <p>This method can be used as the start of a chain. For example to process the orders of each instrument
+     * in order on one of 4 threads before handler <code>B</code>:</p>
+     * <pre><code>dw.handleEventsWithPartitioned(4, partition -&gt; new Matcher()).then(B);</code></pre>
+     *
+     * @param partitionCount the number of partitions, and of event handlers, where the partition of an event is its
+     *                       key modulo the partition count.
+     * @param handlerFactory creating the event handler for each partition, from 0 to partitionCount - 1.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     * @throws IllegalStateException if the ring buffer does not record the keys of its events.
+     * @see PartitionedEventHandler
+     */
+    public EventHandlerGroup<T> handleEventsWithPartitioned(
+            final int partitionCount,
+            final IntFunction<? extends EventHandler<? super T>> handlerFactory)
+    {
+        return createPartitionedEventProcessors(new Sequence[0], partitionCount, handlerFactory);
+    }
+
+    /**
+     * <p>Set up a pool of work handlers to handle events from the ring buffer. Each event will be processed
+     * by only one of the work handlers, which claim ranges of up to {@link WorkProcessor#DEFAULT_CLAIM_SIZE}
+     * published events at a time and process them in parallel.</p>
+     *
+     * <p>This method can be used as the start of a chain. Handlers that follow the pool will only process an
+     * event once every work handler has processed all the events it claimed up to it:</p>
+     * <pre><code>dw.handleEventsWithWorkerPool(A1, A2, A3).then(B);</code></pre>
+     *
+     * @param workHandlers the work handlers that will share the events.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<? super T>... workHandlers)
+    {
+        return createWorkerPool(new Sequence[0], WorkProcessor.DEFAULT_CLAIM_SIZE, workHandlers);
+    }
+
+    /**
+     * <p>Set up a pool of work handlers to handle events from the ring buffer. Each event will be processed
+     * by only one of the work handlers, which claim ranges of up to <code>claimSize</code> published events
+     * at a time and process them in parallel.</p>
+     *
+     * @param claimSize    the maximum number of events a work handler claims at a time.
+     * @param workHandlers the work handlers that will share the events.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     * @see #handleEventsWithWorkerPool(WorkHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final int claimSize, final WorkHandler<? super T>... workHandlers)
+    {
+        return createWorkerPool(new Sequence[0], claimSize, workHandlers);
+    }
+
     /**
      * <p>Set up custom event processors to handle events from the ring buffer. The Disruptor will
      * automatically start these processors when {@link #start()} is called.</p>
@@ -203,6 +330,169 @@ public class Disruptor<T>
     }
 
 
+    /**
+     * <p>Add an event handler, which may be done while the Disruptor is running without stopping the publishers
+     * or the other event handlers. The event handler is started straight away if the Disruptor has been started.</p>
+     *
+     * <p>It processes the events after the event handlers it follows, starting from the slowest of them, or from
+     * the events published after it was added if it does not follow any. For example, to attach a consumer
+     * to a running pipeline that sees each event once <code>A</code> has processed it:</p>
+     * <pre><code>disruptor.addEventHandler(diagnostics, A);</code></pre>
+     *
+     * @param eventHandler the event handler to add.
+     * @param after        the event handlers that must process events before it, none to follow the publishers.
+     * @see #insertEventHandler(EventHandler, EventHandlerIdentity[], EventHandlerIdentity[])
+     * @see #removeEventHandler(EventHandlerIdentity, long, TimeUnit)
+     */
+    public void addEventHandler(final EventHandler<? super T> eventHandler, final EventHandlerIdentity... after)
+    {
+        insertEventHandler(eventHandler, after, new EventHandlerIdentity[0]);
+    }
+
+    /**
+     * <p>Insert an event handler into the middle of a chain, which may be done while the Disruptor is running
+     * without stopping the publishers or the other event handlers.</p>
+     *
+     * <p>As {@link #addEventHandler(EventHandler, EventHandlerIdentity...)}, with the event handlers in
+     * <code>before</code> also waiting for the new event handler from then on. Events that they had already
+     * been given are not held back.</p>
+     *
+     * @param eventHandler the event handler to insert.
+     * @param after        the event handlers that must process events before it, none to follow the publishers.
+     * @param before       the event handlers that must process events after it.
+     * @throws IllegalArgumentException if an event handler is not processing events in this Disruptor, or an
+     *                                  event handler in <code>before</code> was not set up with this method or
+     *                                  {@link #addEventHandler(EventHandler, EventHandlerIdentity...)}.
+     */
+    public synchronized void insertEventHandler(
+        final EventHandler<? super T> eventHandler,
+        final EventHandlerIdentity[] after,
+        final EventHandlerIdentity[] before)
+    {
+        final Sequence[] barrierSequences = new Sequence[after.length];
+        for (int i = 0; i < after.length; i++)
+        {
+            barrierSequences[i] = consumerRepository.getSequenceFor(after[i]);
+        }
+
+        final EventProcessorInfo[] dependents = new EventProcessorInfo[before.length];
+        for (int i = 0; i < before.length; i++)
+        {
+            dependents[i] = consumerRepository.getEventProcessorInfoFor(before[i]);
+            if (!dependents[i].canChangeDependencies())
+            {
+                throw new IllegalArgumentException("The event handler " + before[i] + " waits on a fixed barrier, set it up with addEventHandler instead.");
+            }
+        }
+
+        final SequenceGroup dependencies = newBarrierSequences(barrierSequences);
+        final SequenceBarrier barrier = ringBuffer.newBarrier(dependencies);
+        final BatchEventProcessor<T> batchEventProcessor =
+                newBatchEventProcessorBuilder(eventHandler).build(ringBuffer, barrier, eventHandler);
+        if (exceptionHandler != null)
+        {
+            batchEventProcessor.setExceptionHandler(exceptionHandler);
+        }
+        final Sequence sequence = batchEventProcessor.getSequence();
+
+        // Start from the slowest event handler it follows, gating the ring buffer from then on so it cannot wrap.
+        // It stays gating when inserted before others, as they may still be ahead of it.
+        final Cursored startFrom = 0 == barrierSequences.length ? ringBuffer : () -> Util.getMinimumSequence(barrierSequences);
+        runtimeGatingSequences().addWhileRunning(startFrom, sequence);
+
+        final EventProcessorInfo consumerInfo =
+                consumerRepository.add(batchEventProcessor, eventHandler, barrier, dependencies, barrierSequences);
+        for (final EventProcessorInfo dependent : dependents)
+        {
+            dependent.addDependency(sequence);
+        }
+        if (dependents.length > 0)
+        {
+            consumerInfo.markAsUsedInBarrier();
+        }
+
+        // It never gets ahead of the event handlers it follows, so they no longer need to gate the ring buffer
+        for (final Sequence barrierSequence : barrierSequences)
+        {
+            removeGatingSequence(barrierSequence);
+        }
+        consumerRepository.unMarkEventProcessorsAsEndOfChain(barrierSequences);
+
+        if (started.get())
+        {
+            consumerInfo.start(threadFactory);
+        }
+    }
+
+    /**
+     * <p>Halt and remove an event handler, which may be done while the Disruptor is running without stopping the
+     * publishers or the other event handlers. Event handlers that followed it will follow the event handlers it
+     * followed instead, or the publishers if there were none.</p>
+     *
+     * <p>Waits for the thread of the event handler to finish its current batch and exit, which must happen within the timeout. If it does
+     * not, it is left halted but in place, still holding back the event handlers that follow it.</p>
+     *
+     * <p>Only event handlers followed by none but those set up with {@link #addEventHandler(EventHandler, EventHandlerIdentity...)}
+     * or {@link #insertEventHandler(EventHandler, EventHandlerIdentity[], EventHandlerIdentity[])}, subscribers
+     * and completion trackers can be removed, as the others wait on fixed barriers.</p>
+     *
+     * @param eventHandler the event handler to remove.
+     * @param timeout      the amount of time to wait for the event handler to stop.
+     * @param timeUnit     the unit the timeout is specified in.
+     * @throws TimeoutException         if the event handler did not stop within the timeout.
+     * @throws InterruptedException     if interrupted while waiting for the event handler to stop.
+     * @throws IllegalArgumentException if the event handler is not processing events in this Disruptor, or an
+     *                                  event handler that follows it waits on a fixed barrier.
+     */
+    public synchronized void removeEventHandler(
+        final EventHandlerIdentity eventHandler,
+        final long timeout,
+        final TimeUnit timeUnit) throws TimeoutException, InterruptedException
+    {
+        final EventProcessorInfo consumerInfo = consumerRepository.getEventProcessorInfoFor(eventHandler);
+        final EventProcessor processor = consumerInfo.getEventProcessor();
+        final Sequence sequence = processor.getSequence();
+
+        final List<EventProcessorInfo> dependents = consumerRepository.getDependentsOf(sequence);
+        for (final EventProcessorInfo dependent : dependents)
+        {
+            if (!dependent.canChangeDependencies())
+            {
+                throw new IllegalArgumentException("The event handler " + eventHandler +
+                        " is followed by an event handler on a fixed barrier, set it up with addEventHandler instead.");
+            }
+        }
+
+        processor.halt();
+        if (!consumerInfo.awaitStopped(timeout, timeUnit))
+        {
+            throw TimeoutException.INSTANCE;
+        }
+
+        final Sequence[] dependencies = consumerInfo.getDependencies();
+        for (final EventProcessorInfo dependent : dependents)
+        {
+            for (final Sequence dependency : dependencies)
+            {
+                dependent.addDependency(dependency);
+            }
+            dependent.removeDependency(sequence);
+        }
+
+        // Event handlers it followed that nothing else follows are now at the end of the chain, so gate the ring buffer.
+        // They are no further behind than the removed event handler, so there is no need to move them to the cursor.
+        for (final Sequence dependency : dependencies)
+        {
+            if (1 == consumerRepository.getDependentsOf(dependency).size())
+            {
+                runtimeGatingSequences().add(dependency);
+                consumerRepository.markAsEndOfChain(dependency);
+            }
+        }
+        removeGatingSequence(sequence);
+        consumerRepository.remove(eventHandler);
+    }
+
     /**
      * <p>Specify an exception handler to be used for any future event handlers.</p>
      *
@@ -235,6 +525,22 @@ public class Disruptor<T>
         ((ExceptionHandlerWrapper<T>) this.exceptionHandler).switchTo(exceptionHandler);
     }
 
+    /**
+     * <p>Specify a factory for the metrics of event handlers set up after calling this method, e.g.</p>
+     * <pre><code>disruptor.handleMetricsWith(eventHandler -&gt; new EventProcessorStats());</code></pre>
+     *
+     * <p>The metrics are only created for event handlers, not for custom event processors. If the
+     * ring buffer was built with {@link com.lmax.disruptor.RingBufferBuilder#samplePublishTimestamps(int)}, the
+     * metrics will also be given the latency from publication of the sampled events.</p>
+     *
+     * @param metricsFactory to create the metrics of each future event processor, or null to stop recording.
+     */
+    public void handleMetricsWith(final EventProcessorMetricsFactory metricsFactory)
+    {
+        checkNotStarted();
+        this.metricsFactory = metricsFactory;
+    }
+
     /**
      * Override the default exception handler for a specific handler.
      * <pre>disruptorWizard.handleExceptionsIn(eventHandler).with(exceptionHandler);</pre>
@@ -247,6 +553,93 @@ public class Disruptor<T>
         return new ExceptionHandlerSetting<>(eventHandler, consumerRepository);
     }
 
+    /**
+     * <p>Run event handlers on threads from a different {@link ThreadFactory} to the rest of the Disruptor. For
+     * example, to run low-rate handlers on virtual threads rather than an OS thread each:</p>
+     *
+     * <pre><code>dw.runWith(VirtualThreads.threadFactory(), auditHandler, statsHandler);</code></pre>
+     *
+     * <p>Handlers on virtual threads should be used with a wait strategy that parks, such as
+     * {@link com.lmax.disruptor.ParkingWaitStrategy}.</p>
+     *
+     * @param threadFactory to create the threads of the event handlers.
+     * @param handlers      the event handlers, previously set up with this Disruptor.
+     * @see com.lmax.disruptor.util.VirtualThreads
+     */
+    public void runWith(final ThreadFactory threadFactory, final EventHandlerIdentity... handlers)
+    {
+        checkNotStarted();
+        for (final EventHandlerIdentity handler : handlers)
+        {
+            consumerRepository.getEventProcessorInfoFor(handler).setThreadFactory(threadFactory);
+        }
+    }
+
+    /**
+     * <p>Pin the threads of event handlers to CPUs, the first handler to the first CPU and so on, going back to the
+     * first CPU if there are more handlers than CPUs. For example, to pin a chain of busy spinning handlers to
+     * isolated CPUs:</p>
+     *
+     * <pre><code>dw.pinTo(CpuAffinity.isolatedCpus(), journaller, replicator, businessLogic);</code></pre>
+     *
+     * <p>The threads are still created by the {@link ThreadFactory} of the Disruptor, and run unpinned if
+     * {@link CpuAffinity#isSupported()} is false. A different {@link com.lmax.disruptor.util.AffinityBackend} can be used by giving an
+     * {@link AffinityThreadFactory} to {@link #runWith(ThreadFactory, EventHandlerIdentity...)}.</p>
+     *
+     * @param cpus     the ids of the CPUs to pin the threads to.
+     * @param handlers the event handlers, previously set up with this Disruptor.
+     * @throws IllegalArgumentException if no CPUs are given.
+     */
+    public void pinTo(final int[] cpus, final EventHandlerIdentity... handlers)
+    {
+        if (cpus.length == 0)
+        {
+            throw new IllegalArgumentException("At least one CPU must be given");
+        }
+
+        for (int i = 0; i < handlers.length; i++)
+        {
+            runWith(new AffinityThreadFactory(threadFactory, CpuAffinity.backend(), cpus[i % cpus.length]), handlers[i]);
+        }
+    }
+
+    /**
+     * <p>Track when events have been processed by a set of event handlers, usually the ones at the end of the chain,
+     * so that other threads can wait for the sequences they publish. For example to reply to a request once
+     * handler <code>B</code> has processed it:</p>
+     *
+     * <pre><code>CompletionProcessor completion = dw.trackCompletion(B);
+     * long sequence = ringBuffer.next();
+     * ...
+     * ringBuffer.publish(sequence);
+     * completion.awaitProcessed(sequence);</code></pre>
+     *
+     * <p>The returned processor waits with the wait strategy of the ring buffer and is started with the other
+     * event processors. It does not gate the ring buffer.</p>
+     *
+     * @param handlers the event handlers, previously set up with {@link #handleEventsWith(EventHandler[])},
+     *                 whose processing is tracked.
+     * @return the {@link CompletionProcessor} to wait on.
+     */
+    public CompletionProcessor trackCompletion(final EventHandlerIdentity... handlers)
+    {
+        checkNotStarted();
+
+        final Sequence[] sequences = new Sequence[handlers.length];
+        for (int i = 0; i < handlers.length; i++)
+        {
+            sequences[i] = consumerRepository.getSequenceFor(handlers[i]);
+        }
+
+        final SequenceGroup dependencies = newBarrierSequences(sequences);
+        final SequenceBarrier barrier = ringBuffer.newBarrier(dependencies);
+        final CompletionProcessor processor = new CompletionProcessor(barrier);
+
+        // The processor is its own identity, so event handlers it tracks can be removed while it is running
+        consumerRepository.add(processor, processor, barrier, dependencies, sequences);
+        return processor;
+    }
+
     /**
      * <p>Create a group of event handlers to be used as a dependency.
      * For example if the handler <code>A</code> must process events before handler <code>B</code>:</p>
@@ -355,7 +748,7 @@ public class Disruptor<T>
      *
      * @return the configured ring buffer.
      */
-    public RingBuffer<T> start()
+    public synchronized RingBuffer<T> start()
     {
         checkOnlyStartedOnce();
         consumerRepository.startAll(threadFactory);
@@ -395,6 +788,11 @@ public class Disruptor<T>
      * <p>Waits until all events currently in the disruptor have been processed by all event processors
      * and then halts the processors.</p>
      *
+     * <p>The calling thread parks while it waits, and is woken when the event processors move their sequences on.
+     * Each park lasts at most a millisecond, so processors that never signal, such as those supplied directly as
+     * {@link EventProcessor}s, are still seen to finish.
+     * An interrupt does not stop the wait, but is kept for the caller to see once this method returns.</p>
+     *
      * <p>This method will not shutdown the executor, nor will it await the final termination of the
      * processor threads.</p>
      *
@@ -405,17 +803,75 @@ public class Disruptor<T>
     public void shutdown(final long timeout, final TimeUnit timeUnit) throws TimeoutException
     {
         final long timeOutAt = System.nanoTime() + timeUnit.toNanos(timeout);
-        while (hasBacklog())
+        boolean interrupted = false;
+        try
+        {
+            while (hasBacklog())
+            {
+                final long remaining = timeOutAt - System.nanoTime();
+                if (timeout >= 0 && remaining < 0)
+                {
+                    throw TimeoutException.INSTANCE;
+                }
+
+                ringBuffer.awaitConsumerProgress(this::hasBacklog, timeout >= 0 ? Math.min(remaining, MAX_SHUTDOWN_PARK_NANOS) : MAX_SHUTDOWN_PARK_NANOS);
+                interrupted |= Thread.interrupted();
+            }
+        }
+        finally
         {
-            if (timeout >= 0 && System.nanoTime() > timeOutAt)
+            if (interrupted)
             {
-                throw TimeoutException.INSTANCE;
+                Thread.currentThread().interrupt();
             }
-            // Busy spin
         }
         halt();
     }
 
+    /**
+     * <p>Waits, on a thread of its own, until all events currently in the disruptor have been processed by all
+     * event processors and then halts the processors. Publishing to the ring buffer must have stopped.</p>
+     *
+     * <p>The waiting thread is a virtual thread where {@link VirtualThreads#isSupported()}, so that many
+     * Disruptors can be shut down at once without holding an OS thread each.</p>
+     *
+     * @return a future completed once the processors have been halted.
+     */
+    public CompletableFuture<Void> shutdownAsync()
+    {
+        return shutdownAsync(-1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * <p>Waits, on a thread of its own, until all events currently in the disruptor have been processed by all
+     * event processors and then halts the processors.</p>
+     *
+     * @param timeout  the amount of time to wait for all events to be processed. <code>-1</code> will give an infinite timeout
+     * @param timeUnit the unit the timeOut is specified in
+     * @return a future completed once the processors have been halted, or completed exceptionally with a
+     * {@link TimeoutException} if the timeout passes first.
+     * @see #shutdownAsync()
+     */
+    public CompletableFuture<Void> shutdownAsync(final long timeout, final TimeUnit timeUnit)
+    {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final ThreadFactory shutdownThreadFactory = VirtualThreads.isSupported() ? VirtualThreads.threadFactory() : DaemonThreadFactory.INSTANCE;
+        shutdownThreadFactory.newThread(() ->
+        {
+            try
+            {
+                shutdown(timeout, timeUnit);
+                future.complete(null);
+            }
+            catch (final Throwable ex)
+            {
+                future.completeExceptionally(ex);
+            }
+        }).start();
+
+        return future;
+    }
+
     /**
      * The {@link RingBuffer} used by this Disruptor.  This is useful for creating custom
      * event processors if the behaviour of {@link BatchEventProcessor} is not suitable.
@@ -510,21 +966,21 @@ public class Disruptor<T>
         checkNotStarted();
 
         final Sequence[] processorSequences = new Sequence[eventHandlers.length];
-        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
 
         for (int i = 0, eventHandlersLength = eventHandlers.length; i < eventHandlersLength; i++)
         {
             final EventHandler<? super T> eventHandler = eventHandlers[i];
+            final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
 
             final BatchEventProcessor<T> batchEventProcessor =
-                    new BatchEventProcessorBuilder().build(ringBuffer, barrier, eventHandler);
+                    newBatchEventProcessorBuilder(eventHandler).build(ringBuffer, barrier, eventHandler);
 
             if (exceptionHandler != null)
             {
                 batchEventProcessor.setExceptionHandler(exceptionHandler);
             }
 
-            consumerRepository.add(batchEventProcessor, eventHandler, barrier);
+            consumerRepository.add(batchEventProcessor, eventHandler, barrier, null, barrierSequences.clone());
             processorSequences[i] = batchEventProcessor.getSequence();
         }
 
@@ -541,21 +997,21 @@ public class Disruptor<T>
         checkNotStarted();
 
         final Sequence[] processorSequences = new Sequence[eventHandlers.length];
-        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
 
         for (int i = 0, eventHandlersLength = eventHandlers.length; i < eventHandlersLength; i++)
         {
             final RewindableEventHandler<? super T> eventHandler = eventHandlers[i];
+            final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
 
             final BatchEventProcessor<T> batchEventProcessor =
-                    new BatchEventProcessorBuilder().build(ringBuffer, barrier, eventHandler, batchRewindStrategy);
+                    newBatchEventProcessorBuilder(eventHandler).build(ringBuffer, barrier, eventHandler, batchRewindStrategy);
 
             if (exceptionHandler != null)
             {
                 batchEventProcessor.setExceptionHandler(exceptionHandler);
             }
 
-            consumerRepository.add(batchEventProcessor, eventHandler, barrier);
+            consumerRepository.add(batchEventProcessor, eventHandler, barrier, null, barrierSequences.clone());
             processorSequences[i] = batchEventProcessor.getSequence();
         }
 
@@ -564,6 +1020,145 @@ public class Disruptor<T>
         return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
     }
 
+    EventHandlerGroup<T> createSubscriberEventProcessor(
+            final Sequence[] barrierSequences,
+            final Flow.Subscriber<? super T> subscriber)
+    {
+        checkNotStarted();
+
+        final SequenceGroup dependencies = newBarrierSequences(barrierSequences);
+        final SequenceBarrier barrier = ringBuffer.newBarrier(dependencies);
+        final SubscriberEventProcessor<T> processor = new SubscriberEventProcessor<>(ringBuffer, barrier, subscriber);
+
+        if (exceptionHandler != null)
+        {
+            processor.setExceptionHandler(exceptionHandler);
+        }
+
+        // The processor is its own identity, so event handlers it follows can be removed while it is running
+        consumerRepository.add(processor, processor, barrier, dependencies, barrierSequences.clone());
+        final Sequence[] processorSequences = {processor.getSequence()};
+        updateGatingSequencesForNextInChain(barrierSequences, processorSequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
+    }
+
+    EventHandlerGroup<T> createPartitionedEventProcessors(
+            final Sequence[] barrierSequences,
+            final int partitionCount,
+            final IntFunction<? extends EventHandler<? super T>> handlerFactory)
+    {
+        checkNotStarted();
+        if (partitionCount < 1)
+        {
+            throw new IllegalArgumentException("partitionCount must be greater than 0");
+        }
+
+        final PublishedKeys<T> publishedKeys = ringBuffer.getPublishedKeys();
+        if (null == publishedKeys)
+        {
+            throw new IllegalStateException("The ring buffer must be built to publish keys to partition its events");
+        }
+        final Sequence[] processorSequences = new Sequence[partitionCount];
+
+        for (int partition = 0; partition < partitionCount; partition++)
+        {
+            final EventHandler<? super T> eventHandler = handlerFactory.apply(partition);
+            final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+
+            final BatchEventProcessor<T> batchEventProcessor = newBatchEventProcessorBuilder(eventHandler).build(
+                    ringBuffer, barrier, new PartitionedEventHandler<>(eventHandler, publishedKeys, partition, partitionCount));
+
+            if (exceptionHandler != null)
+            {
+                batchEventProcessor.setExceptionHandler(exceptionHandler);
+            }
+
+            consumerRepository.add(batchEventProcessor, eventHandler, barrier, null, barrierSequences.clone());
+            processorSequences[partition] = batchEventProcessor.getSequence();
+        }
+
+        updateGatingSequencesForNextInChain(barrierSequences, processorSequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
+    }
+
+    EventHandlerGroup<T> createWorkerPool(
+            final Sequence[] barrierSequences,
+            final int claimSize,
+            final WorkHandler<? super T>[] workHandlers)
+    {
+        checkNotStarted();
+
+        final Sequence workSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        final Sequence[] processorSequences = new Sequence[workHandlers.length];
+
+        for (int i = 0, workHandlersLength = workHandlers.length; i < workHandlersLength; i++)
+        {
+            final WorkHandler<? super T> workHandler = workHandlers[i];
+            final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+
+            final WorkProcessor<T> workProcessor = new WorkProcessor<>(ringBuffer, barrier, workHandler, workSequence, claimSize);
+
+            if (exceptionHandler != null)
+            {
+                workProcessor.setExceptionHandler(exceptionHandler);
+            }
+
+            consumerRepository.add(workProcessor, workHandler, barrier, null, barrierSequences.clone());
+            processorSequences[i] = workProcessor.getSequence();
+        }
+
+        updateGatingSequencesForNextInChain(barrierSequences, processorSequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
+    }
+
+    private BatchEventProcessorBuilder newBatchEventProcessorBuilder(final EventHandlerIdentity eventHandler)
+    {
+        final EventProcessorMetrics metrics = metricsFactory == null ? null : metricsFactory.createMetrics(eventHandler);
+
+        return new BatchEventProcessorBuilder()
+                .setMetrics(metrics)
+                .setPublishTimestamps(ringBuffer.getPublishTimestamps());
+    }
+
+    /**
+     * Barriers of event handlers added while running, subscribers and completion trackers wait on a
+     * {@link SequenceGroup} of their own, so that event handlers can be inserted or removed before them. It follows
+     * the cursor once it has no sequences left. Other event handlers wait on a fixed barrier.
+     */
+    private SequenceGroup newBarrierSequences(final Sequence[] barrierSequences)
+    {
+        final SequenceGroup dependencies = new SequenceGroup(ringBuffer);
+        for (final Sequence barrierSequence : barrierSequences)
+        {
+            dependencies.add(barrierSequence);
+        }
+
+        return dependencies;
+    }
+
+    private SequenceGroup runtimeGatingSequences()
+    {
+        if (null == runtimeGatingSequences)
+        {
+            runtimeGatingSequences = new SequenceGroup();
+            ringBuffer.addGatingSequences(runtimeGatingSequences);
+        }
+
+        return runtimeGatingSequences;
+    }
+
+    private void removeGatingSequence(final Sequence sequence)
+    {
+        ringBuffer.removeGatingSequence(sequence);
+        if (null != runtimeGatingSequences && runtimeGatingSequences.remove(sequence))
+        {
+            ringBuffer.signalProducers();
+        }
+    }
+
     private void updateGatingSequencesForNextInChain(final Sequence[] barrierSequences, final Sequence[] processorSequences)
     {
         if (processorSequences.length > 0)
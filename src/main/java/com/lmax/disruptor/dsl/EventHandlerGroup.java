@@ -22,8 +22,12 @@ import com.lmax.disruptor.RewindableEventHandler;
 import com.lmax.disruptor.RewindableException;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.WorkProcessor;
 
 import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.function.IntFunction;
 
 /**
  * A group of {@link EventProcessor}s used as part of the {@link Disruptor}.
@@ -192,6 +196,100 @@ public class EventHandlerGroup<T>
         return disruptor.createEventProcessors(sequences, eventProcessorFactories);
     }
 
+    /**
+     * <p>Set up a {@link Flow.Subscriber} to be passed the events of the ring buffer as it requests them, once every
+     * {@link EventProcessor} in this group has processed them.</p>
+     *
+     * <p>This method is generally used as part of a chain. For example to publish the events to reactive code
+     * once <code>A</code> has processed them:</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).subscribe(subscriber);</code></pre>
+     *
+     * @param subscriber the subscriber to pass the events on to.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the subscriber.
+     * @see Disruptor#subscribe(Flow.Subscriber)
+     */
+    public EventHandlerGroup<T> subscribe(final Flow.Subscriber<? super T> subscriber)
+    {
+        return disruptor.createSubscriberEventProcessor(sequences, subscriber);
+    }
+
+    /**
+     * <p>Set up a group of event handlers, one per partition of the keys of the events, to handle events from the
+     * ring buffer. Each handler only processes the events whose key falls in its partition, once every
+     * {@link EventProcessor} in this group has processed them.</p>
+     *
+     * <p>This method is generally used as part of a chain. For example if <code>A</code> must
+     * process events before they are matched per instrument:</p>
+     *
+     * <pre><code>dw.after(A).handleEventsWithPartitioned(4, partition -&gt; new Matcher());</code></pre>
+     *
+     * @param partitionCount the number of partitions, and of event handlers, where the partition of an event is its
+     *                       key modulo the partition count.
+     * @param handlerFactory creating the event handler for each partition, from 0 to partitionCount - 1.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the created event processors.
+     * @throws IllegalStateException if the ring buffer does not record the keys of its events.
+     * @see Disruptor#handleEventsWithPartitioned(int, IntFunction)
+     */
+    public EventHandlerGroup<T> handleEventsWithPartitioned(
+        final int partitionCount,
+        final IntFunction<? extends EventHandler<? super T>> handlerFactory)
+    {
+        return disruptor.createPartitionedEventProcessors(sequences, partitionCount, handlerFactory);
+    }
+
+    /**
+     * <p>Set up a pool of work handlers to handle events from the ring buffer. Each event will be processed by only
+     * one of the work handlers, once every {@link EventProcessor} in this group has processed it.</p>
+     *
+     * <p>This method is generally used as part of a chain. For example if the handler <code>A</code> must
+     * process events before the pool of <code>B1</code> and <code>B2</code>:</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).thenHandleEventsWithWorkerPool(B1, B2);</code></pre>
+     *
+     * @param workHandlers the work handlers that will share the events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the work handlers.
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> thenHandleEventsWithWorkerPool(final WorkHandler<? super T>... workHandlers)
+    {
+        return handleEventsWithWorkerPool(workHandlers);
+    }
+
+    /**
+     * <p>Set up a pool of work handlers to handle events from the ring buffer. Each event will be processed by only
+     * one of the work handlers, once every {@link EventProcessor} in this group has processed it.</p>
+     *
+     * <p>This method is generally used as part of a chain. For example if <code>A</code> must
+     * process events before the pool of <code>B1</code> and <code>B2</code>:</p>
+     *
+     * <pre><code>dw.after(A).handleEventsWithWorkerPool(B1, B2);</code></pre>
+     *
+     * @param workHandlers the work handlers that will share the events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the work handlers.
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<? super T>... workHandlers)
+    {
+        return disruptor.createWorkerPool(sequences, WorkProcessor.DEFAULT_CLAIM_SIZE, workHandlers);
+    }
+
+    /**
+     * <p>Set up a pool of work handlers to handle events from the ring buffer. Each event will be processed by only
+     * one of the work handlers, which claim ranges of up to <code>claimSize</code> events at a time, once every
+     * {@link EventProcessor} in this group has processed it.</p>
+     *
+     * @param claimSize    the maximum number of events a work handler claims at a time.
+     * @param workHandlers the work handlers that will share the events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the work handlers.
+     * @see #handleEventsWithWorkerPool(WorkHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final int claimSize, final WorkHandler<? super T>... workHandlers)
+    {
+        return disruptor.createWorkerPool(sequences, claimSize, workHandlers);
+    }
+
     /**
      * Create a dependency barrier for the processors in this group.
      * This allows custom event processors to have dependencies on
@@ -18,8 +18,12 @@ package com.lmax.disruptor.dsl;
 import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.SequenceGroup;
+
+import java.util.Arrays;
 
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Wrapper class to tie together a particular event processing stage</p>
@@ -31,12 +35,28 @@ class EventProcessorInfo implements ConsumerInfo
 {
     private final EventProcessor eventprocessor;
     private final SequenceBarrier barrier;
+    // The group the barrier waits on, null if it waits on the cursor, and the sequences added to it
+    private final SequenceGroup barrierSequences;
+    private Sequence[] dependencies;
     private boolean endOfChain = true;
+    private ThreadFactory handlerThreadFactory;
+    private volatile Thread thread;
 
     EventProcessorInfo(final EventProcessor eventprocessor, final SequenceBarrier barrier)
+    {
+        this(eventprocessor, barrier, null, new Sequence[0]);
+    }
+
+    EventProcessorInfo(
+        final EventProcessor eventprocessor,
+        final SequenceBarrier barrier,
+        final SequenceGroup barrierSequences,
+        final Sequence[] dependencies)
     {
         this.eventprocessor = eventprocessor;
         this.barrier = barrier;
+        this.barrierSequences = barrierSequences;
+        this.dependencies = dependencies;
     }
 
     public EventProcessor getEventProcessor()
@@ -50,6 +70,45 @@ class EventProcessorInfo implements ConsumerInfo
         return new Sequence[]{eventprocessor.getSequence()};
     }
 
+    Sequence[] getDependencies()
+    {
+        return dependencies;
+    }
+
+    boolean dependsOn(final Sequence sequence)
+    {
+        for (final Sequence dependency : dependencies)
+        {
+            if (dependency == sequence)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    boolean canChangeDependencies()
+    {
+        return null != barrierSequences;
+    }
+
+    void addDependency(final Sequence sequence)
+    {
+        if (!dependsOn(sequence))
+        {
+            barrierSequences.add(sequence);
+            dependencies = Arrays.copyOf(dependencies, dependencies.length + 1);
+            dependencies[dependencies.length - 1] = sequence;
+        }
+    }
+
+    void removeDependency(final Sequence sequence)
+    {
+        barrierSequences.remove(sequence);
+        dependencies = Arrays.stream(dependencies).filter(dependency -> dependency != sequence).toArray(Sequence[]::new);
+    }
+
     @Override
     public SequenceBarrier getBarrier()
     {
@@ -62,16 +121,40 @@ class EventProcessorInfo implements ConsumerInfo
         return endOfChain;
     }
 
+    void setThreadFactory(final ThreadFactory threadFactory)
+    {
+        this.handlerThreadFactory = threadFactory;
+    }
+
     @Override
     public void start(final ThreadFactory threadFactory)
     {
-        final Thread thread = threadFactory.newThread(eventprocessor);
+        final ThreadFactory factory = null != handlerThreadFactory ? handlerThreadFactory : threadFactory;
+        final Thread thread = factory.newThread(eventprocessor);
         if (null == thread)
         {
             throw new RuntimeException("Failed to create thread to run: " + eventprocessor);
         }
 
         thread.start();
+        this.thread = thread;
+    }
+
+    boolean hasStopped()
+    {
+        final Thread thread = this.thread;
+        return null == thread || !thread.isAlive();
+    }
+
+    boolean awaitStopped(final long timeout, final TimeUnit timeUnit) throws InterruptedException
+    {
+        final Thread thread = this.thread;
+        if (null != thread)
+        {
+            timeUnit.timedJoin(thread, timeout);
+        }
+
+        return hasStopped();
     }
 
     @Override
@@ -89,6 +172,11 @@ class EventProcessorInfo implements ConsumerInfo
         endOfChain = false;
     }
 
+    void markAsEndOfChain()
+    {
+        endOfChain = true;
+    }
+
     @Override
     public boolean isRunning()
     {
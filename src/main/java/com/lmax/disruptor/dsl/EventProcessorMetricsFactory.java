@@ -0,0 +1,37 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandlerIdentity;
+import com.lmax.disruptor.EventProcessorMetrics;
+
+/**
+ * A factory interface to give each event processor created by a {@link Disruptor} its own metrics:
+ *
+ * <pre><code>
+ * disruptor.handleMetricsWith(eventHandler -&gt; new EventProcessorStats());
+ * </code></pre>
+ */
+public interface EventProcessorMetricsFactory
+{
+    /**
+     * Create the metrics for the event processor of an event handler.
+     *
+     * @param eventHandler the event handler the processor will dispatch events to.
+     * @return the metrics for the processor, or null to not record anything for it.
+     */
+    EventProcessorMetrics createMetrics(EventHandlerIdentity eventHandler);
+}
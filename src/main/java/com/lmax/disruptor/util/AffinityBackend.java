@@ -0,0 +1,32 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+/**
+ * Pins threads to CPUs, e.g. with <code>sched_setaffinity</code> on Linux.
+ *
+ * @see CpuAffinity#backend()
+ */
+public interface AffinityBackend
+{
+    /**
+     * Pin the calling thread to a CPU.
+     *
+     * @param cpu the id of the CPU, as numbered by the operating system.
+     * @return true if the thread has been pinned, false if pinning is not available.
+     */
+    boolean setAffinity(int cpu);
+}
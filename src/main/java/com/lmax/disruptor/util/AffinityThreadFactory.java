@@ -0,0 +1,75 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ThreadFactory that pins each thread it creates to a CPU, taking the CPUs in turn.
+ *
+ * <p>A {@link com.lmax.disruptor.dsl.Disruptor} starts the threads of its processors in the order their handlers were
+ * set up, so giving it this factory pins the handlers to the CPUs in the same order. The thread pins itself when it
+ * starts, and runs unpinned if the {@link AffinityBackend} cannot pin it.
+ */
+public final class AffinityThreadFactory implements ThreadFactory
+{
+    private final ThreadFactory threadFactory;
+    private final AffinityBackend backend;
+    private final int[] cpus;
+    private final AtomicInteger nextCpu = new AtomicInteger();
+
+    /**
+     * Construct a factory creating daemon threads pinned with the default {@link CpuAffinity#backend()}.
+     *
+     * @param cpus the ids of the CPUs to pin the threads to, in turn.
+     */
+    public AffinityThreadFactory(final int... cpus)
+    {
+        this(DaemonThreadFactory.INSTANCE, CpuAffinity.backend(), cpus);
+    }
+
+    /**
+     * Construct a factory.
+     *
+     * @param threadFactory creating the threads before they are pinned.
+     * @param backend       to pin the threads with.
+     * @param cpus          the ids of the CPUs to pin the threads to, in turn.
+     * @throws IllegalArgumentException if no CPUs are given.
+     */
+    public AffinityThreadFactory(final ThreadFactory threadFactory, final AffinityBackend backend, final int... cpus)
+    {
+        if (cpus.length == 0)
+        {
+            throw new IllegalArgumentException("At least one CPU must be given");
+        }
+
+        this.threadFactory = threadFactory;
+        this.backend = backend;
+        this.cpus = cpus.clone();
+    }
+
+    @Override
+    public Thread newThread(final Runnable r)
+    {
+        final int cpu = cpus[Math.floorMod(nextCpu.getAndIncrement(), cpus.length)];
+        return threadFactory.newThread(() ->
+        {
+            backend.setAffinity(cpu);
+            r.run();
+        });
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Access to the {@link AffinityBackend} used to pin threads to CPUs, and to the CPU layout of the machine.
+ *
+ * <p>The Disruptor has no native code of its own, so the default backend calls
+ * <code>net.openhft.affinity.Affinity</code> when the OpenHFT affinity library is on the class path, which uses
+ * <code>sched_setaffinity</code> on Linux. Otherwise, or if the library has fallen back to its <code>NullAffinity</code>
+ * because it cannot pin threads on this platform, the default backend does not pin threads, and another backend can
+ * be given to {@link AffinityThreadFactory} instead.
+ *
+ * <p>The CPU layout is read from <code>/sys/devices/system/cpu</code> on Linux, and is empty elsewhere.
+ */
+public final class CpuAffinity
+{
+    private static final Path CPU_DIRECTORY = Paths.get("/sys/devices/system/cpu");
+    private static final String NULL_AFFINITY = "net.openhft.affinity.impl.NullAffinity";
+    private static final AffinityBackend NO_AFFINITY = cpu -> false;
+    private static final AffinityBackend BACKEND = lookUpBackend();
+
+    private CpuAffinity()
+    {
+    }
+
+    /**
+     * Whether the default backend can pin threads.
+     *
+     * @return true if the OpenHFT affinity library is on the class path and can pin threads on this platform.
+     */
+    public static boolean isSupported()
+    {
+        return NO_AFFINITY != BACKEND;
+    }
+
+    /**
+     * Get the default backend, which does not pin threads if {@link #isSupported()} is false. It can also be used to
+     * pin a producer thread, by calling {@link AffinityBackend#setAffinity(int)} on it.
+     *
+     * @return the default backend.
+     */
+    public static AffinityBackend backend()
+    {
+        return BACKEND;
+    }
+
+    /**
+     * Get the CPUs isolated from the scheduler with the <code>isolcpus</code> kernel parameter, which are the best
+     * ones to pin busy spinning threads to.
+     *
+     * @return the ids of the isolated CPUs, in order.
+     */
+    public static int[] isolatedCpus()
+    {
+        return readCpuList(CPU_DIRECTORY.resolve("isolated"));
+    }
+
+    /**
+     * Get one CPU of each physical core, leaving out the other hardware threads of the cores, so that threads pinned
+     * to them do not share a core.
+     *
+     * @return the ids of the first online CPU of each core, in order.
+     */
+    public static int[] onePerCore()
+    {
+        return Arrays.stream(readCpuList(CPU_DIRECTORY.resolve("online")))
+            .filter(cpu ->
+            {
+                final int[] siblings = readCpuList(CPU_DIRECTORY.resolve("cpu" + cpu).resolve("topology").resolve("thread_siblings_list"));
+                return siblings.length == 0 || siblings[0] == cpu;
+            })
+            .toArray();
+    }
+
+    /**
+     * Parse a list of CPUs in the format used by Linux, e.g. <code>0-3,8,10-11</code>.
+     *
+     * @param cpuList the list to parse.
+     * @return the ids of the CPUs, in the order they are listed.
+     * @throws NumberFormatException if the list is not well formed.
+     */
+    public static int[] parseCpuList(final String cpuList)
+    {
+        return Arrays.stream(cpuList.trim().split(","))
+            .filter(range -> !range.isEmpty())
+            .flatMapToInt(range ->
+            {
+                final int dash = range.indexOf('-');
+                return dash < 0 ?
+                    IntStream.of(Integer.parseInt(range.trim())) :
+                    IntStream.rangeClosed(Integer.parseInt(range.substring(0, dash).trim()), Integer.parseInt(range.substring(dash + 1).trim()));
+            })
+            .toArray();
+    }
+
+    private static int[] readCpuList(final Path path)
+    {
+        try
+        {
+            return parseCpuList(Files.readString(path));
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            // Not Linux, or not exposed by this kernel
+            return new int[0];
+        }
+    }
+
+    private static AffinityBackend lookUpBackend()
+    {
+        try
+        {
+            final Class<?> affinity = Class.forName("net.openhft.affinity.Affinity");
+            if (NULL_AFFINITY.equals(affinityImpl(affinity).getClass().getName()))
+            {
+                // Not supported on this platform, the library would accept every call without pinning anything
+                return NO_AFFINITY;
+            }
+
+            final MethodHandle setAffinity = MethodHandles.publicLookup().findStatic(
+                affinity, "setAffinity", MethodType.methodType(void.class, int.class));
+            return cpu ->
+            {
+                try
+                {
+                    setAffinity.invokeExact(cpu);
+                    return true;
+                }
+                catch (final Throwable e)
+                {
+                    return false;
+                }
+            };
+        }
+        catch (final ReflectiveOperationException | RuntimeException | LinkageError e)
+        {
+            // The OpenHFT affinity library is not on the class path
+            return NO_AFFINITY;
+        }
+    }
+
+    private static Object affinityImpl(final Class<?> affinity) throws ReflectiveOperationException
+    {
+        final MethodHandle getAffinityImpl = MethodHandles.publicLookup().findStatic(
+            affinity, "getAffinityImpl", MethodType.methodType(Class.forName("net.openhft.affinity.IAffinity")));
+        try
+        {
+            return getAffinityImpl.invoke();
+        }
+        catch (final ReflectiveOperationException | RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (final Throwable e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
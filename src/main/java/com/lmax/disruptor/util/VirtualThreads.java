@@ -0,0 +1,74 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to a ThreadFactory that creates virtual threads, on Java runtimes that support them.
+ *
+ * <p>The Disruptor is built for Java 11, so the virtual thread API is looked up when this class is loaded.
+ * Processors run on virtual threads should use a wait strategy that parks, such as
+ * {@link com.lmax.disruptor.ParkingWaitStrategy}, rather than one that waits on a monitor or spins.
+ */
+public final class VirtualThreads
+{
+    private static final ThreadFactory THREAD_FACTORY = lookUpThreadFactory();
+
+    private VirtualThreads()
+    {
+    }
+
+    /**
+     * Whether the Java runtime supports virtual threads.
+     *
+     * @return true if {@link #threadFactory()} can be called.
+     */
+    public static boolean isSupported()
+    {
+        return null != THREAD_FACTORY;
+    }
+
+    /**
+     * Get a ThreadFactory that creates a new virtual thread for each processor.
+     *
+     * @return the virtual thread factory.
+     * @throws UnsupportedOperationException if the Java runtime does not support virtual threads
+     */
+    public static ThreadFactory threadFactory()
+    {
+        if (null == THREAD_FACTORY)
+        {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime");
+        }
+
+        return THREAD_FACTORY;
+    }
+
+    private static ThreadFactory lookUpThreadFactory()
+    {
+        try
+        {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        }
+        catch (final ReflectiveOperationException | RuntimeException e)
+        {
+            // Not available before Java 21, or a preview feature that has not been enabled
+            return null;
+        }
+    }
+}
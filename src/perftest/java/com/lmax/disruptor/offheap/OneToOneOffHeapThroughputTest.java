@@ -3,20 +3,16 @@ package com.lmax.disruptor.offheap;
 import com.lmax.disruptor.AbstractPerfTestDisruptor;
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.BatchEventProcessorBuilder;
-import com.lmax.disruptor.DataProvider;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.OffHeapRingBuffer;
 import com.lmax.disruptor.PerfTestContext;
-import com.lmax.disruptor.Sequence;
-import com.lmax.disruptor.SequenceBarrier;
-import com.lmax.disruptor.Sequencer;
-import com.lmax.disruptor.SingleProducerSequencer;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 import com.lmax.disruptor.util.PaddedLong;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -31,9 +27,9 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
 
     private final Executor executor = Executors.newFixedThreadPool(1, DaemonThreadFactory.INSTANCE);
     private final WaitStrategy waitStrategy = new YieldingWaitStrategy();
-    private final OffHeapRingBuffer buffer =
-        new OffHeapRingBuffer(new SingleProducerSequencer(BUFFER_SIZE, waitStrategy), BLOCK_SIZE);
-    private final ByteBufferHandler handler = new ByteBufferHandler();
+    private final OffHeapRingBuffer buffer = OffHeapRingBuffer.createSingleProducer(BUFFER_SIZE, BLOCK_SIZE, waitStrategy);
+    private final EventTranslatorOneArg<ByteBuffer, long[]> translator = this::translateTo;
+    private final ByteBufferHandler handler = new ByteBufferHandler(buffer);
     private final BatchEventProcessor<ByteBuffer> processor =
             new BatchEventProcessorBuilder().build(buffer, buffer.newBarrier(), handler);
 
@@ -42,11 +38,23 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
     }
 
     private final Random r = new Random(1);
-    private final byte[] data = new byte[BLOCK_SIZE];
+    private final long[] data = new long[BLOCK_SIZE / 8];
 
     public OneToOneOffHeapThroughputTest()
     {
-        r.nextBytes(data);
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = r.nextLong();
+        }
+    }
+
+    private void translateTo(final ByteBuffer event, final long sequence, final long[] data)
+    {
+        final int start = buffer.getOffset(sequence);
+        for (int i = 0; i < data.length; i++)
+        {
+            event.putLong(start + i * 8, data[i]);
+        }
     }
 
     @Override
@@ -59,7 +67,7 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
     protected PerfTestContext runDisruptorPass() throws Exception
     {
         PerfTestContext perfTestContext = new PerfTestContext();
-        byte[] data = this.data;
+        long[] data = this.data;
 
         final CountDownLatch latch = new CountDownLatch(1);
         long expectedCount = processor.getSequence().get() + ITERATIONS;
@@ -71,7 +79,7 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
 
         for (long i = 0; i < ITERATIONS; i++)
         {
-            rb.put(data);
+            rb.publishEvent(translator, data);
         }
 
         latch.await();
@@ -98,15 +106,21 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
 
     public static class ByteBufferHandler implements EventHandler<ByteBuffer>
     {
+        private final OffHeapRingBuffer buffer;
         private final PaddedLong total = new PaddedLong();
         private final PaddedLong batchesProcessed = new PaddedLong();
         private long expectedCount;
         private CountDownLatch latch;
 
+        public ByteBufferHandler(final OffHeapRingBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
         @Override
         public void onEvent(final ByteBuffer event, final long sequence, final boolean endOfBatch) throws Exception
         {
-            final int start = event.position();
+            final int start = buffer.getOffset(sequence);
             for (int i = start, size = start + BLOCK_SIZE; i < size; i += 8)
             {
                 total.set(total.get() + event.getLong(i));
@@ -142,70 +156,4 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
             batchesProcessed.increment();
         }
     }
-
-    public static class OffHeapRingBuffer implements DataProvider<ByteBuffer>
-    {
-        private final Sequencer sequencer;
-        private final int entrySize;
-        private final ByteBuffer buffer;
-        private final int mask;
-
-        private final ThreadLocal<ByteBuffer> perThreadBuffer = new ThreadLocal<>()
-        {
-            @Override
-            protected ByteBuffer initialValue()
-            {
-                return buffer.duplicate().order(ByteOrder.nativeOrder());
-            }
-        };
-
-        public OffHeapRingBuffer(final Sequencer sequencer, final int entrySize)
-        {
-            this.sequencer = sequencer;
-            this.entrySize = entrySize;
-            this.mask = sequencer.getBufferSize() - 1;
-            buffer = ByteBuffer.allocateDirect(sequencer.getBufferSize() * entrySize).order(ByteOrder.nativeOrder());
-        }
-
-        public void addGatingSequences(final Sequence sequence)
-        {
-            sequencer.addGatingSequences(sequence);
-        }
-
-        public SequenceBarrier newBarrier()
-        {
-            return sequencer.newBarrier();
-        }
-
-        @Override
-        public ByteBuffer get(final long sequence)
-        {
-            int index = index(sequence);
-            int position = index * entrySize;
-            int limit = position + entrySize;
-
-            ByteBuffer byteBuffer = perThreadBuffer.get();
-            byteBuffer.position(position).limit(limit);
-
-            return byteBuffer;
-        }
-
-        public void put(final byte[] data)
-        {
-            long next = sequencer.next();
-            try
-            {
-                get(next).put(data);
-            }
-            finally
-            {
-                sequencer.publish(next);
-            }
-        }
-
-        private int index(final long next)
-        {
-            return (int) (next & mask);
-        }
-    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.sequenced;
+
+import com.lmax.disruptor.AbstractPerfTestDisruptor;
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.BatchEventProcessorBuilder;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.MultiProducerSequencer.AvailabilityLayout;
+import com.lmax.disruptor.PerfTestContext;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.support.ValueAdditionEventHandler;
+import com.lmax.disruptor.support.ValueEvent;
+import com.lmax.disruptor.support.ValuePublisher;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+
+/**
+ * <pre>
+ *
+ * Sequence a series of events from 4, 8 and 16 publishers going to one event processor, comparing the
+ * packed and striped layouts of the multi producer availability flags.
+ *
+ * Same topology as {@link ThreeToOneSequencedThroughputTest}:
+ *
+ * +----+
+ * | P1 |------+
+ * +----+      |
+ *  ...        v
+ * +----+    +-----+
+ * | Pn |--->| EP1 |
+ * +----+    +-----+
+ *
+ * P1  - Publisher 1
+ * Pn  - Publisher n
+ * EP1 - EventProcessor 1
+ *
+ * </pre>
+ */
+public final class ManyToOneStripedSequencedThroughputTest extends AbstractPerfTestDisruptor
+{
+    private static final int[] PUBLISHER_COUNTS = {4, 8, 16};
+    private static final int BUFFER_SIZE = 1024 * 64;
+    private static final long ITERATIONS = 1000L * 1000L * 20L;
+
+    private final int numPublishers;
+    private final ExecutorService executor;
+    private final CyclicBarrier cyclicBarrier;
+    private final RingBuffer<ValueEvent> ringBuffer;
+    private final ValueAdditionEventHandler handler = new ValueAdditionEventHandler();
+    private final BatchEventProcessor<ValueEvent> batchEventProcessor;
+    private final ValuePublisher[] valuePublishers;
+
+    ManyToOneStripedSequencedThroughputTest(final int numPublishers, final AvailabilityLayout availabilityLayout)
+    {
+        this.numPublishers = numPublishers;
+        executor = Executors.newFixedThreadPool(numPublishers + 1, DaemonThreadFactory.INSTANCE);
+        cyclicBarrier = new CyclicBarrier(numPublishers + 1);
+        ringBuffer = createMultiProducer(ValueEvent.EVENT_FACTORY, BUFFER_SIZE, new BusySpinWaitStrategy(), availabilityLayout);
+
+        final SequenceBarrier sequenceBarrier = ringBuffer.newBarrier();
+        batchEventProcessor = new BatchEventProcessorBuilder().build(ringBuffer, sequenceBarrier, handler);
+
+        valuePublishers = new ValuePublisher[numPublishers];
+        for (int i = 0; i < numPublishers; i++)
+        {
+            valuePublishers[i] = new ValuePublisher(cyclicBarrier, ringBuffer, ITERATIONS / numPublishers);
+        }
+
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+    }
+
+    @Override
+    protected int getRequiredProcessorCount()
+    {
+        return numPublishers + 1;
+    }
+
+    @Override
+    protected PerfTestContext runDisruptorPass() throws Exception
+    {
+        PerfTestContext perfTestContext = new PerfTestContext();
+        final CountDownLatch latch = new CountDownLatch(1);
+        handler
+            .reset(latch, batchEventProcessor.getSequence().get() + ((ITERATIONS / numPublishers) * numPublishers));
+
+        Future<?>[] futures = new Future[numPublishers];
+        for (int i = 0; i < numPublishers; i++)
+        {
+            futures[i] = executor.submit(valuePublishers[i]);
+        }
+        executor.submit(batchEventProcessor);
+
+        long start = System.currentTimeMillis();
+        cyclicBarrier.await();
+
+        for (int i = 0; i < numPublishers; i++)
+        {
+            futures[i].get();
+        }
+
+        latch.await();
+
+        perfTestContext.setDisruptorOps(((ITERATIONS / numPublishers) * numPublishers * 1000L) / (System.currentTimeMillis() - start));
+        perfTestContext.setBatchData(handler.getBatchesProcessed(), ITERATIONS);
+        batchEventProcessor.halt();
+
+        return perfTestContext;
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        for (final int numPublishers : PUBLISHER_COUNTS)
+        {
+            for (final AvailabilityLayout availabilityLayout : AvailabilityLayout.values())
+            {
+                System.out.format("Publishers=%d Layout=%s%n", numPublishers, availabilityLayout);
+                final ManyToOneStripedSequencedThroughputTest test =
+                    new ManyToOneStripedSequencedThroughputTest(numPublishers, availabilityLayout);
+                test.testImplementations();
+                test.executor.shutdownNow();
+            }
+        }
+    }
+}
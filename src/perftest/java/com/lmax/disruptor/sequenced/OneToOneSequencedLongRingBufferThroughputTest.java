@@ -0,0 +1,156 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.sequenced;
+
+import com.lmax.disruptor.AbstractPerfTestDisruptor;
+import com.lmax.disruptor.LongBatchEventProcessor;
+import com.lmax.disruptor.LongEventHandler;
+import com.lmax.disruptor.LongRingBuffer;
+import com.lmax.disruptor.PerfTestContext;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.support.PerfTestUtil;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.lmax.disruptor.support.PerfTestUtil.failIfNot;
+
+/**
+ * <pre>
+ * UniCast a series of primitive longs between 1 publisher and 1 event processor,
+ * publishing in chunks through {@link LongRingBuffer#publishAll(long[], int, int)}.
+ *
+ * Compare with {@link OneToOneSequencedThroughputTest} which moves the same values
+ * through a {@link com.lmax.disruptor.RingBuffer} of event objects.
+ *
+ * +----+    +====+    +-----+
+ * | P1 |--->| RB |--->| EP1 |
+ * +----+    +====+    +-----+
+ *
+ * P1  - Publisher 1
+ * RB  - LongRingBuffer
+ * EP1 - LongBatchEventProcessor 1
+ *
+ * </pre>
+ */
+public final class OneToOneSequencedLongRingBufferThroughputTest extends AbstractPerfTestDisruptor
+{
+    private static final int BUFFER_SIZE = 1024 * 64;
+    private static final int CHUNK_SIZE = 256;
+    private static final long ITERATIONS = 1000L * 1000L * 100L;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(DaemonThreadFactory.INSTANCE);
+    private final long expectedResult = PerfTestUtil.accumulatedAddition(ITERATIONS);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(BUFFER_SIZE, new YieldingWaitStrategy());
+    private final ValueAdditionLongHandler handler = new ValueAdditionLongHandler();
+    private final LongBatchEventProcessor processor = new LongBatchEventProcessor(ringBuffer, ringBuffer.newBarrier(), handler);
+
+    {
+        ringBuffer.addGatingSequences(processor.getSequence());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected int getRequiredProcessorCount()
+    {
+        return 2;
+    }
+
+    @Override
+    protected PerfTestContext runDisruptorPass() throws InterruptedException
+    {
+        PerfTestContext perfTestContext = new PerfTestContext();
+        final CountDownLatch latch = new CountDownLatch(1);
+        long expectedCount = processor.getSequence().get() + ITERATIONS;
+        handler.reset(latch, expectedCount);
+        executor.submit(processor);
+        long start = System.currentTimeMillis();
+
+        final LongRingBuffer rb = ringBuffer;
+        final long[] chunk = new long[CHUNK_SIZE];
+
+        long i = 0;
+        while (i < ITERATIONS)
+        {
+            int length = (int) Math.min(CHUNK_SIZE, ITERATIONS - i);
+            for (int j = 0; j < length; j++)
+            {
+                chunk[j] = i + j;
+            }
+            rb.publishAll(chunk, 0, length);
+            i += length;
+        }
+
+        latch.await();
+        perfTestContext.setDisruptorOps((ITERATIONS * 1000L) / (System.currentTimeMillis() - start));
+        perfTestContext.setBatchData(handler.batchesProcessed, ITERATIONS);
+        waitForEventProcessorSequence(expectedCount);
+        processor.halt();
+
+        failIfNot(expectedResult, handler.value);
+
+        return perfTestContext;
+    }
+
+    private void waitForEventProcessorSequence(final long expectedCount) throws InterruptedException
+    {
+        while (processor.getSequence().get() != expectedCount)
+        {
+            Thread.sleep(1);
+        }
+    }
+
+    private static final class ValueAdditionLongHandler implements LongEventHandler
+    {
+        private long value;
+        private long batchesProcessed;
+        private long count;
+        private CountDownLatch latch;
+
+        void reset(final CountDownLatch latch, final long expectedCount)
+        {
+            this.value = 0;
+            this.batchesProcessed = 0;
+            this.count = expectedCount;
+            this.latch = latch;
+        }
+
+        @Override
+        public void onEvent(final long value, final long sequence, final boolean endOfBatch)
+        {
+            this.value += value;
+            if (endOfBatch)
+            {
+                batchesProcessed++;
+            }
+            if (count == sequence)
+            {
+                latch.countDown();
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        OneToOneSequencedLongRingBufferThroughputTest test = new OneToOneSequencedLongRingBufferThroughputTest();
+        test.testImplementations();
+    }
+}
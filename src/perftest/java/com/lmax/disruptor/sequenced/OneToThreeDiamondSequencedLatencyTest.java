@@ -0,0 +1,167 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.sequenced;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.BatchEventProcessorBuilder;
+import com.lmax.disruptor.PublishTimestamps;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.RingBufferBuilder;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.support.FizzBuzzEvent;
+import com.lmax.disruptor.support.FizzBuzzEventHandler;
+import com.lmax.disruptor.support.FizzBuzzStep;
+import com.lmax.disruptor.support.PublishLatencyHistogram;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <pre>
+ *
+ * Measures the latency from publication to the end of each stage of the diamond in
+ * {@link OneToThreeDiamondSequencedThroughputTest}, using sampled publish timestamps
+ * rather than stamping the events.
+ *
+ *           +-----+
+ *    +----->| EP1 |------+
+ *    |      +-----+      |
+ *    |                   v
+ * +----+              +-----+
+ * | P1 |              | EP3 |
+ * +----+              +-----+
+ *    |                   ^
+ *    |      +-----+      |
+ *    +----->| EP2 |------+
+ *           +-----+
+ *
+ * </pre>
+ *
+ * <p>Note: <b>This test is only useful on a system using an invariant TSC in user space from the System.nanoTime() call.</b>
+ */
+public final class OneToThreeDiamondSequencedLatencyTest
+{
+    private static final int BUFFER_SIZE = 1024 * 8;
+    private static final int SAMPLE_INTERVAL = 64;
+    private static final long ITERATIONS = 1000L * 1000L * 10L;
+    private static final long PAUSE_NANOS = 1000L;
+    private final ExecutorService executor = Executors.newFixedThreadPool(3, DaemonThreadFactory.INSTANCE);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private final RingBuffer<FizzBuzzEvent> ringBuffer = new RingBufferBuilder<FizzBuzzEvent>()
+        .setProducerType(ProducerType.SINGLE)
+        .setWaitStrategy(new YieldingWaitStrategy())
+        .samplePublishTimestamps(SAMPLE_INTERVAL)
+        .build(FizzBuzzEvent.EVENT_FACTORY, BUFFER_SIZE);
+    private final PublishTimestamps publishTimestamps = ringBuffer.getPublishTimestamps();
+
+    private final SequenceBarrier sequenceBarrier = ringBuffer.newBarrier();
+
+    private final PublishLatencyHistogram fizzLatency = new PublishLatencyHistogram();
+    private final FizzBuzzEventHandler fizzHandler = new FizzBuzzEventHandler(FizzBuzzStep.FIZZ);
+    private final BatchEventProcessor<FizzBuzzEvent> batchProcessorFizz = newBuilder(fizzLatency)
+            .build(ringBuffer, sequenceBarrier, fizzHandler);
+
+    private final PublishLatencyHistogram buzzLatency = new PublishLatencyHistogram();
+    private final FizzBuzzEventHandler buzzHandler = new FizzBuzzEventHandler(FizzBuzzStep.BUZZ);
+    private final BatchEventProcessor<FizzBuzzEvent> batchProcessorBuzz = newBuilder(buzzLatency)
+            .build(ringBuffer, sequenceBarrier, buzzHandler);
+
+    private final SequenceBarrier sequenceBarrierFizzBuzz =
+        ringBuffer.newBarrier(batchProcessorFizz.getSequence(), batchProcessorBuzz.getSequence());
+
+    private final PublishLatencyHistogram fizzBuzzLatency = new PublishLatencyHistogram();
+    private final FizzBuzzEventHandler fizzBuzzHandler = new FizzBuzzEventHandler(FizzBuzzStep.FIZZ_BUZZ);
+    private final BatchEventProcessor<FizzBuzzEvent> batchProcessorFizzBuzz = newBuilder(fizzBuzzLatency)
+            .build(ringBuffer, sequenceBarrierFizzBuzz, fizzBuzzHandler);
+
+    {
+        ringBuffer.addGatingSequences(batchProcessorFizzBuzz.getSequence());
+    }
+
+    private BatchEventProcessorBuilder newBuilder(final PublishLatencyHistogram latency)
+    {
+        return new BatchEventProcessorBuilder().setMetrics(latency).setPublishTimestamps(publishTimestamps);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    public void shouldReportLatencyOfEachStage() throws Exception
+    {
+        final int runs = 3;
+
+        for (int i = 0; i < runs; i++)
+        {
+            System.gc();
+            fizzLatency.getHistogram().reset();
+            buzzLatency.getHistogram().reset();
+            fizzBuzzLatency.getHistogram().reset();
+
+            runDisruptorPass();
+
+            System.out.format("%s run %d%n", getClass().getSimpleName(), Long.valueOf(i));
+            System.out.println("EP1 (fizz)");
+            fizzLatency.getHistogram().outputPercentileDistribution(System.out, 1, 1000.0);
+            System.out.println("EP2 (buzz)");
+            buzzLatency.getHistogram().outputPercentileDistribution(System.out, 1, 1000.0);
+            System.out.println("EP3 (fizz buzz)");
+            fizzBuzzLatency.getHistogram().outputPercentileDistribution(System.out, 1, 1000.0);
+        }
+    }
+
+    private void runDisruptorPass() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        fizzBuzzHandler.reset(latch, batchProcessorFizzBuzz.getSequence().get() + ITERATIONS);
+
+        final Future<?> fizz = executor.submit(batchProcessorFizz);
+        final Future<?> buzz = executor.submit(batchProcessorBuzz);
+        final Future<?> fizzBuzz = executor.submit(batchProcessorFizzBuzz);
+
+        for (long i = 0; i < ITERATIONS; i++)
+        {
+            final long t0 = System.nanoTime();
+            final long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).setValue(i);
+            ringBuffer.publish(sequence);
+
+            while (PAUSE_NANOS > (System.nanoTime() - t0))
+            {
+                Thread.onSpinWait();
+            }
+        }
+
+        latch.await();
+
+        batchProcessorFizz.halt();
+        batchProcessorBuzz.halt();
+        batchProcessorFizzBuzz.halt();
+        fizz.get();
+        buzz.get();
+        fizzBuzz.get();
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        new OneToThreeDiamondSequencedLatencyTest().shouldReportLatencyOfEachStage();
+    }
+}
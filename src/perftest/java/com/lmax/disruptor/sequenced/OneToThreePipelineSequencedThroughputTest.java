@@ -25,8 +25,11 @@ import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.support.FunctionEvent;
 import com.lmax.disruptor.support.FunctionEventHandler;
 import com.lmax.disruptor.support.FunctionStep;
+import com.lmax.disruptor.util.AffinityThreadFactory;
+import com.lmax.disruptor.util.CpuAffinity;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -71,7 +74,8 @@ public final class OneToThreePipelineSequencedThroughputTest extends AbstractPer
     private static final int NUM_EVENT_PROCESSORS = 3;
     private static final int BUFFER_SIZE = 1024 * 8;
     private static final long ITERATIONS = 1000L * 1000L * 100L;
-    private final ExecutorService executor = Executors.newFixedThreadPool(NUM_EVENT_PROCESSORS, DaemonThreadFactory.INSTANCE);
+    private final ExecutorService executor;
+    private final int producerCpu;
 
     private static final long OPERAND_TWO_INITIAL_VALUE = 777L;
     private final long expectedResult;
@@ -120,6 +124,21 @@ public final class OneToThreePipelineSequencedThroughputTest extends AbstractPer
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    public OneToThreePipelineSequencedThroughputTest()
+    {
+        executor = Executors.newFixedThreadPool(NUM_EVENT_PROCESSORS, DaemonThreadFactory.INSTANCE);
+        producerCpu = -1;
+    }
+
+    /**
+     * Pin the publisher to the first CPU and the event processors to the next three.
+     */
+    public OneToThreePipelineSequencedThroughputTest(final int[] cpus)
+    {
+        executor = Executors.newFixedThreadPool(NUM_EVENT_PROCESSORS, new AffinityThreadFactory(Arrays.copyOfRange(cpus, 1, 4)));
+        producerCpu = cpus[0];
+    }
+
     @Override
     protected int getRequiredProcessorCount()
     {
@@ -131,6 +150,11 @@ public final class OneToThreePipelineSequencedThroughputTest extends AbstractPer
     {
         PerfTestContext perfTestContext = new PerfTestContext();
 
+        if (producerCpu >= 0)
+        {
+            CpuAffinity.backend().setAffinity(producerCpu);
+        }
+
         CountDownLatch latch = new CountDownLatch(1);
         stepThreeFunctionHandler.reset(latch, stepThreeBatchProcessor.getSequence().get() + ITERATIONS);
 
@@ -164,6 +188,23 @@ public final class OneToThreePipelineSequencedThroughputTest extends AbstractPer
 
     public static void main(final String[] args) throws Exception
     {
+        System.out.println("Unpinned");
         new OneToThreePipelineSequencedThroughputTest().testImplementations();
+
+        // Prefer isolated CPUs, then one hardware thread of each core
+        int[] cpus = CpuAffinity.isolatedCpus();
+        if (cpus.length < 4)
+        {
+            cpus = CpuAffinity.onePerCore();
+        }
+
+        if (!CpuAffinity.isSupported() || cpus.length < 4)
+        {
+            System.out.println("Skipping pinned run: needs net.openhft:affinity on the class path and 4 CPUs on separate cores");
+            return;
+        }
+
+        System.out.println("Pinned to CPUs " + Arrays.toString(Arrays.copyOf(cpus, 4)));
+        new OneToThreePipelineSequencedThroughputTest(cpus).testImplementations();
     }
 }
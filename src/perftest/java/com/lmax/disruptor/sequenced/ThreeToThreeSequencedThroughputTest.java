@@ -16,14 +16,16 @@
 package com.lmax.disruptor.sequenced;
 
 import com.lmax.disruptor.AbstractPerfTestDisruptor;
+import com.lmax.disruptor.BatchEventProcessorBuilder;
 import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.MultiBufferBatchEventProcessor;
 import com.lmax.disruptor.PerfTestContext;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.support.LongArrayEventHandler;
 import com.lmax.disruptor.support.LongArrayPublisher;
-import com.lmax.disruptor.support.MultiBufferBatchEventProcessor;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 
 import java.util.concurrent.CountDownLatch;
@@ -78,19 +80,18 @@ public final class ThreeToThreeSequencedThroughputTest extends AbstractPerfTestD
 
     @SuppressWarnings("unchecked")
     private final RingBuffer<long[]>[] buffers = new RingBuffer[NUM_PUBLISHERS];
-    private final SequenceBarrier[] barriers = new SequenceBarrier[NUM_PUBLISHERS];
     private final LongArrayPublisher[] valuePublishers = new LongArrayPublisher[NUM_PUBLISHERS];
 
     private final LongArrayEventHandler handler = new LongArrayEventHandler();
     private final MultiBufferBatchEventProcessor<long[]> batchEventProcessor;
 
     private static final EventFactory<long[]> FACTORY = () -> new long[ARRAY_SIZE];
+    private static final WaitStrategy WAIT_STRATEGY = new YieldingWaitStrategy();
 
     {
         for (int i = 0; i < NUM_PUBLISHERS; i++)
         {
-            buffers[i] = RingBuffer.createSingleProducer(FACTORY, BUFFER_SIZE, new YieldingWaitStrategy());
-            barriers[i] = buffers[i].newBarrier();
+            buffers[i] = RingBuffer.createSingleProducer(FACTORY, BUFFER_SIZE, WAIT_STRATEGY);
             valuePublishers[i] = new LongArrayPublisher(
                 cyclicBarrier,
                 buffers[i],
@@ -98,11 +99,12 @@ public final class ThreeToThreeSequencedThroughputTest extends AbstractPerfTestD
                 ARRAY_SIZE);
         }
 
-        batchEventProcessor = new MultiBufferBatchEventProcessor<>(buffers, barriers, handler);
+        batchEventProcessor = new BatchEventProcessorBuilder().build(buffers, handler);
 
+        final Sequence[] sequences = batchEventProcessor.getSequences();
         for (int i = 0; i < NUM_PUBLISHERS; i++)
         {
-            buffers[i].addGatingSequences(batchEventProcessor.getSequences()[i]);
+            buffers[i].addGatingSequences(sequences[i]);
         }
     }
 
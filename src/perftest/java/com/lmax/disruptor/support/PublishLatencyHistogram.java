@@ -0,0 +1,50 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.support;
+
+import com.lmax.disruptor.EventProcessorMetrics;
+import org.HdrHistogram.Histogram;
+
+public final class PublishLatencyHistogram implements EventProcessorMetrics
+{
+    private final Histogram histogram = new Histogram(10000000000L, 4);
+
+    public Histogram getHistogram()
+    {
+        return histogram;
+    }
+
+    @Override
+    public void onBatch(final long batchSize, final long queueDepth, final long waitNanos, final long handlerNanos)
+    {
+    }
+
+    @Override
+    public void onPublishLatency(final long latencyNanos)
+    {
+        histogram.recordValue(latencyNanos);
+    }
+
+    @Override
+    public void onRewind()
+    {
+    }
+
+    @Override
+    public void onEventException()
+    {
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class AdaptiveBatchSizeEventProcessorTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = createSingleProducer(StubEvent.EVENT_FACTORY, 32);
+
+    @Test
+    public void shouldApplyLimitChosenByStrategyToNextBatch() throws Exception
+    {
+        final List<Long> batchLimits = new ArrayList<>();
+        final BatchSizeStrategy strategy = (batchLimit, batchSize, queueDepth, serviceTimeNanos) ->
+        {
+            batchLimits.add((long) batchLimit);
+            return 2;
+        };
+
+        assertEquals(Arrays.asList(8L, 2L, 2L), processBatches(12, 8, strategy));
+        assertEquals(Arrays.asList(8L, 2L, 2L), batchLimits);
+    }
+
+    @Test
+    public void shouldClampLimitChosenByStrategyToMaxBatchSize() throws Exception
+    {
+        final int[] limits = {0, 100};
+        final int[] calls = {0};
+        final BatchSizeStrategy strategy = (batchLimit, batchSize, queueDepth, serviceTimeNanos) -> limits[calls[0]++ % 2];
+
+        assertEquals(Arrays.asList(4L, 1L, 4L, 1L), processBatches(10, 4, strategy));
+    }
+
+    @Test
+    public void shouldShrinkBatchesToMeetLatencyTarget()
+    {
+        final LatencyTargetBatchSizeStrategy strategy = new LatencyTargetBatchSizeStrategy(10, TimeUnit.MICROSECONDS);
+
+        assertEquals(10, strategy.nextBatchLimit(1000, 100, 100, TimeUnit.MICROSECONDS.toNanos(100)));
+        assertEquals(10, strategy.nextBatchLimit(10, 10, 10, TimeUnit.MICROSECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void shouldRejectNonPositiveLatencyTarget()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyTargetBatchSizeStrategy(0, TimeUnit.MICROSECONDS));
+    }
+
+    @Test
+    public void shouldGrowUnderBacklogAndShrinkWhenDrained()
+    {
+        final ThroughputBatchSizeStrategy strategy = new ThroughputBatchSizeStrategy();
+
+        assertEquals(32, strategy.nextBatchLimit(16, 16, 100, 0));
+        assertEquals(8, strategy.nextBatchLimit(16, 4, 4, 0));
+        assertEquals(16, strategy.nextBatchLimit(16, 10, 10, 0));
+        assertEquals(Integer.MAX_VALUE, strategy.nextBatchLimit(Integer.MAX_VALUE, 16, Long.MAX_VALUE, 0));
+    }
+
+    private List<Long> processBatches(final int count, final int maxBatchSize, final BatchSizeStrategy strategy)
+        throws InterruptedException
+    {
+        final List<Long> batchSizes = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(count);
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessorBuilder()
+            .setMaxBatchSize(maxBatchSize)
+            .setBatchSizeStrategy(strategy)
+            .build(ringBuffer, ringBuffer.newBarrier(), new EventHandler<>()
+            {
+                @Override
+                public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+                {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onBatchStart(final long batchSize, final long queueDepth)
+                {
+                    batchSizes.add(batchSize);
+                }
+            });
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        ringBuffer.publish(ringBuffer.next(count));
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        return batchSizes;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ChannelIngressTest
+{
+    private final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createSingleProducer(16, 64, new BlockingWaitStrategy());
+
+    @Test
+    public void shouldRejectRingBufferSharedWithOtherProducers() throws Exception
+    {
+        final OffHeapRingBuffer sharedRingBuffer = OffHeapRingBuffer.createMultiProducer(16, 64, new BlockingWaitStrategy());
+        final Pipe pipe = Pipe.open();
+        try
+        {
+            assertThrows(IllegalArgumentException.class, () -> new ChannelIngress(sharedRingBuffer, pipe.source()));
+        }
+        finally
+        {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+    @Test
+    public void shouldReadFramesFromLoopbackSocketIntoSlots() throws Exception
+    {
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             SocketChannel client = SocketChannel.open(server.getLocalAddress());
+             SocketChannel accepted = server.accept())
+        {
+            final ChannelIngress ingress = new ChannelIngress(ringBuffer, accepted);
+            final List<String> messages = Arrays.asList("alpha", "", "gamma", "a much longer message than the others");
+            client.write(frames(messages));
+
+            int published = 0;
+            while (published < messages.size())
+            {
+                published += ingress.poll();
+            }
+
+            assertEquals(messages, readSlots(0, messages.size()));
+            assertEquals(messages.size() - 1, ringBuffer.getCursor());
+
+            client.close();
+            assertEquals(-1, ingress.poll());
+        }
+    }
+
+    @Test
+    public void shouldPublishCompletedMessagesBeforeWaitingForCapacity() throws Exception
+    {
+        final OffHeapRingBuffer smallRingBuffer = OffHeapRingBuffer.createSingleProducer(4, 64, new BlockingWaitStrategy());
+        final List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            messages.add("message " + i);
+        }
+        final ByteBuffer wire = frames(messages);
+        final byte[] bytes = new byte[wire.remaining()];
+        wire.get(bytes);
+        final ChannelIngress ingress = new ChannelIngress(smallRingBuffer, Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        final BatchEventProcessor<ByteBuffer> processor = new BatchEventProcessorBuilder().build(
+            smallRingBuffer, smallRingBuffer.newBarrier(), (event, sequence, endOfBatch) ->
+            {
+                received.add(message(event, smallRingBuffer.getOffset(sequence)));
+            });
+        smallRingBuffer.addGatingSequences(processor.getSequence());
+        final Thread consumer = new Thread(processor);
+        consumer.start();
+
+        final Thread producer = new Thread(() ->
+        {
+            try
+            {
+                while (ingress.poll() >= 0)
+                {
+                    // Read until the end of the stream
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+        producer.join(5000);
+
+        assertFalse(producer.isAlive());
+        while (processor.getSequence().get() < messages.size() - 1)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        consumer.join();
+
+        assertEquals(messages, received);
+    }
+
+    @Test
+    public void shouldContinueMessageSplitAcrossReads() throws Exception
+    {
+        final Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        final ChannelIngress ingress = new ChannelIngress(ringBuffer, pipe.source());
+        final ByteBuffer wire = frames(Arrays.asList("hello", "world"));
+
+        final List<Integer> publishedPerPoll = new ArrayList<>();
+        while (wire.hasRemaining())
+        {
+            final ByteBuffer oneByte = wire.duplicate();
+            oneByte.limit(oneByte.position() + 1);
+            pipe.sink().write(oneByte);
+            wire.position(wire.position() + 1);
+            publishedPerPoll.add(ingress.poll());
+        }
+
+        assertEquals(2, publishedPerPoll.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(1, (int) publishedPerPoll.get(8));
+        assertEquals(Arrays.asList("hello", "world"), readSlots(0, 2));
+    }
+
+    @Test
+    public void shouldReadFromChannelWithoutScatteringSupport() throws Exception
+    {
+        final List<String> messages = Arrays.asList("one", "two", "three");
+        final ByteBuffer wire = frames(messages);
+        final byte[] bytes = new byte[wire.remaining()];
+        wire.get(bytes);
+        final ChannelIngress ingress = new ChannelIngress(ringBuffer, Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        while (ingress.poll() >= 0)
+        {
+            // Read until the end of the stream
+        }
+
+        assertEquals(messages, readSlots(0, messages.size()));
+    }
+
+    @Test
+    public void shouldPublishTruncatedSlotAtEndOfStream() throws Exception
+    {
+        final ByteBuffer wire = frames(Arrays.asList("complete", "cut short"));
+        final byte[] bytes = new byte[wire.remaining() - 3];
+        wire.get(bytes);
+        final ChannelIngress ingress = new ChannelIngress(ringBuffer, Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        while (ingress.poll() >= 0)
+        {
+            // Read until the end of the stream
+        }
+
+        assertEquals(1L, ringBuffer.getCursor());
+        assertEquals(ChannelIngress.TRUNCATED, ringBuffer.get(1).getInt(ringBuffer.getOffset(1)));
+    }
+
+    @Test
+    public void shouldRejectMessageLongerThanSlot()
+    {
+        final ByteBuffer wire = ByteBuffer.allocate(ChannelIngress.HEADER_LENGTH).putInt(0, 61);
+        final ChannelIngress ingress = new ChannelIngress(ringBuffer, Channels.newChannel(new ByteArrayInputStream(wire.array())));
+
+        assertThrows(IOException.class, ingress::poll);
+        assertEquals(-1L, ringBuffer.getCursor());
+    }
+
+    private List<String> readSlots(final long lo, final int count)
+    {
+        final List<String> messages = new ArrayList<>();
+        for (long sequence = lo; sequence < lo + count; sequence++)
+        {
+            messages.add(message(ringBuffer.get(sequence), ringBuffer.getOffset(sequence)));
+        }
+        return messages;
+    }
+
+    private static String message(final ByteBuffer region, final int offset)
+    {
+        final byte[] payload = new byte[region.getInt(offset)];
+        final ByteBuffer slot = region.duplicate();
+        slot.position(offset + ChannelIngress.HEADER_LENGTH);
+        slot.get(payload);
+        return new String(payload, StandardCharsets.US_ASCII);
+    }
+
+    private static ByteBuffer frames(final List<String> messages)
+    {
+        final ByteBuffer wire = ByteBuffer.allocate(1024).order(ByteOrder.BIG_ENDIAN);
+        for (final String message : messages)
+        {
+            final byte[] payload = message.getBytes(StandardCharsets.US_ASCII);
+            wire.putInt(payload.length).put(payload);
+        }
+        return wire.flip();
+    }
+}
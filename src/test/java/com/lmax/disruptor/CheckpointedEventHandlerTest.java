@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CheckpointedEventHandlerTest
+{
+    private final List<String> calls = new ArrayList<>();
+    private final CheckpointedEventHandler<StubEvent> handler = new CheckpointedEventHandler<>(new EventHandler<>()
+    {
+        @Override
+        public void onBatchStart(final long batchSize, final long queueDepth)
+        {
+            calls.add("batch " + batchSize + "/" + queueDepth);
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            calls.add(sequence + (endOfBatch ? " end" : ""));
+        }
+    }, 2);
+
+    @Test
+    public void shouldSkipEventsUpToTheCheckpoint() throws Exception
+    {
+        runBatch(0, 2, 5);
+        runBatch(2, 3, 3);
+        runBatch(5, 1, 1);
+
+        assertEquals(Arrays.asList("batch 2/2", "3", "4 end", "batch 1/1", "5 end"), calls);
+    }
+
+    private void runBatch(final long firstSequence, final int batchSize, final int queueDepth) throws Exception
+    {
+        handler.onBatchStart(batchSize, queueDepth);
+        for (int i = 0; i < batchSize; i++)
+        {
+            handler.onEvent(new StubEvent(i), firstSequence + i, i == batchSize - 1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ColumnarRingBufferTest
+{
+    private final ColumnarRingBuffer ringBuffer = ColumnarRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+    private final ColumnarRingBuffer.DoubleColumn price = ringBuffer.doubleColumn();
+    private final ColumnarRingBuffer.LongColumn quantity = ringBuffer.longColumn();
+    private final ColumnarRingBuffer.IntColumn side = ringBuffer.intColumn();
+
+    @Test
+    public void shouldWriteFieldsThroughTranslator()
+    {
+        ringBuffer.publishEvent((event, sequence) ->
+        {
+            price.set(sequence, 10.5);
+            quantity.set(sequence, 100L);
+            side.set(sequence, 1);
+        });
+        ringBuffer.publishEvent((event, sequence, arg0) -> price.set(sequence, arg0), 11.25);
+
+        assertEquals(1L, ringBuffer.getCursor());
+        assertEquals(10.5, price.get(0));
+        assertEquals(100L, quantity.get(0));
+        assertEquals(1, side.get(0));
+        assertEquals(11.25, price.get(1));
+        assertSame(ringBuffer, ringBuffer.get(1));
+    }
+
+    @Test
+    public void shouldIndexColumnsBySequenceAcrossTheWrap()
+    {
+        final Sequence gate = new Sequence();
+        ringBuffer.addGatingSequences(gate);
+        for (long i = 0; i < 4; i++)
+        {
+            final long sequence = ringBuffer.next();
+            quantity.set(sequence, i);
+            ringBuffer.publish(sequence);
+        }
+        gate.set(3);
+
+        final long hi = ringBuffer.next(2);
+        quantity.set(hi - 1, 40L);
+        quantity.set(hi, 50L);
+        ringBuffer.publish(hi - 1, hi);
+
+        assertEquals(5L, hi);
+        assertEquals(40L, quantity.get(0));
+        assertEquals(50L, quantity.get(1));
+        assertEquals(2L, quantity.get(2));
+    }
+
+    @Test
+    public void shouldFailToTryPublishWhenFull()
+    {
+        ringBuffer.addGatingSequences(new Sequence());
+        for (int i = 0; i < 4; i++)
+        {
+            ringBuffer.publishEvent((event, sequence) -> side.set(sequence, 1));
+        }
+
+        assertFalse(ringBuffer.tryPublishEvent((event, sequence) -> side.set(sequence, 2)));
+        assertEquals(0L, ringBuffer.remainingCapacity());
+    }
+
+    @Test
+    public void shouldConsumeColumnsWithBatchEventProcessor() throws Exception
+    {
+        final int count = 1000;
+        final AtomicLong notional = new AtomicLong();
+        final EventHandler<ColumnarRingBuffer> handler = (event, sequence, endOfBatch) ->
+            notional.addAndGet((long) price.get(sequence) * quantity.get(sequence));
+        final BatchEventProcessor<ColumnarRingBuffer> processor = new BatchEventProcessorBuilder().build(ringBuffer, ringBuffer.newBarrier(), handler);
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        long expected = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final int value = i;
+            ringBuffer.publishEvent((event, sequence) ->
+            {
+                price.set(sequence, value);
+                quantity.set(sequence, 2L);
+            });
+            expected += value * 2L;
+        }
+
+        while (processor.getSequence().get() < count - 1)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertEquals(expected, notional.get());
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompletionProcessorTest
+{
+    private final RingBuffer<StubEvent> ringBuffer =
+        RingBuffer.createMultiProducer(StubEvent.EVENT_FACTORY, 64, new BlockingWaitStrategy());
+    private final Sequence handlerSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private final CompletionProcessor completionProcessor = new CompletionProcessor(ringBuffer.newBarrier(handlerSequence));
+    private final Thread processorThread = new Thread(completionProcessor);
+
+    @BeforeEach
+    public void setUp()
+    {
+        ringBuffer.addGatingSequences(handlerSequence);
+        processorThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException
+    {
+        completionProcessor.halt();
+        processorThread.join();
+    }
+
+    @Test
+    public void shouldReleaseEachWaiterOnceItsSequenceIsProcessed() throws Exception
+    {
+        final int waiterCount = 8;
+        final CountDownLatch released = new CountDownLatch(waiterCount);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < waiterCount; i++)
+        {
+            final long sequence = i;
+            threads.add(new Thread(() ->
+            {
+                try
+                {
+                    completionProcessor.awaitProcessed(sequence);
+                    assertTrue(handlerSequence.get() >= sequence);
+                    released.countDown();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                catch (final AlertException e)
+                {
+                    // Only halted once every waiter has been released
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        publishAndProcess(3);
+        publishAndProcess(waiterCount - 1);
+
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+        assertTrue(completionProcessor.isProcessed(waiterCount - 1));
+    }
+
+    @Test
+    public void shouldTimeOutAndThenWaitAgain() throws Exception
+    {
+        assertFalse(completionProcessor.awaitProcessed(0, 10, TimeUnit.MILLISECONDS));
+
+        publishAndProcess(0);
+
+        assertTrue(completionProcessor.awaitProcessed(0, 5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldCallBackOnTheProcessorThreadOnceProcessed() throws Exception
+    {
+        final AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        final CountDownLatch calledBack = new CountDownLatch(1);
+        completionProcessor.whenProcessed(1, () ->
+        {
+            callbackThread.set(Thread.currentThread());
+            calledBack.countDown();
+        });
+
+        publishAndProcess(0);
+        assertEquals(1, calledBack.getCount());
+        publishAndProcess(1);
+
+        assertTrue(calledBack.await(5, TimeUnit.SECONDS));
+        assertSame(processorThread, callbackThread.get());
+    }
+
+    @Test
+    public void shouldCallBackStraightAwayWhenAlreadyProcessed() throws Exception
+    {
+        publishAndProcess(0);
+        completionProcessor.awaitProcessed(0);
+
+        final AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        completionProcessor.whenProcessed(0, () -> callbackThread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), callbackThread.get());
+    }
+
+    @Test
+    public void shouldThrowWhenInterruptedWhileWaiting() throws Exception
+    {
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                completionProcessor.awaitProcessed(0);
+            }
+            catch (final Throwable t)
+            {
+                thrown.set(t);
+            }
+        });
+        waiter.start();
+        waiter.interrupt();
+        waiter.join(5000);
+
+        assertFalse(waiter.isAlive());
+        assertTrue(thrown.get() instanceof InterruptedException);
+    }
+
+    @Test
+    public void shouldFailWaitersWhenHaltedBeforeTheirSequenceIsProcessed() throws Exception
+    {
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final CountDownLatch halted = new CountDownLatch(1);
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                completionProcessor.awaitProcessed(1);
+            }
+            catch (final Throwable t)
+            {
+                thrown.set(t);
+            }
+        });
+        waiter.start();
+        completionProcessor.whenProcessed(1, () ->
+        {
+        }, halted::countDown);
+
+        publishAndProcess(0);
+        assertTrue(completionProcessor.awaitProcessed(0, 5, TimeUnit.SECONDS));
+        completionProcessor.halt();
+        processorThread.join();
+        waiter.join(5000);
+
+        assertFalse(waiter.isAlive());
+        assertSame(AlertException.INSTANCE, thrown.get());
+        assertTrue(halted.await(5, TimeUnit.SECONDS));
+        assertThrows(AlertException.class, () -> completionProcessor.awaitProcessed(1, 5, TimeUnit.SECONDS));
+        assertTrue(completionProcessor.awaitProcessed(0, 5, TimeUnit.SECONDS));
+    }
+
+    private void publishAndProcess(final long sequence)
+    {
+        while (ringBuffer.getCursor() < sequence)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, 0, "");
+        }
+        handlerSequence.set(sequence);
+    }
+}
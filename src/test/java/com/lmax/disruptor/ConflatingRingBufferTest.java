@@ -0,0 +1,218 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConflatingRingBufferTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 16);
+    private final ConflatingRingBuffer<StubEvent> conflatingRingBuffer = new ConflatingRingBuffer<>(ringBuffer);
+
+    @Test
+    public void shouldOverwritePendingEventOfTheSameKey()
+    {
+        final long first = conflatingRingBuffer.publishEvent(7L, StubEvent.TRANSLATOR, 1, "a");
+        final long second = conflatingRingBuffer.publishEvent(7L, StubEvent.TRANSLATOR, 2, "b");
+        final long other = conflatingRingBuffer.publishEvent(8L, (event, sequence) -> event.setValue(3));
+
+        assertEquals(Arrays.asList(0L, 0L, 1L), Arrays.asList(first, second, other));
+        assertEquals(1L, ringBuffer.getCursor());
+        assertEquals(2, ringBuffer.get(0).getValue());
+        assertEquals("b", ringBuffer.get(0).getTestString());
+        assertEquals(2, conflatingRingBuffer.getPendingCount());
+    }
+
+    @Test
+    public void shouldPublishToNewSequenceOnceConsumerHasReleasedThePendingEvent() throws Exception
+    {
+        final List<Integer> values = new ArrayList<>();
+        final EventHandler<StubEvent> handler = conflatingRingBuffer.conflating((event, sequence, endOfBatch) -> values.add(event.getValue()));
+
+        conflatingRingBuffer.publishEvent(7L, StubEvent.TRANSLATOR, 1, "");
+        handler.onEvent(ringBuffer.get(0), 0, true);
+        final long sequence = conflatingRingBuffer.publishEvent(7L, StubEvent.TRANSLATOR, 2, "");
+
+        assertEquals(1L, sequence);
+        assertEquals(1, ringBuffer.get(0).getValue());
+        assertEquals(Arrays.asList(1), values);
+        assertEquals(1, conflatingRingBuffer.getPendingCount());
+    }
+
+    @Test
+    public void shouldFindPendingKeysAfterOthersAreReleasedOutOfOrder() throws Exception
+    {
+        final EventHandler<StubEvent> handler = conflatingRingBuffer.conflating((event, sequence, endOfBatch) -> { });
+        for (int key = 0; key < ringBuffer.getBufferSize(); key++)
+        {
+            assertEquals(key, conflatingRingBuffer.publishEvent(key * 31L, StubEvent.TRANSLATOR, key, ""));
+        }
+        for (int sequence = ringBuffer.getBufferSize() - 1; sequence >= 0; sequence -= 2)
+        {
+            handler.onEvent(ringBuffer.get(sequence), sequence, false);
+        }
+
+        assertEquals(ringBuffer.getBufferSize() / 2, conflatingRingBuffer.getPendingCount());
+        for (int key = 0; key < ringBuffer.getBufferSize(); key += 2)
+        {
+            assertEquals(key, conflatingRingBuffer.publishEvent(key * 31L, StubEvent.TRANSLATOR, -key, ""));
+        }
+        assertEquals(ringBuffer.getBufferSize() - 1, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void shouldKeepEveryPendingKeyAsTheStripesGrow() throws Exception
+    {
+        final RingBuffer<StubEvent> largeRingBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 1024);
+        final ConflatingRingBuffer<StubEvent> conflating = new ConflatingRingBuffer<>(largeRingBuffer);
+        final EventHandler<StubEvent> handler = conflating.conflating((event, sequence, endOfBatch) -> { });
+        for (int key = 0; key < largeRingBuffer.getBufferSize(); key++)
+        {
+            assertEquals(key, conflating.publishEvent(key * 16L, StubEvent.TRANSLATOR, key, ""));
+        }
+        assertEquals(largeRingBuffer.getBufferSize(), conflating.getPendingCount());
+
+        for (int sequence = 1; sequence < largeRingBuffer.getBufferSize(); sequence += 2)
+        {
+            handler.onEvent(largeRingBuffer.get(sequence), sequence, false);
+        }
+        for (int key = 0; key < largeRingBuffer.getBufferSize(); key += 2)
+        {
+            assertEquals(key, conflating.publishEvent(key * 16L, StubEvent.TRANSLATOR, -key, ""));
+        }
+        assertEquals(largeRingBuffer.getBufferSize() / 2, conflating.getPendingCount());
+    }
+
+    @Test
+    public void shouldClaimOnceConsumerThatNeverSignalsFreesTheRing() throws Exception
+    {
+        final Sequence gatingSequence = new Sequence();
+        ringBuffer.addGatingSequences(gatingSequence);
+        for (int key = 0; key < ringBuffer.getBufferSize(); key++)
+        {
+            conflatingRingBuffer.publishEvent(key, StubEvent.TRANSLATOR, key, "");
+        }
+
+        final AtomicLong claimed = new AtomicLong(Sequencer.INITIAL_CURSOR_VALUE);
+        final Thread producer = new Thread(() -> claimed.set(conflatingRingBuffer.publishEvent(-1L, StubEvent.TRANSLATOR, -1, "")));
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING)
+        {
+            Thread.yield();
+        }
+
+        conflatingRingBuffer.conflating((event, sequence, endOfBatch) -> { }).onEvent(ringBuffer.get(0), 0, true);
+        gatingSequence.set(0L);
+        producer.join();
+
+        assertEquals(ringBuffer.getBufferSize(), claimed.get());
+    }
+
+    @Test
+    public void shouldClaimOneSequencePerKeyWhenProducersRace() throws Exception
+    {
+        final RingBuffer<StubEvent> multiProducerRingBuffer = RingBuffer.createMultiProducer(StubEvent.EVENT_FACTORY, 16);
+        final ConflatingRingBuffer<StubEvent> conflating = new ConflatingRingBuffer<>(multiProducerRingBuffer);
+        final CyclicBarrier start = new CyclicBarrier(4);
+        final Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++)
+        {
+            final int value = i;
+            producers[i] = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+                for (int j = 0; j < 1_000; j++)
+                {
+                    conflating.publishEvent(7L, StubEvent.TRANSLATOR, value, "");
+                }
+            });
+            producers[i].start();
+        }
+        for (final Thread producer : producers)
+        {
+            producer.join();
+        }
+
+        assertEquals(0L, multiProducerRingBuffer.getCursor());
+        assertEquals(1, conflating.getPendingCount());
+    }
+
+    @Test
+    public void shouldDeliverLatestValueOfEachKeyToSlowConsumer() throws Exception
+    {
+        final int keyCount = 4;
+        final int updatesPerKey = 20_000;
+        final AtomicIntegerArray latest = new AtomicIntegerArray(keyCount);
+        final AtomicLong eventCount = new AtomicLong();
+        final AtomicBoolean inOrder = new AtomicBoolean(true);
+        final EventHandler<StubEvent> handler = conflatingRingBuffer.conflating((event, sequence, endOfBatch) ->
+        {
+            final int key = event.getTestString().charAt(0) - 'a';
+            if (event.getValue() < latest.get(key))
+            {
+                inOrder.set(false);
+            }
+            latest.set(key, event.getValue());
+            eventCount.incrementAndGet();
+        });
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessorBuilder().build(ringBuffer, ringBuffer.newBarrier(), handler);
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        for (int i = 1; i <= updatesPerKey; i++)
+        {
+            for (int key = 0; key < keyCount; key++)
+            {
+                conflatingRingBuffer.publishEvent(key, StubEvent.TRANSLATOR, i, String.valueOf((char) ('a' + key)));
+            }
+        }
+
+        while (processor.getSequence().get() < ringBuffer.getCursor())
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertTrue(inOrder.get());
+        for (int key = 0; key < keyCount; key++)
+        {
+            assertEquals(updatesPerKey, latest.get(key));
+        }
+        assertTrue(eventCount.get() <= (long) keyCount * updatesPerKey);
+        assertEquals(0, conflatingRingBuffer.getPendingCount());
+    }
+}
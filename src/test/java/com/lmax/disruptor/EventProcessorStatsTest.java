@@ -0,0 +1,186 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class EventProcessorStatsTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = createSingleProducer(StubEvent.EVENT_FACTORY, 32);
+    private final EventProcessorStats stats = new EventProcessorStats();
+
+    @Test
+    public void shouldAccumulateBatches()
+    {
+        stats.onBatch(1, 4, 100, 10);
+        stats.onBatch(3, 8, 200, 20);
+        stats.onBatch(2, 2, 300, 30);
+
+        assertEquals(3L, stats.getBatchCount());
+        assertEquals(6L, stats.getEventCount());
+        assertEquals(2L, stats.getLastQueueDepth());
+        assertEquals(8L, stats.getMaxQueueDepth());
+        assertEquals(14.0 / 3, stats.getMeanQueueDepth(), 0.0001);
+        assertEquals(600L, stats.getWaitNanos());
+        assertEquals(60L, stats.getHandlerNanos());
+    }
+
+    @Test
+    public void shouldBucketBatchSizesByPowerOfTwo()
+    {
+        assertArrayEquals(new long[0], stats.getBatchSizeHistogram());
+
+        stats.onBatch(1, 1, 0, 0);
+        stats.onBatch(2, 2, 0, 0);
+        stats.onBatch(3, 3, 0, 0);
+        stats.onBatch(9, 9, 0, 0);
+
+        assertArrayEquals(new long[]{1, 2, 0, 1}, stats.getBatchSizeHistogram());
+    }
+
+    @Test
+    public void shouldBucketPublishLatencyByPowerOfTwo()
+    {
+        stats.onPublishLatency(0);
+        stats.onPublishLatency(5);
+        stats.onPublishLatency(6);
+
+        assertEquals(6L, stats.getMaxPublishLatencyNanos());
+        assertArrayEquals(new long[]{1, 0, 2}, stats.getPublishLatencyHistogram());
+    }
+
+    @Test
+    public void shouldRecordBatchesOfProcessor() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessorBuilder()
+            .setMetrics(stats)
+            .build(ringBuffer, ringBuffer.newBarrier(), (event, sequence, endOfBatch) -> latch.countDown());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        for (int i = 0; i < 5; i++)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, i, "");
+        }
+
+        run(processor, latch);
+
+        assertEquals(1L, stats.getBatchCount());
+        assertEquals(5L, stats.getEventCount());
+        assertEquals(5L, stats.getMaxQueueDepth());
+        assertArrayEquals(new long[]{0, 0, 1}, stats.getBatchSizeHistogram());
+    }
+
+    @Test
+    public void shouldRecordEventExceptions() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessorBuilder()
+            .setMetrics(stats)
+            .build(ringBuffer, ringBuffer.newBarrier(), (event, sequence, endOfBatch) ->
+            {
+                if (sequence == 0)
+                {
+                    throw new IllegalStateException();
+                }
+                latch.countDown();
+            });
+        processor.setExceptionHandler(new IgnoreExceptionHandler());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 0, "");
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 1, "");
+
+        run(processor, latch);
+
+        assertEquals(1L, stats.getExceptionCount());
+        assertEquals(1L, stats.getBatchCount());
+    }
+
+    @Test
+    public void shouldRecordRewinds() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final int[] attempts = {0};
+        final RewindableEventHandler<StubEvent> handler = (event, sequence, endOfBatch) ->
+        {
+            if (sequence == 1 && attempts[0]++ < 2)
+            {
+                throw new RewindableException(null);
+            }
+            if (endOfBatch)
+            {
+                latch.countDown();
+            }
+        };
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessorBuilder()
+            .setMetrics(stats)
+            .build(ringBuffer, ringBuffer.newBarrier(), handler, new SimpleBatchRewindStrategy());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 0, "");
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 1, "");
+
+        run(processor, latch);
+
+        assertEquals(2L, stats.getRewindCount());
+        assertEquals(1L, stats.getBatchCount());
+        assertEquals(2L, stats.getEventCount());
+    }
+
+    @Test
+    public void shouldExportCountersOverJmx() throws Exception
+    {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName("com.lmax.disruptor:type=EventProcessorStats,name=test");
+        stats.onBatch(3, 5, 100, 10);
+
+        server.registerMBean(stats, name);
+        try
+        {
+            assertEquals(1L, server.getAttribute(name, "BatchCount"));
+            assertEquals(3L, server.getAttribute(name, "EventCount"));
+            assertEquals(5L, server.getAttribute(name, "MaxQueueDepth"));
+        }
+        finally
+        {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private static void run(final BatchEventProcessor<StubEvent> processor, final CountDownLatch latch) throws Exception
+    {
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+    }
+}
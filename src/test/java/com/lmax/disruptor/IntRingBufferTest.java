@@ -0,0 +1,111 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntRingBufferTest
+{
+    private final IntRingBuffer ringBuffer = IntRingBuffer.createMultiProducer(8, new BlockingWaitStrategy());
+
+    @Test
+    public void shouldPublishAndGetValues()
+    {
+        final long first = ringBuffer.publish(42);
+        final long second = ringBuffer.publish(Float.floatToRawIntBits(1.5f));
+
+        assertEquals(Arrays.asList(0L, 1L), Arrays.asList(first, second));
+        assertEquals(42, ringBuffer.get(0));
+        assertEquals(1.5f, Float.intBitsToFloat(ringBuffer.get(1)));
+        assertEquals(1L, ringBuffer.getCursor());
+        assertTrue(ringBuffer.isAvailable(1));
+    }
+
+    @Test
+    public void shouldPublishAllAcrossTheWrapPoint()
+    {
+        final Sequence gate = new Sequence();
+        ringBuffer.addGatingSequences(gate);
+        ringBuffer.publishAll(new int[]{0, 1, 2, 3, 4, 5}, 0, 6);
+        gate.set(5);
+
+        final long last = ringBuffer.publishAll(new int[]{-1, 6, 7, 8, 9, 10, -1}, 1, 5);
+
+        assertEquals(10L, last);
+        final List<Integer> values = new ArrayList<>();
+        for (long sequence = 6; sequence <= last; sequence++)
+        {
+            values.add(ringBuffer.get(sequence));
+        }
+        assertEquals(Arrays.asList(6, 7, 8, 9, 10), values);
+    }
+
+    @Test
+    public void shouldFailToTryPublishWhenFull()
+    {
+        ringBuffer.addGatingSequences(new Sequence());
+        ringBuffer.publishAll(new int[8], 0, 8);
+
+        assertFalse(ringBuffer.tryPublish(1));
+        assertEquals(0L, ringBuffer.remainingCapacity());
+    }
+
+    @Test
+    public void shouldRejectOutOfBoundsRange()
+    {
+        assertThrows(IndexOutOfBoundsException.class, () -> ringBuffer.publishAll(new int[4], 2, 3));
+    }
+
+    @Test
+    public void shouldDeliverBatchLargerThanBufferToProcessor() throws Exception
+    {
+        final int count = 100;
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final IntBatchEventProcessor processor = new IntBatchEventProcessor(
+            ringBuffer, ringBuffer.newBarrier(), (value, sequence, endOfBatch) -> received.add(value));
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        final int[] values = new int[count];
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            values[i] = i * 3;
+            expected.add(values[i]);
+        }
+        ringBuffer.publishAll(values, 0, count);
+
+        while (processor.getSequence().get() < count - 1)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertEquals(expected, received);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IpcRingBufferTest
+{
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("ipc");
+        file = directory.resolve("ring");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void shouldShareSlotsAndSequencesBetweenMappings() throws IOException
+    {
+        final IpcRingBuffer producer = IpcRingBuffer.create(file, 8, 16, 2);
+        final IpcRingBuffer consumer = IpcRingBuffer.open(file);
+
+        final long sequence = producer.next();
+        final ByteBuffer slot = producer.get(sequence);
+        slot.putLong(producer.getOffset(sequence), 42L);
+        assertFalse(consumer.isAvailable(sequence));
+        producer.publish(sequence);
+
+        assertTrue(consumer.isAvailable(sequence));
+        assertEquals(0L, consumer.getCursor());
+        assertEquals(42L, consumer.get(sequence).getLong(consumer.getOffset(sequence)));
+        assertEquals(Arrays.asList(8, 16, 2), Arrays.asList(consumer.getBufferSize(), consumer.getSlotSize(), consumer.getConsumerCount()));
+    }
+
+    @Test
+    public void shouldGateProducersOnEveryConsumerSequence() throws Exception
+    {
+        final IpcRingBuffer producer = IpcRingBuffer.create(file, 4, 8, 2);
+        final IpcRingBuffer consumer = IpcRingBuffer.open(file);
+        producer.publish(0, producer.next(4));
+
+        assertThrows(InsufficientCapacityException.class, producer::tryNext);
+
+        consumer.getConsumerSequence(0).set(1L);
+        assertEquals(0L, producer.remainingCapacity());
+
+        consumer.getConsumerSequence(1).set(0L);
+        assertEquals(1L, producer.remainingCapacity());
+        assertEquals(4L, producer.tryNext());
+    }
+
+    @Test
+    public void shouldRejectFileThatIsNotARingBuffer() throws IOException
+    {
+        Files.write(file, new byte[1024]);
+
+        assertThrows(IllegalArgumentException.class, () -> IpcRingBuffer.open(file));
+    }
+
+    @Test
+    public void shouldRefuseToReplaceExistingFile() throws IOException
+    {
+        IpcRingBuffer.create(file, 8, 16, 1);
+
+        assertThrows(FileAlreadyExistsException.class, () -> IpcRingBuffer.create(file, 8, 16, 1));
+    }
+
+    @Test
+    public void shouldRejectWaitStrategiesThatRelyOnBeingSignalled() throws IOException
+    {
+        final IpcRingBuffer ringBuffer = IpcRingBuffer.create(file, 8, 16, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> ringBuffer.newBarrier(0, new BlockingWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> ringBuffer.newProcessor(0, new TimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS), (event, sequence, endOfBatch) -> { }));
+        ringBuffer.newBarrier(0, new BusySpinWaitStrategy());
+        ringBuffer.newBarrier(0, new SleepingWaitStrategy());
+    }
+
+    @Test
+    public void shouldCopyProgressToFileWhenSignallingProducers() throws IOException
+    {
+        final IpcRingBuffer ringBuffer = IpcRingBuffer.create(file, 8, 16, 1);
+        final IpcSequenceBarrier sequenceBarrier = (IpcSequenceBarrier) ringBuffer.newBarrier(0, new YieldingWaitStrategy());
+        final Sequence progress = new Sequence();
+        sequenceBarrier.follow(progress);
+
+        progress.set(3L);
+        sequenceBarrier.signalProducers();
+
+        assertEquals(3L, IpcRingBuffer.open(file).getConsumerSequence(0).get());
+    }
+
+    @Test
+    public void shouldResumeProcessorFromConsumerSequence() throws Exception
+    {
+        final IpcRingBuffer producer = IpcRingBuffer.create(file, 16, 8, 1);
+        producer.publish(0, producer.next(10));
+        producer.getConsumerSequence(0).set(4L);
+        final List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        final BatchEventProcessor<ByteBuffer> processor =
+            IpcRingBuffer.open(file).newProcessor(0, new YieldingWaitStrategy(), (event, sequence, endOfBatch) -> received.add(sequence));
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        while (producer.getConsumerSequence(0).get() < 9L)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList(5L, 6L, 7L, 8L, 9L), received);
+    }
+
+    @Test
+    public void shouldDeliverEventsToBatchEventProcessorThroughSharedFile() throws Exception
+    {
+        final int count = 10_000;
+        final IpcRingBuffer producer = IpcRingBuffer.create(file, 64, 8, 1);
+        final IpcRingBuffer consumer = IpcRingBuffer.open(file);
+        final List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        final EventHandler<ByteBuffer> handler = (event, sequence, endOfBatch) -> received.add(event.getLong(consumer.getOffset(sequence)));
+        final BatchEventProcessor<ByteBuffer> processor = consumer.newProcessor(0, new YieldingWaitStrategy(), handler);
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        final List<Long> expected = new ArrayList<>();
+        for (long i = 0; i < count; i++)
+        {
+            final long sequence = producer.next();
+            final ByteBuffer slot = producer.get(sequence);
+            slot.putLong(producer.getOffset(sequence), i * 7);
+            producer.publish(sequence);
+            expected.add(i * 7);
+        }
+
+        while (producer.getConsumerSequence(0).get() < count - 1)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertEquals(expected, received);
+    }
+}
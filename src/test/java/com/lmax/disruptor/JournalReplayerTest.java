@@ -0,0 +1,128 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JournalReplayerTest
+{
+    private final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 8);
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        JournallingEventHandlerTest.deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldRepublishJournalledEventsAcrossSegmentsWithTheirSequences() throws Exception
+    {
+        journal(7, 2);
+
+        final long lastSequence = new JournalReplayer<>(directory, JournallingEventHandlerTest.CODEC).replay(ringBuffer);
+
+        assertEquals(6L, lastSequence);
+        assertEquals(6L, ringBuffer.getCursor());
+        final List<Integer> values = new ArrayList<>();
+        for (long sequence = 0; sequence <= ringBuffer.getCursor(); sequence++)
+        {
+            values.add(ringBuffer.get(sequence).getValue());
+        }
+        assertEquals(Arrays.asList(100, 101, 102, 103, 104, 105, 106), values);
+    }
+
+    @Test
+    public void shouldStopAtFirstTornRecord() throws Exception
+    {
+        journal(7, 2);
+        final Path secondSegment = JournalSegments.list(directory).get(1);
+        JournallingEventHandlerTest.tearRecord(secondSegment, JournalSegments.HEADER_LENGTH + Integer.BYTES);
+
+        final long lastSequence = new JournalReplayer<>(directory, JournallingEventHandlerTest.CODEC).replay(ringBuffer);
+
+        assertEquals(2L, lastSequence);
+        assertEquals(2L, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void shouldPublishUpToTheClaimSizeAtOnce() throws Exception
+    {
+        journal(5, 8);
+        final AtomicInteger publishCount = new AtomicInteger();
+        final WaitStrategy countingWaitStrategy = new WaitStrategy()
+        {
+            @Override
+            public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+            {
+                return dependentSequence.get();
+            }
+
+            @Override
+            public void signalAllWhenBlocking()
+            {
+                publishCount.incrementAndGet();
+            }
+        };
+        final RingBuffer<StubEvent> countingRingBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 8, countingWaitStrategy);
+
+        new JournalReplayer<>(directory, JournallingEventHandlerTest.CODEC, 2).replay(countingRingBuffer);
+
+        assertEquals(4L, countingRingBuffer.getCursor());
+        assertEquals(3, publishCount.get());
+    }
+
+    @Test
+    public void shouldReplayNothingFromAnEmptyJournal() throws Exception
+    {
+        assertEquals(Sequencer.INITIAL_CURSOR_VALUE, new JournalReplayer<>(directory, JournallingEventHandlerTest.CODEC).replay(ringBuffer));
+        assertEquals(Sequencer.INITIAL_CURSOR_VALUE, ringBuffer.getCursor());
+    }
+
+    private void journal(final int eventCount, final int eventsPerSegment) throws Exception
+    {
+        final int recordLength = JournalSegments.HEADER_LENGTH + Integer.BYTES;
+        final JournallingEventHandler<StubEvent> handler = new JournallingEventHandler<>(
+            directory, JournallingEventHandlerTest.CODEC, recordLength * eventsPerSegment, Integer.BYTES,
+            Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        handler.onStart();
+        for (int i = 0; i < eventCount; i++)
+        {
+            handler.onEvent(new StubEvent(100 + i), i, i == eventCount - 1);
+        }
+        handler.onShutdown();
+    }
+}
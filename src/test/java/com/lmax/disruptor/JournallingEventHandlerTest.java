@@ -0,0 +1,225 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JournallingEventHandlerTest
+{
+    static final JournalCodec<StubEvent> CODEC = new JournalCodec<>()
+    {
+        @Override
+        public void encode(final StubEvent event, final ByteBuffer buffer)
+        {
+            buffer.putInt(event.getValue());
+        }
+
+        @Override
+        public void decode(final ByteBuffer buffer, final StubEvent event)
+        {
+            event.setValue(buffer.getInt());
+        }
+    };
+
+    private final Sequence sequenceCallback = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldJournalEventsAndMoveSequenceOnAtEndOfBatch() throws Exception
+    {
+        final JournallingEventHandler<StubEvent> handler = newHandler(1024, 16, Long.MAX_VALUE);
+
+        handler.onEvent(new StubEvent(7), 0, false);
+        assertEquals(Sequencer.INITIAL_CURSOR_VALUE, sequenceCallback.get());
+        handler.onEvent(new StubEvent(8), 1, true);
+        assertEquals(1L, sequenceCallback.get());
+        handler.onShutdown();
+
+        assertEquals(Arrays.asList(7, 8), readValues());
+        assertEquals(1L, JournalSegments.recover(directory));
+    }
+
+    @Test
+    public void shouldRollToNewSegmentWhenFull() throws Exception
+    {
+        final int recordLength = JournalSegments.HEADER_LENGTH + Integer.BYTES;
+        final JournallingEventHandler<StubEvent> handler = newHandler(recordLength * 2, Integer.BYTES, Long.MAX_VALUE);
+
+        for (int i = 0; i < 5; i++)
+        {
+            handler.onEvent(new StubEvent(i), i, i == 4);
+        }
+        handler.onShutdown();
+
+        final List<Path> segments = JournalSegments.list(directory);
+        assertEquals(3, segments.size());
+        assertEquals(Arrays.asList(0L, 2L, 4L), Arrays.asList(
+            JournalSegments.firstSequence(segments.get(0)),
+            JournalSegments.firstSequence(segments.get(1)),
+            JournalSegments.firstSequence(segments.get(2))));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), readValues());
+    }
+
+    @Test
+    public void shouldCommitWithinBatchOnceByteBudgetIsReached() throws Exception
+    {
+        final JournallingEventHandler<StubEvent> handler = newHandler(1024, 16, 2 * (JournalSegments.HEADER_LENGTH + Integer.BYTES));
+
+        handler.onEvent(new StubEvent(0), 0, false);
+        assertEquals(Sequencer.INITIAL_CURSOR_VALUE, sequenceCallback.get());
+        handler.onEvent(new StubEvent(1), 1, false);
+        assertEquals(1L, sequenceCallback.get());
+        handler.onEvent(new StubEvent(2), 2, false);
+        assertEquals(1L, sequenceCallback.get());
+        handler.onShutdown();
+
+        assertEquals(2L, sequenceCallback.get());
+    }
+
+    @Test
+    public void shouldNotJournalReplayedEventsAgainWhenRestarted() throws Exception
+    {
+        final JournallingEventHandler<StubEvent> first = newHandler(1024, 16, Long.MAX_VALUE);
+        first.onEvent(new StubEvent(10), 0, false);
+        first.onEvent(new StubEvent(11), 1, true);
+        first.onShutdown();
+
+        final JournallingEventHandler<StubEvent> second = newHandler(1024, 16, Long.MAX_VALUE);
+        second.onEvent(new StubEvent(10), 0, false);
+        second.onEvent(new StubEvent(11), 1, false);
+        second.onEvent(new StubEvent(12), 2, true);
+        second.onShutdown();
+
+        assertEquals(Arrays.asList(10, 11, 12), readValues());
+        assertEquals(2, JournalSegments.list(directory).size());
+    }
+
+    @Test
+    public void shouldFailOnEventNotReplayedFromTheJournalWhenRestarted() throws Exception
+    {
+        final JournallingEventHandler<StubEvent> first = newHandler(1024, 16, Long.MAX_VALUE);
+        first.onEvent(new StubEvent(10), 0, false);
+        first.onEvent(new StubEvent(11), 1, true);
+        first.onShutdown();
+
+        final JournallingEventHandler<StubEvent> second = newHandler(1024, 16, Long.MAX_VALUE);
+        assertThrows(IllegalStateException.class, () -> second.onEvent(new StubEvent(20), 0, false));
+
+        assertEquals(Arrays.asList(10, 11), readValues());
+    }
+
+    @Test
+    public void shouldCutJournalOffAtTornRecordWhenRestarted() throws Exception
+    {
+        final JournallingEventHandler<StubEvent> first = newHandler(1024, 16, Long.MAX_VALUE);
+        first.onEvent(new StubEvent(10), 0, false);
+        first.onEvent(new StubEvent(11), 1, false);
+        first.onEvent(new StubEvent(12), 2, true);
+        first.onShutdown();
+        tearRecord(JournalSegments.list(directory).get(0), JournalSegments.HEADER_LENGTH + Integer.BYTES);
+
+        final JournallingEventHandler<StubEvent> second = newHandler(1024, 16, Long.MAX_VALUE);
+        second.onEvent(new StubEvent(10), 0, false);
+        second.onEvent(new StubEvent(21), 1, true);
+        second.onShutdown();
+
+        assertEquals(Arrays.asList(10, 21), readValues());
+    }
+
+    @Test
+    public void shouldRejectSegmentTooSmallForARecord()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new JournallingEventHandler<>(
+            directory, CODEC, JournalSegments.HEADER_LENGTH, 1, Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS));
+    }
+
+    private JournallingEventHandler<StubEvent> newHandler(final int segmentSize, final int maxRecordLength, final long commitBytes)
+    {
+        final JournallingEventHandler<StubEvent> handler = new JournallingEventHandler<>(
+            directory, CODEC, segmentSize, maxRecordLength, commitBytes, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        handler.setSequenceCallback(sequenceCallback);
+        handler.onStart();
+        return handler;
+    }
+
+    private List<Integer> readValues() throws IOException
+    {
+        final List<Integer> values = new ArrayList<>();
+        final JournalSegments.Reader reader = new JournalSegments.Reader(directory);
+        while (reader.next())
+        {
+            values.add(reader.payload().getInt());
+        }
+        return values;
+    }
+
+    /**
+     * Flip a byte of the event of the record at an offset, as if the page holding it had not been written.
+     */
+    static void tearRecord(final Path segment, final int offset) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            final int index = offset + JournalSegments.HEADER_LENGTH;
+            buffer.put(index, (byte) ~buffer.get(index));
+            buffer.force();
+        }
+    }
+
+    static void deleteRecursively(final Path directory) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
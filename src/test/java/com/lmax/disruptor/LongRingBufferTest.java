@@ -0,0 +1,111 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongRingBufferTest
+{
+    private final LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(8, new BlockingWaitStrategy());
+
+    @Test
+    public void shouldPublishAndGetValues()
+    {
+        final long first = ringBuffer.publish(42L);
+        final long second = ringBuffer.publish(Double.doubleToRawLongBits(1.5));
+
+        assertEquals(Arrays.asList(0L, 1L), Arrays.asList(first, second));
+        assertEquals(42L, ringBuffer.get(0));
+        assertEquals(1.5, Double.longBitsToDouble(ringBuffer.get(1)));
+        assertEquals(1L, ringBuffer.getCursor());
+        assertTrue(ringBuffer.isAvailable(1));
+    }
+
+    @Test
+    public void shouldPublishAllAcrossTheWrapPoint()
+    {
+        final Sequence gate = new Sequence();
+        ringBuffer.addGatingSequences(gate);
+        ringBuffer.publishAll(new long[]{0, 1, 2, 3, 4, 5}, 0, 6);
+        gate.set(5);
+
+        final long last = ringBuffer.publishAll(new long[]{-1, 6, 7, 8, 9, 10, -1}, 1, 5);
+
+        assertEquals(10L, last);
+        final List<Long> values = new ArrayList<>();
+        for (long sequence = 6; sequence <= last; sequence++)
+        {
+            values.add(ringBuffer.get(sequence));
+        }
+        assertEquals(Arrays.asList(6L, 7L, 8L, 9L, 10L), values);
+    }
+
+    @Test
+    public void shouldFailToTryPublishWhenFull()
+    {
+        ringBuffer.addGatingSequences(new Sequence());
+        ringBuffer.publishAll(new long[8], 0, 8);
+
+        assertFalse(ringBuffer.tryPublish(1L));
+        assertEquals(0L, ringBuffer.remainingCapacity());
+    }
+
+    @Test
+    public void shouldRejectOutOfBoundsRange()
+    {
+        assertThrows(IndexOutOfBoundsException.class, () -> ringBuffer.publishAll(new long[4], 2, 3));
+    }
+
+    @Test
+    public void shouldDeliverBatchLargerThanBufferToProcessor() throws Exception
+    {
+        final int count = 100;
+        final List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        final LongBatchEventProcessor processor = new LongBatchEventProcessor(
+            ringBuffer, ringBuffer.newBarrier(), (value, sequence, endOfBatch) -> received.add(value));
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        final long[] values = new long[count];
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            values[i] = i * 3L;
+            expected.add(values[i]);
+        }
+        ringBuffer.publishAll(values, 0, count);
+
+        while (processor.getSequence().get() < count - 1)
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        thread.join();
+
+        assertEquals(expected, received);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiBufferBatchEventProcessorTest
+{
+    private static final EventTranslatorOneArg<LongEvent, Long> TRANSLATOR = (event, sequence, value) -> event.set(value);
+
+    private final WaitStrategy waitStrategy = new BlockingWaitStrategy();
+    @SuppressWarnings("unchecked")
+    private final RingBuffer<LongEvent>[] ringBuffers = new RingBuffer[]
+        {
+            RingBuffer.createSingleProducer(LongEvent.FACTORY, 16, waitStrategy),
+            RingBuffer.createSingleProducer(LongEvent.FACTORY, 16, waitStrategy)
+        };
+
+    @Test
+    public void shouldConsumeFromEveryRingWithEndOfBatchOnLastEventOfPass() throws Exception
+    {
+        final List<String> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final MultiBufferBatchEventProcessor<LongEvent> processor = build(
+            (event, sequence, endOfBatch) ->
+            {
+                received.add(event.get() + ":" + endOfBatch);
+                latch.countDown();
+            });
+
+        ringBuffers[0].publishEvent(TRANSLATOR, 1L);
+        ringBuffers[0].publishEvent(TRANSLATOR, 2L);
+        ringBuffers[1].publishEvent(TRANSLATOR, 10L);
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList("1:false", "2:false", "10:true"), received);
+        assertEquals(2L, processor.getSequence().get());
+        assertEquals(1L, processor.getSequences()[0].get());
+        assertEquals(0L, processor.getSequences()[1].get());
+    }
+
+    @Test
+    public void shouldWakeWhenAnyRingIsPublished() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final MultiBufferBatchEventProcessor<LongEvent> processor = build((event, sequence, endOfBatch) -> latch.countDown());
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        ringBuffers[1].publishEvent(TRANSLATOR, 1L);
+        ringBuffers[0].publishEvent(TRANSLATOR, 2L);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+    }
+
+    @Test
+    public void shouldBeHeldBackByEachRingsGatingSequence() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(16);
+        final MultiBufferBatchEventProcessor<LongEvent> processor = build((event, sequence, endOfBatch) -> latch.countDown());
+
+        for (int i = 0; i < 16; i++)
+        {
+            ringBuffers[1].publishEvent(TRANSLATOR, (long) i);
+        }
+        assertEquals(0L, ringBuffers[1].remainingCapacity());
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(16L, ringBuffers[1].remainingCapacity());
+        assertEquals(16L, ringBuffers[0].remainingCapacity());
+    }
+
+    @Test
+    public void shouldRewindOnlyEventsOfTheCurrentRing() throws Exception
+    {
+        final List<Long> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final boolean[] rewound = {false};
+        final RewindableEventHandler<LongEvent> handler = (event, sequence, endOfBatch) ->
+        {
+            if (event.get() == 11L && !rewound[0])
+            {
+                rewound[0] = true;
+                throw new RewindableException(null);
+            }
+
+            received.add(event.get());
+            if (endOfBatch)
+            {
+                latch.countDown();
+            }
+        };
+
+        final MultiBufferBatchEventProcessor<LongEvent> processor =
+            new BatchEventProcessorBuilder().build(ringBuffers, handler, new SimpleBatchRewindStrategy());
+        addGatingSequences(processor);
+
+        ringBuffers[0].publishEvent(TRANSLATOR, 1L);
+        ringBuffers[1].publishEvent(TRANSLATOR, 10L);
+        ringBuffers[1].publishEvent(TRANSLATOR, 11L);
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList(1L, 10L, 10L, 11L), received);
+    }
+
+    @Test
+    public void shouldHandleExceptionAndMoveOn() throws Exception
+    {
+        final List<Long> failed = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final MultiBufferBatchEventProcessor<LongEvent> processor = build(
+            (event, sequence, endOfBatch) ->
+            {
+                if (event.get() == 1L)
+                {
+                    throw new IllegalStateException();
+                }
+                latch.countDown();
+            });
+        processor.setExceptionHandler(new ExceptionHandler<>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final LongEvent event)
+            {
+                failed.add(event.get());
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+
+        ringBuffers[1].publishEvent(TRANSLATOR, 1L);
+        ringBuffers[1].publishEvent(TRANSLATOR, 2L);
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList(1L), failed);
+        assertEquals(1L, processor.getSequences()[1].get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRejectRingBuffersWithDifferentWaitStrategies()
+    {
+        final RingBuffer<LongEvent>[] mismatched = new RingBuffer[]
+            {
+                RingBuffer.createSingleProducer(LongEvent.FACTORY, 16, waitStrategy),
+                RingBuffer.createSingleProducer(LongEvent.FACTORY, 16, new BlockingWaitStrategy())
+            };
+
+        assertThrows(IllegalArgumentException.class, () ->
+            new BatchEventProcessorBuilder().build(mismatched, (event, sequence, endOfBatch) -> { }));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRejectMultiProducerRingBuffers()
+    {
+        final RingBuffer<LongEvent>[] multiProducer = new RingBuffer[]
+            {
+                RingBuffer.createSingleProducer(LongEvent.FACTORY, 16, waitStrategy),
+                RingBuffer.createMultiProducer(LongEvent.FACTORY, 16, waitStrategy)
+            };
+
+        assertThrows(IllegalArgumentException.class, () ->
+            new BatchEventProcessorBuilder().build(multiProducer, (event, sequence, endOfBatch) -> { }));
+    }
+
+    @Test
+    public void shouldNotAllowMergedSequenceToBeChanged()
+    {
+        final Sequence sequence = build((event, seq, endOfBatch) -> { }).getSequence();
+
+        assertThrows(UnsupportedOperationException.class, () -> sequence.set(1L));
+        assertThrows(UnsupportedOperationException.class, () -> sequence.setVolatile(1L));
+        assertThrows(UnsupportedOperationException.class, () -> sequence.compareAndSet(-1L, 1L));
+        assertThrows(UnsupportedOperationException.class, sequence::incrementAndGet);
+        assertThrows(UnsupportedOperationException.class, () -> sequence.addAndGet(1L));
+        assertThrows(UnsupportedOperationException.class, () -> sequence.getAndAdd(1L));
+    }
+
+    private MultiBufferBatchEventProcessor<LongEvent> build(final EventHandler<LongEvent> handler)
+    {
+        final MultiBufferBatchEventProcessor<LongEvent> processor = new BatchEventProcessorBuilder().build(ringBuffers, handler);
+        addGatingSequences(processor);
+
+        return processor;
+    }
+
+    private void addGatingSequences(final MultiBufferBatchEventProcessor<LongEvent> processor)
+    {
+        final Sequence[] sequences = processor.getSequences();
+        for (int i = 0; i < ringBuffers.length; i++)
+        {
+            ringBuffers[i].addGatingSequences(sequences[i]);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package com.lmax.disruptor;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -38,4 +40,78 @@ public class MultiProducerSequencerTest
         assertThat(publisher.isAvailable(5), is(true));
         assertThat(publisher.isAvailable(6), is(false));
     }
+
+    @Test
+    public void shouldMakeEverySlotOfPublishedRangeAvailable()
+    {
+        publisher.publish(10, 20);
+
+        assertThat(publisher.isAvailable(9), is(false));
+        for (long sequence = 10; sequence <= 20; sequence++)
+        {
+            assertThat(publisher.isAvailable(sequence), is(true));
+        }
+        assertThat(publisher.isAvailable(21), is(false));
+    }
+
+    @Test
+    public void shouldFindHighestPublishedSequenceAcrossRanges()
+    {
+        publisher.publish(0, 255);
+        publisher.publish(256, 511);
+        publisher.publish(513);
+
+        assertThat(publisher.getHighestPublishedSequence(0, 1023), is(511L));
+        assertThat(publisher.getHighestPublishedSequence(100, 600), is(511L));
+        assertThat(publisher.getHighestPublishedSequence(0, 300), is(300L));
+    }
+
+    @Test
+    public void shouldPublishRangeThatWrapsTheBuffer()
+    {
+        final Sequencer sequencer = new MultiProducerSequencer(8, new BlockingWaitStrategy());
+        sequencer.publish(0, 5);
+
+        sequencer.publish(6, 10);
+
+        for (long sequence = 0; sequence <= 10; sequence++)
+        {
+            assertThat(sequencer.isAvailable(sequence), is(sequence > 2));
+        }
+        assertThat(sequencer.getHighestPublishedSequence(6, 12), is(10L));
+        assertThat(sequencer.getHighestPublishedSequence(3, 10), is(10L));
+    }
+
+    @Test
+    public void shouldIgnoreRangeMarkerFromPreviousLap()
+    {
+        final Sequencer sequencer = new MultiProducerSequencer(8, new BlockingWaitStrategy());
+        sequencer.publish(0, 7);
+        sequencer.publish(8);
+
+        assertThat(sequencer.getHighestPublishedSequence(8, 15), is(8L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {8, 32, 1024})
+    public void shouldTrackAvailabilityWithStripedLayout(final int bufferSize)
+    {
+        final Sequencer sequencer = new MultiProducerSequencer(
+            bufferSize, new BlockingWaitStrategy(), new BlockingWaitStrategy(), MultiProducerSequencer.AvailabilityLayout.STRIPED);
+
+        for (long sequence = 0; sequence < bufferSize * 2L; sequence += 2)
+        {
+            sequencer.publish(sequence);
+        }
+
+        for (long sequence = bufferSize; sequence < bufferSize * 2L; sequence++)
+        {
+            assertThat(sequencer.isAvailable(sequence), is(sequence % 2 == 0));
+        }
+
+        sequencer.publish(bufferSize * 2L + 1, bufferSize * 3L - 1);
+        sequencer.publish(bufferSize * 2L);
+
+        assertThat(sequencer.getHighestPublishedSequence(bufferSize * 2L, bufferSize * 3L), is(bufferSize * 3L - 1));
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapRingBufferTest
+{
+    private static final int SLOT_SIZE = 16;
+
+    private final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createMultiProducer(32, SLOT_SIZE, new BlockingWaitStrategy());
+    private final EventTranslatorTwoArg<ByteBuffer, Long, Long> translator = translator(ringBuffer);
+    private final SequenceBarrier sequenceBarrier = ringBuffer.newBarrier();
+
+    @Test
+    public void shouldClaimAndGet() throws Exception
+    {
+        ringBuffer.publishEvent(translator, 7L, 11L);
+
+        long sequence = sequenceBarrier.waitFor(0);
+        assertEquals(0L, sequence);
+
+        ByteBuffer event = ringBuffer.get(sequence);
+        assertEquals(7L, event.getLong(ringBuffer.getOffset(sequence)));
+        assertEquals(11L, event.getLong(ringBuffer.getOffset(sequence) + Long.BYTES));
+    }
+
+    @Test
+    public void shouldOffsetEachSlot()
+    {
+        assertEquals(3 * SLOT_SIZE, ringBuffer.getOffset(3));
+        assertEquals(3 * SLOT_SIZE, ringBuffer.getOffset(3 + ringBuffer.getBufferSize()));
+    }
+
+    @Test
+    public void shouldShareOneBufferWhosePositionIsNeverMoved()
+    {
+        final ByteBuffer event = ringBuffer.get(31);
+
+        assertSame(event, ringBuffer.get(0));
+        assertEquals(0, event.position());
+        assertEquals(32 * SLOT_SIZE, event.limit());
+    }
+
+    @Test
+    public void shouldPublishBatchOfEvents() throws Exception
+    {
+        ringBuffer.publishEvents(translator, new Long[]{1L, 2L, 3L}, new Long[]{4L, 5L, 6L});
+
+        assertEquals(2L, sequenceBarrier.waitFor(2));
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(i + 1L, ringBuffer.get(i).getLong(ringBuffer.getOffset(i)));
+        }
+    }
+
+    @Test
+    public void shouldPreventWrapping()
+    {
+        final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createSingleProducer(4, SLOT_SIZE, new BlockingWaitStrategy());
+        final EventTranslatorTwoArg<ByteBuffer, Long, Long> translator = translator(ringBuffer);
+        final Sequence sequence = new Sequence();
+        ringBuffer.addGatingSequences(sequence);
+
+        for (long i = 0; i < 4; i++)
+        {
+            assertTrue(ringBuffer.tryPublishEvent(translator, i, i));
+        }
+
+        assertFalse(ringBuffer.tryPublishEvent(translator, 4L, 4L));
+
+        sequence.set(0);
+        assertTrue(ringBuffer.tryPublishEvent(translator, 4L, 4L));
+        assertEquals(4L, ringBuffer.get(4).getLong(ringBuffer.getOffset(4)));
+    }
+
+    @Test
+    public void shouldConsumeWithBatchEventProcessor() throws Exception
+    {
+        final int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicLong total = new AtomicLong();
+        final EventHandler<ByteBuffer> handler = (event, sequence, endOfBatch) ->
+        {
+            final int offset = ringBuffer.getOffset(sequence);
+            total.addAndGet(event.getLong(offset) + event.getLong(offset + Long.BYTES));
+            if (sequence == count - 1)
+            {
+                latch.countDown();
+            }
+        };
+
+        final BatchEventProcessor<ByteBuffer> processor =
+            new BatchEventProcessorBuilder().build(ringBuffer, ringBuffer.newBarrier(), handler);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        for (long i = 0; i < count; i++)
+        {
+            ringBuffer.publishEvent(translator, i, 1L);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(((count - 1L) * count) / 2 + count, total.get());
+    }
+
+    @Test
+    public void shouldUseMemoryMappedRegion() throws Exception
+    {
+        final File file = File.createTempFile("disruptor-offheap", ".dat");
+        file.deleteOnExit();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel())
+        {
+            final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, 0, 8 * SLOT_SIZE);
+            final OffHeapRingBuffer ringBuffer =
+                OffHeapRingBuffer.create(ProducerType.SINGLE, region, 8, SLOT_SIZE, new BlockingWaitStrategy());
+
+            ringBuffer.publishEvent(translator(ringBuffer), 42L, 43L);
+
+            region.order(ByteOrder.nativeOrder());
+            assertEquals(42L, region.getLong(0));
+            assertEquals(43L, region.getLong(Long.BYTES));
+        }
+    }
+
+    @Test
+    public void shouldRejectHeapRegion()
+    {
+        assertThrows(IllegalArgumentException.class, () ->
+            OffHeapRingBuffer.create(ProducerType.SINGLE, ByteBuffer.allocate(64), 4, SLOT_SIZE, new BlockingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldRejectRegionTooSmallForSlots()
+    {
+        assertThrows(IllegalArgumentException.class, () ->
+            OffHeapRingBuffer.create(ProducerType.SINGLE, ByteBuffer.allocateDirect(63), 4, SLOT_SIZE, new BlockingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldRejectRegionLargerThanIntegerRange()
+    {
+        assertThrows(IllegalArgumentException.class, () ->
+            OffHeapRingBuffer.createSingleProducer(1 << 30, 4, new BlockingWaitStrategy()));
+    }
+
+    private static EventTranslatorTwoArg<ByteBuffer, Long, Long> translator(final OffHeapRingBuffer ringBuffer)
+    {
+        return (event, sequence, a, b) ->
+        {
+            final int offset = ringBuffer.getOffset(sequence);
+            event.putLong(offset, a).putLong(offset + Long.BYTES, b);
+        };
+    }
+}
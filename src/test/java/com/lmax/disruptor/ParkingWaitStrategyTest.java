@@ -0,0 +1,151 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.DummySequenceBarrier;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.lmax.disruptor.support.WaitStrategyTestUtil.assertWaitForWithDelayOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParkingWaitStrategyTest
+{
+    @Test
+    public void shouldWaitForValue() throws Exception
+    {
+        assertWaitForWithDelayOf(50, new ParkingWaitStrategy());
+    }
+
+    @Test
+    public void shouldParkUntilSignalledThatTheCursorHasAdvanced() throws Exception
+    {
+        final ParkingWaitStrategy waitStrategy = new ParkingWaitStrategy();
+        final Sequence cursor = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        final AtomicLong available = new AtomicLong(Long.MIN_VALUE);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                available.set(waitStrategy.waitFor(0, cursor, cursor, new DummySequenceBarrier()));
+            }
+            catch (final Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+            done.countDown();
+        });
+        waiter.start();
+
+        Thread.sleep(50);
+        cursor.set(0);
+        waitStrategy.signalAllWhenBlocking();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(0L, available.get());
+        waiter.join();
+    }
+
+    @Test
+    public void shouldParkWithoutTimeoutWhileNothingIsPublished() throws Exception
+    {
+        final ParkingWaitStrategy waitStrategy = new ParkingWaitStrategy();
+        final Sequence cursor = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        final Thread waiter = startWaiter(waitStrategy, cursor, cursor);
+
+        awaitState(waiter, Thread.State.WAITING);
+        cursor.set(0);
+        waitStrategy.signalAllWhenBlocking();
+
+        waiter.join();
+    }
+
+    @Test
+    public void shouldParkRatherThanYieldWhileDependencyLags() throws Exception
+    {
+        final ParkingWaitStrategy waitStrategy = new ParkingWaitStrategy();
+        final Sequence cursor = new Sequence(0);
+        final Sequence dependency = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        final Thread waiter = startWaiter(waitStrategy, cursor, dependency);
+
+        awaitState(waiter, Thread.State.TIMED_WAITING);
+        dependency.set(0);
+
+        waiter.join();
+    }
+
+    @Test
+    public void shouldWakeWhenBarrierIsAlerted() throws Exception
+    {
+        final RingBuffer<Object> ringBuffer = RingBuffer.createSingleProducer(Object::new, 8, new ParkingWaitStrategy());
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final CountDownLatch alerted = new CountDownLatch(1);
+
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                barrier.waitFor(0);
+            }
+            catch (final AlertException e)
+            {
+                alerted.countDown();
+            }
+            catch (final Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+        waiter.start();
+
+        Thread.sleep(50);
+        barrier.alert();
+
+        assertTrue(alerted.await(2, TimeUnit.SECONDS));
+        waiter.join();
+    }
+
+    private static Thread startWaiter(final ParkingWaitStrategy waitStrategy, final Sequence cursor, final Sequence dependency)
+    {
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                waitStrategy.waitFor(0, cursor, dependency, new DummySequenceBarrier());
+            }
+            catch (final Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+        waiter.start();
+        return waiter;
+    }
+
+    private static void awaitState(final Thread thread, final Thread.State state)
+    {
+        while (thread.getState() != state)
+        {
+            Thread.yield();
+        }
+    }
+}
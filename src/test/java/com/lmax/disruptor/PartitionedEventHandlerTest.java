@@ -0,0 +1,135 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PartitionedEventHandlerTest
+{
+    private static final ToLongFunction<StubEvent> KEY = StubEvent::getValue;
+
+    private final RingBuffer<StubEvent> ringBuffer = new RingBufferBuilder<StubEvent>()
+        .setProducerType(ProducerType.SINGLE)
+        .publishKeys(KEY)
+        .build(StubEvent.EVENT_FACTORY, 16);
+    private final PublishedKeys<StubEvent> publishedKeys = ringBuffer.getPublishedKeys();
+    private final List<String> received = new ArrayList<>();
+    private final EventHandler<StubEvent> recordingHandler = new EventHandler<>()
+    {
+        @Override
+        public void onBatchStart(final long batchSize, final long queueDepth)
+        {
+            received.add("batch " + batchSize + "/" + queueDepth);
+        }
+
+        @Override
+        public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+        {
+            received.add(sequence + ":" + endOfBatch);
+        }
+    };
+
+    @Test
+    public void shouldRecordKeysWhenPublished()
+    {
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 7, "");
+        ringBuffer.publishEvents(StubEvent.TRANSLATOR, new Integer[]{-3, 4}, new String[]{"", ""});
+
+        assertEquals(7L, publishedKeys.getKey(0));
+        assertEquals(-3L, publishedKeys.getKey(1));
+        assertEquals(4L, publishedKeys.getKey(2));
+        assertEquals(1, publishedKeys.getPartition(1, 2));
+    }
+
+    @Test
+    public void shouldOnlyPassOnEventsOfThePartition() throws Exception
+    {
+        publish(0, 1, 2, 3, 4, 5);
+        final PartitionedEventHandler<StubEvent> handler = new PartitionedEventHandler<>(recordingHandler, publishedKeys, 1, 2);
+
+        dispatch(handler, 0, 3, 6);
+        dispatch(handler, 4, 5, 2);
+
+        assertEquals(Arrays.asList("batch 2/4", "1:false", "3:true", "batch 1/1", "5:true"), received);
+    }
+
+    @Test
+    public void shouldNotPassOnBatchesWithoutEventsOfThePartition() throws Exception
+    {
+        publish(0, 2, 4, 1);
+        final PartitionedEventHandler<StubEvent> handler = new PartitionedEventHandler<>(recordingHandler, publishedKeys, 1, 2);
+
+        dispatch(handler, 0, 2, 4);
+        dispatch(handler, 3, 3, 1);
+
+        assertEquals(Arrays.asList("batch 1/1", "3:true"), received);
+    }
+
+    @Test
+    public void shouldPublishEventWhenKeyExtractorThrows()
+    {
+        final RingBuffer<StubEvent> throwingRingBuffer = new RingBufferBuilder<StubEvent>()
+            .publishKeys(event ->
+            {
+                throw new IllegalStateException();
+            })
+            .build(StubEvent.EVENT_FACTORY, 16);
+
+        assertThrows(IllegalStateException.class, () -> throwingRingBuffer.publishEvent(StubEvent.TRANSLATOR, 7, ""));
+        assertThrows(IllegalStateException.class, () -> throwingRingBuffer.publishEvents(
+            StubEvent.TRANSLATOR, new Integer[]{1, 2}, new String[]{"", ""}));
+
+        assertEquals(2L, throwingRingBuffer.getCursor());
+        assertTrue(throwingRingBuffer.isAvailable(0L));
+        assertTrue(throwingRingBuffer.isAvailable(2L));
+    }
+
+    @Test
+    public void shouldRejectPartitionOutOfRange()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedEventHandler<>(recordingHandler, publishedKeys, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedEventHandler<>(recordingHandler, publishedKeys, -1, 2));
+    }
+
+    private void publish(final int... keys)
+    {
+        for (int key : keys)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, key, "");
+        }
+    }
+
+    private void dispatch(final PartitionedEventHandler<StubEvent> handler, final long lo, final long hi, final long queueDepth)
+        throws Exception
+    {
+        handler.onBatchStart(hi - lo + 1, queueDepth);
+        for (long sequence = lo; sequence <= hi; sequence++)
+        {
+            handler.onEvent(ringBuffer.get(sequence), sequence, sequence == hi);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.lmax.disruptor.RingBuffer.createSingleProducer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class PublishTimestampsTest
+{
+    private RingBuffer<StubEvent> ringBuffer = createSingleProducer(StubEvent.EVENT_FACTORY, 16);
+
+    @Test
+    public void shouldNotSampleByDefault()
+    {
+        assertNull(ringBuffer.getPublishTimestamps());
+    }
+
+    @Test
+    public void shouldStampOnlySampledSequences()
+    {
+        final PublishTimestamps timestamps = samplePublishTimestamps(4);
+        final long before = System.nanoTime();
+
+        for (int i = 0; i < 6; i++)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, i, "");
+        }
+
+        assertTrue(timestamps.getTimestamp(0) >= before);
+        assertTrue(timestamps.getTimestamp(4) >= timestamps.getTimestamp(0));
+        assertEquals(0L, timestamps.getTimestamp(1));
+        assertEquals(0L, timestamps.getTimestamp(5));
+    }
+
+    @Test
+    public void shouldStampSampledSequencesOfBatch()
+    {
+        final PublishTimestamps timestamps = samplePublishTimestamps(2);
+        final long before = System.nanoTime();
+
+        final long hi = ringBuffer.next(5);
+        ringBuffer.publish(hi - 4, hi);
+
+        assertTrue(timestamps.getTimestamp(0) >= before);
+        assertEquals(timestamps.getTimestamp(0), timestamps.getTimestamp(2));
+        assertEquals(timestamps.getTimestamp(0), timestamps.getTimestamp(4));
+        assertEquals(0L, timestamps.getTimestamp(3));
+    }
+
+    @Test
+    public void shouldFindNextSampledSequence()
+    {
+        final PublishTimestamps timestamps = samplePublishTimestamps(8);
+
+        assertEquals(0L, timestamps.nextSampledSequence(0));
+        assertEquals(8L, timestamps.nextSampledSequence(1));
+        assertEquals(8L, timestamps.nextSampledSequence(8));
+        assertEquals(16L, timestamps.nextSampledSequence(9));
+    }
+
+    @Test
+    public void shouldRejectSampleIntervalThatIsNotPowerOfTwo()
+    {
+        final RingBufferBuilder<StubEvent> builder = new RingBufferBuilder<>();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.samplePublishTimestamps(3));
+        assertThrows(IllegalArgumentException.class, () -> builder.samplePublishTimestamps(0));
+    }
+
+    @Test
+    public void shouldReportLatencyOfSampledSequencesToMetrics() throws Exception
+    {
+        final PublishTimestamps timestamps = samplePublishTimestamps(4);
+        final List<Long> latencies = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(10);
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessorBuilder()
+            .setMetrics(new EventProcessorMetrics()
+            {
+                @Override
+                public void onBatch(final long batchSize, final long queueDepth, final long waitNanos, final long handlerNanos)
+                {
+                }
+
+                @Override
+                public void onPublishLatency(final long latencyNanos)
+                {
+                    latencies.add(latencyNanos);
+                }
+
+                @Override
+                public void onRewind()
+                {
+                }
+
+                @Override
+                public void onEventException()
+                {
+                }
+            })
+            .setPublishTimestamps(timestamps)
+            .build(ringBuffer, ringBuffer.newBarrier(), (event, sequence, endOfBatch) -> latch.countDown());
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        for (int i = 0; i < 10; i++)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, i, "");
+        }
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(3, latencies.size());
+        for (final long latency : latencies)
+        {
+            assertTrue(latency >= 0);
+        }
+    }
+
+    private PublishTimestamps samplePublishTimestamps(final int sampleInterval)
+    {
+        ringBuffer = new RingBufferBuilder<StubEvent>()
+            .setProducerType(ProducerType.SINGLE)
+            .samplePublishTimestamps(sampleInterval)
+            .build(StubEvent.EVENT_FACTORY, 16);
+
+        return ringBuffer.getPublishTimestamps();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RingBufferPublisherTest
+{
+    private static final EventTranslatorOneArg<LongEvent, Long> TRANSLATOR = (event, sequence, value) -> event.set(value);
+
+    private final RingBuffer<LongEvent> ringBuffer =
+        RingBuffer.createSingleProducer(LongEvent.FACTORY, 8, new BlockingWaitStrategy());
+    private final RingBufferPublisher<LongEvent> publisher = new RingBufferPublisher<>(ringBuffer, DaemonThreadFactory.INSTANCE);
+    private final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+    @AfterEach
+    public void tearDown()
+    {
+        publisher.close();
+    }
+
+    @Test
+    public void shouldOnlyPassOnRequestedEvents() throws Exception
+    {
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription().request(2);
+
+        publish(1, 2, 3, 4, 5);
+
+        subscriber.awaitValues(2);
+        assertEquals(Arrays.asList(1L, 2L), subscriber.values());
+        assertEquals(5L, ringBuffer.remainingCapacity());
+
+        subscriber.subscription.request(3);
+
+        subscriber.awaitValues(5);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), subscriber.values());
+    }
+
+    @Test
+    public void shouldHoldBackPublishersUntilEventsAreRequested() throws Exception
+    {
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription();
+
+        publish(1, 2, 3, 4, 5, 6, 7, 8);
+        assertFalse(ringBuffer.tryPublishEvent(TRANSLATOR, 9L));
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.awaitValues(8);
+
+        assertTrue(ringBuffer.tryPublishEvent(TRANSLATOR, 9L));
+        subscriber.awaitValues(9);
+    }
+
+    @Test
+    public void shouldStopHoldingBackPublishersWhenCancelled() throws Exception
+    {
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription().cancel();
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        int published = 0;
+        while (published < 16 && System.nanoTime() < deadline)
+        {
+            if (ringBuffer.tryPublishEvent(TRANSLATOR, (long) published))
+            {
+                published++;
+            }
+            else
+            {
+                Thread.yield();
+            }
+        }
+
+        assertEquals(16, published);
+        assertTrue(subscriber.values().isEmpty());
+        assertEquals(1, subscriber.completed.getCount());
+    }
+
+    @Test
+    public void shouldSignalErrorForNonPositiveRequest() throws Exception
+    {
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription().request(0);
+
+        assertTrue(subscriber.failed.await(2, TimeUnit.SECONDS));
+        assertTrue(subscriber.error.get() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void shouldCompleteSubscribersWhenClosed() throws Exception
+    {
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription();
+
+        publisher.close();
+
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+    }
+
+    private void publish(final long... values)
+    {
+        for (long value : values)
+        {
+            ringBuffer.publishEvent(TRANSLATOR, value);
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<LongEvent>
+    {
+        private final List<Long> values = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(final LongEvent item)
+        {
+            values.add(item.get());
+        }
+
+        @Override
+        public void onError(final Throwable throwable)
+        {
+            error.set(throwable);
+            failed.countDown();
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed.countDown();
+        }
+
+        Flow.Subscription awaitSubscription() throws InterruptedException
+        {
+            assertTrue(subscribed.await(2, TimeUnit.SECONDS));
+            return subscription;
+        }
+
+        void awaitValues(final int count) throws InterruptedException
+        {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (values.size() < count && System.nanoTime() < deadline)
+            {
+                Thread.sleep(1);
+            }
+            assertEquals(count, values.size());
+        }
+
+        List<Long> values()
+        {
+            return new ArrayList<>(values);
+        }
+    }
+}
@@ -32,6 +32,21 @@ public final class SequenceGroupTest
         assertEquals(Long.MAX_VALUE, sequenceGroup.get());
     }
 
+    @Test
+    public void shouldReturnCursorWhenEmptyGroupFollowsCursor()
+    {
+        final Sequence cursor = new Sequence(11L);
+        final Sequence sequence = new Sequence(7L);
+        final SequenceGroup sequenceGroup = new SequenceGroup(cursor::get);
+        assertEquals(11L, sequenceGroup.get());
+
+        sequenceGroup.add(sequence);
+        assertEquals(7L, sequenceGroup.get());
+
+        sequenceGroup.remove(sequence);
+        assertEquals(11L, sequenceGroup.get());
+    }
+
     @Test
     public void shouldAddOneSequenceToGroup()
     {
@@ -8,9 +8,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.time.Duration;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -18,6 +20,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
@@ -40,6 +43,20 @@ public class SequencerTest
         return Stream.of(arguments(ProducerType.SINGLE), arguments(ProducerType.MULTI));
     }
 
+    private static Sequencer newProducer(
+        final ProducerType producerType, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return new SingleProducerSequencer(BUFFER_SIZE, waitStrategy, producerWaitStrategy);
+            case MULTI:
+                return new MultiProducerSequencer(BUFFER_SIZE, waitStrategy, producerWaitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
     private static Sequencer newProducer(final ProducerType producerType, final WaitStrategy waitStrategy)
     {
         switch (producerType)
@@ -196,6 +213,115 @@ public class SequencerTest
         assertThat(sequencer.isAvailable(6), is(false));
     }
 
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldWakeProducerBlockedOnProducerWaitStrategy(final ProducerType producerType) throws Exception
+    {
+        final Sequencer sequencer = newProducer(producerType, new BlockingWaitStrategy(), new LiteBlockingWaitStrategy());
+        sequencer.addGatingSequences(gatingSequence);
+
+        final CountDownLatch waitingLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        executor.submit(
+                () ->
+                {
+                    long sequence = sequencer.next(BUFFER_SIZE);
+                    sequencer.publish(sequence - (BUFFER_SIZE - 1), sequence);
+
+                    waitingLatch.countDown();
+
+                    sequencer.publish(sequencer.next());
+                    doneLatch.countDown();
+                });
+
+        waitingLatch.await();
+        assertFalse(doneLatch.await(10, TimeUnit.MILLISECONDS));
+
+        gatingSequence.set(0);
+        sequencer.newBarrier().signalProducers();
+
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+        assertThat(sequencer.getCursor(), is((long) BUFFER_SIZE));
+    }
+
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldWakeProducerBlockedOnProducerWaitStrategyWhenGatingSequenceRemoved(final ProducerType producerType)
+        throws Exception
+    {
+        final Sequencer sequencer = newProducer(producerType, new BlockingWaitStrategy(), new LiteBlockingWaitStrategy());
+        final Sequence fastSequence = new Sequence();
+        sequencer.addGatingSequences(gatingSequence, fastSequence);
+        fastSequence.set(BUFFER_SIZE);
+
+        final CountDownLatch waitingLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        executor.submit(
+                () ->
+                {
+                    long sequence = sequencer.next(BUFFER_SIZE);
+                    sequencer.publish(sequence - (BUFFER_SIZE - 1), sequence);
+
+                    waitingLatch.countDown();
+
+                    sequencer.publish(sequencer.next());
+                    doneLatch.countDown();
+                });
+
+        waitingLatch.await();
+        assertFalse(doneLatch.await(10, TimeUnit.MILLISECONDS));
+
+        assertTrue(sequencer.removeGatingSequence(gatingSequence));
+
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+        assertThat(sequencer.getCursor(), is((long) BUFFER_SIZE));
+    }
+
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldSignalProducerWaitStrategyFromBarrier(final ProducerType producerType)
+    {
+        final DummyWaitStrategy waitStrategy = new DummyWaitStrategy();
+        final DummyWaitStrategy producerWaitStrategy = new DummyWaitStrategy();
+        final Sequencer sequencer = newProducer(producerType, waitStrategy, producerWaitStrategy);
+
+        sequencer.newBarrier().signalProducers();
+
+        assertThat(producerWaitStrategy.signalProducersCalls, is(1));
+        assertThat(waitStrategy.signalAllWhenBlockingCalls, is(0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldWakeThreadAwaitingConsumerProgressWhenSignalled(final ProducerType producerType) throws Exception
+    {
+        final Sequencer sequencer = newProducer(producerType, new BlockingWaitStrategy());
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        final Thread waiter = new Thread(() ->
+        {
+            sequencer.awaitConsumerProgress(() -> true, TimeUnit.MINUTES.toNanos(1));
+            doneLatch.countDown();
+        });
+        waiter.start();
+
+        while (waiter.getState() != Thread.State.TIMED_WAITING)
+        {
+            Thread.yield();
+        }
+        sequencer.newBarrier().signalProducers();
+
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldNotParkAwaitingConsumerProgressWhenNoLongerWaiting(final ProducerType producerType)
+    {
+        final Sequencer sequencer = newProducer(producerType, new BlockingWaitStrategy());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> sequencer.awaitConsumerProgress(() -> false, Long.MAX_VALUE));
+    }
+
     @ParameterizedTest
     @MethodSource("producerTypeGenerator")
     public void shouldNotifyWaitStrategyOnPublish(final ProducerType producerType) throws Exception
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardedRingBufferTest
+{
+    private final ShardedRingBuffer<StubEvent> ringBuffer =
+        ShardedRingBuffer.create(StubEvent.EVENT_FACTORY, 3, 8, new BlockingWaitStrategy());
+
+    @Test
+    public void shouldMergeCursorsOfAllShards() throws Exception
+    {
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        assertEquals(Sequencer.INITIAL_CURSOR_VALUE, ringBuffer.getCursor());
+
+        ringBuffer.getShard(0).publishEvent(StubEvent.TRANSLATOR, 0, "a");
+        ringBuffer.getShard(2).publishEvent(StubEvent.TRANSLATOR, 1, "b");
+        ringBuffer.getShard(2).publishEvent(StubEvent.TRANSLATOR, 2, "c");
+
+        assertEquals(2L, ringBuffer.getCursor());
+        assertEquals(2L, barrier.waitFor(0));
+    }
+
+    @Test
+    public void shouldWakeBarrierWhenAnyShardIsPublished() throws Exception
+    {
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                barrier.waitFor(0);
+                latch.countDown();
+            }
+            catch (final Exception ignored)
+            {
+            }
+        });
+        waiter.start();
+
+        ringBuffer.getShard(1).publishEvent(StubEvent.TRANSLATOR, 0, "a");
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        waiter.join();
+    }
+
+    @Test
+    public void shouldAlternateBetweenShardsWhenBatchLimited() throws Exception
+    {
+        final List<String> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(6);
+        final MultiBufferBatchEventProcessor<StubEvent> processor = ringBuffer.newEventProcessor(
+            new BatchEventProcessorBuilder().setMaxBatchSize(1),
+            (event, sequence, endOfBatch) ->
+            {
+                received.add(event.getTestString());
+                latch.countDown();
+            });
+
+        for (int i = 0; i < 3; i++)
+        {
+            ringBuffer.getShard(0).publishEvent(StubEvent.TRANSLATOR, i, "a" + i);
+            ringBuffer.getShard(1).publishEvent(StubEvent.TRANSLATOR, i, "b" + i);
+        }
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList("a0", "b0", "b1", "a1", "a2", "b2"), received);
+        assertThat(processor.getSequence().get(), is(5L));
+    }
+
+    @Test
+    public void shouldConsumeEveryEventInOrderPerShardFromConcurrentProducers() throws Exception
+    {
+        final int eventsPerShard = 1000;
+        final int shardCount = ringBuffer.getShardCount();
+        final long[] lastValues = new long[shardCount];
+        final boolean[] inOrder = {true};
+        final CountDownLatch latch = new CountDownLatch(eventsPerShard * shardCount);
+
+        final MultiBufferBatchEventProcessor<StubEvent> processor = ringBuffer.newEventProcessor(
+            (event, sequence, endOfBatch) ->
+            {
+                final int shard = event.getTestString().charAt(0) - '0';
+                inOrder[0] &= event.getValue() == lastValues[shard] + (sequence == 0 ? 0 : 1);
+                lastValues[shard] = event.getValue();
+                latch.countDown();
+            });
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        final CyclicBarrier start = new CyclicBarrier(shardCount);
+        final Thread[] producers = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++)
+        {
+            final RingBuffer<StubEvent> shard = ringBuffer.getShard(i);
+            final String name = Integer.toString(i);
+            producers[i] = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+
+                for (int value = 0; value < eventsPerShard; value++)
+                {
+                    shard.publishEvent(StubEvent.TRANSLATOR, value, name);
+                }
+            });
+            producers[i].start();
+        }
+
+        for (Thread producer : producers)
+        {
+            producer.join();
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertTrue(inOrder[0]);
+        assertEquals(eventsPerShard * shardCount - 1L, processor.getSequence().get());
+    }
+
+    @Test
+    public void shouldHandleExceptionAndMoveOn() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<Long> failed = new ArrayList<>();
+        final MultiBufferBatchEventProcessor<StubEvent> processor = ringBuffer.newEventProcessor(
+            (event, sequence, endOfBatch) ->
+            {
+                latch.countDown();
+                if (event.getValue() == 0)
+                {
+                    throw new IllegalStateException();
+                }
+            });
+        processor.setExceptionHandler(new ExceptionHandler<>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final StubEvent event)
+            {
+                failed.add(sequence);
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+
+        ringBuffer.getShard(1).publishEvent(StubEvent.TRANSLATOR, 0, "fail");
+        ringBuffer.getShard(1).publishEvent(StubEvent.TRANSLATOR, 1, "ok");
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList(0L), failed);
+        assertThat(processor.getSequences()[1].get(), is(1L));
+    }
+
+    @Test
+    public void shouldRejectZeroShards()
+    {
+        assertThrows(IllegalArgumentException.class, () ->
+            ShardedRingBuffer.create(StubEvent.EVENT_FACTORY, 0, 8, new BlockingWaitStrategy()));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VariableLengthRingBufferTest
+{
+    @Test
+    public void shouldPublishRecordsOfDifferentLengths()
+    {
+        final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.createSingleProducer(1024, new BlockingWaitStrategy());
+
+        final long first = ringBuffer.publish(1, bytes("hi"), 0, 2);
+        final long second = ringBuffer.publish(2, ByteBuffer.wrap(new byte[100]));
+        final long third = ringBuffer.publish(3, 8, (buffer, sequence, arg0) -> buffer.putLong(ringBuffer.getPayloadOffset(sequence), arg0), 42L);
+
+        assertEquals(Arrays.asList(0L, 1L, 5L), Arrays.asList(first, second, third));
+        assertEquals(Arrays.asList(1, 2, 3), Arrays.asList(ringBuffer.getType(first), ringBuffer.getType(second), ringBuffer.getType(third)));
+        assertEquals("hi", string(ringBuffer.getBuffer(), ringBuffer.getPayloadOffset(first), ringBuffer.getLength(first)));
+        assertEquals(100, ringBuffer.getLength(second));
+        assertEquals(42L, ringBuffer.getBuffer().getLong(ringBuffer.getPayloadOffset(third)));
+        assertEquals(5L, ringBuffer.nextRecord(second));
+        assertEquals(5L, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void shouldPadSingleProducerRecordAtWrapPoint()
+    {
+        final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.createSingleProducer(256, new BlockingWaitStrategy());
+        final Sequence gate = new Sequence();
+        ringBuffer.addGatingSequences(gate);
+        ringBuffer.publish(1, new byte[150], 0, 150);
+        gate.set(ringBuffer.getCursor());
+
+        final long sequence = ringBuffer.publish(2, new byte[100], 0, 100);
+
+        assertEquals(8L, sequence);
+        assertEquals(-1, ringBuffer.getType(5));
+        assertEquals(8L, ringBuffer.nextRecord(5));
+        assertEquals(2, ringBuffer.getType(sequence));
+    }
+
+    @Test
+    public void shouldPadWholeMultiProducerClaimThatWraps()
+    {
+        final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.createMultiProducer(256, new BlockingWaitStrategy());
+        final Sequence gate = new Sequence();
+        ringBuffer.addGatingSequences(gate);
+        ringBuffer.publish(1, new byte[40], 0, 40);
+        ringBuffer.publish(1, new byte[100], 0, 100);
+        gate.set(ringBuffer.getCursor());
+
+        final long sequence = ringBuffer.publish(2, new byte[100], 0, 100);
+
+        assertEquals(10L, sequence);
+        assertEquals(-1, ringBuffer.getType(6));
+        assertEquals(10L, ringBuffer.nextRecord(6));
+        assertEquals(2, ringBuffer.getType(sequence));
+    }
+
+    @Test
+    public void shouldRejectInvalidRecords()
+    {
+        final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.createMultiProducer(256, new BlockingWaitStrategy());
+
+        assertEquals(120, ringBuffer.getMaxPayloadLength());
+        assertThrows(IllegalArgumentException.class, () -> ringBuffer.publish(-1, new byte[1], 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ringBuffer.publish(1, new byte[121], 0, 121));
+        assertThrows(IllegalArgumentException.class, () -> VariableLengthRingBuffer.createSingleProducer(100, new BlockingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldCopyEveryByteOfPayloadWhateverItsLengthAndOrder()
+    {
+        final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.createSingleProducer(1024, new BlockingWaitStrategy());
+        final String value = "the quick brown fox";
+        final ByteBuffer source = ByteBuffer.wrap(bytes("." + value)).order(ByteOrder.BIG_ENDIAN);
+        source.position(1);
+
+        final long fromArray = ringBuffer.publish(1, bytes(value), 0, value.length());
+        final long fromBuffer = ringBuffer.publish(2, source);
+
+        assertEquals(value, string(ringBuffer.getBuffer(), ringBuffer.getPayloadOffset(fromArray), ringBuffer.getLength(fromArray)));
+        assertEquals(value, string(ringBuffer.getBuffer(), ringBuffer.getPayloadOffset(fromBuffer), ringBuffer.getLength(fromBuffer)));
+        assertEquals(1, source.position());
+    }
+
+    @Test
+    public void shouldDeliverRecordsToProcessorAcrossManyWraps() throws Exception
+    {
+        for (final ProducerType producerType : ProducerType.values())
+        {
+            final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.create(producerType, 1024, new BlockingWaitStrategy());
+            final List<String> received = Collections.synchronizedList(new ArrayList<>());
+            final RecordBatchProcessor processor = new RecordBatchProcessor(
+                ringBuffer, ringBuffer.newBarrier(), (type, buffer, offset, length, sequence, endOfBatch) -> received.add(type + ":" + string(buffer, offset, length)));
+            ringBuffer.addGatingSequences(processor.getSequence());
+            final Thread thread = new Thread(processor);
+            thread.start();
+
+            final List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 500; i++)
+            {
+                final String payload = "x".repeat(i % 300);
+                ringBuffer.publish(i % 7, ByteBuffer.wrap(bytes(payload)));
+                expected.add(i % 7 + ":" + payload);
+            }
+
+            while (processor.getSequence().get() < ringBuffer.getCursor())
+            {
+                Thread.yield();
+            }
+            processor.halt();
+            thread.join();
+
+            assertEquals(expected, received);
+        }
+    }
+
+    @Test
+    public void shouldDeliverRecordsFromConcurrentProducers() throws Exception
+    {
+        final int perProducer = 5000;
+        final VariableLengthRingBuffer ringBuffer = VariableLengthRingBuffer.createMultiProducer(4096, new BlockingWaitStrategy());
+        final int[] lastSeen = {-1, -1};
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        final RecordBatchProcessor processor = new RecordBatchProcessor(ringBuffer, ringBuffer.newBarrier(), (type, buffer, offset, length, sequence, endOfBatch) ->
+        {
+            final int value = buffer.getInt(offset);
+            if (value != lastSeen[type] + 1 || length != 4 + value % 200)
+            {
+                errors.add(type + ":" + value);
+            }
+            lastSeen[type] = value;
+        });
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread consumer = new Thread(processor);
+        consumer.start();
+
+        final Thread[] producers = new Thread[2];
+        for (int p = 0; p < producers.length; p++)
+        {
+            final int type = p;
+            producers[p] = new Thread(() ->
+            {
+                for (int i = 0; i < perProducer; i++)
+                {
+                    ringBuffer.publish(type, 4 + i % 200, (buffer, sequence, value) -> buffer.putInt(ringBuffer.getPayloadOffset(sequence), value), i);
+                }
+            });
+            producers[p].start();
+        }
+        for (final Thread producer : producers)
+        {
+            producer.join();
+        }
+
+        while (processor.getSequence().get() < ringBuffer.getCursor())
+        {
+            Thread.yield();
+        }
+        processor.halt();
+        consumer.join();
+
+        assertEquals(Collections.emptyList(), errors);
+        assertEquals(Arrays.asList(perProducer - 1, perProducer - 1), Arrays.asList(lastSeen[0], lastSeen[1]));
+    }
+
+    private static byte[] bytes(final String value)
+    {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String string(final ByteBuffer buffer, final int offset, final int length)
+    {
+        final byte[] value = new byte[length];
+        buffer.duplicate().position(offset).get(value);
+        return new String(value, StandardCharsets.US_ASCII);
+    }
+}
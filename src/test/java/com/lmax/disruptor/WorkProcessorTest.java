@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkProcessorTest
+{
+    private final RingBuffer<StubEvent> ringBuffer =
+        RingBuffer.createMultiProducer(StubEvent.EVENT_FACTORY, 64, new BlockingWaitStrategy());
+    private final Sequence workSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    @Test
+    public void shouldProcessEachEventOnceAcrossThePool() throws Exception
+    {
+        final int eventCount = 10_000;
+        final AtomicIntegerArray counts = new AtomicIntegerArray(eventCount);
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+        final WorkHandler<StubEvent> handler = (event, sequence) ->
+        {
+            counts.incrementAndGet(event.getValue());
+            latch.countDown();
+        };
+
+        final List<WorkProcessor<StubEvent>> processors = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            final WorkProcessor<StubEvent> processor = newWorkProcessor(handler, 8);
+            ringBuffer.addGatingSequences(processor.getSequence());
+            processors.add(processor);
+            threads.add(new Thread(processor));
+        }
+        threads.forEach(Thread::start);
+
+        for (int i = 0; i < eventCount; i++)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, i, "");
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processors.forEach(WorkProcessor::halt);
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        for (int i = 0; i < eventCount; i++)
+        {
+            assertEquals(1, counts.get(i));
+        }
+        final Sequence[] sequences = processors.stream().map(WorkProcessor::getSequence).toArray(Sequence[]::new);
+        assertEquals(eventCount - 1L, new FixedSequenceGroup(sequences).get());
+    }
+
+    @Test
+    public void shouldHoldSequenceBelowTheClaimUntilItIsProcessed() throws Exception
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch processed = new CountDownLatch(8);
+        final WorkProcessor<StubEvent> processor = newWorkProcessor(
+            (event, sequence) ->
+            {
+                if (sequence == 0)
+                {
+                    started.countDown();
+                    release.await();
+                }
+                processed.countDown();
+            }, 4);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        for (int i = 0; i < 8; i++)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, i, "");
+        }
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        assertEquals(3L, workSequence.get());
+        assertEquals(Sequencer.INITIAL_CURSOR_VALUE, processor.getSequence().get());
+
+        release.countDown();
+        assertTrue(processed.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(7L, processor.getSequence().get());
+    }
+
+    @Test
+    public void shouldNotHoldBackThePoolOnceHalted() throws Exception
+    {
+        final int eventCount = ringBuffer.getBufferSize() * 4;
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+        final WorkProcessor<StubEvent> halted = newWorkProcessor((event, sequence) -> latch.countDown(), 4);
+        final WorkProcessor<StubEvent> running = newWorkProcessor((event, sequence) -> latch.countDown(), 4);
+        ringBuffer.addGatingSequences(halted.getSequence(), running.getSequence());
+        final Thread haltedThread = new Thread(halted);
+        final Thread runningThread = new Thread(running);
+        haltedThread.start();
+        runningThread.start();
+
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 0, "");
+        halted.halt();
+        haltedThread.join();
+        for (int i = 1; i < eventCount; i++)
+        {
+            ringBuffer.publishEvent(StubEvent.TRANSLATOR, i, "");
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        running.halt();
+        runningThread.join();
+
+        assertEquals(eventCount - 1L, halted.getSequence().get());
+        assertEquals(eventCount - 1L, ringBuffer.getMinimumGatingSequence());
+    }
+
+        @Test
+    public void shouldHandleExceptionAndMoveOn() throws Exception
+    {
+        final List<Long> failed = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final WorkProcessor<StubEvent> processor = newWorkProcessor(
+            (event, sequence) ->
+            {
+                if (sequence == 0)
+                {
+                    throw new IllegalStateException();
+                }
+                latch.countDown();
+            }, WorkProcessor.DEFAULT_CLAIM_SIZE);
+        processor.setExceptionHandler(new ExceptionHandler<>()
+        {
+            @Override
+            public void handleEventException(final Throwable ex, final long sequence, final StubEvent event)
+            {
+                failed.add(sequence);
+            }
+
+            @Override
+            public void handleOnStartException(final Throwable ex)
+            {
+            }
+
+            @Override
+            public void handleOnShutdownException(final Throwable ex)
+            {
+            }
+        });
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 0, "fail");
+        ringBuffer.publishEvent(StubEvent.TRANSLATOR, 1, "ok");
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals(Arrays.asList(0L), failed);
+        assertEquals(1L, processor.getSequence().get());
+    }
+
+    @Test
+    public void shouldRejectClaimSizeLessThanOne()
+    {
+        assertThrows(IllegalArgumentException.class, () -> newWorkProcessor((event, sequence) -> { }, 0));
+    }
+
+    private WorkProcessor<StubEvent> newWorkProcessor(final WorkHandler<StubEvent> handler, final int claimSize)
+    {
+        return new WorkProcessor<>(ringBuffer, ringBuffer.newBarrier(), handler, workSequence, claimSize);
+    }
+}
@@ -18,14 +18,21 @@ package com.lmax.disruptor.dsl;
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.BatchEventProcessorBuilder;
 import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.CompletionProcessor;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventHandlerIdentity;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.EventProcessorMetrics;
 import com.lmax.disruptor.ExceptionHandler;
 import com.lmax.disruptor.FatalExceptionHandler;
 import com.lmax.disruptor.RewindableEventHandler;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.RingBufferBuilder;
+import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
 import com.lmax.disruptor.SimpleBatchRewindStrategy;
 import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WorkHandler;
 import com.lmax.disruptor.dsl.stubs.DelayedEventHandler;
 import com.lmax.disruptor.dsl.stubs.EventHandlerStub;
 import com.lmax.disruptor.dsl.stubs.EvilEqualsEventHandler;
@@ -35,17 +42,29 @@ import com.lmax.disruptor.dsl.stubs.StubExceptionHandler;
 import com.lmax.disruptor.dsl.stubs.StubPublisher;
 import com.lmax.disruptor.dsl.stubs.StubThreadFactory;
 import com.lmax.disruptor.support.DummyEventHandler;
+import com.lmax.disruptor.support.StubEvent;
 import com.lmax.disruptor.support.TestEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
@@ -159,6 +178,46 @@ public class DisruptorTest
         }
     }
 
+    @Test
+    public void shouldCreateMetricsForEachEventHandler() throws Exception
+    {
+        final EventHandler<TestEvent> handler = (event, sequence, endOfBatch) -> { };
+        final CountDownLatch batchCounter = new CountDownLatch(1);
+        final Collection<EventHandlerIdentity> identities = new ArrayList<>();
+        disruptor.handleMetricsWith(eventHandler ->
+        {
+            identities.add(eventHandler);
+            return new EventProcessorMetrics()
+            {
+                @Override
+                public void onBatch(final long batchSize, final long queueDepth, final long waitNanos, final long handlerNanos)
+                {
+                    batchCounter.countDown();
+                }
+
+                @Override
+                public void onRewind()
+                {
+                }
+
+                @Override
+                public void onEventException()
+                {
+                }
+            };
+        });
+        disruptor.handleEventsWith(handler);
+
+        disruptor.start();
+        disruptor.publishEvent((event, sequence) ->
+        {
+        });
+
+        assertTrue(batchCounter.await(5, TimeUnit.SECONDS));
+        assertEquals(1, identities.size());
+        assertSame(handler, identities.iterator().next());
+    }
+
     @Test
     public void shouldAddEventProcessorsAfterPublishing()
     {
@@ -614,6 +673,93 @@ public class DisruptorTest
         });
     }
 
+    @Test
+    public void shouldCompleteAsyncShutdownOnceEventsAreProcessed() throws Exception
+    {
+        final DelayedEventHandler delayedEventHandler = createDelayedEventHandler();
+        disruptor.handleEventsWith(delayedEventHandler);
+        publishEvent();
+
+        final CompletableFuture<Void> shutdown = disruptor.shutdownAsync();
+        assertThrows(java.util.concurrent.TimeoutException.class, () -> shutdown.get(10, MILLISECONDS));
+
+        delayedEventHandler.processEvent();
+
+        shutdown.get(TIMEOUT_IN_SECONDS, SECONDS);
+        assertTrue(shutdown.isDone());
+    }
+
+    @Test
+    public void shouldCompleteAsyncShutdownExceptionallyOnTimeout() throws Exception
+    {
+        final DelayedEventHandler delayedEventHandler = createDelayedEventHandler();
+        disruptor.handleEventsWith(delayedEventHandler);
+        publishEvent();
+
+        final ExecutionException thrown = assertThrows(
+            ExecutionException.class, () -> disruptor.shutdownAsync(10, MILLISECONDS).get(TIMEOUT_IN_SECONDS, SECONDS));
+
+        assertTrue(thrown.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    public void shouldCompleteShutdownForProcessorsThatNeverSignal() throws Exception
+    {
+        final Sequence sequence = new Sequence();
+        disruptor.handleEventsWith(new EventProcessor()
+        {
+            @Override
+            public Sequence getSequence()
+            {
+                return sequence;
+            }
+
+            @Override
+            public void halt()
+            {
+            }
+
+            @Override
+            public boolean isRunning()
+            {
+                return true;
+            }
+
+            @Override
+            public void run()
+            {
+            }
+        });
+        publishEvent();
+
+        final CompletableFuture<Void> shutdown = disruptor.shutdownAsync();
+        assertThrows(java.util.concurrent.TimeoutException.class, () -> shutdown.get(10, MILLISECONDS));
+
+        sequence.set(ringBuffer.getCursor());
+
+        shutdown.get(TIMEOUT_IN_SECONDS, SECONDS);
+        assertTrue(shutdown.isDone());
+    }
+
+    @Test
+    public void shouldParkRatherThanSpinWhileShuttingDown() throws Exception
+    {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isCurrentThreadCpuTimeSupported())
+        {
+            return;
+        }
+        final DelayedEventHandler delayedEventHandler = createDelayedEventHandler();
+        disruptor.handleEventsWith(delayedEventHandler);
+        publishEvent();
+
+        final long cpuTimeBefore = threadMXBean.getCurrentThreadCpuTime();
+        assertThrows(TimeoutException.class, () -> disruptor.shutdown(200, MILLISECONDS));
+        final long cpuTime = threadMXBean.getCurrentThreadCpuTime() - cpuTimeBefore;
+
+        assertTrue(cpuTime < MILLISECONDS.toNanos(100), "Shutdown used " + cpuTime + "ns of CPU time waiting 200ms");
+    }
+
     @Test
     @Timeout(value = 1, unit = SECONDS)
     public void shouldTrackRemainingCapacity() throws Exception
@@ -699,6 +845,279 @@ public class DisruptorTest
         ensureTwoEventsProcessedAccordingToDependencies(countDownLatch, delayedEventHandler);
     }
 
+    @Test
+    public void shouldPassEventsOnToSubscriberAfterHandlersItFollows() throws Exception
+    {
+        final AtomicLong lastHandled = new AtomicLong(-1);
+        final AtomicBoolean followedHandler = new AtomicBoolean(true);
+        final CountDownLatch received = new CountDownLatch(3);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        disruptor.handleEventsWith((event, sequence, endOfBatch) -> lastHandled.set(sequence))
+            .subscribe(new Flow.Subscriber<>()
+            {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription)
+                {
+                    subscription.request(3);
+                }
+
+                @Override
+                public void onNext(final TestEvent item)
+                {
+                    final long sequence = 3 - received.getCount();
+                    if (lastHandled.get() < sequence)
+                    {
+                        followedHandler.set(false);
+                    }
+                    received.countDown();
+                }
+
+                @Override
+                public void onError(final Throwable throwable)
+                {
+                }
+
+                @Override
+                public void onComplete()
+                {
+                    completed.countDown();
+                }
+            });
+
+        publishEvent();
+        publishEvent();
+        publishEvent();
+
+        assertTrue(received.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertTrue(followedHandler.get());
+
+        disruptor.halt();
+        assertTrue(completed.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldKeepPassingEventsOnToSubscriberWhenHandlerItFollowsIsRemoved() throws Exception
+    {
+        final EventHandler<TestEvent> handler = (event, sequence, endOfBatch) ->
+        {
+        };
+        final CountDownLatch firstReceived = new CountDownLatch(1);
+        final CountDownLatch allReceived = new CountDownLatch(3);
+
+        disruptor.handleEventsWith(handler)
+            .subscribe(new Flow.Subscriber<>()
+            {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription)
+                {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(final TestEvent item)
+                {
+                    firstReceived.countDown();
+                    allReceived.countDown();
+                }
+
+                @Override
+                public void onError(final Throwable throwable)
+                {
+                }
+
+                @Override
+                public void onComplete()
+                {
+                }
+            });
+
+        publishEvent();
+        assertTrue(firstReceived.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+
+        disruptor.removeEventHandler(handler, TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        publishEvent();
+        publishEvent();
+
+        assertTrue(allReceived.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldAwaitEventsProcessedByTrackedHandlers() throws Exception
+    {
+        final DelayedEventHandler handler1 = createDelayedEventHandler();
+        final DelayedEventHandler handler2 = createDelayedEventHandler();
+        disruptor.handleEventsWith(handler1).then(handler2);
+        final CompletionProcessor completion = disruptor.trackCompletion(handler2);
+
+        publishEvent();
+        final long sequence = ringBuffer.getCursor();
+        assertFalse(completion.awaitProcessed(sequence, 10, TimeUnit.MILLISECONDS));
+
+        handler1.processEvent();
+        handler2.processEvent();
+
+        assertTrue(completion.awaitProcessed(sequence, TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldKeepTrackingCompletionWhenTrackedHandlerIsRemoved() throws Exception
+    {
+        final EventHandler<TestEvent> handler1 = (event, sequence, endOfBatch) ->
+        {
+        };
+        final EventHandler<TestEvent> handler2 = (event, sequence, endOfBatch) ->
+        {
+        };
+        disruptor.handleEventsWith(handler1).then(handler2);
+        final CompletionProcessor completion = disruptor.trackCompletion(handler2);
+
+        publishEvent();
+        assertTrue(completion.awaitProcessed(ringBuffer.getCursor(), TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+
+        disruptor.removeEventHandler(handler2, TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        publishEvent();
+
+        assertTrue(completion.awaitProcessed(ringBuffer.getCursor(), TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldRunHandlersOnThreadsOfTheirOwnThreadFactory() throws Exception
+    {
+        final AtomicReference<Thread> createdThread = new AtomicReference<>();
+        final AtomicReference<Thread> handlerThread = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final EventHandler<TestEvent> handler = (event, sequence, endOfBatch) ->
+        {
+            handlerThread.set(Thread.currentThread());
+            latch.countDown();
+        };
+
+        disruptor.handleEventsWith(handler).then(new EventHandlerStub<>(new CountDownLatch(1)));
+        disruptor.runWith(runnable ->
+        {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            createdThread.set(thread);
+            return thread;
+        }, handler);
+
+        publishEvent();
+
+        assertTrue(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertSame(createdThread.get(), handlerThread.get());
+        assertEquals(1, executor.getExecutionCount());
+    }
+
+    @Test
+    public void shouldRunPinnedHandlersOnThreadsOfTheDisruptorThreadFactory() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final EventHandlerStub<TestEvent> handler = new EventHandlerStub<>(latch);
+        disruptor.handleEventsWith(handler);
+        disruptor.pinTo(new int[]{0}, handler);
+
+        publishEvent();
+
+        assertTrue(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, executor.getExecutionCount());
+        assertThrows(IllegalArgumentException.class, () -> disruptor.pinTo(new int[0], handler));
+    }
+
+    @Test
+    public void shouldProcessEachEventInTheHandlerOfItsPartition() throws Exception
+    {
+        final int eventCount = 1000;
+        final int partitionCount = 3;
+        final AtomicIntegerArray processedBy = new AtomicIntegerArray(eventCount);
+        final AtomicBoolean inOrder = new AtomicBoolean(true);
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+        final RingBuffer<StubEvent> keyedRingBuffer = new RingBufferBuilder<StubEvent>()
+            .setProducerType(ProducerType.SINGLE)
+            .publishKeys(StubEvent::getValue)
+            .build(StubEvent.EVENT_FACTORY, 4);
+        final Disruptor<StubEvent> partitionedDisruptor = new Disruptor<>(keyedRingBuffer, executor);
+
+        partitionedDisruptor.handleEventsWithPartitioned(partitionCount, partition -> new EventHandler<StubEvent>()
+            {
+                private long lastSequence = -1;
+
+                @Override
+                public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+                {
+                    if (sequence <= lastSequence)
+                    {
+                        inOrder.set(false);
+                    }
+                    lastSequence = sequence;
+                    processedBy.set(event.getValue(), partition + 1);
+                }
+            })
+            .then((event, sequence, endOfBatch) -> latch.countDown());
+
+        partitionedDisruptor.start();
+        try
+        {
+            for (int i = 0; i < eventCount; i++)
+            {
+                partitionedDisruptor.publishEvent(StubEvent.TRANSLATOR, i, "");
+            }
+
+            assertTrue(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            partitionedDisruptor.halt();
+        }
+
+        assertTrue(inOrder.get());
+        for (int value = 0; value < eventCount; value++)
+        {
+            assertEquals(value % partitionCount + 1, processedBy.get(value));
+        }
+    }
+
+    @Test
+    public void shouldRejectPartitionedHandlersWhenKeysAreNotPublished()
+    {
+        assertThrows(IllegalStateException.class,
+            () -> disruptor.handleEventsWithPartitioned(2, partition -> new DummyEventHandler<>()));
+    }
+
+    @Test
+    public void shouldShareEventsBetweenWorkerPoolAndGateFollowingHandlers() throws Exception
+    {
+        final int eventCount = 1000;
+        final Set<Long> processedByPool = ConcurrentHashMap.newKeySet();
+        final AtomicInteger poolCount = new AtomicInteger();
+        final AtomicBoolean followedPool = new AtomicBoolean(true);
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+        final WorkHandler<TestEvent> workHandler = (event, sequence) ->
+        {
+            processedByPool.add(sequence);
+            poolCount.incrementAndGet();
+        };
+
+        disruptor.handleEventsWithWorkerPool(4, workHandler, workHandler::onEvent, workHandler::onEvent)
+            .then((event, sequence, endOfBatch) ->
+            {
+                if (!processedByPool.contains(sequence))
+                {
+                    followedPool.set(false);
+                }
+                latch.countDown();
+            });
+
+        for (int i = 0; i < eventCount; i++)
+        {
+            publishEvent();
+        }
+
+        assertTrue(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        assertTrue(followedPool.get());
+        assertEquals(eventCount, poolCount.get());
+    }
+
     private void ensureTwoEventsProcessedAccordingToDependencies(
         final CountDownLatch countDownLatch,
         final DelayedEventHandler... dependencies)
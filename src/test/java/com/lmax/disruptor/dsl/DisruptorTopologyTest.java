@@ -0,0 +1,263 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventHandlerIdentity;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DisruptorTopologyTest
+{
+    private static final int BUFFER_SIZE = 8;
+    private static final EventTranslatorOneArg<StageEvent, Long> TRANSLATOR = (event, sequence, value) ->
+    {
+        event.value = value;
+        event.stage = 0;
+    };
+
+    private final Disruptor<StageEvent> disruptor = new Disruptor<>(
+        StageEvent::new, BUFFER_SIZE, DaemonThreadFactory.INSTANCE, ProducerType.SINGLE, new BlockingWaitStrategy());
+
+    @AfterEach
+    public void tearDown()
+    {
+        disruptor.halt();
+    }
+
+    @Test
+    public void shouldAddEventHandlerAfterRunningHandler() throws Exception
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        disruptor.handleEventsWith(a);
+        final RingBuffer<StageEvent> ringBuffer = disruptor.start();
+
+        publish(0, 3);
+        a.awaitValue(2);
+
+        final RecordingHandler b = new RecordingHandler(2);
+        disruptor.addEventHandler(b, a);
+
+        publish(3, 4 * BUFFER_SIZE);
+        b.awaitValue(4 * BUFFER_SIZE - 1);
+
+        assertEquals(4 * BUFFER_SIZE, a.values.size());
+        assertEquals(4 * BUFFER_SIZE - 3, b.values.size());
+        assertEquals(3L, (long) b.values.get(0));
+        assertTrue(b.inOrder);
+        assertEquals(BUFFER_SIZE, ringBuffer.remainingCapacity());
+    }
+
+    @Test
+    public void shouldAddEventHandlerBeforeStart() throws Exception
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        disruptor.addEventHandler(a);
+        disruptor.start();
+
+        publish(0, 2 * BUFFER_SIZE);
+
+        a.awaitValue(2 * BUFFER_SIZE - 1);
+    }
+
+    @Test
+    public void shouldInsertEventHandlerIntoRunningChain() throws Exception
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        final RecordingHandler c = new RecordingHandler(2);
+        disruptor.handleEventsWith(a);
+        disruptor.addEventHandler(c, a);
+        disruptor.start();
+
+        publish(0, 3);
+        c.awaitValue(2);
+
+        final RecordingHandler b = new RecordingHandler(2);
+        disruptor.insertEventHandler(b, new EventHandlerIdentity[]{a}, new EventHandlerIdentity[]{c});
+        c.stage = 3;
+
+        publish(3, 4 * BUFFER_SIZE);
+        c.awaitValue(4 * BUFFER_SIZE - 1);
+
+        assertTrue(c.inOrder);
+        assertEquals(4 * BUFFER_SIZE - 3, b.values.size());
+    }
+
+    @Test
+    public void shouldRemoveEventHandlerFromMiddleOfRunningChain() throws Exception
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        final RecordingHandler b = new RecordingHandler(2);
+        final RecordingHandler c = new RecordingHandler(2);
+        disruptor.handleEventsWith(a);
+        disruptor.addEventHandler(b, a);
+        disruptor.addEventHandler(c, b);
+        disruptor.start();
+
+        publish(0, 3);
+        c.awaitValue(2);
+
+        disruptor.removeEventHandler(b, 1, TimeUnit.SECONDS);
+
+        publish(3, 4 * BUFFER_SIZE);
+        c.awaitValue(4 * BUFFER_SIZE - 1);
+
+        assertEquals(3, b.values.size());
+        assertEquals(4 * BUFFER_SIZE, c.values.size());
+        assertTrue(c.inOrder);
+        assertThrows(IllegalArgumentException.class, () -> disruptor.getSequenceValueFor(b));
+    }
+
+    @Test
+    public void shouldRemoveFirstEventHandlerOfRunningChain() throws Exception
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        final RecordingHandler b = new RecordingHandler(0);
+        disruptor.addEventHandler(a);
+        disruptor.addEventHandler(b, a);
+        disruptor.start();
+
+        disruptor.removeEventHandler(a, 1, TimeUnit.SECONDS);
+
+        publish(0, 4 * BUFFER_SIZE);
+        b.awaitValue(4 * BUFFER_SIZE - 1);
+
+        assertEquals(4 * BUFFER_SIZE, b.values.size());
+    }
+
+    @Test
+    public void shouldKeepGatingOnEventHandlerLeftAtEndOfChain() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingHandler a = new RecordingHandler(1)
+        {
+            @Override
+            public void onEvent(final StageEvent event, final long sequence, final boolean endOfBatch) throws Exception
+            {
+                release.await();
+                super.onEvent(event, sequence, endOfBatch);
+            }
+        };
+        final RecordingHandler b = new RecordingHandler(2);
+        disruptor.handleEventsWith(a).then(b);
+        final RingBuffer<StageEvent> ringBuffer = disruptor.start();
+
+        disruptor.removeEventHandler(b, 1, TimeUnit.SECONDS);
+
+        for (int i = 0; i < BUFFER_SIZE; i++)
+        {
+            assertTrue(ringBuffer.tryPublishEvent(TRANSLATOR, (long) i));
+        }
+        assertFalse(ringBuffer.tryPublishEvent(TRANSLATOR, (long) BUFFER_SIZE));
+
+        release.countDown();
+        a.awaitValue(BUFFER_SIZE - 1);
+        assertTrue(a.inOrder);
+    }
+
+    @Test
+    public void shouldNotInsertBeforeEventHandlerThatFollowsPublishers()
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        disruptor.handleEventsWith(a);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            disruptor.insertEventHandler(new RecordingHandler(0), new EventHandlerIdentity[0], new EventHandlerIdentity[]{a}));
+    }
+
+    @Test
+    public void shouldNotRemoveEventHandlerFollowedOnFixedBarrier() throws Exception
+    {
+        final RecordingHandler a = new RecordingHandler(1);
+        final RecordingHandler b = new RecordingHandler(2);
+        disruptor.handleEventsWith(a).then(b);
+        disruptor.start();
+
+        assertThrows(IllegalArgumentException.class, () -> disruptor.removeEventHandler(a, 1, TimeUnit.SECONDS));
+
+        publish(0, 3);
+        b.awaitValue(2);
+
+        assertTrue(b.inOrder);
+    }
+
+    private void publish(final int from, final int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            disruptor.getRingBuffer().publishEvent(TRANSLATOR, (long) i);
+        }
+    }
+
+    private static final class StageEvent
+    {
+        private long value;
+        private int stage;
+    }
+
+    /**
+     * Records the values it sees and checks that the event handlers before it have seen them, by
+     * checking the stage of the event before moving it on.
+     */
+    private static class RecordingHandler implements EventHandler<StageEvent>
+    {
+        private volatile int stage;
+        private final List<Long> values = new CopyOnWriteArrayList<>();
+        private volatile boolean inOrder = true;
+        private volatile long lastValue = -1;
+
+        RecordingHandler(final int stage)
+        {
+            this.stage = stage;
+        }
+
+        @Override
+        public void onEvent(final StageEvent event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            if (event.stage < stage - 1 || (!values.isEmpty() && event.value != lastValue + 1))
+            {
+                inOrder = false;
+            }
+            event.stage = Math.max(event.stage, stage);
+            values.add(event.value);
+            lastValue = event.value;
+        }
+
+        void awaitValue(final long value) throws InterruptedException
+        {
+            final long timeOutAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (lastValue < value)
+            {
+                assertTrue(System.nanoTime() < timeOutAt, "Timed out waiting for " + value);
+                Thread.sleep(1);
+            }
+        }
+    }
+}
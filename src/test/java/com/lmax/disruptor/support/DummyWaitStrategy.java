@@ -1,14 +1,17 @@
 package com.lmax.disruptor.support;
 
 import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Cursored;
+import com.lmax.disruptor.ProducerWaitStrategy;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
 import com.lmax.disruptor.TimeoutException;
 import com.lmax.disruptor.WaitStrategy;
 
-public class DummyWaitStrategy implements WaitStrategy
+public class DummyWaitStrategy implements WaitStrategy, ProducerWaitStrategy
 {
     public int signalAllWhenBlockingCalls = 0;
+    public int signalProducersCalls = 0;
 
     @Override
     public long waitFor(
@@ -23,4 +26,16 @@ public class DummyWaitStrategy implements WaitStrategy
     {
         signalAllWhenBlockingCalls++;
     }
+
+    @Override
+    public long waitForCapacity(final long wrapPoint, final Cursored gatingSequence)
+    {
+        return gatingSequence.getCursor();
+    }
+
+    @Override
+    public void signalProducers()
+    {
+        signalProducersCalls++;
+    }
 }
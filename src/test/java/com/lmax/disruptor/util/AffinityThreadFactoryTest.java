@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AffinityThreadFactoryTest
+{
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void shouldPinEachThreadBeforeRunningItTakingTheCpusInTurn() throws Exception
+    {
+        final AffinityThreadFactory threadFactory = new AffinityThreadFactory(DaemonThreadFactory.INSTANCE, cpu ->
+        {
+            calls.add("pin " + cpu);
+            return true;
+        }, 2, 5);
+
+        for (int i = 0; i < 3; i++)
+        {
+            final int thread = i;
+            final Thread t = threadFactory.newThread(() -> calls.add("run " + thread));
+            assertTrue(t.isDaemon());
+            t.start();
+            t.join();
+        }
+
+        assertEquals(Arrays.asList("pin 2", "run 0", "pin 5", "run 1", "pin 2", "run 2"), calls);
+    }
+
+    @Test
+    public void shouldRunThreadUnpinnedWhenPinningIsNotAvailable() throws Exception
+    {
+        final Thread thread = new AffinityThreadFactory(DaemonThreadFactory.INSTANCE, cpu -> false, 0)
+            .newThread(() -> calls.add("run"));
+        thread.start();
+        thread.join();
+
+        assertEquals(Collections.singletonList("run"), calls);
+    }
+
+    @Test
+    public void shouldRequireACpu()
+    {
+        assertThrows(IllegalArgumentException.class, AffinityThreadFactory::new);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CpuAffinityTest
+{
+    @Test
+    public void shouldParseLinuxCpuLists()
+    {
+        assertArrayEquals(new int[]{0, 1, 2, 3, 8, 10, 11}, CpuAffinity.parseCpuList("0-3,8,10-11\n"));
+        assertArrayEquals(new int[]{5}, CpuAffinity.parseCpuList("5"));
+        assertArrayEquals(new int[0], CpuAffinity.parseCpuList("\n"));
+    }
+
+    @Test
+    public void shouldRejectMalformedCpuList()
+    {
+        assertThrows(NumberFormatException.class, () -> CpuAffinity.parseCpuList("0-a"));
+    }
+
+    @Test
+    public void shouldTakeOneCpuOfEachCoreFromTheOnlineCpus()
+    {
+        final int[] cpus = CpuAffinity.onePerCore();
+
+        assertArrayEquals(Arrays.stream(cpus).distinct().sorted().toArray(), cpus);
+    }
+
+    @Test
+    public void shouldReportFailureFromTheBackendWhenUnsupported()
+    {
+        if (!CpuAffinity.isSupported())
+        {
+            assertFalse(CpuAffinity.backend().setAffinity(0));
+        }
+    }
+}
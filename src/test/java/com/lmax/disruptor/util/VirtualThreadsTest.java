@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadsTest
+{
+    private static final int FIRST_VERSION_WITH_VIRTUAL_THREADS = 21;
+
+    @Test
+    public void shouldBeSupportedFromJava21()
+    {
+        assertEquals(Runtime.version().feature() >= FIRST_VERSION_WITH_VIRTUAL_THREADS, VirtualThreads.isSupported());
+    }
+
+    @Test
+    public void shouldCreateThreadsWhenSupported() throws Exception
+    {
+        if (VirtualThreads.isSupported())
+        {
+            final CountDownLatch ran = new CountDownLatch(1);
+            final Thread thread = VirtualThreads.threadFactory().newThread(ran::countDown);
+            thread.start();
+
+            assertTrue(ran.await(2, TimeUnit.SECONDS));
+        }
+        else
+        {
+            assertThrows(UnsupportedOperationException.class, VirtualThreads::threadFactory);
+        }
+    }
+}